@@ -17,6 +17,46 @@ public class Main {
     // System hardware detection and thread allocation
     private static int systemCores;
     private static int optimalThreadCount;
+    private static int connectionPoolSize;
+    private static int generatorThreads = 0; // 0 = one student generator thread per CPU core
+    private static int phaseThreads = 0; // 0 = one (school, year) worker per spare pool connection
+    private static boolean pipelinedPhases = false; // --pipeline: derive records from each class shard while students load
+    
+    // Headless runs: any value set here (by a flag or a --config properties file) replaces its interactive prompt
+    private static final String PHASE_ACADEMIC = "academic";
+    private static final String PHASE_ATTENDANCE = "attendance";
+    private static final String PHASE_HOMEWORK = "homework";
+    private static final String PHASE_PROJECTS = "projects";
+    private static final java.util.List<String> ALL_PHASES = java.util.List.of(PHASE_ACADEMIC, PHASE_ATTENDANCE, PHASE_HOMEWORK, PHASE_PROJECTS);
+    private static boolean headless = false; // --headless: never read standard input
+    private static int configuredClasses = 0; // 0 = prompt
+    private static int configuredSections = 0; // 0 = prompt
+    private static int configuredStudentsPerSection = 0; // 0 = prompt
+    private static int configuredSchools = 0; // 0 = prompt
+    private static java.util.Set<String> configuredPhases = null; // null = ask before each phase (all phases when headless)
+    private static String configuredClassRange = null; // null = classes 1 to the number of classes
+    private static int academicTerms = 3;
+    private static int sessionYear = 2025;
+    private static int configuredPoolSize = 0; // 0 = derive from the thread count
+    
+    // Checkpointing: --checkpoint=FILE logs every committed student section and derived table, and a rerun with
+    // the same file skips them and replays only the missing or failed ones
+    private static String checkpointPath = null;
+    private static CheckpointLog checkpoint = null;
+    private static boolean seedConfigured = false; // --seed given; otherwise a resumed run takes the logged seed
+    private static final java.util.concurrent.atomic.AtomicLong droppedStudents = new java.util.concurrent.atomic.AtomicLong();
+    
+    // Dead-letter spool: rows whose batch still fails after its retries are saved as COPY text files under
+    // --spool-dir instead of being dropped, and --replay-spool loads them once the database is healthy again
+    private static final String SPOOL_FILE_SUFFIX = ".copy";
+    private static final int DEAD_LETTER_FLUSH_BYTES = 8 * 1024 * 1024; // Failed rows collected per spool file
+    private static final int MAX_REPORTED_TABLES = 40; // Beyond this the end-of-run row report groups tables by family
+    private static String spoolDirectory = "dead-letter";
+    private static String replaySpoolDirectory = null; // Set by --replay-spool: load the spool and exit
+    private static String loadSnapshotDirectory = null; // Set by --load-snapshot: load a snapshot and exit
+    private static final DeadLetterSpool deadLetters = new DeadLetterSpool();
+    private static final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.LongAdder> committedRows =
+        new java.util.concurrent.ConcurrentHashMap<>(); // Rows per table whose transaction committed in this run
     
     // Thread pool for database operations - dynamically allocated based on system specs
     private static ExecutorService executorService;
@@ -26,37 +66,171 @@ public class Main {
     
     // Batch processing configuration
     private static final int BATCH_SIZE = 1000; // Process students in batches of 1000
-    private static final java.util.concurrent.BlockingQueue<StudentData> studentBatchQueue = new LinkedBlockingQueue<>();
-    private static volatile boolean batchProcessingActive = false;
+    private static final int ACADEMIC_BATCH_SIZE = 500; // Academic rows per executeBatch/commit (wide rows, many columns)
+    private static final int MAX_DEFAULT_QUEUE_CAPACITY = 50000; // Upper bound for the derived queue capacity
+    private static int studentQueueCapacity = 0; // 0 = derive from writer batch size and writer count
+    private static java.util.concurrent.BlockingQueue<StudentData> studentBatchQueue = new ArrayBlockingQueue<>(BATCH_SIZE);
+    private static final PipelineMetrics pipelineMetrics = new PipelineMetrics();
+    private static final RunMetrics runMetrics = new RunMetrics();
+    private static int metricsPort = 0; // --metrics-port: serve Prometheus text on localhost; 0 = no HTTP endpoint
+    private static com.sun.net.httpserver.HttpServer metricsServer;
+    private static final IdentifierRegistry identifiers = new IdentifierRegistry();
     
-    // Memory-efficient LRU cache for tracking used values
-    private static final int MAX_CACHE_SIZE = 100000; // Limit cache size to prevent memory exhaustion
+    // Schema layout: "tables" creates one plain table per school (and year or session), "partitioned" writes every
+    // school's rows to one parent per record family, partitioned by year and school (see PartitionedSchema)
+    private static final String SCHEMA_TABLES = "tables";
+    private static final String SCHEMA_PARTITIONED = "partitioned";
+    private static final String SCHOOL_PARTITIONING_LIST = "list";
+    private static final String SCHOOL_PARTITIONING_HASH = "hash";
+    private static String schemaMode = SCHEMA_TABLES;
+    private static String schoolPartitioning = SCHOOL_PARTITIONING_HASH;
+    private static int schoolHashPartitions = 16;
+    private static final PartitionedSchema partitionedSchema = new PartitionedSchema();
+    private static final StatementTemplates statementTemplates = new StatementTemplates();
+    private static final AtomicInteger liveStudentWriters = new AtomicInteger(0);
+    private static final StudentData POISON_PILL = new StudentData(); // Tells a writer to flush and exit
+    private static final int RESERVED_POOL_CONNECTIONS = 2; // Connections kept free for work running beside the writers
+    private static int studentWriterThreads = 0; // 0 = derive from the connection pool size
+    private static int activeStudentWriters;
+    private static ExecutorService writerExecutorService;
     
-    // Simple LRU Cache implementation
-    static class LRUCache<T> {
-        private final int maxSize;
-        private final java.util.LinkedHashMap<T, Boolean> cache;
-        
-        public LRUCache(int maxSize) {
-            this.maxSize = maxSize;
-            this.cache = new java.util.LinkedHashMap<T, Boolean>(16, 0.75f, true) {
-                @Override
-                protected boolean removeEldestEntry(java.util.Map.Entry<T, Boolean> eldest) {
-                    return size() > LRUCache.this.maxSize;
-                }
-            };
+    // Student writer configuration: "batch" binds rows on a PreparedStatement, "copy" streams them through COPY FROM STDIN
+    private static final String WRITER_MODE_BATCH = "batch";
+    private static final String WRITER_MODE_COPY = "copy";
+    private static final int COPY_BATCH_SIZE = 10000; // COPY has no per-row bind cost, so stream larger chunks per round trip
+    private static String studentWriterMode = WRITER_MODE_BATCH;
+    private static String attendanceWriterMode = WRITER_MODE_BATCH; // Same modes, for the attendance tables
+    private static final int ATTENDANCE_COPY_FLUSH_BYTES = 8 * 1024 * 1024; // Buffered COPY text sent per round trip
+    
+    // Record sinks: "jdbc" writes every record family to PostgreSQL, "file" writes each table's rows to
+    // <sink-dir>/<table>.<format> and "null" only counts them, which measures the generator ceiling. The file and
+    // null sinks never open a connection, so they derive records from the in-memory shards (--pipeline).
+    private static final String SINK_JDBC = "jdbc";
+    private static final String SINK_FILE = "file";
+    private static final String SINK_NULL = "null";
+    private static String recordSinkMode = SINK_JDBC;
+    private static String sinkDirectory = "generated-data";
+    private static final java.util.concurrent.ConcurrentHashMap<String, TableFile> tableFiles = new java.util.concurrent.ConcurrentHashMap<>();
+    
+    // File sink formats: "copy" is COPY text behind a "table<TAB>columns" header line (the dead-letter spool
+    // layout), "tsv" and "csv" are plain delimited files with a column-name header row and empty NULLs, and
+    // "snapshot" is the binary format of RowEncoder that --load-snapshot restores
+    private static final String EXPORT_FORMAT_COPY = "copy";
+    private static final String EXPORT_FORMAT_TSV = "tsv";
+    private static final String EXPORT_FORMAT_CSV = "csv";
+    private static final String EXPORT_FORMAT_SNAPSHOT = "snapshot";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snap";
+    private static final String SNAPSHOT_SCHEMA_FILE = "schema.sql";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_LOAD_TASK_BYTES = 32 * 1024 * 1024; // Consecutive blocks streamed by one COPY
+    private static java.io.Writer snapshotSchema; // DDL captured by a snapshot export
+    private static String exportFormat = EXPORT_FORMAT_COPY;
+    private static final int EXPORT_FLUSH_BYTES = 2 * 1024 * 1024; // Encoded bytes a producer collects before handing them off
+    private static final int EXPORT_BUFFER_BYTES = 4 * 1024 * 1024; // Direct buffer passed to FileChannel.write
+    private static final int EXPORT_BUFFERS_PER_WRITER = 4; // Buffers in flight per export writer thread (bounds memory)
+    private static int exportWriterThreads = 0; // 0 = derive from the available processors
+    private static ExecutorService exportWriters;
+    private static final java.util.concurrent.LinkedBlockingQueue<java.nio.ByteBuffer> exportBuffers = new java.util.concurrent.LinkedBlockingQueue<>();
+    private static final AtomicInteger allocatedExportBuffers = new AtomicInteger();
+    
+    // Compressed exports (--compress=gzip): every export buffer becomes an independent gzip member, deflated on the
+    // compressor pool and written in order, so a single file is compressed on many cores (as pigz does).
+    // Concatenated members are one valid .gz stream for gzip, zcat and GZIPInputStream.
+    private static final String COMPRESS_NONE = "none";
+    private static final String COMPRESS_GZIP = "gzip";
+    private static String exportCompression = COMPRESS_NONE;
+    private static int compressionLevel = java.util.zip.Deflater.DEFAULT_COMPRESSION;
+    private static int compressorThreads = 0; // 0 = all available processors
+    private static ExecutorService exportCompressors;
+    private static final ThreadLocal<java.util.zip.Deflater> deflaters = ThreadLocal.withInitial(() -> new java.util.zip.Deflater(compressionLevel, true));
+    private static final java.util.concurrent.atomic.AtomicLong exportRawBytes = new java.util.concurrent.atomic.AtomicLong();
+    private static final java.util.concurrent.atomic.AtomicLong exportCompressedBytes = new java.util.concurrent.atomic.AtomicLong();
+    private static final ThreadLocal<RowEncoder> exportEncoders = ThreadLocal.withInitial(() -> new RowEncoder(exportFormat, 1 << 16));
+    
+    // Column lists shared by the writers and the dead-letter spool files
+    private static final String STUDENT_COPY_COLUMNS = "student_uuid, full_name, guardian_name, gender, blood_group, " +
+        "birth_date, aadhar_card, class_name, section, roll_no, religion, " +
+        "parent_occupation, concession_needed, concession_type, medical_condition, " +
+        "student_phone, guardian_phone, image_url, stream";
+    private static final String ATTENDANCE_COLUMNS = "student_uuid, attendance_date, status, arrival_time, departure_time, remarks";
+    private static final String HOMEWORK_COLUMNS = "student_uuid, subject, assigned_date, due_date, submitted_date, quality_score, status";
+    private static final String PROJECT_COLUMNS = "student_uuid, title, subject, assigned_date, due_date, submitted_date, grade, status, remarks";
+    // Attendance tables this run has confirmed carry their keys (see ensureAttendanceIndexes)
+    private static final java.util.Set<String> keyedAttendanceTables = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    private static long studentWriteStartNanos;
+    
+    // Random number generation: every school pass, student and (student, year) unit gets its own generator whose
+    // seed is derived from the run seed and the unit's coordinates, so a given --seed reproduces the same dataset
+    // no matter how many threads generate it or in which order the units run
+    private static final String DEFAULT_RANDOM_ALGORITHM = "SplittableRandom";
+    private static String randomAlgorithm = DEFAULT_RANDOM_ALGORITHM;
+    private static java.util.random.RandomGeneratorFactory<java.util.random.RandomGenerator> randomFactory;
+    private static long randomSeed = new java.util.SplittableRandom().nextLong(); // Replaced by --seed
+    private static boolean runRandomBenchmark = false;
+    
+    // Stream identifiers keep the generators of different phases independent for the same coordinates
+    private static final long STREAM_SCHOOLS = 1;
+    private static final long STREAM_STUDENTS = 2;
+    private static final long STREAM_ACADEMIC = 3;
+    private static final long STREAM_BOARD_EXAM = 4;
+    private static final long STREAM_ATTENDANCE = 5;
+    private static final long STREAM_HOMEWORK = 6;
+    private static final long STREAM_PROJECTS = 7;
+    private static final long STREAM_BENCHMARK = 8;
+    private static final long STREAM_AADHAR = 9;
+    private static final long STREAM_PHONE = 10;
+    private static final long STREAM_NAMES = 11;
+    
+    // Number spaces for the unique identifiers: 12-digit Aadhar numbers, and 10-digit mobile numbers starting 6-9
+    private static final long AADHAR_NUMBER_SPACE = 1_000_000_000_000L;
+    private static final long PHONE_NUMBER_SPACE = 4_000_000_000L;
+    
+    // Keyed bijection on [0, domainSize): a balanced Feistel network over the smallest even bit width covering the
+    // domain, with cycle-walking to stay inside it. Distinct inputs always give distinct outputs, so unique numbers
+    // can be assigned from a student's ordinal without remembering which numbers were already handed out.
+    static class NumberPermutation {
+        private static final int ROUNDS = 6;
+        private final long domainSize;
+        private final int halfBits;
+        private final long halfMask;
+        private final long[] roundKeys = new long[ROUNDS];
+        
+        NumberPermutation(long domainSize, long key) {
+            this.domainSize = domainSize;
+            int bits = 64 - Long.numberOfLeadingZeros(domainSize - 1);
+            this.halfBits = Math.max(1, (bits + 1) / 2);
+            this.halfMask = (1L << halfBits) - 1;
+            for (int round = 0; round < ROUNDS; round++) {
+                key = mixSeed(key + 0x9E3779B97F4A7C15L);
+                roundKeys[round] = key;
+            }
         }
         
-        public synchronized boolean contains(T key) {
-            return cache.containsKey(key);
+        long domainSize() {
+            return domainSize;
         }
         
-        public synchronized void add(T key) {
-            cache.put(key, Boolean.TRUE);
+        // Map an index in [0, domainSize) to its unique image in the same range
+        long permute(long index) {
+            if (index < 0 || index >= domainSize) {
+                throw new IllegalArgumentException("Index " + index + " outside permutation domain of " + domainSize);
+            }
+            long value = index;
+            do {
+                value = encrypt(value);
+            } while (value >= domainSize); // At most a few steps: the Feistel domain is under 4x the real one
+            return value;
         }
         
-        public synchronized int size() {
-            return cache.size();
+        private long encrypt(long value) {
+            long left = value >>> halfBits;
+            long right = value & halfMask;
+            for (long roundKey : roundKeys) {
+                long next = left ^ (mixSeed(right ^ roundKey) & halfMask);
+                left = right;
+                right = next;
+            }
+            return (left << halfBits) | right;
         }
     }
     
@@ -136,7 +310,8 @@ public class Main {
             
             // Dynamic connection pool settings based on system capabilities
             // Generally, connection pool size should be slightly larger than thread count
-            int maxPoolSize = Math.max(optimalThreadCount + 5, 10); // At least 10, or threads + 5
+            int maxPoolSize = getPoolSize();
+            connectionPoolSize = maxPoolSize;
             int minIdle = Math.max(optimalThreadCount / 4, 2);       // 25% of threads, minimum 2
             
             config.setMaximumPoolSize(maxPoolSize);
@@ -145,6 +320,8 @@ public class Main {
             config.setIdleTimeout(300000);          // 5 minutes
             config.setMaxLifetime(1800000);         // 30 minutes
             config.setLeakDetectionThreshold(60000); // 1 minute
+            config.setPoolName("schoolgen");
+            config.setRegisterMbeans(true); // Pool MBeans beside schoolgen:type=RunMetrics
             
             System.out.println("Connection pool configured dynamically:");
             System.out.println("  Maximum connections: " + maxPoolSize);
@@ -159,6 +336,7 @@ public class Main {
             config.addDataSourceProperty("prepareThreshold", "1"); // Enable prepared statement caching
             config.addDataSourceProperty("preparedStatementCacheQueries", "256");
             config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+            config.addDataSourceProperty("reWriteBatchedInserts", "true"); // Send JDBC batches as multi-row INSERTs
             
             dataSource = new HikariDataSource(config);
             System.out.println("Connection pool initialized successfully with " + config.getMaximumPoolSize() + " max connections");
@@ -169,16 +347,30 @@ public class Main {
         }
     }
     
+    // Method to get the connection pool size, which also sizes the writer and derived-phase thread counts
+    private static int getPoolSize() {
+        return configuredPoolSize > 0
+                ? configuredPoolSize
+                : Math.max(optimalThreadCount + 5, 10); // At least 10, or threads + 5
+    }
+    
     // Method to establish database connection from pool
     private static Connection getConnection() throws SQLException {
+        if (capturesSchema()) {
+            return schemaCaptureConnection();
+        }
         if (dataSource == null) {
             initializeConnectionPool();
         }
         return dataSource.getConnection();
     }
     
-    // Method to close connection pool and executor service (call at end of program)
+    // Method to close connection pool, executor service and metrics endpoint (call at end of program)
     private static void closeConnectionPool() {
+        if (metricsServer != null) {
+            metricsServer.stop(0);
+            metricsServer = null;
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("Connection pool closed successfully");
@@ -202,841 +394,4171 @@ public class Main {
         }
     }
     
-    // Method to start batch processor
-    private static void startBatchProcessor() {
-        batchProcessingActive = true;
-        executorService.submit(() -> {
-            java.util.List<StudentData> batch = new java.util.ArrayList<>();
-            int consecutiveErrors = 0;
-            int maxConsecutiveErrors = 10;
-            
-            while (batchProcessingActive || !studentBatchQueue.isEmpty()) {
+    // Method to parse command-line options (e.g. --writer=copy)
+    private static void parseCommandLineOptions(String[] args) {
+        for (String arg : withConfigFileOptions(args)) {
+            if (arg.startsWith("--writer=")) {
+                String mode = arg.substring("--writer=".length()).trim().toLowerCase();
+                if (mode.equals(WRITER_MODE_BATCH) || mode.equals(WRITER_MODE_COPY)) {
+                    studentWriterMode = mode;
+                } else {
+                    System.err.println("Unknown writer mode '" + mode + "' (expected batch or copy), using " + studentWriterMode);
+                }
+            } else if (arg.startsWith("--attendance-writer=")) {
+                String mode = arg.substring("--attendance-writer=".length()).trim().toLowerCase();
+                if (mode.equals(WRITER_MODE_BATCH) || mode.equals(WRITER_MODE_COPY)) {
+                    attendanceWriterMode = mode;
+                } else {
+                    System.err.println("Unknown attendance writer mode '" + mode + "' (expected batch or copy), using " + attendanceWriterMode);
+                }
+            } else if (arg.startsWith("--sink=")) {
+                String mode = arg.substring("--sink=".length()).trim().toLowerCase();
+                if (mode.equals(SINK_JDBC) || mode.equals(SINK_FILE) || mode.equals(SINK_NULL)) {
+                    recordSinkMode = mode;
+                } else {
+                    System.err.println("Unknown sink '" + mode + "' (expected jdbc, file or null), using " + recordSinkMode);
+                }
+            } else if (arg.startsWith("--sink-dir=")) {
+                sinkDirectory = arg.substring("--sink-dir=".length()).trim();
+            } else if (arg.startsWith("--export-format=")) {
+                String format = arg.substring("--export-format=".length()).trim().toLowerCase();
+                if (format.equals(EXPORT_FORMAT_COPY) || format.equals(EXPORT_FORMAT_TSV) || format.equals(EXPORT_FORMAT_CSV)
+                        || format.equals(EXPORT_FORMAT_SNAPSHOT)) {
+                    exportFormat = format;
+                } else {
+                    System.err.println("Unknown export format '" + format + "' (expected copy, tsv, csv or snapshot), using " + exportFormat);
+                }
+            } else if (arg.startsWith("--load-snapshot=")) {
+                loadSnapshotDirectory = arg.substring("--load-snapshot=".length()).trim();
+            } else if (arg.startsWith("--export-threads=")) {
+                exportWriterThreads = parsePositiveIntOption(arg, "--export-threads=", exportWriterThreads);
+            } else if (arg.startsWith("--compress=")) {
+                String compression = arg.substring("--compress=".length()).trim().toLowerCase();
+                if (compression.equals(COMPRESS_NONE) || compression.equals(COMPRESS_GZIP)) {
+                    exportCompression = compression;
+                } else {
+                    System.err.println("Unknown compression '" + compression + "' (expected none or gzip), using " + exportCompression);
+                }
+            } else if (arg.startsWith("--compress-level=")) {
+                int level = parsePositiveIntOption(arg, "--compress-level=", 6);
+                if (level > 9) {
+                    System.err.println("Compression level must be 1-9, using 9");
+                }
+                compressionLevel = Math.min(level, 9);
+            } else if (arg.startsWith("--compress-threads=")) {
+                compressorThreads = parsePositiveIntOption(arg, "--compress-threads=", compressorThreads);
+            } else if (arg.startsWith("--writer-threads=")) {
+                studentWriterThreads = parsePositiveIntOption(arg, "--writer-threads=", studentWriterThreads);
+            } else if (arg.startsWith("--generator-threads=")) {
+                generatorThreads = parsePositiveIntOption(arg, "--generator-threads=", generatorThreads);
+            } else if (arg.startsWith("--phase-threads=")) {
+                phaseThreads = parsePositiveIntOption(arg, "--phase-threads=", phaseThreads);
+            } else if (arg.startsWith("--queue-capacity=")) {
+                studentQueueCapacity = parsePositiveIntOption(arg, "--queue-capacity=", studentQueueCapacity);
+            } else if (arg.startsWith("--random=")) {
+                String algorithm = arg.substring("--random=".length()).trim();
                 try {
-                    // Try to get a student with timeout
-                    StudentData student = studentBatchQueue.poll(1, TimeUnit.SECONDS);
-                    
-                    if (student != null) {
-                        batch.add(student);
-                        
-                        // Process batch when it reaches the size limit or we have a timeout
-                        if (batch.size() >= BATCH_SIZE) {
-                            try {
-                                processBatch(batch);
-                                batch.clear();
-                                consecutiveErrors = 0; // Reset error counter on success
-                            } catch (Exception e) {
-                                consecutiveErrors++;
-                                System.err.println("Batch processing error (attempt " + consecutiveErrors + "/" + maxConsecutiveErrors + "): " + e.getMessage());
-                                
-                                if (consecutiveErrors >= maxConsecutiveErrors) {
-                                    System.err.println("CRITICAL: Too many consecutive batch processing errors. Stopping batch processor.");
-                                    System.err.println("Current batch size: " + batch.size() + " students");
-                                    System.err.println("Queue size: " + studentBatchQueue.size() + " students");
-                                    batchProcessingActive = false;
-                                    break;
-                                }
-                                
-                                // Wait before retry
-                                Thread.sleep(2000 * consecutiveErrors);
-                            }
-                        }
-                    } else if (!batch.isEmpty()) {
-                        // Process remaining batch after timeout (for final cleanup)
-                        try {
-                            processBatch(batch);
-                            batch.clear();
-                            consecutiveErrors = 0;
-                        } catch (Exception e) {
-                            System.err.println("Error processing final batch: " + e.getMessage());
-                        }
-                    }
-                    
-                } catch (InterruptedException e) {
-                    // Process any remaining batch before exiting
-                    if (!batch.isEmpty()) {
-                        try {
-                            processBatch(batch);
-                        } catch (Exception ex) {
-                            System.err.println("Error processing batch during shutdown: " + ex.getMessage());
-                        }
+                    java.util.random.RandomGeneratorFactory.of(algorithm);
+                    randomAlgorithm = algorithm;
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown random algorithm '" + algorithm + "', using " + randomAlgorithm);
+                }
+            } else if (arg.startsWith("--seed=")) {
+                try {
+                    randomSeed = Long.parseLong(arg.substring("--seed=".length()).trim());
+                    seedConfigured = true;
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid value in " + arg + " (expected a 64-bit integer), keeping " + randomSeed);
+                }
+            } else if (arg.equals("--pipeline")) {
+                pipelinedPhases = true;
+            } else if (arg.startsWith("--schema=")) {
+                String mode = arg.substring("--schema=".length()).trim().toLowerCase();
+                if (mode.equals(SCHEMA_TABLES) || mode.equals(SCHEMA_PARTITIONED)) {
+                    schemaMode = mode;
+                } else {
+                    System.err.println("Unknown schema mode '" + mode + "' (expected tables or partitioned), using " + schemaMode);
+                }
+            } else if (arg.startsWith("--school-partitioning=")) {
+                String strategy = arg.substring("--school-partitioning=".length()).trim().toLowerCase();
+                if (strategy.equals(SCHOOL_PARTITIONING_LIST) || strategy.equals(SCHOOL_PARTITIONING_HASH)) {
+                    schoolPartitioning = strategy;
+                } else {
+                    System.err.println("Unknown school partitioning '" + strategy + "' (expected list or hash), using " + schoolPartitioning);
+                }
+            } else if (arg.startsWith("--school-partitions=")) {
+                schoolHashPartitions = parsePositiveIntOption(arg, "--school-partitions=", schoolHashPartitions);
+            } else if (arg.equals("--headless")) {
+                headless = true;
+            } else if (arg.startsWith("--classes=")) {
+                configuredClasses = parsePositiveIntOption(arg, "--classes=", configuredClasses);
+            } else if (arg.startsWith("--sections=")) {
+                configuredSections = parsePositiveIntOption(arg, "--sections=", configuredSections);
+            } else if (arg.startsWith("--students-per-section=")) {
+                configuredStudentsPerSection = parsePositiveIntOption(arg, "--students-per-section=", configuredStudentsPerSection);
+            } else if (arg.startsWith("--schools=")) {
+                configuredSchools = parsePositiveIntOption(arg, "--schools=", configuredSchools);
+            } else if (arg.startsWith("--phases=")) {
+                configuredPhases = parsePhases(arg.substring("--phases=".length()));
+            } else if (arg.startsWith("--class-range=")) {
+                String classRange = arg.substring("--class-range=".length()).trim();
+                try {
+                    if (!parseClassRange(classRange).isEmpty()) {
+                        configuredClassRange = classRange;
                     }
-                    Thread.currentThread().interrupt();
-                    break;
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid value in " + arg + " (expected e.g. 1-12 or 6,8,10), using every class");
                 }
+            } else if (arg.startsWith("--terms=")) {
+                academicTerms = parsePositiveIntOption(arg, "--terms=", academicTerms);
+            } else if (arg.startsWith("--session-year=")) {
+                sessionYear = parsePositiveIntOption(arg, "--session-year=", sessionYear);
+            } else if (arg.startsWith("--pool-size=")) {
+                configuredPoolSize = parsePositiveIntOption(arg, "--pool-size=", configuredPoolSize);
+            } else if (arg.startsWith("--checkpoint=")) {
+                checkpointPath = arg.substring("--checkpoint=".length()).trim();
+            } else if (arg.startsWith("--metrics-port=")) {
+                metricsPort = parsePositiveIntOption(arg, "--metrics-port=", metricsPort);
+            } else if (arg.startsWith("--spool-dir=")) {
+                spoolDirectory = arg.substring("--spool-dir=".length()).trim();
+            } else if (arg.equals("--replay-spool")) {
+                replaySpoolDirectory = ""; // The --spool-dir directory, resolved once every option is parsed
+            } else if (arg.startsWith("--replay-spool=")) {
+                replaySpoolDirectory = arg.substring("--replay-spool=".length()).trim();
+            } else if (arg.startsWith("--config=")) {
+                // Already expanded by withConfigFileOptions
+            } else if (arg.equals("--benchmark-random")) {
+                runRandomBenchmark = true;
+            } else {
+                System.err.println("Ignoring unknown option: " + arg);
             }
-            
-            // Process any final remaining batch
-            if (!batch.isEmpty()) {
-                processBatch(batch);
+        }
+        if (replaySpoolDirectory != null && replaySpoolDirectory.isEmpty()) {
+            replaySpoolDirectory = spoolDirectory;
+        }
+        if (EXPORT_FORMAT_SNAPSHOT.equals(exportFormat) && COMPRESS_GZIP.equals(exportCompression)) {
+            System.err.println("Snapshots are loaded through memory maps and are never compressed; ignoring --compress");
+            exportCompression = COMPRESS_NONE;
+        }
+        if (!usesDatabase()) {
+            // Without student tables the derived phases can only take their rosters from the in-memory shards
+            if (!pipelinedPhases) {
+                System.out.println("The " + recordSinkMode + " sink derives records in pipelined mode (--pipeline)");
+                pipelinedPhases = true;
             }
-            
-            System.out.println("Batch processor stopped");
-        });
+            if (checkpointPath != null) {
+                System.err.println("--checkpoint only applies to the jdbc sink; ignoring it");
+                checkpointPath = null;
+            }
+        }
     }
     
-    // Method to stop batch processor
-    private static void stopBatchProcessor() {
-        batchProcessingActive = false;
+    // Helper method to check whether this run writes to (or replays into) PostgreSQL
+    private static boolean usesDatabase() {
+        return SINK_JDBC.equals(recordSinkMode) || replaySpoolDirectory != null || loadSnapshotDirectory != null;
     }
     
-    // Method to process a batch of students
-    private static void processBatch(java.util.List<StudentData> students) {
-        if (students.isEmpty()) return;
-        
-        // Group students by table (school)
-        java.util.Map<String, java.util.List<StudentData>> groupedBySchool = new java.util.HashMap<>();
-        for (StudentData student : students) {
-            String tableName = getStudentTableName(student.schoolName);
-            groupedBySchool.computeIfAbsent(tableName, k -> new java.util.ArrayList<>()).add(student);
+    // Helper method to check whether this run exports a snapshot, whose DDL is captured instead of executed
+    private static boolean capturesSchema() {
+        return !usesDatabase() && SINK_FILE.equals(recordSinkMode) && EXPORT_FORMAT_SNAPSHOT.equals(exportFormat);
+    }
+    
+    // Method to expand --config=FILE into options: every "key=value" property of the file becomes --key=value
+    // ("key=true" becomes --key, "key=false" is dropped), placed before the command line so flags override the file
+    private static java.util.List<String> withConfigFileOptions(String[] args) {
+        java.util.List<String> options = new java.util.ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--config=")) {
+                continue;
+            }
+            String path = arg.substring("--config=".length()).trim();
+            java.util.Properties properties = new java.util.Properties();
+            try (java.io.Reader reader = java.nio.file.Files.newBufferedReader(java.nio.file.Path.of(path))) {
+                properties.load(reader);
+            } catch (java.io.IOException e) {
+                System.err.println("Could not read config file " + path + ": " + e.getMessage());
+                continue;
+            }
+            System.out.println("Loaded " + properties.size() + " settings from " + path);
+            for (String key : new java.util.TreeSet<>(properties.stringPropertyNames())) {
+                String value = properties.getProperty(key).trim();
+                if (value.equalsIgnoreCase("true")) {
+                    options.add("--" + key);
+                } else if (!value.equalsIgnoreCase("false")) {
+                    options.add("--" + key + "=" + value);
+                }
+            }
         }
-        
-        // Process each school's students in a batch
-        for (java.util.Map.Entry<String, java.util.List<StudentData>> entry : groupedBySchool.entrySet()) {
-            String tableName = entry.getKey();
-            java.util.List<StudentData> schoolStudents = entry.getValue();
-            insertStudentBatch(tableName, schoolStudents);
+        options.addAll(java.util.Arrays.asList(args));
+        return options;
+    }
+    
+    // Helper method to parse --phases: a comma-separated subset of ALL_PHASES, "all" or "none"
+    private static java.util.Set<String> parsePhases(String value) {
+        java.util.Set<String> phases = new java.util.LinkedHashSet<>();
+        for (String phase : value.toLowerCase().split(",")) {
+            phase = phase.trim();
+            if (phase.equals("all")) {
+                phases.addAll(ALL_PHASES);
+            } else if (ALL_PHASES.contains(phase)) {
+                phases.add(phase);
+            } else if (!phase.isEmpty() && !phase.equals("none")) {
+                System.err.println("Ignoring unknown phase '" + phase + "' (expected " + String.join(", ", ALL_PHASES) + ", all or none)");
+            }
         }
+        return phases;
     }
     
-    // Method to insert a batch of students for a specific school
-    private static void insertStudentBatch(String tableName, java.util.List<StudentData> students) {
-        String sql = String.format("""
-            INSERT INTO %s (student_uuid, full_name, guardian_name, gender, blood_group, 
-            birth_date, aadhar_card, class_name, section, roll_no, religion, 
-            parent_occupation, concession_needed, concession_type, medical_condition, 
-            student_phone, guardian_phone, image_url, stream) 
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """, tableName);
-        
-        int maxRetries = 3;
-        int retryCount = 0;
-        
-        while (retryCount < maxRetries) {
-            try (Connection conn = getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                
-                // Disable auto-commit for batch processing
-                conn.setAutoCommit(false);
-                
-                for (StudentData student : students) {
-                    pstmt.setObject(1, java.util.UUID.fromString(student.studentUUID));
-                    pstmt.setString(2, student.fullName);
-                    pstmt.setString(3, student.guardianName);
-                    pstmt.setString(4, student.gender);
-                    pstmt.setString(5, student.bloodGroup);
-                    pstmt.setDate(6, parseDate(student.birthDate));
-                    pstmt.setString(7, student.aadharNumber);
-                    pstmt.setString(8, student.className);
-                    pstmt.setString(9, student.section);
-                    pstmt.setInt(10, student.rollNo);
-                    pstmt.setString(11, student.religion);
-                    pstmt.setString(12, student.parentOccupation);
-                    pstmt.setBoolean(13, student.concessionNeeded.equals("Yes"));
-                    pstmt.setString(14, student.concessionType.equals("N/A") ? null : student.concessionType);
-                    pstmt.setString(15, student.medicalCondition.equals("None") ? null : student.medicalCondition);
-                    pstmt.setString(16, student.studentPhone);
-                    pstmt.setString(17, student.guardianPhone);
-                    pstmt.setString(18, student.imageUrl);
-                    pstmt.setString(19, student.stream);
-                    
-                    pstmt.addBatch();
-                }
-                
-                // Execute the batch
-                int[] results = pstmt.executeBatch();
-                conn.commit();
-                
-                // Update processed count
-                int processed = processedStudents.addAndGet(results.length);
-                
-                // Show progress every 1000 students for large datasets, 100 for smaller ones
-                int progressInterval = processed > 1000000 ? 1000 : 100;
-                if (processed % progressInterval == 0) {
-                    System.out.println("Students processed: " + processed);
-                }
-                
-                return; // Success, exit retry loop
-                
-            } catch (SQLException e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    System.err.println("Failed to insert batch of " + students.size() + " students after " + maxRetries + " attempts: " + e.getMessage());
-                    // Skip this batch and continue with next one
-                    return;
-                } else {
-                    System.err.println("Batch insert failed, retrying... (" + retryCount + "/" + maxRetries + ")");
-                    try {
-                        Thread.sleep(1000 * retryCount); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
-                }
+    // Helper method to check whether a derived phase is part of a configured (or headless) run
+    private static boolean isPhaseEnabled(String phase) {
+        return configuredPhases == null ? headless : configuredPhases.contains(phase);
+    }
+    
+    // Method to get the classes the derived phases cover: --class-range (limited to classes 1..numClasses, the
+    // only ones with students), or every class of the school structure
+    private static java.util.List<Integer> getConfiguredClasses(int numClasses) {
+        if (configuredClassRange != null) {
+            java.util.List<Integer> classes = new java.util.ArrayList<>(parseClassRange(configuredClassRange));
+            if (classes.removeIf(classNum -> classNum < 1 || classNum > numClasses)) {
+                System.out.println("NOTE: --class-range=" + configuredClassRange + " is limited to classes 1-" + numClasses);
             }
+            return classes;
+        }
+        java.util.List<Integer> classes = new java.util.ArrayList<>();
+        for (int i = 1; i <= numClasses; i++) {
+            classes.add(i);
+        }
+        return classes;
+    }
+    
+    // Method to take one school structure size from the run configuration, or prompt for it
+    private static int readStructureSize(java.util.Scanner scanner, String prompt, int configuredValue, String option) {
+        System.out.print(prompt);
+        if (configuredValue > 0) {
+            System.out.println(configuredValue + " (" + option + ")");
+            return configuredValue;
         }
+        return scanner.nextInt();
     }
     
-    // Method to queue student for batch processing
-    private static void queueStudentForBatch(StudentData student) {
+    // Helper method to parse a positive integer option value, keeping the current value if invalid
+    private static int parsePositiveIntOption(String arg, String prefix, int currentValue) {
         try {
-            studentBatchQueue.put(student);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            // Fall back to individual insertion if queue is interrupted
-            insertStudent(student);
+            int value = Integer.parseInt(arg.substring(prefix.length()).trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
         }
+        System.err.println("Invalid value in " + arg + " (expected a positive integer), keeping " + currentValue);
+        return currentValue;
     }
     
-    // Method to create database tables
-    private static void createTables() {
-        try (Connection conn = getConnection()) {
-            // Create school_table
-            String createSchoolTable = """
-                CREATE TABLE IF NOT EXISTS school_table (
-                    school_uuid UUID PRIMARY KEY,
-                    school_name VARCHAR(255) NOT NULL UNIQUE
-                )
-                """;
-            
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createSchoolTable);
-                System.out.println("School table created/verified successfully");
+    // Method to get the number of derived-phase workers: by default every spare pool connection, or half of
+    // them in pipelined mode, where the student writers hold the other half
+    private static int getPhaseThreads() {
+        if (phaseThreads > 0) {
+            return phaseThreads;
+        }
+        int spareConnections = connectionPoolSize - RESERVED_POOL_CONNECTIONS;
+        return Math.max(1, pipelinedPhases ? spareConnections / 2 : spareConnections);
+    }
+    
+    // Helper method to multiply structure sizes, saturating at Long.MAX_VALUE instead of overflowing
+    private static long multiplySizes(long... sizes) {
+        long product = 1;
+        for (long size : sizes) {
+            try {
+                product = Math.multiplyExact(product, size);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error creating tables: " + e.getMessage());
-            e.printStackTrace();
         }
+        return product;
     }
     
-    // Method to create student table for a specific school
-    private static void createStudentTable(String schoolName) {
-        String tableName = getStudentTableName(schoolName);
+    // Method to get the number of students collected before a batch is written
+    private static int getWriterBatchSize() {
+        return WRITER_MODE_COPY.equals(studentWriterMode) ? COPY_BATCH_SIZE : BATCH_SIZE;
+    }
+    
+    // Append-only log of finished work. The "# run" line fingerprints the run (seed, random algorithm, structure and
+    // session settings); every other line names one unit whose rows are committed: a student section
+    // ("students <table> <class> <section>"), a derived table ("table <table>") or, in pipelined mode, one family
+    // of a class shard ("pipeline <family> <table> <class>"). Every unit is regenerated from the same seeded
+    // streams, so a rerun that skips logged units and clears partial ones ends with the rows of an
+    // uninterrupted run: no duplicates and no gaps.
+    static class CheckpointLog {
+        private static final String RUN_PREFIX = "# run ";
+        private final java.nio.file.Path path;
+        private final java.util.Map<String, String> runSettings = new java.util.LinkedHashMap<>();
+        private final java.util.Set<String> completed = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        private final AtomicInteger openSections = new AtomicInteger();
+        private final boolean resume;
+        private final java.io.BufferedWriter out;
+        
+        CheckpointLog(java.nio.file.Path path) throws java.io.IOException {
+            this.path = path;
+            if (java.nio.file.Files.exists(path)) {
+                for (String line : java.nio.file.Files.readAllLines(path, java.nio.charset.StandardCharsets.UTF_8)) {
+                    if (line.startsWith(RUN_PREFIX)) {
+                        for (String setting : line.substring(RUN_PREFIX.length()).trim().split(" ")) {
+                            int separator = setting.indexOf('=');
+                            if (separator > 0) {
+                                runSettings.put(setting.substring(0, separator), setting.substring(separator + 1));
+                            }
+                        }
+                    } else if (!line.isBlank()) {
+                        completed.add(line.trim());
+                    }
+                }
+            }
+            resume = !runSettings.isEmpty();
+            out = java.nio.file.Files.newBufferedWriter(path, java.nio.charset.StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.APPEND);
+        }
         
-        try (Connection conn = getConnection()) {
-            String createStudentTable = String.format("""
-                CREATE TABLE IF NOT EXISTS %s (
-                    student_uuid UUID PRIMARY KEY,
-                    full_name VARCHAR(100) NOT NULL,
-                    guardian_name VARCHAR(100) NOT NULL,
-                    gender VARCHAR(10) NOT NULL,
-                    blood_group VARCHAR(5) NOT NULL,
-                    birth_date DATE NOT NULL,
-                    aadhar_card VARCHAR(20) NOT NULL UNIQUE,
-                    class_name VARCHAR(20) NOT NULL,
-                    section VARCHAR(5) NOT NULL,
-                    roll_no INTEGER NOT NULL,
-                    religion VARCHAR(20) NOT NULL,
-                    parent_occupation VARCHAR(100) NOT NULL,
-                    concession_needed BOOLEAN NOT NULL,
-                    concession_type VARCHAR(50),
-                    medical_condition VARCHAR(50),
-                    student_phone VARCHAR(15) NOT NULL UNIQUE,
-                    guardian_phone VARCHAR(15) NOT NULL UNIQUE,
-                    image_url TEXT NOT NULL,
-                    stream VARCHAR(20), -- Added stream column for classes 11 and 12
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-                """, tableName);
-            
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createStudentTable);
-                System.out.println("Student table created for: " + schoolName);
+        // True when the log already held a run, i.e. this run resumes it
+        boolean isResume() {
+            return resume;
+        }
+        
+        String setting(String name) {
+            return runSettings.get(name);
+        }
+        
+        int completedUnits() {
+            return completed.size();
+        }
+        
+        // Method to record this run's fingerprint in a new log, or compare it with the logged one; returns a
+        // description of the first setting that differs, or null when the runs match
+        synchronized String startRun(java.util.Map<String, String> settings) throws java.io.IOException {
+            if (runSettings.isEmpty()) {
+                runSettings.putAll(settings);
+                StringBuilder line = new StringBuilder(RUN_PREFIX);
+                settings.forEach((name, value) -> line.append(name).append('=').append(value).append(' '));
+                append(line.toString().trim());
+                return null;
+            }
+            for (java.util.Map.Entry<String, String> setting : settings.entrySet()) {
+                String logged = runSettings.get(setting.getKey());
+                if (!setting.getValue().equals(logged)) {
+                    return setting.getKey() + " is " + setting.getValue() + " but the checkpoint was written with " + logged;
+                }
+            }
+            return null;
+        }
+        
+        boolean isComplete(String unit) {
+            return completed.contains(unit);
+        }
+        
+        // Method to log a unit as committed; the line is flushed before returning so a crash right after keeps it
+        synchronized void markComplete(String unit) {
+            if (!completed.add(unit)) {
+                return;
+            }
+            try {
+                append(unit);
+            } catch (java.io.IOException e) {
+                System.err.println("Could not write checkpoint " + path + ": " + e.getMessage());
+            }
+        }
+        
+        private void append(String line) throws java.io.IOException {
+            out.write(line);
+            out.newLine();
+            out.flush();
+        }
+        
+        synchronized void close() {
+            try {
+                out.close();
+            } catch (java.io.IOException e) {
+                System.err.println("Could not close checkpoint " + path + ": " + e.getMessage());
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error creating student table for " + schoolName + ": " + e.getMessage());
         }
     }
     
-    // Method to get sanitized table name for students
-    private static String getStudentTableName(String schoolName) {
-        return "students_" + schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
+    // Students of one section not yet committed; the section is checkpointed once the last of them is written
+    static class SectionProgress {
+        private final String unit;
+        private final AtomicInteger uncommitted;
+        
+        SectionProgress(String unit, int students) {
+            this.unit = unit;
+            this.uncommitted = new AtomicInteger(students);
+            checkpoint.openSections.incrementAndGet();
+        }
+        
+        void studentCommitted() {
+            if (uncommitted.decrementAndGet() == 0) {
+                checkpoint.markComplete(unit);
+                checkpoint.openSections.decrementAndGet();
+            }
+        }
     }
     
-    // Method to insert school data
-    private static void insertSchool(String schoolUUID, String schoolName) {
-        String sql = "INSERT INTO school_table (school_uuid, school_name) VALUES (?, ?) ON CONFLICT (school_name) DO NOTHING";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setObject(1, java.util.UUID.fromString(schoolUUID));
-            pstmt.setString(2, schoolName);
+    // Method to check whether an earlier run already committed a derived table
+    private static boolean isTableCheckpointed(String tableName) {
+        return checkpoint != null && checkpoint.isComplete("table " + tableName);
+    }
+    
+    // Method to log a derived table as fully written
+    private static void markTableCheckpointed(String tableName) {
+        if (checkpoint != null) {
+            checkpoint.markComplete("table " + tableName);
+        }
+    }
+    
+    // Method to empty a derived table before it is regenerated on a resumed run, since the interrupted run may
+    // have committed part of its rows
+    private static void clearUnfinishedTable(Connection conn, String tableName) throws SQLException {
+        if (checkpoint != null && checkpoint.isResume()) {
+            TableTarget target = tableTarget(tableName);
+            try (Statement stmt = conn.createStatement()) {
+                // A partitioned family parent holds other schools' rows too, so only this table's keys are deleted
+                stmt.execute(target.keyCount() == 0 ? "TRUNCATE " + tableName : "DELETE FROM " + target.table + target.where(null));
+            }
+        }
+    }
+    
+    // Method to delete the given students' rows from a derived table before a pipelined shard is replayed
+    private static void deleteRosterRows(Connection conn, String tableName, java.util.List<String[]> roster) throws SQLException {
+        java.util.UUID[] studentUuids = new java.util.UUID[roster.size()];
+        for (int i = 0; i < studentUuids.length; i++) {
+            studentUuids[i] = java.util.UUID.fromString(roster.get(i)[0]);
+        }
+        TableTarget target = tableTarget(tableName);
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + target.table + target.where("student_uuid = ANY (?)"))) {
+            pstmt.setArray(1, conn.createArrayOf("uuid", studentUuids));
             pstmt.executeUpdate();
-            
-            int processed = processedSchools.incrementAndGet();
-            System.out.println("School inserted: " + schoolName + " (" + processed + " schools processed)");
-            
-        } catch (SQLException e) {
-            System.err.println("Error inserting school " + schoolName + ": " + e.getMessage());
         }
     }
     
-    // Method to insert student data with retry logic
-    private static void insertStudent(StudentData student) {
-        String tableName = getStudentTableName(student.schoolName);
-        String sql = String.format("""
-            INSERT INTO %s (student_uuid, full_name, guardian_name, gender, blood_group, 
-            birth_date, aadhar_card, class_name, section, roll_no, religion, 
-            parent_occupation, concession_needed, concession_type, medical_condition, 
-            student_phone, guardian_phone, image_url, stream) 
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """, tableName);
+    // Method to close the checkpoint log, if any, at the end of a run
+    private static void closeCheckpointLog() {
+        if (checkpoint != null) {
+            checkpoint.close();
+        }
+    }
+    
+    // Saves failed batches under spoolDirectory, one file per batch: a "table<TAB>columns" header line followed by
+    // the rows in COPY text format. Files are written under a temporary name and renamed when complete, so a replay
+    // never picks up a half-written batch.
+    static class DeadLetterSpool {
+        private final long runId = System.currentTimeMillis();
+        private final java.util.concurrent.atomic.AtomicLong fileSequence = new java.util.concurrent.atomic.AtomicLong();
+        private final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.LongAdder> spooledRows =
+            new java.util.concurrent.ConcurrentHashMap<>();
+        
+        // Method to spool (and then empty) the rows collected for failed students
+        boolean spool(TableTarget target, String columns, SpooledRows rows) {
+            boolean spooled = rows.rowsWritten() == 0 || spool(target.table, target.columns(columns), rows.toBytes(), rows.rowsWritten());
+            rows.clear();
+            return spooled;
+        }
         
-        int maxRetries = 3;
-        int retryCount = 0;
+        // Method to spool a batch of students of one school
+        boolean spoolStudents(String tableName, java.util.List<StudentData> students) {
+            TableTarget target = tableTarget(tableName);
+            return spool(target.table, target.columns(STUDENT_COPY_COLUMNS), encodeStudentCopyRows(students, target), students.size());
+        }
         
-        while (retryCount < maxRetries) {
-            try (Connection conn = getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                
-                pstmt.setObject(1, java.util.UUID.fromString(student.studentUUID));
-                pstmt.setString(2, student.fullName);
-                pstmt.setString(3, student.guardianName);
-                pstmt.setString(4, student.gender);
-                pstmt.setString(5, student.bloodGroup);
-                pstmt.setDate(6, parseDate(student.birthDate));
-                pstmt.setString(7, student.aadharNumber);
-                pstmt.setString(8, student.className);
-                pstmt.setString(9, student.section);
-                pstmt.setInt(10, student.rollNo);
-                pstmt.setString(11, student.religion);
-                pstmt.setString(12, student.parentOccupation);
-                pstmt.setBoolean(13, student.concessionNeeded.equals("Yes"));
-                pstmt.setString(14, student.concessionType.equals("N/A") ? null : student.concessionType);
-                pstmt.setString(15, student.medicalCondition.equals("None") ? null : student.medicalCondition);
-                pstmt.setString(16, student.studentPhone);
-                pstmt.setString(17, student.guardianPhone);
-                pstmt.setString(18, student.imageUrl);
-                pstmt.setString(19, student.stream);
-                
-                pstmt.executeUpdate();
-                
-                int processed = processedStudents.incrementAndGet();
-                // Show progress every 1000 students for large datasets, 100 for smaller ones
-                int progressInterval = processed > 1000000 ? 1000 : 100;
-                if (processed % progressInterval == 0) {
-                    System.out.println("Students processed: " + processed);
-                }
-                return; // Success, exit retry loop
-                
-            } catch (SQLException e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    System.err.println("Failed to insert student " + student.fullName + " after " + maxRetries + " attempts: " + e.getMessage());
-                } else {
-                    // Wait before retry
-                    try {
-                        Thread.sleep(1000 * retryCount); // Exponential backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return;
-                    }
+        // Method to spool COPY text rows; returns false (after reporting why) if they could not be saved either
+        boolean spool(String tableName, String columns, byte[] rows, long rowCount) {
+            java.nio.file.Path directory = java.nio.file.Path.of(spoolDirectory);
+            String fileName = tableName + "-" + runId + "-" + fileSequence.incrementAndGet() + SPOOL_FILE_SUFFIX;
+            java.nio.file.Path partial = directory.resolve(fileName + ".tmp");
+            try {
+                java.nio.file.Files.createDirectories(directory);
+                try (java.io.OutputStream out = new java.io.BufferedOutputStream(java.nio.file.Files.newOutputStream(partial))) {
+                    out.write((tableName + "\t" + columns + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    out.write(rows);
                 }
+                java.nio.file.Files.move(partial, directory.resolve(fileName), java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            } catch (java.io.IOException e) {
+                System.err.println("Could not spool " + rowCount + " rows for " + tableName + " to " + directory + ": " + e.getMessage());
+                return false;
             }
+            spooledRows.computeIfAbsent(tableName, t -> new java.util.concurrent.atomic.LongAdder()).add(rowCount);
+            return true;
+        }
+        
+        long spooledRows(String tableName) {
+            java.util.concurrent.atomic.LongAdder rows = spooledRows.get(tableName);
+            return rows != null ? rows.sum() : 0;
+        }
+        
+        java.util.Set<String> tables() {
+            return spooledRows.keySet();
         }
     }
     
-    // Helper method to parse date
-    private static Date parseDate(String dateStr) {
-        try {
-            String[] parts = dateStr.split("/");
-            int day = Integer.parseInt(parts[0]);
-            int month = Integer.parseInt(parts[1]);
-            int year = Integer.parseInt(parts[2]);
-            return Date.valueOf(String.format("%d-%02d-%02d", year, month, day));
-        } catch (Exception e) {
-            return Date.valueOf("2020-01-01"); // Default date
+    // Collects the rows of the failed students of one roster as COPY text for the dead-letter spool, so an outage
+    // produces one spool file per roster (or per DEAD_LETTER_FLUSH_BYTES) rather than one per student. The
+    // generators are replayed from each student's own random stream, so the rows match the ones that failed;
+    // skip() leaves out the rows that the student's earlier batches did commit.
+    static class SpooledRows implements StudentRowSink, AttendanceRowConsumer {
+        private final TableTarget target;
+        private final StringBuilder rows = new StringBuilder(8192);
+        private int skipRows;
+        private long rowCount;
+        
+        SpooledRows(TableTarget target) {
+            this.target = target;
+        }
+        
+        // Method to leave out the first rows of the next student replayed into this collector
+        SpooledRows skip(int committedRows) {
+            this.skipRows = committedRows;
+            return this;
+        }
+        
+        boolean isFull() {
+            return rows.length() >= DEAD_LETTER_FLUSH_BYTES;
+        }
+        
+        void clear() {
+            rows.setLength(0);
+            rowCount = 0;
+            skipRows = 0;
+        }
+        
+        @Override
+        public void accept(Object... values) {
+            if (skipRows > 0) {
+                skipRows--;
+                return;
+            }
+            target.endCopyRow(appendCopyRow(rows, values));
+            rowCount++;
+        }
+        
+        @Override
+        public void accept(String studentUuid, long epochDay, String status, int arrivalMinute,
+                           int departureMinute, String remarks) {
+            if (skipRows > 0) {
+                skipRows--;
+                return;
+            }
+            target.endCopyRow(CopyAttendanceWriter.appendRow(rows, studentUuid, epochDay, status, arrivalMinute, departureMinute, remarks));
+            rowCount++;
+        }
+        
+        @Override
+        public void endStudent() {
+        }
+        
+        @Override
+        public long rowsWritten() {
+            return rowCount;
+        }
+        
+        byte[] toBytes() {
+            return rows.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public void close() {
         }
     }
     
-    // Student data class
-    static class StudentData {
-        String studentUUID, fullName, guardianName, gender, bloodGroup, birthDate;
-        String aadharNumber, className, section, religion, parentOccupation;
-        String concessionNeeded, concessionType, medicalCondition, studentPhone, guardianPhone;
-        String schoolName, imageUrl, stream; // Added stream field
-        int rollNo;
+    // Method to encode the fields of one row of values (null = SQL NULL) as COPY text; the caller ends the row
+    private static StringBuilder appendCopyRow(StringBuilder out, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            appendCopyField(out, values[i] != null ? values[i].toString() : null);
+            if (i < values.length - 1) {
+                out.append('\t');
+            }
+        }
+        return out;
+    }
+    
+    // Method to add rows whose transaction has committed to the per-table totals of this run
+    private static void recordCommittedRows(String tableName, long rows) {
+        if (rows > 0) {
+            committedRows.computeIfAbsent(tableName, t -> new java.util.concurrent.atomic.LongAdder()).add(rows);
+        }
+    }
+    
+    // Helper method to count the rows of an executed batch. With reWriteBatchedInserts the driver reports
+    // SUCCESS_NO_INFO instead of per-row counts; each such entry is one row that the statement accepted.
+    private static long countBatchRows(int[] counts) {
+        long rows = 0;
+        for (int count : counts) {
+            rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return rows;
+    }
+    
+    // Method to print, per table, the rows committed by this run and the rows left in the dead-letter spool
+    private static void printCommittedRowReport() {
+        java.util.Set<String> tables = new java.util.TreeSet<>(committedRows.keySet());
+        tables.addAll(deadLetters.tables());
+        if (tables.isEmpty()) {
+            return;
+        }
         
-        StudentData(String studentUUID, String fullName, String guardianName, String gender, 
-                   String bloodGroup, String birthDate, String aadharNumber, String className, 
-                   String section, int rollNo, String schoolName, String religion, 
-                   String parentOccupation, String concessionNeeded, String concessionType, 
-                   String medicalCondition, String studentPhone, String guardianPhone, String imageUrl,
-                   String stream) { // Added stream parameter
-            this.studentUUID = studentUUID;
-            this.fullName = fullName;
-            this.guardianName = guardianName;
-            this.gender = gender;
-            this.bloodGroup = bloodGroup;
-            this.birthDate = birthDate;
-            this.aadharNumber = aadharNumber;
-            this.className = className;
-            this.section = section;
-            this.rollNo = rollNo;
-            this.schoolName = schoolName;
-            this.religion = religion;
-            this.parentOccupation = parentOccupation;
-            this.concessionNeeded = concessionNeeded;
-            this.concessionType = concessionType;
-            this.medicalCondition = medicalCondition;
-            this.studentPhone = studentPhone;
-            this.guardianPhone = guardianPhone;
-            this.imageUrl = imageUrl;
-            this.stream = stream; // Added stream assignment
+        // Large runs have one table per school and year: list table families instead of every table
+        boolean byFamily = tables.size() > MAX_REPORTED_TABLES;
+        java.util.Map<String, long[]> rows = new java.util.TreeMap<>();
+        for (String tableName : tables) {
+            java.util.concurrent.atomic.LongAdder committed = committedRows.get(tableName);
+            long[] counts = rows.computeIfAbsent(byFamily ? IdentifierRegistry.tableFamily(tableName) : tableName, key -> new long[2]);
+            counts[0] += committed != null ? committed.sum() : 0;
+            counts[1] += deadLetters.spooledRows(tableName);
+        }
+        
+        String written = usesDatabase() ? "committed" : "written";
+        System.out.println("\n=== " + written.toUpperCase() + " ROWS (" + recordSinkMode + " sink" +
+            (byFamily ? ", " + tables.size() + " tables by family" : "") + ") ===");
+        long totalCommitted = 0;
+        long totalSpooled = 0;
+        for (java.util.Map.Entry<String, long[]> entry : rows.entrySet()) {
+            long committedCount = entry.getValue()[0];
+            long spooledCount = entry.getValue()[1];
+            System.out.printf("  %-60s %,14d %s%s\n", entry.getKey(), committedCount, written,
+                spooledCount > 0 ? String.format(", %,d spooled", spooledCount) : "");
+            totalCommitted += committedCount;
+            totalSpooled += spooledCount;
+        }
+        System.out.printf("  %-60s %,14d %s%s\n", "Total", totalCommitted, written,
+            totalSpooled > 0 ? String.format(", %,d spooled", totalSpooled) : "");
+        if (totalSpooled > 0) {
+            System.err.println("WARNING: " + String.format("%,d", totalSpooled) + " rows failed and were saved to " + spoolDirectory +
+                "; load them with --replay-spool=" + spoolDirectory);
         }
     }
     
-    // Method to generate unique Indian phone numbers
-    private static String generateUniquePhoneNumber(LRUCache<String> usedNumbers) {
-        String phoneNumber;
-        int attempts = 0;
-        do {
-            // Generate 10 digit number starting with 6, 7, 8, or 9
-            int firstDigit = 6 + (int) (Math.random() * 4); // Random number between 6-9
-            StringBuilder number = new StringBuilder("+91" + firstDigit);
-            
-            // Generate remaining 9 digits
-            for (int i = 0; i < 9; i++) {
-                number.append((int) (Math.random() * 10));
+    // Method to load every spool file in a directory. Rows go through a temporary table and INSERT ... ON CONFLICT
+    // DO NOTHING, so rows that did land and files replayed twice add nothing. A file is deleted once its rows are
+    // committed and kept for the next replay otherwise.
+    private static void replayDeadLetterSpool(java.nio.file.Path directory) {
+        System.out.println("\n=== REPLAYING DEAD-LETTER SPOOL ===");
+        java.util.List<java.nio.file.Path> files;
+        try (java.util.stream.Stream<java.nio.file.Path> listing = java.nio.file.Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SPOOL_FILE_SUFFIX)).sorted().toList();
+        } catch (java.io.IOException e) {
+            System.err.println("Could not read spool directory " + directory + ": " + e.getMessage());
+            return;
+        }
+        System.out.println(files.size() + " spool files in " + directory);
+        
+        int failedFiles = 0;
+        for (java.nio.file.Path file : files) {
+            try {
+                long rows = replaySpoolFile(file);
+                java.nio.file.Files.delete(file);
+                System.out.println("  " + file.getFileName() + ": " + rows + " rows inserted");
+            } catch (SQLException | java.io.IOException e) {
+                failedFiles++;
+                System.err.println("  " + file.getFileName() + " failed and is kept for the next replay: " + e.getMessage());
+            }
+        }
+        printCommittedRowReport();
+        if (failedFiles > 0) {
+            System.err.println(failedFiles + " of " + files.size() + " spool files could not be replayed");
+        }
+    }
+    
+    // Method to replay one spool file in a single transaction and return the number of rows inserted
+    private static long replaySpoolFile(java.nio.file.Path file) throws SQLException, java.io.IOException {
+        try (java.io.InputStream in = new java.io.BufferedInputStream(java.nio.file.Files.newInputStream(file));
+             Connection conn = getConnection()) {
+            // Header line: table name and column list (checked, since both end up in SQL text)
+            java.io.ByteArrayOutputStream headerBytes = new java.io.ByteArrayOutputStream();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) {
+                    throw new java.io.IOException("missing header line");
+                }
+                headerBytes.write(b);
+            }
+            String[] header = headerBytes.toString(java.nio.charset.StandardCharsets.UTF_8).split("\t");
+            if (header.length != 2 || !header[0].matches("[a-z0-9_]+") || !header[1].matches("[a-z0-9_]+(, [a-z0-9_]+)*")) {
+                throw new java.io.IOException("not a spool file");
+            }
+            String tableName = header[0];
+            String columns = header[1];
+            if (columns.equals(ATTENDANCE_COLUMNS)) {
+                ensureAttendanceIndexes(conn, tableName); // Otherwise ON CONFLICT DO NOTHING has nothing to check
             }
             
-            phoneNumber = number.toString();
-            attempts++;
-            
-            // Prevent infinite loops in case cache is full
-            if (attempts > 1000) {
-                break;
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TEMP TABLE dead_letter_rows ON COMMIT DROP AS SELECT " + columns + " FROM " + tableName + " WITH NO DATA");
+                conn.unwrap(org.postgresql.PGConnection.class).getCopyAPI()
+                    .copyIn("COPY dead_letter_rows (" + columns + ") FROM STDIN", in);
+                long inserted = stmt.executeUpdate("INSERT INTO " + tableName + " (" + columns + ") SELECT " + columns +
+                    " FROM dead_letter_rows ON CONFLICT DO NOTHING");
+                conn.commit();
+                recordCommittedRows(tableName, inserted);
+                return inserted;
+            } catch (SQLException | java.io.IOException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-        } while (usedNumbers.contains(phoneNumber));
+        }
+    }
+    
+    // Method to create the random generator for one unit of work, identified by its stream and coordinates
+    private static java.util.random.RandomGenerator newRandomGenerator(long stream, long... coordinates) {
+        long seed = mixSeed(randomSeed ^ mixSeed(stream));
+        for (long coordinate : coordinates) {
+            seed = mixSeed(seed ^ mixSeed(coordinate + 0x9E3779B97F4A7C15L));
+        }
+        if (DEFAULT_RANDOM_ALGORITHM.equals(randomAlgorithm)) {
+            return new java.util.SplittableRandom(seed);
+        }
+        if (randomFactory == null) {
+            randomFactory = java.util.random.RandomGeneratorFactory.of(randomAlgorithm);
+        }
+        return randomFactory.create(seed);
+    }
+    
+    // Method to create the random generator for one student within a (school, year) or (school, class) phase unit
+    private static java.util.random.RandomGenerator newStudentRandomGenerator(long stream, int year, String studentUuid) {
+        java.util.UUID uuid = java.util.UUID.fromString(studentUuid);
+        return newRandomGenerator(stream, year, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+    
+    // Helper method to scramble a 64-bit value (SplitMix64 finalizer) so nearby coordinates give unrelated seeds
+    private static long mixSeed(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    // Helper method to draw a version 4 UUID from the caller's generator instead of SecureRandom
+    private static String generateUUID(java.util.random.RandomGenerator rng) {
+        long mostSigBits = (rng.nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L; // Version 4
+        long leastSigBits = (rng.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; // IETF variant
+        return new java.util.UUID(mostSigBits, leastSigBits).toString();
+    }
+    
+    // Method to compare Math.random() against per-thread generators under contention
+    private static void benchmarkRandomGenerators() {
+        final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final long drawsPerThread = 20_000_000L;
+        System.out.println("=== RANDOM GENERATOR BENCHMARK ===");
+        System.out.println("Threads: " + threads + ", draws per thread: " + String.format("%,d", drawsPerThread));
+        
+        java.util.Map<String, java.util.function.Supplier<java.util.function.DoubleSupplier>> candidates = new java.util.LinkedHashMap<>();
+        candidates.put("Math.random()", () -> Math::random);
+        candidates.put("ThreadLocalRandom", () -> () -> ThreadLocalRandom.current().nextDouble());
+        candidates.put(randomAlgorithm + " per thread", () -> {
+            java.util.random.RandomGenerator rng = newRandomGenerator(STREAM_BENCHMARK, Thread.currentThread().getId());
+            return rng::nextDouble;
+        });
         
-        usedNumbers.add(phoneNumber);
-        return phoneNumber;
+        for (java.util.Map.Entry<String, java.util.function.Supplier<java.util.function.DoubleSupplier>> candidate : candidates.entrySet()) {
+            // One warm-up round so the JIT has compiled the loop before it is timed
+            runRandomBenchmarkRound(candidate.getValue(), threads, drawsPerThread / 10);
+            long elapsedNanos = runRandomBenchmarkRound(candidate.getValue(), threads, drawsPerThread);
+            long totalDraws = drawsPerThread * threads;
+            System.out.printf("  %-32s %8.2f ns/op per thread, %,14.0f draws/sec total%n",
+                candidate.getKey(), (double) elapsedNanos / drawsPerThread, totalDraws / (elapsedNanos / 1_000_000_000.0));
+        }
     }
     
-    // Method to generate unique school names
-    private static String generateUniqueSchoolName(java.util.Set<String> usedSchoolNames) {
-        // Expanded prefixes (200+ options)
-        String[] schoolPrefixes = {
-            "St.", "Holy", "Sacred", "Divine", "Blessed", "Mount", "Little", "Bright", "Golden", "Silver",
-            "Green", "Blue", "Red", "New", "Modern", "Progressive", "Advanced", "Premier", "Elite", "Excellence",
-            "Victory", "Success", "Wisdom", "Knowledge", "Learning", "Future", "Hope", "Dream", "Star", "Sun",
-            "Moon", "Rainbow", "Crystal", "Diamond", "Pearl", "Emerald", "Ruby", "Sapphire", "Lotus", "Rose",
-            "Noble", "Royal", "Grand", "Great", "Glorious", "Magnificent", "Majestic", "Supreme", "Ultimate", "Perfect",
-            "Ideal", "Prime", "Pure", "True", "Real", "Genuine", "Authentic", "Original", "Classic", "Eternal",
-            "Infinite", "Universal", "Global", "International", "National", "Regional", "Central", "Metropolitan", "Urban", "Rural",
-            "Eastern", "Western", "Northern", "Southern", "Coastal", "Highland", "Valley", "Mountain", "River", "Forest",
-            "Garden", "Park", "Grove", "Field", "Meadow", "Prairie", "Desert", "Ocean", "Lake", "Stream",
-            "Dawn", "Dusk", "Morning", "Evening", "Noon", "Midnight", "Spring", "Summer", "Autumn", "Winter",
-            "Pioneer", "Leader", "Champion", "Winner", "Master", "Expert", "Skilled", "Talented", "Gifted", "Brilliant",
-            "Bright", "Shining", "Glowing", "Radiant", "Luminous", "Sparkling", "Dazzling", "Gleaming", "Twinkling", "Flickering",
-            "Ancient", "Historic", "Traditional", "Cultural", "Heritage", "Legacy", "Memorial", "Tribute", "Honor", "Glory",
-            "Peace", "Harmony", "Unity", "Brotherhood", "Fellowship", "Community", "Society", "Foundation", "Trust", "Mission",
-            "Vision", "Innovation", "Creation", "Discovery", "Exploration", "Adventure", "Journey", "Quest", "Path", "Way",
-            "Light", "Beacon", "Guide", "Mentor", "Teacher", "Educator", "Scholar", "Academic", "Intellectual", "Thoughtful",
-            "Creative", "Artistic", "Musical", "Literary", "Poetic", "Dramatic", "Scientific", "Technical", "Digital", "Cyber",
-            "Cosmic", "Stellar", "Galactic", "Universal", "Planetary", "Solar", "Lunar", "Celestial", "Heavenly", "Angelic",
-            "Alpha", "Beta", "Gamma", "Delta", "Omega", "Prime", "First", "Second", "Third", "Final",
-            "Neo", "Ultra", "Super", "Mega", "Macro", "Micro", "Mini", "Maxi", "Multi", "Poly"
-        };
+    // Helper method to time one benchmark round across all threads, returning the wall-clock nanoseconds
+    private static long runRandomBenchmarkRound(java.util.function.Supplier<java.util.function.DoubleSupplier> factory,
+                                                int threads, long drawsPerThread) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        java.util.List<Future<Double>> results = new java.util.ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(pool.submit(() -> {
+                java.util.function.DoubleSupplier source = factory.get();
+                start.await();
+                double sink = 0;
+                for (long i = 0; i < drawsPerThread; i++) {
+                    sink += source.getAsDouble();
+                }
+                return sink; // Returned so the loop cannot be optimised away
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<Double> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Benchmark round failed: " + e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return System.nanoTime() - startNanos;
+    }
+    
+    // Method to start the parallel student writer stage
+    private static void startBatchProcessor() {
+        studentWriteStartNanos = System.nanoTime();
+        int writerBatchSize = getWriterBatchSize();
+        
+        // Each writer owns a connection for its whole lifetime, so leave a few pooled connections
+        // free for school inserts and table creation that run alongside the writers (and, in pipelined
+        // mode, for the derived-phase workers)
+        int writerConnections = Math.max(1, connectionPoolSize - RESERVED_POOL_CONNECTIONS);
+        activeStudentWriters = studentWriterThreads > 0
+                ? studentWriterThreads
+                : Math.max(1, writerConnections - (pipelinedPhases ? getPhaseThreads() : 0));
+        if (usesDatabase() && activeStudentWriters > writerConnections) {
+            // More writers than connections would leave the extra writers (and the school inserts) waiting on the pool
+            System.out.println("WARNING: --writer-threads=" + studentWriterThreads + " exceeds the " + writerConnections +
+                " pool connections available to writers; using " + writerConnections);
+            activeStudentWriters = writerConnections;
+        }
+        writerExecutorService = Executors.newFixedThreadPool(activeStudentWriters);
+        
+        // Bounded handoff: enough room for every writer to fill two batches, so the producer blocks
+        // instead of piling StudentData objects onto the heap when the database falls behind
+        int queueCapacity = studentQueueCapacity > 0
+                ? studentQueueCapacity
+                : Math.min(writerBatchSize * activeStudentWriters * 2, MAX_DEFAULT_QUEUE_CAPACITY);
+        studentBatchQueue = new ArrayBlockingQueue<>(queueCapacity);
+        
+        System.out.println("Student writer mode: " + studentWriterMode + " (" + writerBatchSize + " students per batch)");
+        System.out.println("Student writer threads: " + activeStudentWriters + " (each with its own connection and batch buffer)");
+        System.out.println("Student queue capacity: " + queueCapacity + " (producer blocks when full)");
+        
+        liveStudentWriters.set(activeStudentWriters);
+        for (int i = 1; i <= activeStudentWriters; i++) {
+            writerExecutorService.submit(new StudentBatchWriter(i, writerBatchSize));
+        }
         
-        // Expanded middle names (300+ options)
-        String[] schoolMiddles = {
-            "Angels", "Mary", "Xavier", "Francis", "Joseph", "Michael", "Gabriel", "Paul", "Peter", "John",
-            "Thomas", "Anthony", "Stephen", "Lawrence", "Vincent", "Augustine", "Benedict", "Dominic", "Carmel",
-            "Teresa", "Agnes", "Catherine", "Margaret", "Elizabeth", "Anne", "Grace", "Faith", "Hope", "Joy",
-            "Peace", "Light", "Dawn", "Morning", "Evening", "Spring", "Summer", "Autumn", "Winter", "Valley",
-            "Hills", "Heights", "Gardens", "Park", "Grove", "Woods", "Forest", "River", "Lake", "Ocean",
-            "Matthew", "Mark", "Luke", "James", "Andrew", "Philip", "Bartholomew", "Timothy", "Christopher", "Nicholas",
-            "David", "Daniel", "Samuel", "Nathan", "Joshua", "Caleb", "Benjamin", "Isaac", "Jacob", "Aaron",
-            "Moses", "Abraham", "Noah", "Adam", "Solomon", "Elijah", "Isaiah", "Jeremiah", "Ezekiel", "Hosea",
-            "Joel", "Amos", "Obadiah", "Jonah", "Micah", "Nahum", "Habakkuk", "Zephaniah", "Haggai", "Zechariah",
-            "Malachi", "Raphael", "Uriel", "Seraphim", "Cherubim", "Throne", "Dominion", "Virtue", "Power", "Principality",
-            "Sarah", "Rebecca", "Rachel", "Leah", "Ruth", "Esther", "Judith", "Deborah", "Miriam", "Hannah",
-            "Abigail", "Bathsheba", "Tamar", "Gomer", "Hosanna", "Alleluia", "Gloria", "Magnificat", "Sanctus", "Benedictus",
-            "Agnus", "Dei", "Kyrie", "Eleison", "Christe", "Pax", "Vobiscum", "Dominus", "Tecum", "Spiritus",
-            "Krishnan", "Govind", "Madhav", "Keshav", "Narayan", "Vishnu", "Shiva", "Brahma", "Indra", "Varuna",
-            "Agni", "Vayu", "Surya", "Chandra", "Prithvi", "Akash", "Jal", "Tej", "Vaayu", "Bhumi",
-            "Ganga", "Yamuna", "Saraswati", "Narmada", "Kaveri", "Godavari", "Krishna", "Tapti", "Mahanadi", "Brahmaputra",
-            "Himalaya", "Vindhya", "Sahyadri", "Aravalli", "Nilgiri", "Satpura", "Kanchenjunga", "Everest", "Annapurna", "Dhaulagiri",
-            "Gandhi", "Nehru", "Patel", "Bose", "Tilak", "Gokhale", "Rao", "Tagore", "Vivekananda", "Aurobindo",
-            "Ramakrishna", "Dayananda", "Kabir", "Tulsidas", "Surdas", "Mirabai", "Rahim", "Raskhan", "Bihari", "Bharatendu",
-            "Premchand", "Prasad", "Pant", "Nirala", "Mahadevi", "Ajneya", "Dinkar", "Bachchan", "Shukla", "Gupta",
-            "Sharma", "Verma", "Agarwal", "Bansal", "Mittal", "Jain", "Shah", "Mehta", "Chandra", "Kumar",
-            "Devi", "Mata", "Bai", "Kumari", "Sundari", "Lakshmi", "Durga", "Kali", "Parvati", "Radha",
-            "Sita", "Gita", "Yamuna", "Ganga", "Saraswati", "Gayatri", "Savitri", "Sandhya", "Usha", "Asha",
-            "Nisha", "Disha", "Risha", "Priya", "Maya", "Lila", "Kala", "Nila", "Hira", "Sona",
-            "Chandi", "Moti", "Panna", "Manik", "Ratna", "Mukta", "Swarna", "Rajat", "Tamra", "Loha",
-            "Veda", "Purana", "Upanishad", "Gita", "Ramayana", "Mahabharata", "Bhagavata", "Devi", "Vishnu", "Shiva",
-            "Shakti", "Shanti", "Mukti", "Bhakti", "Prema", "Karuna", "Daya", "Kshama", "Satya", "Dharma",
-            "Artha", "Kama", "Moksha", "Yoga", "Meditation", "Pranayama", "Asana", "Mudra", "Mantra", "Yantra",
-            "Mandala", "Chakra", "Kundalini", "Samadhi", "Nirvana", "Enlightenment", "Awakening", "Consciousness", "Awareness", "Mindfulness"
-        };
+        pipelineMetrics.start(queueCapacity);
+    }
+    
+    // Method to stop the writer stage: one poison pill per writer, then wait until every queued student is written
+    private static void stopBatchProcessor() {
+        if (writerExecutorService == null) return;
         
-        // Expanded suffixes (100+ options)
-        String[] schoolSuffixes = {
-            "Public School", "Higher Secondary School", "High School", "Senior Secondary School", 
-            "English Medium School", "Model School", "International School", "Academy", "Institute",
-            "Educational Institute", "Learning Center", "Study Center", "Knowledge Hub", "Vidyalaya",
-            "Vidya Mandir", "Vidya Niketan", "Vidya Bhawan", "Vidya Kendra", "Shiksha Niketan",
-            "Bal Vidyalaya", "Convent School", "Mission School", "Memorial School", "Foundation School",
-            "Central School", "Kendriya Vidyalaya", "Jawahar Navodaya Vidyalaya", "Government School", "Municipal School",
-            "Corporation School", "Zilla Panchayat School", "Block School", "Gram Panchayat School", "Aided School",
-            "Unaided School", "Minority School", "Linguistic Minority School", "Religious Minority School", "Special School",
-            "Inclusive School", "Integrated School", "Composite School", "Senior School", "Junior School",
-            "Primary School", "Elementary School", "Middle School", "Secondary School", "Preparatory School",
-            "Kindergarten", "Pre-School", "Nursery School", "Play School", "Day Care Center",
-            "Boarding School", "Residential School", "Hostel School", "Day School", "Co-Educational School",
-            "Boys School", "Girls School", "Women's College", "Men's College", "Unisex Institute",
-            "Technical Institute", "Polytechnic", "Engineering College", "Medical College", "Dental College",
-            "Pharmacy College", "Nursing College", "Teacher Training College", "B.Ed College", "D.Ed College",
-            "Arts College", "Science College", "Commerce College", "Management Institute", "Business School",
-            "Law College", "Agricultural College", "Veterinary College", "Forestry College", "Fisheries College",
-            "Technology Institute", "Computer Institute", "IT Academy", "Software Academy", "Hardware Institute",
-            "Electronics Institute", "Telecommunications Academy", "Robotics Academy", "AI Institute", "Data Science Academy",
-            "Research Institute", "Innovation Center", "Incubation Center", "Startup Academy", "Entrepreneurship Center",
-            "Leadership Academy", "Excellence Center", "Quality Institute", "Standards Academy", "Certification Center",
-            "Training Academy", "Skill Development Center", "Vocational Institute", "Professional Academy", "Career Center",
-            "Finishing School", "Personality Development Center", "Soft Skills Academy", "Communication Center", "Language Institute"
-        };
-        
-        // Additional components for more variation
-        String[] numericSuffixes = {
-            "1", "2", "3", "4", "5", "I", "II", "III", "IV", "V",
-            "Alpha", "Beta", "Gamma", "Delta", "Omega", "Prime", "Plus", "Pro", "Max", "Elite"
-        };
-        
-        String[] locationPrefixes = {
-            "East", "West", "North", "South", "Central", "Greater", "New", "Old", "Upper", "Lower"
-        };
-        
-        String schoolName;
-        int attempts = 0;
-        final int MAX_ATTEMPTS = 1000; // Prevent infinite loops
-        
-        do {
-            attempts++;
-            if (attempts > MAX_ATTEMPTS) {
-                // If we can't find a unique name after many attempts, add a random number
-                schoolName = generateBasicSchoolName(schoolPrefixes, schoolMiddles, schoolSuffixes) + " " + 
-                           (1000000 + (int)(Math.random() * 9000000)); // 7-digit random number
-                break;
+        try {
+            // One pill per writer, but never block on a full queue that no writer drains any more: once every
+            // writer has given up, producers write directly and nothing would ever make room for a pill
+            for (int pills = 0; pills < activeStudentWriters; ) {
+                if (studentBatchQueue.offer(POISON_PILL, 1, TimeUnit.SECONDS)) {
+                    pills++;
+                } else if (liveStudentWriters.get() == 0) {
+                    break;
+                }
             }
+            writerExecutorService.shutdown();
             
-            double pattern = Math.random();
-            
-            if (pattern < 0.15) {
-                // Pattern 1: Location + Prefix + Middle + Suffix (15%)
-                String location = locationPrefixes[(int) (Math.random() * locationPrefixes.length)];
-                String prefix = schoolPrefixes[(int) (Math.random() * schoolPrefixes.length)];
-                String middle = schoolMiddles[(int) (Math.random() * schoolMiddles.length)];
-                String suffix = schoolSuffixes[(int) (Math.random() * schoolSuffixes.length)];
-                schoolName = location + " " + prefix + " " + middle + " " + suffix;
-            } else if (pattern < 0.30) {
-                // Pattern 2: Prefix + Middle + Suffix + Numeric (15%)
-                String prefix = schoolPrefixes[(int) (Math.random() * schoolPrefixes.length)];
-                String middle = schoolMiddles[(int) (Math.random() * schoolMiddles.length)];
-                String suffix = schoolSuffixes[(int) (Math.random() * schoolSuffixes.length)];
-                String numeric = numericSuffixes[(int) (Math.random() * numericSuffixes.length)];
-                schoolName = prefix + " " + middle + " " + suffix + " " + numeric;
-            } else if (pattern < 0.45) {
-                // Pattern 3: Two Middles + Suffix (15%)
-                String prefix = schoolPrefixes[(int) (Math.random() * schoolPrefixes.length)];
-                String middle1 = schoolMiddles[(int) (Math.random() * schoolMiddles.length)];
-                String middle2 = schoolMiddles[(int) (Math.random() * schoolMiddles.length)];
-                String suffix = schoolSuffixes[(int) (Math.random() * schoolSuffixes.length)];
-                if (!middle1.equals(middle2)) {
-                    schoolName = prefix + " " + middle1 + " " + middle2 + " " + suffix;
-                } else {
-                    schoolName = prefix + " " + middle1 + " " + suffix;
+            while (!writerExecutorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.out.println("Waiting for student writers to finish (" + studentBatchQueue.size() + " students still queued)...");
+            }
+        } catch (InterruptedException e) {
+            writerExecutorService.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.out.println("Student writer shutdown interrupted");
+        }
+        
+        // Writers that gave up leave their poison pill (and possibly students) behind: spool those students
+        java.util.List<StudentData> leftover = new java.util.ArrayList<>();
+        studentBatchQueue.drainTo(leftover);
+        leftover.removeIf(student -> student == POISON_PILL);
+        if (!leftover.isEmpty()) {
+            System.err.println("WARNING: " + leftover.size() + " students were left in the queue because all writers stopped; spooling them");
+            java.util.Map<String, java.util.List<StudentData>> bySchool = new java.util.HashMap<>();
+            for (StudentData student : leftover) {
+                bySchool.computeIfAbsent(getStudentTableName(student.schoolName), k -> new java.util.ArrayList<>()).add(student);
+            }
+            for (java.util.Map.Entry<String, java.util.List<StudentData>> entry : bySchool.entrySet()) {
+                java.util.List<StudentData> students = entry.getValue();
+                if (!deadLetters.spoolStudents(entry.getKey(), students)) {
+                    droppedStudents.addAndGet(students.size());
                 }
-            } else if (pattern < 0.55) {
-                // Pattern 4: Prefix + Suffix only (10%)
-                String prefix = schoolPrefixes[(int) (Math.random() * schoolPrefixes.length)];
-                String suffix = schoolSuffixes[(int) (Math.random() * schoolSuffixes.length)];
-                schoolName = prefix + " " + suffix;
-            } else if (pattern < 0.70) {
-                // Pattern 5: Location + Prefix + Suffix (15%)
-                String location = locationPrefixes[(int) (Math.random() * locationPrefixes.length)];
-                String prefix = schoolPrefixes[(int) (Math.random() * schoolPrefixes.length)];
-                String suffix = schoolSuffixes[(int) (Math.random() * schoolSuffixes.length)];
-                schoolName = location + " " + prefix + " " + suffix;
-            } else {
-                // Pattern 6: Traditional format (30%)
-                schoolName = generateBasicSchoolName(schoolPrefixes, schoolMiddles, schoolSuffixes);
             }
-            
-        } while (usedSchoolNames.contains(schoolName));
+        }
+        System.out.println("All student writers stopped");
         
-        usedSchoolNames.add(schoolName);
-        return schoolName;
+        pipelineMetrics.stop();
+        pipelineMetrics.printSummary();
     }
     
-    // Helper method for basic school name generation
-    private static String generateBasicSchoolName(String[] prefixes, String[] middles, String[] suffixes) {
-        String prefix = prefixes[(int) (Math.random() * prefixes.length)];
-        String middle = middles[(int) (Math.random() * middles.length)];
-        String suffix = suffixes[(int) (Math.random() * suffixes.length)];
+    // Producer/consumer counters for the student queue, reported periodically while the writers run
+    static class PipelineMetrics {
+        private static final long REPORT_INTERVAL_SECONDS = 10;
+        
+        final java.util.concurrent.atomic.LongAdder studentsQueued = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder producerBlockedNanos = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder writerIdleNanos = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.AtomicInteger peakQueueDepth = new java.util.concurrent.atomic.AtomicInteger();
+        
+        private ScheduledExecutorService reporter;
+        private int queueCapacity;
+        private long startNanos;
+        private long lastReportNanos;
+        private long lastQueued;
+        private long lastWritten;
+        
+        synchronized void start(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            this.startNanos = System.nanoTime();
+            this.lastReportNanos = startNanos;
+            this.lastQueued = studentsQueued.sum();
+            this.lastWritten = processedStudents.get();
+            
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "pipeline-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(this::report, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
         
-        // Sometimes skip the middle part for variation
-        if (Math.random() < 0.3) {
-            return prefix + " " + suffix;
-        } else {
-            return prefix + " " + middle + " " + suffix;
+        synchronized void stop() {
+            if (reporter != null) {
+                reporter.shutdownNow();
+                reporter = null;
+            }
         }
-    }
-    
-    // Method to generate date of birth based on class and current year
-    private static String generateDateOfBirth(int currentClass) {
-        int currentYear = 2025; // Current year
-        int baseAge = 5; // Age for Class 1 admission
-        int studentAge = baseAge + (currentClass - 1); // Calculate age based on class
-        int birthYear = currentYear - studentAge;
         
-        // Generate random month (1-12) and day
-        int month = 1 + (int) (Math.random() * 12);
-        int day;
+        // Method to record the current queue depth after a successful handoff
+        void recordQueueDepth(int depth) {
+            int peak = peakQueueDepth.get();
+            while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth)) {
+                peak = peakQueueDepth.get();
+            }
+        }
         
-        // Handle different days per month
-        if (month == 2) {
-            // February - check for leap year
-            boolean isLeapYear = (birthYear % 4 == 0 && birthYear % 100 != 0) || (birthYear % 400 == 0);
-            day = 1 + (int) (Math.random() * (isLeapYear ? 29 : 28));
-        } else if (month == 4 || month == 6 || month == 9 || month == 11) {
-            // April, June, September, November have 30 days
-            day = 1 + (int) (Math.random() * 30);
-        } else {
-            // January, March, May, July, August, October, December have 31 days
-            day = 1 + (int) (Math.random() * 31);
+        // Method to print producer rate, consumer rate, queue depth and blocked time since the last report
+        synchronized void report() {
+            long now = System.nanoTime();
+            double seconds = Math.max((now - lastReportNanos) / 1_000_000_000.0, 0.001);
+            long queued = studentsQueued.sum();
+            long written = processedStudents.get();
+            
+            System.out.printf("Pipeline: produced %.0f/s, written %.0f/s, queue %d/%d (peak %d), producer blocked %d ms, writers idle %d ms\n",
+                (queued - lastQueued) / seconds, (written - lastWritten) / seconds,
+                studentBatchQueue.size(), queueCapacity, peakQueueDepth.get(),
+                producerBlockedNanos.sum() / 1_000_000, writerIdleNanos.sum() / 1_000_000);
+            
+            lastReportNanos = now;
+            lastQueued = queued;
+            lastWritten = written;
         }
         
-        return String.format("%02d/%02d/%d", day, month, birthYear);
+        synchronized void printSummary() {
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+            System.out.println("=== STUDENT PIPELINE SUMMARY ===");
+            System.out.printf("  Produced: %d students (%.0f/s)\n", studentsQueued.sum(), studentsQueued.sum() / seconds);
+            System.out.printf("  Written: %d students (%.0f/s)\n", (long) processedStudents.get(), processedStudents.get() / seconds);
+            System.out.println("  Queue capacity: " + queueCapacity + ", peak depth: " + peakQueueDepth.get());
+            System.out.println("  Producer blocked on full queue: " + producerBlockedNanos.sum() / 1_000_000 + " ms");
+            System.out.println("  Writers idle on empty queue: " + writerIdleNanos.sum() / 1_000_000 + " ms (summed over writers)");
+        }
     }
     
-    // Method to generate blood group
-    private static String generateBloodGroup() {
-        String[] bloodGroups = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
-        // O+ is most common, O- is rarest, adjust probabilities
-        double[] probabilities = {0.15, 0.05, 0.15, 0.05, 0.10, 0.02, 0.45, 0.03};
+    // Fixed-bucket latency histogram in the Prometheus layout; recording is a bucket scan and two LongAdder adds
+    static class LatencyHistogram {
+        static final double[] BUCKET_SECONDS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
         
-        double random = Math.random();
-        double cumulative = 0;
-        for (int i = 0; i < probabilities.length; i++) {
-            cumulative += probabilities[i];
-            if (random <= cumulative) {
-                return bloodGroups[i];
+        private final java.util.concurrent.atomic.LongAdder[] buckets = new java.util.concurrent.atomic.LongAdder[BUCKET_SECONDS.length + 1];
+        private final java.util.concurrent.atomic.LongAdder sumNanos = new java.util.concurrent.atomic.LongAdder();
+        
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new java.util.concurrent.atomic.LongAdder();
             }
         }
-        return "O+"; // Default
-    }
-    
-    // Method to generate religion
-    private static String generateReligion() {
-        String[] religions = {"Hindu", "Muslim", "Christian", "Sikh", "Buddhist", "Jain", "Other"};
-        // Approximate Indian religious demographics
-        double[] probabilities = {0.80, 0.14, 0.02, 0.02, 0.008, 0.004, 0.028};
         
-        double random = Math.random();
-        double cumulative = 0;
-        for (int i = 0; i < probabilities.length; i++) {
-            cumulative += probabilities[i];
-            if (random <= cumulative) {
-                return religions[i];
+        void record(long nanos) {
+            double seconds = nanos / 1_000_000_000.0;
+            int bucket = 0;
+            while (bucket < BUCKET_SECONDS.length && seconds > BUCKET_SECONDS[bucket]) {
+                bucket++;
             }
+            buckets[bucket].increment();
+            sumNanos.add(nanos);
         }
-        return "Hindu"; // Default
-    }
-    
-    // Method to generate gender
-    private static String generateGender() {
-        return Math.random() < 0.5 ? "Male" : "Female";
-    }
-    
-    // Method to generate parent occupation
-    private static String generateParentOccupation() {
-        String[] occupations = {
-            "Software Engineer", "Doctor", "Teacher", "Businessman", "Government Employee", 
-            "Lawyer", "Engineer", "Accountant", "Banker", "Consultant", "Manager", 
-            "Sales Executive", "Marketing Manager", "Farmer", "Police Officer", 
-            "Army Officer", "Nurse", "Pharmacist", "Architect", "Civil Engineer",
-            "Mechanical Engineer", "Electrical Engineer", "CA", "Professor", "Principal",
-            "Shopkeeper", "Contractor", "Real Estate Agent", "Insurance Agent", "Chef",
-            "Driver", "Technician", "Artist", "Writer", "Journalist", "Photographer"
-        };
-        return occupations[(int) (Math.random() * occupations.length)];
-    }
-    
-    // Method to check if concession is needed and generate concession details
-    private static String[] generateConcessionDetails() {
-        boolean needsConcession = Math.random() < 0.25; // 25% students need concession
         
-        if (!needsConcession) {
-            return new String[]{"No", "N/A"};
+        long count() {
+            long count = 0;
+            for (java.util.concurrent.atomic.LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
         }
         
-        String[] concessionTypes = {
-            "SC/ST Quota", "OBC Quota", "EWS Quota", "Physically Disabled", 
-            "Single Parent", "Below Poverty Line", "Merit Scholarship", 
-            "Sports Quota", "Defence Personnel", "Ex-Serviceman"
-        };
+        double sumSeconds() {
+            return sumNanos.sum() / 1_000_000_000.0;
+        }
         
-        String concessionType = concessionTypes[(int) (Math.random() * concessionTypes.length)];
-        return new String[]{"Yes", concessionType};
+        // Method to append the cumulative _bucket, _sum and _count lines for one label set
+        void appendPrometheus(StringBuilder out, String name, String labels) {
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String bound = i < BUCKET_SECONDS.length ? String.valueOf(BUCKET_SECONDS[i]) : "+Inf";
+                out.append(name).append("_bucket{").append(labels).append(",le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+            out.append(name).append("_sum{").append(labels).append("} ").append(sumSeconds()).append('\n');
+            out.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+        }
     }
     
-    // Method to generate medical condition
-    private static String generateMedicalCondition() {
-        double hasCondition = Math.random();
-        
-        if (hasCondition < 0.85) { // 85% have no medical conditions
-            return "None";
+    // JMX view of the run metrics, registered as schoolgen:type=RunMetrics (maps are keyed by table family)
+    public interface RunMetricsMXBean {
+        long getStudentsGenerated();
+        long getStudentsCommitted();
+        java.util.Map<String, Long> getRowsGenerated();
+        java.util.Map<String, Long> getRowsCommitted();
+        java.util.Map<String, Long> getRowsSpooled();
+        java.util.Map<String, Long> getBatchCount();
+        java.util.Map<String, Double> getBatchMeanMillis();
+        int getStudentQueueDepth();
+        int getPoolActiveConnections();
+        int getPoolIdleConnections();
+        int getPoolThreadsAwaitingConnection();
+        long getGcPauseCount();
+        double getGcPauseSeconds();
+    }
+    
+    // Run-wide counters and timers: rows handed to the database and committed per table family, per-family batch
+    // round-trip latency, the student queue, the connection pool and GC pauses. Writers only add to LongAdders;
+    // everything else is read when JMX or the /metrics endpoint asks, so an idle endpoint costs nothing.
+    static class RunMetrics implements RunMetricsMXBean {
+        private final java.util.concurrent.ConcurrentHashMap<String, java.util.concurrent.atomic.LongAdder> rowsGenerated =
+            new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, LatencyHistogram> batchLatency = new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, LatencyHistogram> gcPauses = new java.util.concurrent.ConcurrentHashMap<>();
+        
+        // Method to count rows handed to the database for a table (committed or not)
+        void recordGenerated(String tableName, long rows) {
+            if (rows > 0) {
+                rowsGenerated.computeIfAbsent(IdentifierRegistry.tableFamily(tableName),
+                    family -> new java.util.concurrent.atomic.LongAdder()).add(rows);
+            }
         }
         
-        String[] conditions = {
-            "Asthma", "Diabetes Type 1", "Epilepsy", "ADHD", "Dyslexia", 
-            "Heart Condition", "Allergies", "Vision Impairment", "Hearing Impairment",
-            "Autism Spectrum", "Learning Disability", "Speech Disorder"
-        };
+        // Method to record the round trip of one executed batch (or COPY chunk) that started at startNanos
+        void recordBatch(String tableName, long startNanos) {
+            batchLatency.computeIfAbsent(IdentifierRegistry.tableFamily(tableName), family -> new LatencyHistogram())
+                .record(System.nanoTime() - startNanos);
+        }
         
-        return conditions[(int) (Math.random() * conditions.length)];
-    }
-    
-    // Method to generate Aadhar card number
-    private static String generateAadharNumber(LRUCache<String> usedAadhars) {
-        String aadharNumber;
-        int attempts = 0;
-        do {
-            StringBuilder aadhar = new StringBuilder();
-            // Generate 12 digit number
-            for (int i = 0; i < 12; i++) {
-                aadhar.append((int) (Math.random() * 10));
+        // Method to register the MXBean and listen for GC notifications; concurrent-cycle collectors (ZGC and
+        // Shenandoah "Cycles" beans) are skipped since their durations are not pauses
+        void register() {
+            try {
+                java.lang.management.ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new javax.management.ObjectName("schoolgen:type=RunMetrics"));
+            } catch (javax.management.JMException e) {
+                System.err.println("Could not register run metrics MBean: " + e.getMessage());
             }
-            aadharNumber = aadhar.toString();
-            attempts++;
-            
-            // Prevent infinite loops in case cache is full
-            if (attempts > 1000) {
-                break;
+            for (java.lang.management.GarbageCollectorMXBean gc : java.lang.management.ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc.getName().contains("Cycles") || !(gc instanceof javax.management.NotificationEmitter emitter)) {
+                    continue;
+                }
+                LatencyHistogram pauses = gcPauses.computeIfAbsent(gc.getName(), name -> new LatencyHistogram());
+                emitter.addNotificationListener((notification, handback) -> {
+                    if (com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        com.sun.management.GarbageCollectionNotificationInfo info = com.sun.management.GarbageCollectionNotificationInfo
+                            .from((javax.management.openmbean.CompositeData) notification.getUserData());
+                        pauses.record(info.getGcInfo().getDuration() * 1_000_000L);
+                    }
+                }, null, null);
             }
-        } while (usedAadhars.contains(aadharNumber));
+        }
         
-        usedAadhars.add(aadharNumber);
-        // Format as XXXX XXXX XXXX
-        return aadharNumber.substring(0, 4) + " " + aadharNumber.substring(4, 8) + " " + aadharNumber.substring(8, 12);
-    }
-    
-    public static void main(String[] args) {
-        java.util.Scanner scanner = new java.util.Scanner(System.in);
+        // Helper method to sum per-table counters into per-family totals
+        private static java.util.Map<String, Long> byFamily(java.util.Map<String, java.util.concurrent.atomic.LongAdder> perTable) {
+            java.util.Map<String, Long> totals = new java.util.TreeMap<>();
+            perTable.forEach((tableName, rows) -> totals.merge(IdentifierRegistry.tableFamily(tableName), rows.sum(), Long::sum));
+            return totals;
+        }
         
-        // Initialize system detection and thread pool first
-        initializeSystemDetectionAndThreadPool();
+        private static java.util.Map<String, Long> sums(java.util.Map<String, java.util.concurrent.atomic.LongAdder> counters) {
+            java.util.Map<String, Long> sums = new java.util.TreeMap<>();
+            counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+            return sums;
+        }
         
-        // Initialize connection pool
-        System.out.println("=== INITIALIZING DATABASE CONNECTION POOL ===");
-        try {
-            initializeConnectionPool();
-        } catch (Exception e) {
-            System.err.println("Failed to initialize connection pool: " + e.getMessage());
-            scanner.close();
-            return;
+        private static com.zaxxer.hikari.HikariPoolMXBean pool() {
+            HikariDataSource source = dataSource;
+            return source != null && !source.isClosed() ? source.getHikariPoolMXBean() : null;
         }
         
-        // Database connection test
-        System.out.println("=== TESTING DATABASE CONNECTION ===");
-        try (Connection conn = getConnection()) {
-            System.out.println("Successfully connected to PostgreSQL database!");
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            System.err.println("Please make sure PostgreSQL is running and credentials are correct.");
-            closeConnectionPool();
-            scanner.close();
-            return;
+        @Override
+        public long getStudentsGenerated() {
+            return pipelineMetrics.studentsQueued.sum();
         }
         
-        // Get user input for school structure
-        System.out.println("\n=== SCHOOL MANAGEMENT SYSTEM ===");
-        System.out.print("Enter number of classes in each school (e.g., 12 for classes 1-12): ");
-        int numClasses = scanner.nextInt();
+        @Override
+        public long getStudentsCommitted() {
+            return processedStudents.get();
+        }
         
-        System.out.print("Enter number of sections per class (e.g., 4 for sections A, B, C, D): ");
-        int numSections = scanner.nextInt();
+        @Override
+        public java.util.Map<String, Long> getRowsGenerated() {
+            java.util.Map<String, Long> generated = sums(rowsGenerated);
+            generated.put("students", getStudentsGenerated()); // Students are generated by the producer, not the writers
+            return generated;
+        }
         
-        System.out.print("Enter number of students per section: ");
-        int studentsPerSection = scanner.nextInt();
+        @Override
+        public java.util.Map<String, Long> getRowsCommitted() {
+            return byFamily(committedRows);
+        }
         
-        System.out.print("Enter number of schools to generate: ");
-        int numSchools = scanner.nextInt();
+        @Override
+        public java.util.Map<String, Long> getRowsSpooled() {
+            java.util.Map<String, Long> spooled = new java.util.TreeMap<>();
+            for (String tableName : deadLetters.tables()) {
+                spooled.merge(IdentifierRegistry.tableFamily(tableName), deadLetters.spooledRows(tableName), Long::sum);
+            }
+            return spooled;
+        }
         
-        // Calculate total students
-        int totalStudentsPerSchool = numClasses * numSections * studentsPerSection;
-        int totalStudents = numSchools * totalStudentsPerSchool;
+        @Override
+        public java.util.Map<String, Long> getBatchCount() {
+            java.util.Map<String, Long> counts = new java.util.TreeMap<>();
+            batchLatency.forEach((family, histogram) -> counts.put(family, histogram.count()));
+            return counts;
+        }
         
-        System.out.println("\n=== SCHOOL STRUCTURE ===");
-        System.out.println("Number of Schools: " + numSchools);
-        System.out.println("Classes per School: " + numClasses + " (Class 1 to Class " + numClasses + ")");
-        System.out.println("Sections per Class: " + numSections);
-        System.out.println("Students per Section: " + studentsPerSection);
-        System.out.println("Total Students per School: " + totalStudentsPerSchool);
-        System.out.println("Total Students Across All Schools: " + totalStudents);
+        @Override
+        public java.util.Map<String, Double> getBatchMeanMillis() {
+            java.util.Map<String, Double> means = new java.util.TreeMap<>();
+            batchLatency.forEach((family, histogram) -> means.put(family, 1000.0 * histogram.sumSeconds() / Math.max(histogram.count(), 1)));
+            return means;
+        }
         
-        // Dataset size warnings and recommendations
-        if (totalStudents > 10000000) {
-            System.out.println("\n*** LARGE DATASET WARNING ***");
-            System.out.println("You are about to generate " + String.format("%,d", totalStudents) + " students.");
-            System.out.println("This is a very large dataset that may require:");
-            System.out.println("  - High memory allocation: java -Xmx16g (or higher)");
-            System.out.println("  - Significant processing time: 30+ minutes");
-            System.out.println("  - Large database storage: 10+ GB disk space");
-            System.out.println("  - PostgreSQL tuning for high connection load");
-            System.out.println("\nRecommendation: Start with a smaller dataset for testing.");
-        } else if (totalStudents > 1000000) {
-            System.out.println("\n*** MEDIUM DATASET NOTICE ***");
-            System.out.println("Generating " + String.format("%,d", totalStudents) + " students.");
-            System.out.println("Estimated time: 10-20 minutes");
-            System.out.println("Recommended memory: java -Xmx8g");
-        } else if (totalStudents > 100000) {
-            System.out.println("\n*** DATASET INFO ***");
-            System.out.println("Generating " + String.format("%,d", totalStudents) + " students.");
-            System.out.println("Estimated time: 2-5 minutes");
+        @Override
+        public int getStudentQueueDepth() {
+            return studentBatchQueue.size();
         }
         
-        System.out.println("=====================================\n");
+        @Override
+        public int getPoolActiveConnections() {
+            com.zaxxer.hikari.HikariPoolMXBean pool = pool();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
         
-        // Create database tables
-        System.out.println("=== CREATING DATABASE TABLES ===");
-        createTables();
+        @Override
+        public int getPoolIdleConnections() {
+            com.zaxxer.hikari.HikariPoolMXBean pool = pool();
+            return pool != null ? pool.getIdleConnections() : 0;
+        }
         
-        // Generate unique school names and UUIDs
-        java.util.Set<String> usedSchoolNames = new java.util.HashSet<>();
-        java.util.List<String> schoolNames = new java.util.ArrayList<>();
-        java.util.Map<String, String> schoolUUIDs = new java.util.HashMap<>();
+        @Override
+        public int getPoolThreadsAwaitingConnection() {
+            com.zaxxer.hikari.HikariPoolMXBean pool = pool();
+            return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        }
         
-        System.out.println("\n=== GENERATING SCHOOLS ===");
-        for (int i = 0; i < numSchools; i++) {
-            String schoolName = generateUniqueSchoolName(usedSchoolNames);
-            String schoolUUID = java.util.UUID.randomUUID().toString();
-            schoolNames.add(schoolName);
-            schoolUUIDs.put(schoolName, schoolUUID);
-            
-            // Create student table for this school
-            createStudentTable(schoolName);
-            
-            // Insert school data asynchronously
-            final String finalSchoolName = schoolName;
-            final String finalSchoolUUID = schoolUUID;
-            executorService.submit(() -> insertSchool(finalSchoolUUID, finalSchoolName));
+        @Override
+        public long getGcPauseCount() {
+            return gcPauses.values().stream().mapToLong(LatencyHistogram::count).sum();
         }
         
-        System.out.println("School generation completed!\n");
+        @Override
+        public double getGcPauseSeconds() {
+            return gcPauses.values().stream().mapToDouble(LatencyHistogram::sumSeconds).sum();
+        }
         
-        // Generate student data
-        String[] firstNames = {
-                "Aadhav", "Aadhya", "Aahan", "Aaira", "Aarav", "Aaravi", "Aarya", "Aasha", "Aashna", "Aashvi",
-                "Abha", "Abhay", "Abhi", "Abhijit", "Abhijeet", "Abhilash", "Abhinav", "Abhishek", "Adah", "Adarsh",
+        // Method to render every metric in the Prometheus text exposition format
+        String prometheusText() {
+            StringBuilder out = new StringBuilder(8192);
+            appendFamilyCounter(out, "schoolgen_rows_generated_total", "Rows generated and handed to the database", getRowsGenerated());
+            appendFamilyCounter(out, "schoolgen_rows_committed_total", "Rows whose transaction committed", getRowsCommitted());
+            appendFamilyCounter(out, "schoolgen_rows_spooled_total", "Rows saved to the dead-letter spool", getRowsSpooled());
+            
+            out.append("# HELP schoolgen_batch_duration_seconds Round trip of one executed batch or COPY chunk\n");
+            out.append("# TYPE schoolgen_batch_duration_seconds histogram\n");
+            new java.util.TreeMap<>(batchLatency).forEach((family, histogram) ->
+                histogram.appendPrometheus(out, "schoolgen_batch_duration_seconds", "family=\"" + family + "\""));
+            
+            appendGauge(out, "schoolgen_student_queue_depth", "Students waiting for a writer", studentBatchQueue.size());
+            appendGauge(out, "schoolgen_student_queue_capacity", "Capacity of the student queue",
+                studentBatchQueue.size() + studentBatchQueue.remainingCapacity());
+            appendGauge(out, "schoolgen_producer_blocked_seconds_total", "Time the producer spent blocked on a full queue",
+                pipelineMetrics.producerBlockedNanos.sum() / 1_000_000_000.0);
+            appendGauge(out, "schoolgen_writer_idle_seconds_total", "Time writers spent waiting on an empty queue, summed over writers",
+                pipelineMetrics.writerIdleNanos.sum() / 1_000_000_000.0);
+            
+            out.append("# HELP schoolgen_pool_connections Connections in the pool by state\n");
+            out.append("# TYPE schoolgen_pool_connections gauge\n");
+            out.append("schoolgen_pool_connections{state=\"active\"} ").append(getPoolActiveConnections()).append('\n');
+            out.append("schoolgen_pool_connections{state=\"idle\"} ").append(getPoolIdleConnections()).append('\n');
+            appendGauge(out, "schoolgen_pool_threads_awaiting_connection", "Threads blocked waiting for a pooled connection",
+                getPoolThreadsAwaitingConnection());
+            
+            out.append("# HELP schoolgen_gc_pause_seconds GC pauses reported by each collector\n");
+            out.append("# TYPE schoolgen_gc_pause_seconds histogram\n");
+            new java.util.TreeMap<>(gcPauses).forEach((gc, histogram) ->
+                histogram.appendPrometheus(out, "schoolgen_gc_pause_seconds", "gc=\"" + gc + "\""));
+            java.lang.management.MemoryUsage heap = java.lang.management.ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            appendGauge(out, "schoolgen_heap_used_bytes", "Heap in use", heap.getUsed());
+            return out.toString();
+        }
+        
+        private static void appendFamilyCounter(StringBuilder out, String name, String help, java.util.Map<String, Long> values) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(" counter\n");
+            values.forEach((family, value) -> out.append(name).append("{family=\"").append(family).append("\"} ").append(value).append('\n'));
+        }
+        
+        private static void appendGauge(StringBuilder out, String name, String help, double value) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(name.endsWith("_total") ? " counter\n" : " gauge\n");
+            out.append(name).append(' ').append(value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value)).append('\n');
+        }
+    }
+    
+    // Method to serve the run metrics at http://localhost:<metricsPort>/metrics (loopback only)
+    private static void startMetricsEndpoint() {
+        try {
+            metricsServer = com.sun.net.httpserver.HttpServer.create(
+                new java.net.InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), metricsPort), 0);
+            metricsServer.createContext("/metrics", exchange -> {
+                byte[] body = runMetrics.prometheusText().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (java.io.OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            metricsServer.start();
+            System.out.println("Metrics endpoint: http://localhost:" + metricsPort + "/metrics (JMX: schoolgen:type=RunMetrics)");
+        } catch (java.io.IOException e) {
+            System.err.println("Could not start metrics endpoint on port " + metricsPort + ": " + e.getMessage());
+            metricsServer = null;
+        }
+    }
+    
+    // Writer worker: drains the shared queue into its own batch buffer and writes it over its own connection
+    static class StudentBatchWriter implements Runnable {
+        private final int writerId;
+        private final int batchSize;
+        private final java.util.List<StudentData> batch = new java.util.ArrayList<>();
+        private final StudentRecordSink sink = newStudentSink();
+        
+        StudentBatchWriter(int writerId, int batchSize) {
+            this.writerId = writerId;
+            this.batchSize = batchSize;
+        }
+        
+        @Override
+        public void run() {
+            int consecutiveErrors = 0;
+            int maxConsecutiveErrors = 10;
+            
+            try {
+                while (true) {
+                    // Poll with a timeout so partial batches are flushed while the producer is slow
+                    StudentData student = studentBatchQueue.poll();
+                    if (student == null) {
+                        long waitStart = System.nanoTime();
+                        student = studentBatchQueue.poll(1, TimeUnit.SECONDS);
+                        pipelineMetrics.writerIdleNanos.add(System.nanoTime() - waitStart);
+                    }
+                    
+                    if (student == POISON_PILL) {
+                        break;
+                    }
+                    
+                    if (student != null) {
+                        batch.add(student);
+                        if (batch.size() < batchSize) {
+                            continue;
+                        }
+                    } else if (batch.isEmpty()) {
+                        continue;
+                    }
+                    
+                    if (flush()) {
+                        consecutiveErrors = 0; // Reset error counter on success
+                    } else {
+                        consecutiveErrors++;
+                        System.err.println("Writer " + writerId + " batch error (attempt " + consecutiveErrors + "/" + maxConsecutiveErrors + ")");
+                        
+                        if (consecutiveErrors >= maxConsecutiveErrors) {
+                            System.err.println("CRITICAL: Writer " + writerId + " hit too many consecutive batch errors and is stopping.");
+                            System.err.println("Queue size: " + studentBatchQueue.size() + " students");
+                            return;
+                        }
+                        
+                        // Wait before taking more work
+                        Thread.sleep(2000L * consecutiveErrors);
+                    }
+                }
+                
+                // Poison pill received: write whatever is left in this writer's buffer
+                flush();
+                
+            } catch (InterruptedException e) {
+                flush();
+                Thread.currentThread().interrupt();
+            } finally {
+                sink.close();
+                liveStudentWriters.decrementAndGet();
+                System.out.println("Student writer " + writerId + " stopped");
+            }
+        }
+        
+        // Method to write the buffered students grouped by school table; returns false if any table group was dropped
+        private boolean flush() {
+            if (batch.isEmpty()) return true;
+            
+            java.util.Map<String, java.util.List<StudentData>> groupedBySchool = new java.util.HashMap<>();
+            for (StudentData student : batch) {
+                String tableName = getStudentTableName(student.schoolName);
+                groupedBySchool.computeIfAbsent(tableName, k -> new java.util.ArrayList<>()).add(student);
+            }
+            batch.clear();
+            
+            boolean allWritten = true;
+            for (java.util.Map.Entry<String, java.util.List<StudentData>> entry : groupedBySchool.entrySet()) {
+                allWritten &= writeWithRetry(entry.getKey(), entry.getValue());
+            }
+            return allWritten;
+        }
+        
+        // Method to write one school's students, resetting the sink (for JDBC, reopening the connection) between attempts
+        private boolean writeWithRetry(String tableName, java.util.List<StudentData> students) {
+            int maxRetries = 3;
+            
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                try {
+                    sink.write(tableName, students);
+                    for (StudentData student : students) {
+                        if (student.progress != null) {
+                            student.progress.studentCommitted();
+                        }
+                    }
+                    return true;
+                    
+                } catch (SQLException | java.io.IOException e) {
+                    // The connection may be broken; discard it and start the next attempt on a fresh one
+                    sink.reset();
+                    
+                    if (attempt >= maxRetries) {
+                        System.err.println("Writer " + writerId + " failed to write batch of " + students.size() + " students to " + tableName + " after " + maxRetries + " attempts: " + e.getMessage());
+                        // Spool this batch and continue with the next one; its sections stay out of the checkpoint
+                        if (!deadLetters.spoolStudents(tableName, students)) {
+                            droppedStudents.addAndGet(students.size());
+                        }
+                        return false;
+                    }
+                    
+                    System.err.println("Writer " + writerId + " batch write failed, retrying... (" + attempt + "/" + maxRetries + ")");
+                    try {
+                        Thread.sleep(1000L * attempt); // Exponential backoff
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+        
+    }
+    
+    // Destination of the student family: one writer thread's batches, already grouped by student table
+    interface StudentRecordSink extends AutoCloseable {
+        void write(String tableName, java.util.List<StudentData> students) throws SQLException, java.io.IOException;
+        
+        // Called after a failed write so the next attempt starts from a clean state
+        void reset();
+        
+        @Override
+        void close();
+    }
+    
+    // Method to create a student sink for one writer thread, following --sink
+    private static StudentRecordSink newStudentSink() {
+        if (SINK_JDBC.equals(recordSinkMode)) {
+            return new JdbcStudentSink();
+        }
+        return new StudentRecordSink() {
+            @Override
+            public void write(String tableName, java.util.List<StudentData> students) throws java.io.IOException {
+                if (SINK_FILE.equals(recordSinkMode)) {
+                    TableTarget target = tableTarget(tableName);
+                    RowEncoder encoder = exportEncoders.get();
+                    encoder.reset();
+                    for (StudentData student : students) {
+                        encoder.studentRow(student, target);
+                    }
+                    tableFile(target.table, target.columns(STUDENT_COPY_COLUMNS)).append(encoder);
+                } else {
+                    recordCommittedRows(tableName, students.size());
+                }
+                reportStudentsWritten(students.size());
+            }
+            
+            @Override
+            public void reset() {
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+    }
+    
+    // Writes student batches over a connection the writer keeps for its lifetime, through COPY or INSERT (--writer)
+    static class JdbcStudentSink implements StudentRecordSink {
+        private Connection conn;
+        
+        @Override
+        public void write(String tableName, java.util.List<StudentData> students) throws SQLException, java.io.IOException {
+            if (conn == null) {
+                conn = getConnection();
+                conn.setAutoCommit(false); // Batches are committed explicitly
+            }
+            
+            if (WRITER_MODE_COPY.equals(studentWriterMode)) {
+                try {
+                    copyStudentBatch(conn, tableName, students);
+                } catch (SQLException e) {
+                    // COPY is all-or-nothing: a batch overlapping rows an interrupted run already committed
+                    // goes through the INSERT path instead, which skips the students that exist
+                    if (!"23505".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    conn.rollback();
+                    insertStudentBatch(conn, tableName, students);
+                }
+            } else {
+                insertStudentBatch(conn, tableName, students);
+            }
+        }
+        
+        @Override
+        public void reset() {
+            close();
+        }
+        
+        // Method to roll back and release this writer's connection
+        @Override
+        public void close() {
+            if (conn == null) return;
+            try {
+                if (!conn.isClosed()) {
+                    conn.rollback();
+                }
+            } catch (SQLException ignored) {
+                // Connection already unusable; closing below returns or evicts it
+            }
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+                // Nothing else to release
+            }
+            conn = null;
+        }
+    }
+    
+    // One file per table for the file sink, written through a FileChannel from pooled direct buffers.
+    // Producers encode rows into their own RowEncoder and hand whole chunks to append(); each file has a single
+    // writer at a time (a drain task on the shared export pool), so chunks reach the disk in the order they were
+    // appended and rows from concurrent shards never interleave mid-line. With every buffer in flight, append()
+    // blocks, which throttles the generators to the disk's speed.
+    static class TableFile {
+        private final String tableName;
+        private final java.nio.channels.FileChannel channel;
+        private final java.util.concurrent.ConcurrentLinkedQueue<ExportChunk> pending = new java.util.concurrent.ConcurrentLinkedQueue<>();
+        private final java.util.concurrent.atomic.AtomicBoolean draining = new java.util.concurrent.atomic.AtomicBoolean();
+        private volatile java.io.IOException failure;
+        
+        TableFile(java.nio.file.Path path, String tableName, String columns) throws java.io.IOException {
+            this.tableName = tableName;
+            this.channel = java.nio.channels.FileChannel.open(path, java.nio.file.StandardOpenOption.CREATE,
+                java.nio.file.StandardOpenOption.WRITE, java.nio.file.StandardOpenOption.TRUNCATE_EXISTING);
+            byte[] headerLine = RowEncoder.header(exportFormat, tableName, columns);
+            java.nio.ByteBuffer header = COMPRESS_GZIP.equals(exportCompression)
+                ? gzipMember(java.nio.ByteBuffer.wrap(headerLine)) : java.nio.ByteBuffer.wrap(headerLine);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        
+        // Method to queue an encoder's rows for this file and reset the encoder; the lock keeps one call's
+        // chunks contiguous when a call needs more than one buffer
+        synchronized void append(RowEncoder rows) throws java.io.IOException {
+            if (failure != null) {
+                throw failure;
+            }
+            rows.sealBlock();
+            int offset = 0;
+            while (offset < rows.length()) {
+                java.nio.ByteBuffer buffer = takeExportBuffer();
+                int length = Math.min(buffer.remaining(), rows.length() - offset);
+                buffer.put(rows.bytes(), offset, length).flip();
+                offset += length;
+                pending.add(new ExportChunk(buffer, offset == rows.length() ? rows.rows() : 0, COMPRESS_GZIP.equals(exportCompression)
+                    ? java.util.concurrent.CompletableFuture.supplyAsync(() -> gzipMember(buffer.duplicate()), exportCompressors) : null));
+                scheduleDrain(); // Per chunk: a call larger than the whole pool must not wait on its own buffers
+            }
+            rows.reset();
+        }
+        
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                exportWriters.execute(this::drain);
+            }
+        }
+        
+        // Runs on an export writer thread; the draining flag admits one drain per file at a time
+        private void drain() {
+            do {
+                ExportChunk chunk;
+                while ((chunk = pending.poll()) != null) {
+                    long startNanos = System.nanoTime();
+                    try {
+                        if (failure == null) {
+                            // Compressed chunks are written in queue order whichever compressor finishes first
+                            java.nio.ByteBuffer data = chunk.compressed != null ? chunk.compressed.join() : chunk.buffer;
+                            while (data.hasRemaining()) {
+                                channel.write(data);
+                            }
+                            runMetrics.recordBatch(tableName, startNanos);
+                            recordCommittedRows(tableName, chunk.rows);
+                        }
+                    } catch (java.io.IOException e) {
+                        failure = e; // Reported by the next append() and by close()
+                    } catch (java.util.concurrent.CompletionException e) {
+                        failure = new java.io.IOException("Compression failed", e.getCause());
+                    } finally {
+                        releaseExportBuffer(chunk.buffer);
+                    }
+                }
+                draining.set(false);
+                // A chunk queued between the last poll and releasing the flag found it still set
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+        
+        void close() throws java.io.IOException {
+            channel.close();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+    
+    // A filled export buffer, its gzip member once compressed (null when not compressing) and the rows that are
+    // complete once it is written. The buffer goes back to the pool only after the write, so compressed output
+    // waiting for the disk also counts against the buffer limit.
+    static class ExportChunk {
+        final java.nio.ByteBuffer buffer;
+        final long rows;
+        final java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> compressed;
+        
+        ExportChunk(java.nio.ByteBuffer buffer, long rows, java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> compressed) {
+            this.buffer = buffer;
+            this.rows = rows;
+            this.compressed = compressed;
+        }
+    }
+    
+    // Method to compress bytes into one complete gzip member (RFC 1952): the fixed 10-byte header written by
+    // GZIPOutputStream, raw deflate data from this thread's Deflater, then the CRC-32 and length of the input
+    private static java.nio.ByteBuffer gzipMember(java.nio.ByteBuffer input) {
+        int inputLength = input.remaining();
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        crc.update(input.duplicate());
+        
+        java.util.zip.Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] out = new byte[Math.max(inputLength / 4, 1024)];
+        out[0] = (byte) 0x1f; // Magic number, then CM = deflate; flags, mtime, XFL and OS stay 0
+        out[1] = (byte) 0x8b;
+        out[2] = 8;
+        int length = 10;
+        while (!deflater.finished()) {
+            if (length == out.length) {
+                out = java.util.Arrays.copyOf(out, out.length * 2);
+            }
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        if (length + 8 > out.length) {
+            out = java.util.Arrays.copyOf(out, length + 8);
+        }
+        long checksum = crc.getValue();
+        for (int i = 0; i < 4; i++) {
+            out[length + i] = (byte) (checksum >>> (8 * i)); // Little-endian, as RFC 1952 specifies
+            out[length + 4 + i] = (byte) (inputLength >>> (8 * i));
+        }
+        length += 8;
+        exportRawBytes.addAndGet(inputLength);
+        exportCompressedBytes.addAndGet(length);
+        return java.nio.ByteBuffer.wrap(out, 0, length);
+    }
+    
+    // Helper method to take a cleared export buffer, allocating up to the pool limit and then waiting for one
+    private static java.nio.ByteBuffer takeExportBuffer() throws java.io.IOException {
+        java.nio.ByteBuffer buffer = exportBuffers.poll();
+        if (buffer == null) {
+            if (allocatedExportBuffers.incrementAndGet() <= EXPORT_BUFFERS_PER_WRITER * getExportWriterThreads()) {
+                return java.nio.ByteBuffer.allocateDirect(EXPORT_BUFFER_BYTES);
+            }
+            allocatedExportBuffers.decrementAndGet();
+            try {
+                buffer = exportBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new java.io.InterruptedIOException("Interrupted while waiting for an export buffer");
+            }
+        }
+        buffer.clear();
+        return buffer;
+    }
+    
+    private static void releaseExportBuffer(java.nio.ByteBuffer buffer) {
+        exportBuffers.add(buffer);
+    }
+    
+    // Helper method to get the export writer thread count: --export-threads, or half the processors (at least 2)
+    private static int getExportWriterThreads() {
+        return exportWriterThreads > 0 ? exportWriterThreads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    
+    // Method to open (once per run, truncating any earlier output) the sink file of a table
+    private static TableFile tableFile(String tableName, String columns) {
+        return tableFiles.computeIfAbsent(tableName, name -> {
+            try {
+                synchronized (tableFiles) {
+                    if (exportWriters == null) {
+                        exportWriters = Executors.newFixedThreadPool(getExportWriterThreads(), runnable -> {
+                            Thread thread = new Thread(runnable, "export-writer");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                    }
+                    if (exportCompressors == null && COMPRESS_GZIP.equals(exportCompression)) {
+                        int threads = compressorThreads > 0 ? compressorThreads : Runtime.getRuntime().availableProcessors();
+                        exportCompressors = Executors.newFixedThreadPool(threads, runnable -> {
+                            Thread thread = new Thread(runnable, "export-compressor");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                    }
+                }
+                java.nio.file.Path directory = java.nio.file.Path.of(sinkDirectory);
+                java.nio.file.Files.createDirectories(directory);
+                String suffix = (EXPORT_FORMAT_COPY.equals(exportFormat) ? SPOOL_FILE_SUFFIX
+                    : EXPORT_FORMAT_SNAPSHOT.equals(exportFormat) ? SNAPSHOT_FILE_SUFFIX : "." + exportFormat)
+                    + (COMPRESS_GZIP.equals(exportCompression) ? ".gz" : "");
+                return new TableFile(directory.resolve(name + suffix), name, columns);
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException("Could not create sink file for " + name, e);
+            }
+        });
+    }
+    
+    // Method to wait for the export writers to drain every queued chunk, then close every sink file
+    private static void closeTableFiles() {
+        if (exportWriters != null) {
+            exportWriters.shutdown();
+            try {
+                if (!exportWriters.awaitTermination(1, TimeUnit.HOURS)) {
+                    System.err.println("Export writers did not finish within an hour; sink files may be incomplete");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exportWriters = null;
+        }
+        if (exportCompressors != null) {
+            exportCompressors.shutdown(); // Idle by now: every chunk was compressed before its write
+            exportCompressors = null;
+        }
+        for (TableFile file : tableFiles.values()) {
+            try {
+                file.close();
+            } catch (java.io.IOException e) {
+                System.err.println("Could not write sink file for " + file.tableName + ": " + e.getMessage());
+            }
+        }
+        if (!tableFiles.isEmpty()) {
+            System.out.println("Wrote " + tableFiles.size() + " " + exportFormat + " table files to " + java.nio.file.Path.of(sinkDirectory).toAbsolutePath());
+            if (exportRawBytes.get() > 0) {
+                System.out.printf("Compressed %,d MB of rows to %,d MB (%.1f%%) in gzip members%n", exportRawBytes.get() >> 20,
+                    exportCompressedBytes.get() >> 20, 100.0 * exportCompressedBytes.get() / exportRawBytes.get());
+            }
+        }
+        tableFiles.clear();
+        if (snapshotSchema != null) {
+            try {
+                snapshotSchema.close();
+            } catch (java.io.IOException e) {
+                System.err.println("Could not write " + SNAPSHOT_SCHEMA_FILE + ": " + e.getMessage());
+            }
+            snapshotSchema = null;
+        }
+        exportBuffers.clear();
+        allocatedExportBuffers.set(0);
+    }
+    
+    // Hand-rolled row encoder for the file sink: appends UTF-8 straight into a growable byte array with the
+    // delimiter, escaping and NULL spelling of the export format, without String.format or per-field Strings.
+    // copy: tab separated, backslash escapes, \N for NULL. tsv: the same escapes, empty NULL. csv: RFC 4180
+    // quoting (only fields containing a comma, quote or line break are quoted), empty NULL.
+    //
+    // snapshot (version SNAPSHOT_VERSION): a header of the magic "SGSN", the version (int), the table name and
+    // the column list (varint length + UTF-8 each), then self-contained blocks, one per append: the block's byte
+    // length (int), its row count and dictionary size (varints), the dictionary (every distinct text value of
+    // the block, varint length + UTF-8) and the rows, each field as a tag byte plus a payload. Text fields refer
+    // to the dictionary by varint index, dates are epoch-day ints, times minute-of-day shorts, UUIDs two longs
+    // and integers zigzag varints. Blocks need nothing from the rest of the file, so a loader can decode them in
+    // parallel; ints and longs are big-endian.
+    static final class RowEncoder {
+        private static final long DEFAULT_BIRTH_EPOCH_DAY = java.time.LocalDate.of(2020, 1, 1).toEpochDay(); // As parseDate
+        private static final byte TAG_NULL = 0;
+        private static final byte TAG_INTEGER = 1;
+        private static final byte TAG_DATE = 2;
+        private static final byte TAG_TIME = 3;
+        private static final byte TAG_UUID = 4;
+        private static final byte TAG_TEXT = 5;
+        private static final byte TAG_TRUE = 6;
+        private static final byte TAG_FALSE = 7;
+        private static final byte TAG_DOUBLE = 8;
+        private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        private final byte delimiter;
+        private final boolean csv;
+        private final boolean copy;
+        private final boolean snapshot;
+        private byte[] bytes;
+        private int length;
+        private int rows;
+        private boolean rowStarted;
+        // Snapshot block state: the dictionary of this block and a spare array the sealed block is built in
+        private final java.util.HashMap<String, Integer> dictionary = new java.util.HashMap<>();
+        private final java.io.ByteArrayOutputStream dictionaryBytes = new java.io.ByteArrayOutputStream();
+        private byte[] spare = new byte[0];
+        private boolean sealed;
+        
+        RowEncoder(String format, int initialCapacity) {
+            this.csv = EXPORT_FORMAT_CSV.equals(format);
+            this.copy = EXPORT_FORMAT_COPY.equals(format);
+            this.snapshot = EXPORT_FORMAT_SNAPSHOT.equals(format);
+            this.delimiter = (byte) (csv ? ',' : '\t');
+            this.bytes = new byte[initialCapacity];
+        }
+        
+        // Method to encode the first line (or the snapshot header) of a sink file
+        static byte[] header(String format, String tableName, String columns) {
+            if (EXPORT_FORMAT_SNAPSHOT.equals(format)) {
+                java.io.ByteArrayOutputStream header = new java.io.ByteArrayOutputStream();
+                header.writeBytes("SGSN".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                header.writeBytes(java.nio.ByteBuffer.allocate(4).putInt(SNAPSHOT_VERSION).array());
+                writeSnapshotString(header, tableName);
+                writeSnapshotString(header, columns);
+                return header.toByteArray();
+            }
+            RowEncoder encoder = new RowEncoder(format, 256);
+            if (encoder.copy) {
+                encoder.field(tableName).field(columns);
+            } else {
+                for (String column : columns.split(", ")) {
+                    encoder.field(column);
+                }
+            }
+            encoder.endRow();
+            return java.util.Arrays.copyOf(encoder.bytes, encoder.length);
+        }
+        
+        int length() {
+            return length;
+        }
+        
+        int rows() {
+            return rows;
+        }
+        
+        byte[] bytes() {
+            return bytes;
+        }
+        
+        void reset() {
+            length = 0;
+            rows = 0;
+            rowStarted = false;
+            if (snapshot) {
+                dictionary.clear();
+                dictionaryBytes.reset();
+                sealed = false;
+            }
+        }
+        
+        // Method to turn the encoded snapshot rows into a complete block (length, row count, dictionary, rows);
+        // other formats have nothing to add. Encoding more rows requires a reset() first.
+        void sealBlock() {
+            if (!snapshot || sealed || rows == 0) {
+                return;
+            }
+            java.io.ByteArrayOutputStream prefix = new java.io.ByteArrayOutputStream(16);
+            writeVarint(prefix, rows);
+            writeVarint(prefix, dictionary.size());
+            int blockLength = prefix.size() + dictionaryBytes.size() + length;
+            if (spare.length < 4 + blockLength) {
+                spare = new byte[4 + blockLength + (4 + blockLength) / 4];
+            }
+            java.nio.ByteBuffer block = java.nio.ByteBuffer.wrap(spare);
+            block.putInt(blockLength).put(prefix.toByteArray()).put(dictionaryBytes.toByteArray()).put(bytes, 0, length);
+            spare = bytes;
+            bytes = block.array();
+            length = block.position();
+            sealed = true;
+        }
+        
+        RowEncoder nullField() {
+            if (snapshot) {
+                put((char) TAG_NULL);
+                return this;
+            }
+            separator();
+            if (copy) {
+                ensure(2);
+                bytes[length++] = '\\';
+                bytes[length++] = 'N';
+            }
+            return this;
+        }
+        
+        RowEncoder field(String value) {
+            if (value == null) {
+                return nullField();
+            }
+            if (snapshot) {
+                if (isCanonicalUuid(value)) {
+                    ensure(17);
+                    bytes[length++] = TAG_UUID;
+                    putLong(parseHex(value, 0, 8) << 32 | parseHex(value, 9, 13) << 16 | parseHex(value, 14, 18));
+                    putLong(parseHex(value, 19, 23) << 48 | parseHex(value, 24, 36));
+                    return this;
+                }
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = dictionary.size();
+                    dictionary.put(value, index);
+                    writeSnapshotString(dictionaryBytes, value);
+                }
+                put((char) TAG_TEXT);
+                putVarint(index);
+                return this;
+            }
+            separator();
+            if (csv && needsQuotes(value)) {
+                put('"');
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        put('"');
+                    }
+                    i = putChar(value, i);
+                }
+                put('"');
+                return this;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (!csv && (c == '\\' || c == '\t' || c == '\n' || c == '\r')) {
+                    put('\\');
+                    put(c == '\\' ? '\\' : c == '\t' ? 't' : c == '\n' ? 'n' : 'r');
+                } else {
+                    i = putChar(value, i);
+                }
+            }
+            return this;
+        }
+        
+        RowEncoder field(long value) {
+            if (snapshot) {
+                put((char) TAG_INTEGER);
+                putVarint((value << 1) ^ (value >> 63)); // Zigzag, so small negative numbers stay short
+                return this;
+            }
+            separator();
+            if (value == Long.MIN_VALUE) {
+                putAscii(Long.toString(value));
+                return this;
+            }
+            if (value < 0) {
+                put('-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+        
+        RowEncoder field(boolean value) {
+            if (snapshot) {
+                put((char) (value ? TAG_TRUE : TAG_FALSE));
+                return this;
+            }
+            separator();
+            putAscii(copy ? (value ? "t" : "f") : (value ? "true" : "false"));
+            return this;
+        }
+        
+        // Method to encode an epoch day as yyyy-mm-dd (civil-from-days, as appendIsoDate)
+        RowEncoder dateField(long epochDay) {
+            if (snapshot) {
+                ensure(5);
+                bytes[length++] = TAG_DATE;
+                putInt(Math.toIntExact(epochDay));
+                return this;
+            }
+            separator();
+            long shifted = epochDay + 719468;
+            long era = Math.floorDiv(shifted, 146097);
+            long dayOfEra = shifted - era * 146097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long monthIndex = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+            int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            if (year < 1000 || year > 9999) {
+                putAscii(java.time.LocalDate.ofEpochDay(epochDay).toString());
+                return this;
+            }
+            ensure(10);
+            int y = (int) year;
+            bytes[length++] = (byte) ('0' + y / 1000);
+            bytes[length++] = (byte) ('0' + y / 100 % 10);
+            bytes[length++] = (byte) ('0' + y / 10 % 10);
+            bytes[length++] = (byte) ('0' + y % 10);
+            bytes[length++] = '-';
+            putTwoDigits(month);
+            bytes[length++] = '-';
+            putTwoDigits(day);
+            return this;
+        }
+        
+        // Method to encode minutes after midnight as hh:mm:00, or NULL for AttendanceRowConsumer.NO_TIME
+        RowEncoder timeField(int minuteOfDay) {
+            if (minuteOfDay == AttendanceRowConsumer.NO_TIME) {
+                return nullField();
+            }
+            if (snapshot) {
+                ensure(3);
+                bytes[length++] = TAG_TIME;
+                bytes[length++] = (byte) (minuteOfDay >>> 8);
+                bytes[length++] = (byte) minuteOfDay;
+                return this;
+            }
+            separator();
+            ensure(8);
+            putTwoDigits(minuteOfDay / 60);
+            bytes[length++] = ':';
+            putTwoDigits(minuteOfDay % 60);
+            bytes[length++] = ':';
+            bytes[length++] = '0';
+            bytes[length++] = '0';
+            return this;
+        }
+        
+        // Method to encode a value bound by the generators (see writeMarksToSink): integers, dates and Strings
+        // take the fast paths, anything else its toString()
+        RowEncoder value(Object value) {
+            if (value == null) {
+                return nullField();
+            } else if (value instanceof String text) {
+                return field(text);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                return field(((Number) value).longValue());
+            } else if (value instanceof java.time.LocalDate date) {
+                return dateField(date.toEpochDay());
+            } else if (value instanceof java.sql.Date date) {
+                return dateField(date.toLocalDate().toEpochDay());
+            } else if (value instanceof Boolean flag) {
+                return field(flag.booleanValue());
+            } else if (value instanceof Double number && snapshot) {
+                ensure(9);
+                bytes[length++] = TAG_DOUBLE;
+                putLong(Double.doubleToRawLongBits(number));
+                return this;
+            }
+            return field(value.toString());
+        }
+        
+        // Method to encode a UUID given as two longs in its canonical lowercase text form
+        RowEncoder uuidField(long mostSigBits, long leastSigBits) {
+            separator();
+            ensure(36);
+            putHex(mostSigBits >>> 32, 8);
+            bytes[length++] = '-';
+            putHex(mostSigBits >>> 16, 4);
+            bytes[length++] = '-';
+            putHex(mostSigBits, 4);
+            bytes[length++] = '-';
+            putHex(leastSigBits >>> 48, 4);
+            bytes[length++] = '-';
+            putHex(leastSigBits, 12);
+            return this;
+        }
+        
+        // Method to re-encode the rows of one snapshot block (positioned after its length) in this encoder's
+        // format, returning the number of rows
+        int decodeSnapshotBlock(java.nio.ByteBuffer block, int columnCount) {
+            int rowCount = (int) readVarint(block);
+            String[] values = new String[(int) readVarint(block)];
+            for (int i = 0; i < values.length; i++) {
+                byte[] text = new byte[(int) readVarint(block)];
+                block.get(text);
+                values[i] = new String(text, java.nio.charset.StandardCharsets.UTF_8);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                for (int column = 0; column < columnCount; column++) {
+                    byte tag = block.get();
+                    switch (tag) {
+                        case TAG_NULL -> nullField();
+                        case TAG_INTEGER -> {
+                            long zigzag = readVarint(block);
+                            field((zigzag >>> 1) ^ -(zigzag & 1));
+                        }
+                        case TAG_DATE -> dateField(block.getInt());
+                        case TAG_TIME -> timeField(block.getShort() & 0xFFFF);
+                        case TAG_UUID -> uuidField(block.getLong(), block.getLong());
+                        case TAG_TEXT -> field(values[(int) readVarint(block)]);
+                        case TAG_TRUE -> field(true);
+                        case TAG_FALSE -> field(false);
+                        case TAG_DOUBLE -> field(Double.toString(block.getDouble()));
+                        default -> throw new IllegalStateException("Unknown snapshot field tag " + tag);
+                    }
+                }
+                endRow();
+            }
+            return rowCount;
+        }
+        
+        // The row methods end each row with the partition keys of its target table (none with --schema=tables)
+        void row(Object[] values, TableTarget target) {
+            for (Object value : values) {
+                value(value);
+            }
+            target.encodeKeys(this);
+            endRow();
+        }
+        
+        void attendanceRow(String studentUuid, long epochDay, String status, int arrivalMinute,
+                           int departureMinute, String remarks, TableTarget target) {
+            field(studentUuid).dateField(epochDay).field(status).timeField(arrivalMinute).timeField(departureMinute).field(remarks);
+            target.encodeKeys(this);
+            endRow();
+        }
+        
+        // Method to encode a student in STUDENT_COPY_COLUMNS order, with the NULL mapping of encodeStudentCopyRows
+        void studentRow(StudentData student, TableTarget target) {
+            field(student.studentUUID).field(student.fullName).field(student.guardianName).field(student.gender)
+                .field(student.bloodGroup).dateField(birthEpochDay(student.birthDate)).field(student.aadharNumber)
+                .field(student.className).field(student.section).field(student.rollNo).field(student.religion)
+                .field(student.parentOccupation).field(student.concessionNeeded.equals("Yes"))
+                .field(student.concessionType.equals("N/A") ? null : student.concessionType)
+                .field(student.medicalCondition.equals("None") ? null : student.medicalCondition)
+                .field(student.studentPhone).field(student.guardianPhone).field(student.imageUrl).field(student.stream);
+            target.encodeKeys(this);
+            endRow();
+        }
+        
+        // Helper method to parse a dd/mm/yyyy birth date to an epoch day without splitting or formatting Strings
+        private static long birthEpochDay(String date) {
+            int[] parts = new int[3];
+            int part = 0;
+            for (int i = 0; date != null && i < date.length(); i++) {
+                char c = date.charAt(i);
+                if (c == '/' && part < 2) {
+                    part++;
+                } else if (c >= '0' && c <= '9' && parts[part] < 100000) {
+                    parts[part] = parts[part] * 10 + (c - '0');
+                } else {
+                    return DEFAULT_BIRTH_EPOCH_DAY;
+                }
+            }
+            try {
+                return part == 2 ? java.time.LocalDate.of(parts[2], parts[1], parts[0]).toEpochDay() : DEFAULT_BIRTH_EPOCH_DAY;
+            } catch (java.time.DateTimeException e) {
+                return DEFAULT_BIRTH_EPOCH_DAY;
+            }
+        }
+        
+        void endRow() {
+            if (!snapshot) {
+                put('\n'); // Snapshot rows are delimited by the header's column count
+            }
+            rows++;
+            rowStarted = false;
+        }
+        
+        // Helper method to recognise the lowercase text form UUID.toString() produces, which round-trips exactly
+        private static boolean isCanonicalUuid(String value) {
+            if (value.length() != 36) {
+                return false;
+            }
+            for (int i = 0; i < 36; i++) {
+                char c = value.charAt(i);
+                if (i == 8 || i == 13 || i == 18 || i == 23 ? c != '-' : !(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private static long parseHex(String value, int from, int to) {
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                if (value.charAt(i) == '-') {
+                    continue;
+                }
+                result = result << 4 | Character.digit(value.charAt(i), 16);
+            }
+            return result;
+        }
+        
+        private static void writeSnapshotString(java.io.ByteArrayOutputStream out, String value) {
+            byte[] text = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            writeVarint(out, text.length);
+            out.writeBytes(text);
+        }
+        
+        private static void writeVarint(java.io.ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+        
+        static long readVarint(java.nio.ByteBuffer in) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+        
+        private void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+        
+        private void putInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+        
+        private void putLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+        
+        private void putHex(long value, int digits) {
+            for (int shift = 4 * (digits - 1); shift >= 0; shift -= 4) {
+                bytes[length++] = HEX_DIGITS[(int) (value >>> shift) & 0xF];
+            }
+        }
+        
+        private static boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private void separator() {
+            if (snapshot) {
+                return;
+            }
+            if (rowStarted) {
+                put((char) delimiter);
+            } else {
+                rowStarted = true;
+            }
+        }
+        
+        // Helper method to append the UTF-8 bytes of the character at index i, returning the last index consumed
+        private int putChar(String value, int i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                put(c);
+            } else if (c < 0x800) {
+                ensure(2);
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                if (Character.isSurrogate(c)) {
+                    c = '?'; // Unpaired surrogate, as String.getBytes(UTF_8) replaces it
+                    put(c);
+                    return i;
+                }
+                ensure(3);
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+            return i;
+        }
+        
+        private void putAscii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+        
+        private void putTwoDigits(int value) {
+            bytes[length++] = (byte) ('0' + value / 10);
+            bytes[length++] = (byte) ('0' + value % 10);
+        }
+        
+        private void put(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+        }
+        
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = java.util.Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+    
+    // File and null sink of the row families (academic, attendance, homework, projects). The file sink encodes
+    // rows with the writer thread's RowEncoder and appends them to the table's file every EXPORT_FLUSH_BYTES and
+    // on close; the null sink only counts them. Local I/O errors are not retried: they surface as
+    // UncheckedIOException.
+    static class OfflineRowSink implements StudentRowSink, AttendanceRowConsumer {
+        private final String tableName;
+        private final TableTarget target;
+        private final TableFile file; // null for the null sink
+        private final RowEncoder encoder;
+        private int bufferedRows;
+        private long rowsWritten;
+        
+        OfflineRowSink(String tableName, String columns) {
+            this.tableName = tableName;
+            this.target = tableTarget(tableName);
+            this.file = SINK_FILE.equals(recordSinkMode) ? tableFile(target.table, target.columns(columns)) : null;
+            this.encoder = file != null ? exportEncoders.get() : null;
+            if (encoder != null) {
+                encoder.reset(); // Drops rows a failed sink on this thread left behind
+            }
+        }
+        
+        @Override
+        public void accept(Object... values) {
+            if (encoder != null) {
+                encoder.row(values, target);
+            }
+            bufferedRows++;
+        }
+        
+        @Override
+        public void accept(String studentUuid, long epochDay, String status, int arrivalMinute,
+                           int departureMinute, String remarks) {
+            if (encoder != null) {
+                encoder.attendanceRow(studentUuid, epochDay, status, arrivalMinute, departureMinute, remarks, target);
+            }
+            bufferedRows++;
+        }
+        
+        @Override
+        public void endStudent() {
+            if (encoder == null || encoder.length() >= EXPORT_FLUSH_BYTES) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (bufferedRows == 0) {
+                return;
+            }
+            if (file != null) {
+                try {
+                    file.append(encoder);
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException("Could not write sink file for " + tableName, e);
+                }
+            } else {
+                recordCommittedRows(tableName, bufferedRows);
+            }
+            rowsWritten += bufferedRows;
+            bufferedRows = 0;
+        }
+        
+        @Override
+        public long rowsWritten() {
+            return rowsWritten;
+        }
+        
+        @Override
+        public void close() {
+            flush();
+        }
+    }
+    
+    // Method to create the stand-in connection of a snapshot export: the usual create*Table methods run against
+    // it, and every statement they execute is appended to the snapshot's schema.sql instead of reaching a database
+    private static Connection schemaCaptureConnection() {
+        Statement capture = (Statement) java.lang.reflect.Proxy.newProxyInstance(Statement.class.getClassLoader(),
+            new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "execute", "executeUpdate" -> {
+                        recordSnapshotSchema((String) args[0]);
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : Integer.valueOf(0);
+                    }
+                    case "close" -> {
+                        return null;
+                    }
+                    default -> throw new SQLFeatureNotSupportedException(method.getName() + " is not supported while capturing a snapshot schema");
+                }
+            });
+        return (Connection) java.lang.reflect.Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "createStatement" -> {
+                        return capture;
+                    }
+                    case "close", "commit", "setAutoCommit" -> {
+                        return null;
+                    }
+                    default -> throw new SQLFeatureNotSupportedException(method.getName() + " is not supported while capturing a snapshot schema");
+                }
+            });
+    }
+    
+    // Method to append one DDL statement to <sink-dir>/schema.sql
+    private static synchronized void recordSnapshotSchema(String sql) throws java.io.IOException {
+        if (snapshotSchema == null) {
+            java.nio.file.Path directory = java.nio.file.Path.of(sinkDirectory);
+            java.nio.file.Files.createDirectories(directory);
+            snapshotSchema = java.nio.file.Files.newBufferedWriter(directory.resolve(SNAPSHOT_SCHEMA_FILE));
+        }
+        snapshotSchema.write(sql.strip());
+        snapshotSchema.write(";\n");
+    }
+    
+    // Method to restore a snapshot directory: run its schema.sql, then COPY every table's blocks, with the blocks
+    // of each file split into tasks of about SNAPSHOT_LOAD_TASK_BYTES that run on all pool connections at once
+    private static void loadSnapshot(java.nio.file.Path directory) {
+        System.out.println("\n=== LOADING SNAPSHOT ===");
+        long startNanos = System.nanoTime();
+        java.util.List<java.nio.file.Path> files;
+        try (java.util.stream.Stream<java.nio.file.Path> listing = java.nio.file.Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_FILE_SUFFIX)).sorted().toList();
+        } catch (java.io.IOException e) {
+            System.err.println("Could not read snapshot directory " + directory + ": " + e.getMessage());
+            return;
+        }
+        
+        java.nio.file.Path schemaFile = directory.resolve(SNAPSHOT_SCHEMA_FILE);
+        if (java.nio.file.Files.exists(schemaFile)) {
+            try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute(java.nio.file.Files.readString(schemaFile)); // Every statement is IF NOT EXISTS
+                System.out.println("Schema created from " + schemaFile);
+            } catch (SQLException | java.io.IOException e) {
+                System.err.println("Could not create the snapshot schema: " + e.getMessage());
+                return;
+            }
+        }
+        
+        ExecutorService loaders = Executors.newFixedThreadPool(connectionPoolSize);
+        java.util.List<Future<?>> tasks = new java.util.ArrayList<>();
+        java.util.Set<String> attendanceTables = new java.util.LinkedHashSet<>();
+        int failedFiles = 0;
+        for (java.nio.file.Path file : files) {
+            try {
+                SnapshotFile snapshot = new SnapshotFile(file);
+                if (ATTENDANCE_COLUMNS.equals(snapshot.columns)) {
+                    attendanceTables.add(snapshot.tableName);
+                }
+                for (long[] range : snapshot.taskRanges()) {
+                    tasks.add(loaders.submit(() -> {
+                        snapshot.load(range[0], range[1]);
+                        return null;
+                    }));
+                }
+            } catch (java.io.IOException e) {
+                failedFiles++;
+                System.err.println("  " + file.getFileName() + " skipped: " + e.getMessage());
+            }
+        }
+        System.out.println(files.size() + " snapshot files, " + tasks.size() + " COPY tasks on " + connectionPoolSize + " connections");
+        
+        int failedTasks = 0;
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                failedTasks++;
+                System.err.println("  Snapshot COPY failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        loaders.shutdownNow();
+        
+        // A snapshot exported with --attendance-writer=copy created its attendance tables without their primary key
+        // and unique index (schema.sql only holds the CREATE TABLE statements), so they are built after the load
+        if (!attendanceTables.isEmpty()) {
+            try (Connection conn = getConnection()) {
+                for (String tableName : attendanceTables) {
+                    if (!hasIndexes(conn, tableName)) {
+                        addAttendanceIndexes(conn, tableName);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error building attendance indexes: " + e.getMessage());
+            }
+        }
+        printCommittedRowReport();
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        long rows = committedRows.values().stream().mapToLong(java.util.concurrent.atomic.LongAdder::sum).sum();
+        System.out.printf("Loaded %,d rows in %.2f s (%,.0f rows/sec)%n", rows, seconds, seconds > 0 ? rows / seconds : 0.0);
+        if (failedFiles > 0 || failedTasks > 0) {
+            System.err.println(failedFiles + " snapshot files could not be read and " + failedTasks + " COPY tasks failed");
+        }
+    }
+    
+    // One snapshot file being loaded: its validated header and the offsets of its blocks
+    static class SnapshotFile {
+        private final java.nio.file.Path path;
+        private final String tableName;
+        private final String columns;
+        private final int columnCount;
+        private final java.util.List<long[]> blocks = new java.util.ArrayList<>(); // {offset, length incl. length field}
+        
+        SnapshotFile(java.nio.file.Path path) throws java.io.IOException {
+            this.path = path;
+            try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path)) {
+                java.nio.ByteBuffer header = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 64 * 1024));
+                byte[] magic = new byte[4];
+                header.get(magic);
+                if (!"SGSN".equals(new String(magic, java.nio.charset.StandardCharsets.US_ASCII))) {
+                    throw new java.io.IOException("not a snapshot file");
+                }
+                int version = header.getInt();
+                if (version != SNAPSHOT_VERSION) {
+                    throw new java.io.IOException("snapshot version " + version + " is not supported (expected " + SNAPSHOT_VERSION + ")");
+                }
+                tableName = readString(header);
+                columns = readString(header);
+                // Checked, since both end up in SQL text
+                if (!tableName.matches("[a-z0-9_]+") || !columns.matches("[a-z0-9_]+(, [a-z0-9_]+)*")) {
+                    throw new java.io.IOException("invalid table or column names in the header");
+                }
+                columnCount = columns.split(", ").length;
+                
+                // Walk the block lengths; the block bodies are only mapped by the tasks that load them
+                java.nio.ByteBuffer lengthField = java.nio.ByteBuffer.allocate(4);
+                long size = channel.size();
+                for (long offset = header.position(); offset < size; ) {
+                    lengthField.clear();
+                    while (lengthField.hasRemaining() && channel.read(lengthField, offset + lengthField.position()) > 0) {
+                        // Positional reads until the length is complete
+                    }
+                    if (lengthField.hasRemaining()) {
+                        throw new java.io.IOException("truncated block at offset " + offset);
+                    }
+                    long blockLength = 4 + (lengthField.getInt(0) & 0xFFFFFFFFL);
+                    if (offset + blockLength > size) {
+                        throw new java.io.IOException("truncated block at offset " + offset);
+                    }
+                    blocks.add(new long[]{offset, blockLength});
+                    offset += blockLength;
+                }
+            }
+        }
+        
+        private static String readString(java.nio.ByteBuffer in) {
+            byte[] text = new byte[(int) RowEncoder.readVarint(in)];
+            in.get(text);
+            return new String(text, java.nio.charset.StandardCharsets.UTF_8);
+        }
+        
+        // Method to group consecutive blocks into {first block, end block} ranges of about SNAPSHOT_LOAD_TASK_BYTES
+        java.util.List<long[]> taskRanges() {
+            java.util.List<long[]> ranges = new java.util.ArrayList<>();
+            int first = 0;
+            long bytes = 0;
+            for (int i = 0; i < blocks.size(); i++) {
+                bytes += blocks.get(i)[1];
+                if (bytes >= SNAPSHOT_LOAD_TASK_BYTES || i == blocks.size() - 1) {
+                    ranges.add(new long[]{first, i + 1});
+                    first = i + 1;
+                    bytes = 0;
+                }
+            }
+            return ranges;
+        }
+        
+        // Method to map blocks [first, end) and stream them as COPY text in one transaction
+        void load(long first, long end) throws SQLException, java.io.IOException {
+            long offset = blocks.get((int) first)[0];
+            long[] last = blocks.get((int) end - 1);
+            long rangeLength = last[0] + last[1] - offset;
+            RowEncoder encoder = new RowEncoder(EXPORT_FORMAT_COPY, EXPORT_FLUSH_BYTES + (1 << 16));
+            try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path);
+                 Connection conn = getConnection()) {
+                java.nio.MappedByteBuffer mapped = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, offset, rangeLength);
+                conn.setAutoCommit(false);
+                org.postgresql.copy.CopyIn copy = conn.unwrap(org.postgresql.PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + tableName + " (" + columns + ") FROM STDIN");
+                long rows = 0;
+                try {
+                    for (long block = first; block < end; block++) {
+                        mapped.position((int) (blocks.get((int) block)[0] - offset) + 4);
+                        rows += encoder.decodeSnapshotBlock(mapped, columnCount);
+                        if (encoder.length() >= EXPORT_FLUSH_BYTES) {
+                            copy.writeToCopy(encoder.bytes(), 0, encoder.length());
+                            encoder.reset();
+                        }
+                    }
+                    if (encoder.length() > 0) {
+                        copy.writeToCopy(encoder.bytes(), 0, encoder.length());
+                    }
+                    long startNanos = System.nanoTime();
+                    copy.endCopy();
+                    conn.commit();
+                    runMetrics.recordBatch(tableName, startNanos);
+                } catch (SQLException | RuntimeException e) {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                    conn.rollback();
+                    throw new SQLException(path.getFileName() + " blocks " + first + "-" + (end - 1) + ": " + e.getMessage(), e);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                recordCommittedRows(tableName, rows);
+            }
+        }
+    }
+    
+    // Method to write one school record to the file or null sink
+    private static void writeSchoolToSink(String schoolUUID, String schoolName) {
+        try (OfflineRowSink sink = new OfflineRowSink("school_table", "school_uuid, school_name")) {
+            sink.accept(schoolUUID, schoolName);
+        }
+        processedSchools.incrementAndGet();
+    }
+    
+    // Method to insert a batch of students for a specific school on the caller's connection
+    private static void insertStudentBatch(Connection conn, String tableName, java.util.List<StudentData> students) throws SQLException {
+        TableTarget target = tableTarget(tableName);
+        String sql = String.format("""
+            INSERT INTO %s (student_uuid, full_name, guardian_name, gender, blood_group, 
+            birth_date, aadhar_card, class_name, section, roll_no, religion, 
+            parent_occupation, concession_needed, concession_type, medical_condition, 
+            student_phone, guardian_phone, image_url, %s) 
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?%s)
+            ON CONFLICT (%s) DO NOTHING
+            """, target.table, target.columns("stream"), target.keyPlaceholders(), target.columns("student_uuid"));
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (StudentData student : students) {
+                pstmt.setObject(1, java.util.UUID.fromString(student.studentUUID));
+                pstmt.setString(2, student.fullName);
+                pstmt.setString(3, student.guardianName);
+                pstmt.setString(4, student.gender);
+                pstmt.setString(5, student.bloodGroup);
+                pstmt.setDate(6, parseDate(student.birthDate));
+                pstmt.setString(7, student.aadharNumber);
+                pstmt.setString(8, student.className);
+                pstmt.setString(9, student.section);
+                pstmt.setInt(10, student.rollNo);
+                pstmt.setString(11, student.religion);
+                pstmt.setString(12, student.parentOccupation);
+                pstmt.setBoolean(13, student.concessionNeeded.equals("Yes"));
+                pstmt.setString(14, student.concessionType.equals("N/A") ? null : student.concessionType);
+                pstmt.setString(15, student.medicalCondition.equals("None") ? null : student.medicalCondition);
+                pstmt.setString(16, student.studentPhone);
+                pstmt.setString(17, student.guardianPhone);
+                pstmt.setString(18, student.imageUrl);
+                pstmt.setString(19, student.stream);
+                target.bindKeys(pstmt, 20);
+                
+                pstmt.addBatch();
+            }
+            
+            // Execute the batch
+            long startNanos = System.nanoTime();
+            int[] results = pstmt.executeBatch();
+            conn.commit();
+            
+            runMetrics.recordBatch(tableName, startNanos);
+            recordCommittedRows(tableName, countBatchRows(results));
+            reportStudentsWritten(results.length);
+        }
+    }
+    
+    // Method to stream a batch of students for a specific school through COPY FROM STDIN on the caller's connection
+    private static void copyStudentBatch(Connection conn, String tableName, java.util.List<StudentData> students) throws SQLException, java.io.IOException {
+        TableTarget target = tableTarget(tableName);
+        String sql = "COPY " + target.table + " (" + target.columns(STUDENT_COPY_COLUMNS) + ") FROM STDIN";
+        
+        org.postgresql.copy.CopyManager copyManager = conn.unwrap(org.postgresql.PGConnection.class).getCopyAPI();
+        byte[] copyRows = encodeStudentCopyRows(students, target);
+        long startNanos = System.nanoTime();
+        long rows = copyManager.copyIn(sql, new java.io.ByteArrayInputStream(copyRows));
+        conn.commit();
+        
+        runMetrics.recordBatch(tableName, startNanos);
+        recordCommittedRows(tableName, rows);
+        reportStudentsWritten((int) rows);
+    }
+    
+    // Method to update the processed student counter and print progress
+    private static void reportStudentsWritten(int count) {
+        int processed = processedStudents.addAndGet(count);
+        
+        // Show progress every 1000 students for large datasets, 100 for smaller ones. Batches add many students
+        // at once, so print whenever this batch crosses an interval boundary rather than only on exact multiples.
+        int progressInterval = processed > 1000000 ? 1000 : 100;
+        if (processed / progressInterval != (processed - count) / progressInterval) {
+            System.out.println("Students processed: " + processed);
+        }
+    }
+    
+    // Method to encode students as COPY text format rows (tab separated, \N for NULL), ending with the target's keys
+    private static byte[] encodeStudentCopyRows(java.util.List<StudentData> students, TableTarget target) {
+        StringBuilder rows = new StringBuilder(students.size() * 320);
+        for (StudentData student : students) {
+            appendCopyField(rows, student.studentUUID).append('\t');
+            appendCopyField(rows, student.fullName).append('\t');
+            appendCopyField(rows, student.guardianName).append('\t');
+            appendCopyField(rows, student.gender).append('\t');
+            appendCopyField(rows, student.bloodGroup).append('\t');
+            rows.append(parseDate(student.birthDate)).append('\t');
+            appendCopyField(rows, student.aadharNumber).append('\t');
+            appendCopyField(rows, student.className).append('\t');
+            appendCopyField(rows, student.section).append('\t');
+            rows.append(student.rollNo).append('\t');
+            appendCopyField(rows, student.religion).append('\t');
+            appendCopyField(rows, student.parentOccupation).append('\t');
+            rows.append(student.concessionNeeded.equals("Yes") ? 't' : 'f').append('\t');
+            appendCopyField(rows, student.concessionType.equals("N/A") ? null : student.concessionType).append('\t');
+            appendCopyField(rows, student.medicalCondition.equals("None") ? null : student.medicalCondition).append('\t');
+            appendCopyField(rows, student.studentPhone).append('\t');
+            appendCopyField(rows, student.guardianPhone).append('\t');
+            appendCopyField(rows, student.imageUrl).append('\t');
+            target.endCopyRow(appendCopyField(rows, student.stream));
+        }
+        return rows.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+    
+    // Helper method to append a value to a COPY text row, escaping delimiters and writing NULL as \N
+    private static StringBuilder appendCopyField(StringBuilder row, String value) {
+        if (value == null) {
+            return row.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': row.append("\\\\"); break;
+                case '\t': row.append("\\t"); break;
+                case '\n': row.append("\\n"); break;
+                case '\r': row.append("\\r"); break;
+                default: row.append(c);
+            }
+        }
+        return row;
+    }
+    
+    // Helper method to append an epoch day as an ISO date (yyyy-mm-dd) without creating a LocalDate
+    private static StringBuilder appendIsoDate(StringBuilder out, long epochDay) {
+        // Civil-from-days conversion on the proleptic Gregorian calendar (same result as LocalDate.ofEpochDay)
+        long shifted = epochDay + 719468; // Days since 0000-03-01
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153; // March = 0
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        out.append(year).append('-');
+        appendTwoDigits(out, month).append('-');
+        return appendTwoDigits(out, day);
+    }
+    
+    // Helper method to append a number below 100 as two digits
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+    
+    // Method to queue student for batch processing, blocking while the bounded queue is full
+    private static void queueStudentForBatch(StudentData student) {
+        try {
+            if (!studentBatchQueue.offer(student)) {
+                long blockedStart = System.nanoTime();
+                while (!studentBatchQueue.offer(student, 1, TimeUnit.SECONDS)) {
+                    if (liveStudentWriters.get() == 0) {
+                        // Nobody is draining the queue any more; write this student directly
+                        pipelineMetrics.producerBlockedNanos.add(System.nanoTime() - blockedStart);
+                        insertStudent(student);
+                        return;
+                    }
+                }
+                pipelineMetrics.producerBlockedNanos.add(System.nanoTime() - blockedStart);
+            }
+            pipelineMetrics.studentsQueued.increment();
+            pipelineMetrics.recordQueueDepth(studentBatchQueue.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Fall back to individual insertion if queue is interrupted
+            insertStudent(student);
+        }
+    }
+    
+    // Method to create database tables
+    private static void createTables() {
+        try (Connection conn = getConnection()) {
+            // Create school_table
+            String createSchoolTable = """
+                CREATE TABLE IF NOT EXISTS school_table (
+                    school_uuid UUID PRIMARY KEY,
+                    school_name VARCHAR(255) NOT NULL UNIQUE
+                )
+                """;
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(createSchoolTable);
+                System.out.println("School table created/verified successfully");
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error creating tables: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    // Method to create student table for a specific school
+    private static void createStudentTable(String schoolName) {
+        String tableName = getStudentTableName(schoolName);
+        
+        try (Connection conn = getConnection()) {
+            String createStudentTable = String.format("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    student_uuid UUID PRIMARY KEY,
+                    full_name VARCHAR(100) NOT NULL,
+                    guardian_name VARCHAR(100) NOT NULL,
+                    gender VARCHAR(10) NOT NULL,
+                    blood_group VARCHAR(5) NOT NULL,
+                    birth_date DATE NOT NULL,
+                    aadhar_card VARCHAR(20) NOT NULL UNIQUE,
+                    class_name VARCHAR(20) NOT NULL,
+                    section VARCHAR(5) NOT NULL,
+                    roll_no INTEGER NOT NULL,
+                    religion VARCHAR(20) NOT NULL,
+                    parent_occupation VARCHAR(100) NOT NULL,
+                    concession_needed BOOLEAN NOT NULL,
+                    concession_type VARCHAR(50),
+                    medical_condition VARCHAR(50),
+                    student_phone VARCHAR(15) NOT NULL UNIQUE,
+                    guardian_phone VARCHAR(15) NOT NULL UNIQUE,
+                    image_url TEXT NOT NULL,
+                    stream VARCHAR(20), -- Added stream column for classes 11 and 12
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """, tableName);
+            
+            try (Statement stmt = conn.createStatement()) {
+                executeCreateTable(stmt, createStudentTable);
+                System.out.println("Student table created for: " + schoolName);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error creating student table for " + schoolName + ": " + e.getMessage());
+        }
+    }
+    
+    // Method to get sanitized table name for students
+    private static String getStudentTableName(String schoolName) {
+        return identifiers.studentTable(schoolName);
+    }
+    
+    // Sanitized SQL identifiers for schools and subjects, computed once and shared by every generator.
+    // Schools whose names sanitize to the same identifier get numbered suffixes so their tables never collide.
+    static final class IdentifierRegistry {
+        private static final java.util.regex.Pattern NON_ALPHANUMERIC = java.util.regex.Pattern.compile("[^a-zA-Z0-9]");
+        private static final java.util.regex.Pattern REPEATED_UNDERSCORES = java.util.regex.Pattern.compile("_{2,}");
+        private static final java.util.regex.Pattern EDGE_UNDERSCORES = java.util.regex.Pattern.compile("^_|_$");
+        private static final java.util.regex.Pattern YEAR_TABLE_SUFFIX = java.util.regex.Pattern.compile("_(attendance|homework|projects)_\\d+$");
+        private static final java.util.regex.Pattern PARTITIONED_TABLE = java.util.regex.Pattern.compile(
+            "(students|attendance|homework|projects|academic|board_exam)(_class_\\d+)?(_y\\d+)?(_p\\d+)?");
+        
+        private final java.util.Map<String, String> schoolIdentifiers = new java.util.HashMap<>();
+        private final java.util.Map<String, String> schoolsByIdentifier = new java.util.HashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, String> columnIdentifiers = new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, String> studentTables = new java.util.concurrent.ConcurrentHashMap<>();
+        private final java.util.concurrent.ConcurrentHashMap<String, String> schoolUuids = new java.util.concurrent.ConcurrentHashMap<>();
+        
+        // Lowercase, replace anything but letters and digits with '_', collapse runs of '_' and trim them at the ends
+        static String sanitize(String name) {
+            String identifier = NON_ALPHANUMERIC.matcher(name.toLowerCase()).replaceAll("_");
+            identifier = REPEATED_UNDERSCORES.matcher(identifier).replaceAll("_");
+            return EDGE_UNDERSCORES.matcher(identifier).replaceAll("");
+        }
+        
+        // Register a school (in generation order, so suffixes are stable) and return its identifier
+        synchronized String registerSchool(String schoolName) {
+            String identifier = schoolIdentifiers.get(schoolName);
+            if (identifier != null) {
+                return identifier;
+            }
+            
+            String base = sanitize(schoolName);
+            identifier = base;
+            for (int suffix = 2; schoolsByIdentifier.containsKey(identifier); suffix++) {
+                identifier = base + "_" + suffix;
+            }
+            if (!identifier.equals(base)) {
+                System.out.println("School '" + schoolName + "' sanitizes to the same name as '" +
+                    schoolsByIdentifier.get(base) + "'; its tables use '" + identifier + "'");
+            }
+            schoolIdentifiers.put(schoolName, identifier);
+            schoolsByIdentifier.put(identifier, schoolName);
+            return identifier;
+        }
+        
+        String schoolIdentifier(String schoolName) {
+            return registerSchool(schoolName);
+        }
+        
+        // Record a school's UUID, the school key of the partitioned schema
+        void registerSchoolUuid(String schoolName, String schoolUuid) {
+            schoolUuids.put(registerSchool(schoolName), schoolUuid);
+        }
+        
+        // Map a school identifier (the table name prefix) back to the school's UUID, or null if it was never registered
+        String schoolUuid(String schoolIdentifier) {
+            return schoolUuids.get(schoolIdentifier);
+        }
+        
+        String columnIdentifier(String subjectName) {
+            return columnIdentifiers.computeIfAbsent(subjectName, IdentifierRegistry::sanitize);
+        }
+        
+        String studentTable(String schoolName) {
+            // Hot path: the student writers look this up for every student they flush
+            String tableName = studentTables.get(schoolName);
+            if (tableName == null) {
+                tableName = "students_" + schoolIdentifier(schoolName);
+                studentTables.put(schoolName, tableName);
+            }
+            return tableName;
+        }
+        
+        String academicTable(String schoolName, int classNum, int sessionYear) {
+            return schoolIdentifier(schoolName) + "_class_" + classNum + "_" + sessionYear + "_academic";
+        }
+        
+        String boardExamTable(String schoolName, int classNum, int sessionYear) {
+            return schoolIdentifier(schoolName) + "_class_" + classNum + "_" + sessionYear + "_board_exam_academic";
+        }
+        
+        String attendanceTable(String schoolName, int year) {
+            return schoolIdentifier(schoolName) + "_attendance_" + year;
+        }
+        
+        String homeworkTable(String schoolName, int year) {
+            return schoolIdentifier(schoolName) + "_homework_" + year;
+        }
+        
+        String projectTable(String schoolName, int year) {
+            return schoolIdentifier(schoolName) + "_projects_" + year;
+        }
+        
+        // Map a table name back to the family it was named for (the inverse of the methods above); used as a
+        // low-cardinality metrics label instead of one series per school and year
+        static String tableFamily(String tableName) {
+            java.util.regex.Matcher partitioned = PARTITIONED_TABLE.matcher(tableName); // --schema=partitioned parents
+            if (partitioned.matches()) {
+                return partitioned.group(1);
+            }
+            if (tableName.endsWith("_board_exam_academic")) {
+                return "board_exam";
+            }
+            if (tableName.endsWith("_academic")) {
+                return "academic";
+            }
+            java.util.regex.Matcher yearTable = YEAR_TABLE_SUFFIX.matcher(tableName);
+            if (yearTable.find()) {
+                return yearTable.group(1);
+            }
+            if (tableName.equals("school_table")) {
+                return "schools";
+            }
+            return tableName.startsWith("students_") ? "students" : "other";
+        }
+    }
+    
+    // Method to run a generated CREATE TABLE statement: as it is with --schema=tables, or as the family parent
+    // and partitions that hold its rows (created on first use) with --schema=partitioned
+    private static void executeCreateTable(Statement stmt, String createTableSql) throws SQLException {
+        if (!SCHEMA_PARTITIONED.equals(schemaMode)) {
+            stmt.execute(createTableSql);
+            return;
+        }
+        partitionedSchema.createPartitions(stmt, createTableSql);
+    }
+    
+    // Method to resolve a generated table name to the table its rows are written to (see TableTarget)
+    private static TableTarget tableTarget(String tableName) {
+        return SCHEMA_PARTITIONED.equals(schemaMode) ? partitionedSchema.target(tableName) : new TableTarget(tableName);
+    }
+    
+    // Helper method to describe where a family's tables are: the tables-mode name pattern, or the partitioned
+    // parent with its year and school partitions
+    private static String tableLayout(String tablesPattern, String parent, String yearColumn) {
+        return SCHEMA_PARTITIONED.equals(schemaMode) ? PartitionedSchema.describe(parent, yearColumn, tablesPattern) : tablesPattern;
+    }
+    
+    // Where the rows of one generated (per-school) table go. With --schema=tables that is the table itself. With
+    // --schema=partitioned it is the family's parent, and every row carries the partition keys (school_uuid, and
+    // academic_year or session_year) after its own columns, so PostgreSQL routes it to its partition; reads and
+    // deletes add the keys to their WHERE clause, which prunes them to the school's partitions.
+    static final class TableTarget {
+        final String table; // The table SQL statements name
+        private final String keyColumns; // ", school_uuid, academic_year" or "" without partition keys
+        private final Object[] keyValues;
+        private final String keyCondition; // "school_uuid = '...' AND academic_year = 2024", or null
+        private final String copyKeys; // The key values as COPY text fields, each after a tab
+        
+        TableTarget(String table) {
+            this(table, new String[0], new Object[0]);
+        }
+        
+        TableTarget(String table, String[] keyNames, Object[] keyValues) {
+            this.table = table;
+            this.keyValues = keyValues;
+            StringBuilder columns = new StringBuilder();
+            StringBuilder condition = new StringBuilder();
+            StringBuilder copy = new StringBuilder();
+            for (int i = 0; i < keyNames.length; i++) {
+                columns.append(", ").append(keyNames[i]);
+                condition.append(i > 0 ? " AND " : "").append(keyNames[i]).append(" = ")
+                    .append(keyValues[i] instanceof Integer ? keyValues[i] : "'" + keyValues[i] + "'");
+                copy.append('\t').append(keyValues[i]);
+            }
+            this.keyColumns = columns.toString();
+            this.keyCondition = keyNames.length > 0 ? condition.toString() : null;
+            this.copyKeys = copy.toString();
+        }
+        
+        // Method to add the key columns to a column list (an INSERT or COPY target, or an ON CONFLICT arbiter)
+        String columns(String columns) {
+            return columns + keyColumns;
+        }
+        
+        // Method to build a WHERE clause from a condition (or null) and the key condition; "" when both are absent
+        String where(String condition) {
+            if (keyCondition == null) {
+                return condition == null ? "" : " WHERE " + condition;
+            }
+            return " WHERE " + (condition == null ? "" : condition + " AND ") + keyCondition;
+        }
+        
+        // Method to get the placeholders of the key values, each after a comma, for a VALUES list
+        String keyPlaceholders() {
+            return ", ?".repeat(keyValues.length);
+        }
+        
+        // Method to add the key columns and their placeholders to a " (columns) VALUES (?, ...)" template
+        String insertTemplate(String template) {
+            if (keyValues.length == 0) {
+                return template;
+            }
+            int values = template.indexOf(") VALUES (");
+            return template.substring(0, values) + keyColumns + template.substring(values, template.lastIndexOf(')')) +
+                keyPlaceholders() + ")";
+        }
+        
+        int keyCount() {
+            return keyValues.length;
+        }
+        
+        // Method to bind the key values to the placeholders starting at firstIndex
+        void bindKeys(PreparedStatement pstmt, int firstIndex) throws SQLException {
+            for (int i = 0; i < keyValues.length; i++) {
+                pstmt.setObject(firstIndex + i, keyValues[i]);
+            }
+        }
+        
+        // Method to append the key values to a row being encoded by a sink file encoder
+        void encodeKeys(RowEncoder encoder) {
+            for (Object key : keyValues) {
+                encoder.value(key);
+            }
+        }
+        
+        // Method to end a COPY text row: the key fields, then the newline
+        StringBuilder endCopyRow(StringBuilder row) {
+            return row.append(copyKeys).append('\n');
+        }
+    }
+    
+    // Declarative partitioning (--schema=partitioned): one parent table per record family (students, attendance,
+    // homework, projects, and academic and board exam per class, whose columns depend on the class) instead of one
+    // table per school and year. Parents carry two key columns, school_uuid and academic_year (session_year for
+    // marks). Students are partitioned by school; the yearly families are RANGE-partitioned by year and each
+    // year partition by school. By school means HASH into --school-partitions buckets, so the number of tables
+    // depends on the years and buckets but not on the number of schools, or LIST with one partition per school
+    // (named like the --schema=tables table). Writers target the parent with the keys in every row (TableTarget).
+    // Keys and unique constraints of the generated tables are declared on the parent with the partition keys
+    // appended, as PostgreSQL requires; since a student belongs to one school and a date to one year, they
+    // enforce the same uniqueness as on the per-school tables.
+    static final class PartitionedSchema {
+        private static final java.util.regex.Pattern CREATE_TABLE = java.util.regex.Pattern.compile(
+            "(?s)\\s*CREATE TABLE IF NOT EXISTS (\\w+) \\((.*)\\)\\s*");
+        private static final java.util.regex.Pattern STUDENT_TABLE = java.util.regex.Pattern.compile("students_(\\w+)");
+        private static final java.util.regex.Pattern YEAR_TABLE = java.util.regex.Pattern.compile("(\\w+)_(attendance|homework|projects)_(\\d+)");
+        private static final java.util.regex.Pattern MARKS_TABLE = java.util.regex.Pattern.compile("(\\w+)_class_(\\d+)_(\\d+)_(board_exam_academic|academic)");
+        private static final java.util.regex.Pattern COLUMN_KEY = java.util.regex.Pattern.compile("\\s+(PRIMARY KEY|UNIQUE)\\b");
+        private static final java.util.regex.Pattern TABLE_KEY = java.util.regex.Pattern.compile("(PRIMARY KEY|UNIQUE)\\s*\\((.*)\\)");
+        
+        private final java.util.Set<String> createdTables = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        private final java.util.concurrent.ConcurrentHashMap<String, TableTarget> targets = new java.util.concurrent.ConcurrentHashMap<>();
+        
+        // The place of one generated table in the partitioned schema, worked out from its name
+        private static final class Placement {
+            final String parent;
+            final String schoolUuid;
+            final String yearColumn; // null for the students family, which has no year
+            final int year;
+            
+            Placement(String parent, String schoolUuid, String yearColumn, int year) {
+                this.parent = parent;
+                this.schoolUuid = schoolUuid;
+                this.yearColumn = yearColumn;
+                this.year = year;
+            }
+        }
+        
+        // Method to map a generated table name to its family parent, school and year; null for other tables
+        // (school_table, and parents or partitions named directly)
+        private static Placement place(String tableName) {
+            java.util.regex.Matcher name;
+            String schoolUuid;
+            if ((name = MARKS_TABLE.matcher(tableName)).matches() && (schoolUuid = identifiers.schoolUuid(name.group(1))) != null) {
+                String family = name.group(4).equals("academic") ? "academic" : "board_exam";
+                return new Placement(family + "_class_" + name.group(2), schoolUuid, "session_year",
+                    Integer.parseInt(name.group(3)));
+            }
+            if ((name = YEAR_TABLE.matcher(tableName)).matches() && (schoolUuid = identifiers.schoolUuid(name.group(1))) != null) {
+                return new Placement(name.group(2), schoolUuid, "academic_year", Integer.parseInt(name.group(3)));
+            }
+            if ((name = STUDENT_TABLE.matcher(tableName)).matches() && (schoolUuid = identifiers.schoolUuid(name.group(1))) != null) {
+                return new Placement("students", schoolUuid, null, 0);
+            }
+            return null;
+        }
+        
+        // Method to get the target of a generated table: its parent plus key values, or the table itself
+        TableTarget target(String tableName) {
+            TableTarget target = targets.get(tableName);
+            if (target == null) {
+                Placement placement = place(tableName);
+                if (placement == null) {
+                    return new TableTarget(tableName);
+                }
+                java.util.UUID schoolUuid = java.util.UUID.fromString(placement.schoolUuid);
+                target = placement.yearColumn == null
+                    ? new TableTarget(placement.parent, new String[]{"school_uuid"}, new Object[]{schoolUuid})
+                    : new TableTarget(placement.parent, new String[]{"school_uuid", placement.yearColumn},
+                                      new Object[]{schoolUuid, placement.year});
+                targets.put(tableName, target);
+            }
+            return target;
+        }
+        
+        // Method to create what a generated table's rows need: the family parent, the year partition and the school
+        // partitions (hash buckets once per parent or year, list partitions per school). Every statement is
+        // IF NOT EXISTS, so reruns and resumed runs are no-ops; a table is only marked created once its DDL succeeded.
+        synchronized void createPartitions(Statement stmt, String createTableSql) throws SQLException {
+            java.util.regex.Matcher create = CREATE_TABLE.matcher(createTableSql);
+            if (!create.matches()) {
+                throw new SQLException("Not a generated CREATE TABLE statement: " + createTableSql);
+            }
+            String tableName = create.group(1);
+            Placement placement = place(tableName);
+            if (placement == null) {
+                if (tableName.startsWith("students_") || YEAR_TABLE.matcher(tableName).matches() || MARKS_TABLE.matcher(tableName).matches()) {
+                    throw new SQLException("No school UUID registered for table " + tableName);
+                }
+                stmt.execute(createTableSql); // Not a per-school table (school_table): created as it is
+                return;
+            }
+            String parent = placement.parent;
+            String yearColumn = placement.yearColumn;
+            String keyColumns = yearColumn == null ? "school_uuid" : "school_uuid, " + yearColumn;
+            
+            if (!createdTables.contains(parent)) {
+                // Column constraints become table constraints, and every key and unique constraint gets the
+                // partition keys appended
+                java.util.List<String> items = new java.util.ArrayList<>();
+                java.util.List<String> constraints = new java.util.ArrayList<>();
+                for (String item : splitTopLevel(create.group(2).replaceAll("--[^\\n]*", ""))) {
+                    java.util.regex.Matcher tableKey = TABLE_KEY.matcher(item);
+                    if (tableKey.matches()) {
+                        constraints.add(tableKey.group(1) + " (" + tableKey.group(2).trim() + ", " + keyColumns + ")");
+                        continue;
+                    }
+                    java.util.regex.Matcher columnKey = COLUMN_KEY.matcher(item);
+                    String columnName = item.substring(0, item.indexOf(' '));
+                    while (columnKey.find()) {
+                        constraints.add(columnKey.group(1) + " (" + columnName + ", " + keyColumns + ")");
+                    }
+                    items.add(COLUMN_KEY.matcher(item).replaceAll(""));
+                }
+                items.add("school_uuid UUID NOT NULL");
+                if (yearColumn != null) {
+                    items.add(yearColumn + " INTEGER NOT NULL");
+                }
+                items.addAll(constraints);
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + parent + " (" + String.join(", ", items) + ") PARTITION BY " +
+                    (yearColumn != null ? "RANGE (" + yearColumn + ")" : schoolPartitionClause()));
+                if (yearColumn == null) {
+                    createHashBuckets(stmt, parent);
+                }
+                createdTables.add(parent);
+            }
+            
+            String schoolParent = parent;
+            if (yearColumn != null) {
+                schoolParent = parent + "_y" + placement.year;
+                if (!createdTables.contains(schoolParent)) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS " + schoolParent + " PARTITION OF " + parent + " FOR VALUES FROM (" +
+                        placement.year + ") TO (" + (placement.year + 1) + ") PARTITION BY " + schoolPartitionClause());
+                    createHashBuckets(stmt, schoolParent);
+                    createdTables.add(schoolParent);
+                }
+            }
+            if (!SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning)) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + tableName + " PARTITION OF " + schoolParent +
+                    " FOR VALUES IN ('" + placement.schoolUuid + "')");
+            }
+        }
+        
+        // Method to describe a family's layout for the run summary; leafPattern names the per-school partitions of
+        // list mode, which keep the tables-mode names
+        static String describe(String parent, String yearColumn, String leafPattern) {
+            String schoolParent = yearColumn == null ? parent : parent + "_y{year}";
+            String schools = SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning)
+                ? "HASH (school_uuid) into " + schoolParent + "_p{0.." + (schoolHashPartitions - 1) + "}"
+                : "LIST (school_uuid) into " + leafPattern;
+            return yearColumn == null ? parent + ", partitioned by " + schools
+                : parent + ", partitioned by RANGE (" + yearColumn + ") into " + schoolParent + ", each by " + schools;
+        }
+        
+        private static String schoolPartitionClause() {
+            return (SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning) ? "HASH" : "LIST") + " (school_uuid)";
+        }
+        
+        // Method to create the --school-partitions hash buckets of a parent or year partition (hash mode only)
+        private static void createHashBuckets(Statement stmt, String parent) throws SQLException {
+            for (int bucket = 0; SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning) && bucket < schoolHashPartitions; bucket++) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + parent + "_p" + bucket + " PARTITION OF " + parent +
+                    " FOR VALUES WITH (MODULUS " + schoolHashPartitions + ", REMAINDER " + bucket + ")");
+            }
+        }
+        
+        // Helper method to split a column list on the commas outside parentheses and quotes
+        private static java.util.List<String> splitTopLevel(String columns) {
+            java.util.List<String> items = new java.util.ArrayList<>();
+            int depth = 0;
+            boolean quoted = false;
+            int start = 0;
+            for (int i = 0; i < columns.length(); i++) {
+                char c = columns.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if (!quoted && c == '(') {
+                    depth++;
+                } else if (!quoted && c == ')') {
+                    depth--;
+                } else if (!quoted && depth == 0 && c == ',') {
+                    items.add(columns.substring(start, i).trim().replaceAll("\\s+", " "));
+                    start = i + 1;
+                }
+            }
+            String last = columns.substring(start).trim().replaceAll("\\s+", " ");
+            if (!last.isEmpty()) {
+                items.add(last);
+            }
+            return items;
+        }
+    }
+    
+    // Method to insert school data
+    private static void insertSchool(String schoolUUID, String schoolName) {
+        String sql = "INSERT INTO school_table (school_uuid, school_name) VALUES (?, ?) ON CONFLICT (school_name) DO NOTHING";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setObject(1, java.util.UUID.fromString(schoolUUID));
+            pstmt.setString(2, schoolName);
+            pstmt.executeUpdate();
+            
+            int processed = processedSchools.incrementAndGet();
+            System.out.println("School inserted: " + schoolName + " (" + processed + " schools processed)");
+            
+        } catch (SQLException e) {
+            System.err.println("Error inserting school " + schoolName + ": " + e.getMessage());
+        }
+    }
+    
+    // Method to insert student data with retry logic (the fallback once every batch writer has stopped)
+    private static void insertStudent(StudentData student) {
+        String tableName = getStudentTableName(student.schoolName);
+        TableTarget target = tableTarget(tableName);
+        String sql = String.format("""
+            INSERT INTO %s (student_uuid, full_name, guardian_name, gender, blood_group, 
+            birth_date, aadhar_card, class_name, section, roll_no, religion, 
+            parent_occupation, concession_needed, concession_type, medical_condition, 
+            student_phone, guardian_phone, image_url, %s) 
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?%s)
+            ON CONFLICT (%s) DO NOTHING
+            """, target.table, target.columns("stream"), target.keyPlaceholders(), target.columns("student_uuid"));
+        
+        int maxRetries = 3;
+        int retryCount = 0;
+        
+        while (retryCount < maxRetries) {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                
+                pstmt.setObject(1, java.util.UUID.fromString(student.studentUUID));
+                pstmt.setString(2, student.fullName);
+                pstmt.setString(3, student.guardianName);
+                pstmt.setString(4, student.gender);
+                pstmt.setString(5, student.bloodGroup);
+                pstmt.setDate(6, parseDate(student.birthDate));
+                pstmt.setString(7, student.aadharNumber);
+                pstmt.setString(8, student.className);
+                pstmt.setString(9, student.section);
+                pstmt.setInt(10, student.rollNo);
+                pstmt.setString(11, student.religion);
+                pstmt.setString(12, student.parentOccupation);
+                pstmt.setBoolean(13, student.concessionNeeded.equals("Yes"));
+                pstmt.setString(14, student.concessionType.equals("N/A") ? null : student.concessionType);
+                pstmt.setString(15, student.medicalCondition.equals("None") ? null : student.medicalCondition);
+                pstmt.setString(16, student.studentPhone);
+                pstmt.setString(17, student.guardianPhone);
+                pstmt.setString(18, student.imageUrl);
+                pstmt.setString(19, student.stream);
+                target.bindKeys(pstmt, 20);
+                
+                int rows = pstmt.executeUpdate();
+                recordCommittedRows(tableName, rows);
+                if (student.progress != null) {
+                    student.progress.studentCommitted();
+                }
+                
+                int processed = processedStudents.incrementAndGet();
+                // Show progress every 1000 students for large datasets, 100 for smaller ones
+                int progressInterval = processed > 1000000 ? 1000 : 100;
+                if (processed % progressInterval == 0) {
+                    System.out.println("Students processed: " + processed);
+                }
+                return; // Success, exit retry loop
+                
+            } catch (SQLException e) {
+                retryCount++;
+                if (retryCount >= maxRetries) {
+                    System.err.println("Failed to insert student " + student.fullName + " after " + maxRetries + " attempts: " + e.getMessage());
+                } else {
+                    // Wait before retry
+                    try {
+                        Thread.sleep(1000 * retryCount); // Exponential backoff
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+    
+    // Helper method to parse date
+    private static Date parseDate(String dateStr) {
+        try {
+            String[] parts = dateStr.split("/");
+            int day = Integer.parseInt(parts[0]);
+            int month = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+            return Date.valueOf(String.format("%d-%02d-%02d", year, month, day));
+        } catch (Exception e) {
+            return Date.valueOf("2020-01-01"); // Default date
+        }
+    }
+    
+    // Student data class
+    static class StudentData {
+        String studentUUID, fullName, guardianName, gender, bloodGroup, birthDate;
+        String aadharNumber, className, section, religion, parentOccupation;
+        String concessionNeeded, concessionType, medicalCondition, studentPhone, guardianPhone;
+        String schoolName, imageUrl, stream; // Added stream field
+        int rollNo;
+        SectionProgress progress; // Checkpointed runs only; never written to the database
+        
+        // Sentinel constructor used for the writer shutdown marker
+        StudentData() {
+        }
+        
+        StudentData(String studentUUID, String fullName, String guardianName, String gender, 
+                   String bloodGroup, String birthDate, String aadharNumber, String className, 
+                   String section, int rollNo, String schoolName, String religion, 
+                   String parentOccupation, String concessionNeeded, String concessionType, 
+                   String medicalCondition, String studentPhone, String guardianPhone, String imageUrl,
+                   String stream) { // Added stream parameter
+            this.studentUUID = studentUUID;
+            this.fullName = fullName;
+            this.guardianName = guardianName;
+            this.gender = gender;
+            this.bloodGroup = bloodGroup;
+            this.birthDate = birthDate;
+            this.aadharNumber = aadharNumber;
+            this.className = className;
+            this.section = section;
+            this.rollNo = rollNo;
+            this.schoolName = schoolName;
+            this.religion = religion;
+            this.parentOccupation = parentOccupation;
+            this.concessionNeeded = concessionNeeded;
+            this.concessionType = concessionType;
+            this.medicalCondition = medicalCondition;
+            this.studentPhone = studentPhone;
+            this.guardianPhone = guardianPhone;
+            this.imageUrl = imageUrl;
+            this.stream = stream; // Added stream assignment
+        }
+    }
+    
+    // Method to generate the unique Indian phone number at the given index of the shuffled number space
+    private static String generateUniquePhoneNumber(NumberPermutation phonePermutation, long phoneIndex) {
+        // 10 digit number starting with 6, 7, 8, or 9: the permuted value picks one of 4 x 10^9 numbers
+        long value = phonePermutation.permute(phoneIndex);
+        long firstDigit = 6 + value / 1_000_000_000L;
+        return String.format("+91%d%09d", firstDigit, value % 1_000_000_000L);
+    }
+    
+    // Method to generate unique school names
+    private static String generateUniqueSchoolName(java.util.random.RandomGenerator rng, java.util.Set<String> usedSchoolNames) {
+        // Expanded prefixes (200+ options)
+        String[] schoolPrefixes = {
+            "St.", "Holy", "Sacred", "Divine", "Blessed", "Mount", "Little", "Bright", "Golden", "Silver",
+            "Green", "Blue", "Red", "New", "Modern", "Progressive", "Advanced", "Premier", "Elite", "Excellence",
+            "Victory", "Success", "Wisdom", "Knowledge", "Learning", "Future", "Hope", "Dream", "Star", "Sun",
+            "Moon", "Rainbow", "Crystal", "Diamond", "Pearl", "Emerald", "Ruby", "Sapphire", "Lotus", "Rose",
+            "Noble", "Royal", "Grand", "Great", "Glorious", "Magnificent", "Majestic", "Supreme", "Ultimate", "Perfect",
+            "Ideal", "Prime", "Pure", "True", "Real", "Genuine", "Authentic", "Original", "Classic", "Eternal",
+            "Infinite", "Universal", "Global", "International", "National", "Regional", "Central", "Metropolitan", "Urban", "Rural",
+            "Eastern", "Western", "Northern", "Southern", "Coastal", "Highland", "Valley", "Mountain", "River", "Forest",
+            "Garden", "Park", "Grove", "Field", "Meadow", "Prairie", "Desert", "Ocean", "Lake", "Stream",
+            "Dawn", "Dusk", "Morning", "Evening", "Noon", "Midnight", "Spring", "Summer", "Autumn", "Winter",
+            "Pioneer", "Leader", "Champion", "Winner", "Master", "Expert", "Skilled", "Talented", "Gifted", "Brilliant",
+            "Bright", "Shining", "Glowing", "Radiant", "Luminous", "Sparkling", "Dazzling", "Gleaming", "Twinkling", "Flickering",
+            "Ancient", "Historic", "Traditional", "Cultural", "Heritage", "Legacy", "Memorial", "Tribute", "Honor", "Glory",
+            "Peace", "Harmony", "Unity", "Brotherhood", "Fellowship", "Community", "Society", "Foundation", "Trust", "Mission",
+            "Vision", "Innovation", "Creation", "Discovery", "Exploration", "Adventure", "Journey", "Quest", "Path", "Way",
+            "Light", "Beacon", "Guide", "Mentor", "Teacher", "Educator", "Scholar", "Academic", "Intellectual", "Thoughtful",
+            "Creative", "Artistic", "Musical", "Literary", "Poetic", "Dramatic", "Scientific", "Technical", "Digital", "Cyber",
+            "Cosmic", "Stellar", "Galactic", "Universal", "Planetary", "Solar", "Lunar", "Celestial", "Heavenly", "Angelic",
+            "Alpha", "Beta", "Gamma", "Delta", "Omega", "Prime", "First", "Second", "Third", "Final",
+            "Neo", "Ultra", "Super", "Mega", "Macro", "Micro", "Mini", "Maxi", "Multi", "Poly"
+        };
+        
+        // Expanded middle names (300+ options)
+        String[] schoolMiddles = {
+            "Angels", "Mary", "Xavier", "Francis", "Joseph", "Michael", "Gabriel", "Paul", "Peter", "John",
+            "Thomas", "Anthony", "Stephen", "Lawrence", "Vincent", "Augustine", "Benedict", "Dominic", "Carmel",
+            "Teresa", "Agnes", "Catherine", "Margaret", "Elizabeth", "Anne", "Grace", "Faith", "Hope", "Joy",
+            "Peace", "Light", "Dawn", "Morning", "Evening", "Spring", "Summer", "Autumn", "Winter", "Valley",
+            "Hills", "Heights", "Gardens", "Park", "Grove", "Woods", "Forest", "River", "Lake", "Ocean",
+            "Matthew", "Mark", "Luke", "James", "Andrew", "Philip", "Bartholomew", "Timothy", "Christopher", "Nicholas",
+            "David", "Daniel", "Samuel", "Nathan", "Joshua", "Caleb", "Benjamin", "Isaac", "Jacob", "Aaron",
+            "Moses", "Abraham", "Noah", "Adam", "Solomon", "Elijah", "Isaiah", "Jeremiah", "Ezekiel", "Hosea",
+            "Joel", "Amos", "Obadiah", "Jonah", "Micah", "Nahum", "Habakkuk", "Zephaniah", "Haggai", "Zechariah",
+            "Malachi", "Raphael", "Uriel", "Seraphim", "Cherubim", "Throne", "Dominion", "Virtue", "Power", "Principality",
+            "Sarah", "Rebecca", "Rachel", "Leah", "Ruth", "Esther", "Judith", "Deborah", "Miriam", "Hannah",
+            "Abigail", "Bathsheba", "Tamar", "Gomer", "Hosanna", "Alleluia", "Gloria", "Magnificat", "Sanctus", "Benedictus",
+            "Agnus", "Dei", "Kyrie", "Eleison", "Christe", "Pax", "Vobiscum", "Dominus", "Tecum", "Spiritus",
+            "Krishnan", "Govind", "Madhav", "Keshav", "Narayan", "Vishnu", "Shiva", "Brahma", "Indra", "Varuna",
+            "Agni", "Vayu", "Surya", "Chandra", "Prithvi", "Akash", "Jal", "Tej", "Vaayu", "Bhumi",
+            "Ganga", "Yamuna", "Saraswati", "Narmada", "Kaveri", "Godavari", "Krishna", "Tapti", "Mahanadi", "Brahmaputra",
+            "Himalaya", "Vindhya", "Sahyadri", "Aravalli", "Nilgiri", "Satpura", "Kanchenjunga", "Everest", "Annapurna", "Dhaulagiri",
+            "Gandhi", "Nehru", "Patel", "Bose", "Tilak", "Gokhale", "Rao", "Tagore", "Vivekananda", "Aurobindo",
+            "Ramakrishna", "Dayananda", "Kabir", "Tulsidas", "Surdas", "Mirabai", "Rahim", "Raskhan", "Bihari", "Bharatendu",
+            "Premchand", "Prasad", "Pant", "Nirala", "Mahadevi", "Ajneya", "Dinkar", "Bachchan", "Shukla", "Gupta",
+            "Sharma", "Verma", "Agarwal", "Bansal", "Mittal", "Jain", "Shah", "Mehta", "Chandra", "Kumar",
+            "Devi", "Mata", "Bai", "Kumari", "Sundari", "Lakshmi", "Durga", "Kali", "Parvati", "Radha",
+            "Sita", "Gita", "Yamuna", "Ganga", "Saraswati", "Gayatri", "Savitri", "Sandhya", "Usha", "Asha",
+            "Nisha", "Disha", "Risha", "Priya", "Maya", "Lila", "Kala", "Nila", "Hira", "Sona",
+            "Chandi", "Moti", "Panna", "Manik", "Ratna", "Mukta", "Swarna", "Rajat", "Tamra", "Loha",
+            "Veda", "Purana", "Upanishad", "Gita", "Ramayana", "Mahabharata", "Bhagavata", "Devi", "Vishnu", "Shiva",
+            "Shakti", "Shanti", "Mukti", "Bhakti", "Prema", "Karuna", "Daya", "Kshama", "Satya", "Dharma",
+            "Artha", "Kama", "Moksha", "Yoga", "Meditation", "Pranayama", "Asana", "Mudra", "Mantra", "Yantra",
+            "Mandala", "Chakra", "Kundalini", "Samadhi", "Nirvana", "Enlightenment", "Awakening", "Consciousness", "Awareness", "Mindfulness"
+        };
+        
+        // Expanded suffixes (100+ options)
+        String[] schoolSuffixes = {
+            "Public School", "Higher Secondary School", "High School", "Senior Secondary School", 
+            "English Medium School", "Model School", "International School", "Academy", "Institute",
+            "Educational Institute", "Learning Center", "Study Center", "Knowledge Hub", "Vidyalaya",
+            "Vidya Mandir", "Vidya Niketan", "Vidya Bhawan", "Vidya Kendra", "Shiksha Niketan",
+            "Bal Vidyalaya", "Convent School", "Mission School", "Memorial School", "Foundation School",
+            "Central School", "Kendriya Vidyalaya", "Jawahar Navodaya Vidyalaya", "Government School", "Municipal School",
+            "Corporation School", "Zilla Panchayat School", "Block School", "Gram Panchayat School", "Aided School",
+            "Unaided School", "Minority School", "Linguistic Minority School", "Religious Minority School", "Special School",
+            "Inclusive School", "Integrated School", "Composite School", "Senior School", "Junior School",
+            "Primary School", "Elementary School", "Middle School", "Secondary School", "Preparatory School",
+            "Kindergarten", "Pre-School", "Nursery School", "Play School", "Day Care Center",
+            "Boarding School", "Residential School", "Hostel School", "Day School", "Co-Educational School",
+            "Boys School", "Girls School", "Women's College", "Men's College", "Unisex Institute",
+            "Technical Institute", "Polytechnic", "Engineering College", "Medical College", "Dental College",
+            "Pharmacy College", "Nursing College", "Teacher Training College", "B.Ed College", "D.Ed College",
+            "Arts College", "Science College", "Commerce College", "Management Institute", "Business School",
+            "Law College", "Agricultural College", "Veterinary College", "Forestry College", "Fisheries College",
+            "Technology Institute", "Computer Institute", "IT Academy", "Software Academy", "Hardware Institute",
+            "Electronics Institute", "Telecommunications Academy", "Robotics Academy", "AI Institute", "Data Science Academy",
+            "Research Institute", "Innovation Center", "Incubation Center", "Startup Academy", "Entrepreneurship Center",
+            "Leadership Academy", "Excellence Center", "Quality Institute", "Standards Academy", "Certification Center",
+            "Training Academy", "Skill Development Center", "Vocational Institute", "Professional Academy", "Career Center",
+            "Finishing School", "Personality Development Center", "Soft Skills Academy", "Communication Center", "Language Institute"
+        };
+        
+        // Additional components for more variation
+        String[] numericSuffixes = {
+            "1", "2", "3", "4", "5", "I", "II", "III", "IV", "V",
+            "Alpha", "Beta", "Gamma", "Delta", "Omega", "Prime", "Plus", "Pro", "Max", "Elite"
+        };
+        
+        String[] locationPrefixes = {
+            "East", "West", "North", "South", "Central", "Greater", "New", "Old", "Upper", "Lower"
+        };
+        
+        String schoolName;
+        int attempts = 0;
+        final int MAX_ATTEMPTS = 1000; // Prevent infinite loops
+        
+        do {
+            attempts++;
+            if (attempts > MAX_ATTEMPTS) {
+                // If we can't find a unique name after many attempts, add a random number
+                schoolName = generateBasicSchoolName(rng, schoolPrefixes, schoolMiddles, schoolSuffixes) + " " + 
+                           (1000000 + rng.nextInt(9000000)); // 7-digit random number
+                break;
+            }
+            
+            double pattern = rng.nextDouble();
+            
+            if (pattern < 0.15) {
+                // Pattern 1: Location + Prefix + Middle + Suffix (15%)
+                String location = locationPrefixes[rng.nextInt(locationPrefixes.length)];
+                String prefix = schoolPrefixes[rng.nextInt(schoolPrefixes.length)];
+                String middle = schoolMiddles[rng.nextInt(schoolMiddles.length)];
+                String suffix = schoolSuffixes[rng.nextInt(schoolSuffixes.length)];
+                schoolName = location + " " + prefix + " " + middle + " " + suffix;
+            } else if (pattern < 0.30) {
+                // Pattern 2: Prefix + Middle + Suffix + Numeric (15%)
+                String prefix = schoolPrefixes[rng.nextInt(schoolPrefixes.length)];
+                String middle = schoolMiddles[rng.nextInt(schoolMiddles.length)];
+                String suffix = schoolSuffixes[rng.nextInt(schoolSuffixes.length)];
+                String numeric = numericSuffixes[rng.nextInt(numericSuffixes.length)];
+                schoolName = prefix + " " + middle + " " + suffix + " " + numeric;
+            } else if (pattern < 0.45) {
+                // Pattern 3: Two Middles + Suffix (15%)
+                String prefix = schoolPrefixes[rng.nextInt(schoolPrefixes.length)];
+                String middle1 = schoolMiddles[rng.nextInt(schoolMiddles.length)];
+                String middle2 = schoolMiddles[rng.nextInt(schoolMiddles.length)];
+                String suffix = schoolSuffixes[rng.nextInt(schoolSuffixes.length)];
+                if (!middle1.equals(middle2)) {
+                    schoolName = prefix + " " + middle1 + " " + middle2 + " " + suffix;
+                } else {
+                    schoolName = prefix + " " + middle1 + " " + suffix;
+                }
+            } else if (pattern < 0.55) {
+                // Pattern 4: Prefix + Suffix only (10%)
+                String prefix = schoolPrefixes[rng.nextInt(schoolPrefixes.length)];
+                String suffix = schoolSuffixes[rng.nextInt(schoolSuffixes.length)];
+                schoolName = prefix + " " + suffix;
+            } else if (pattern < 0.70) {
+                // Pattern 5: Location + Prefix + Suffix (15%)
+                String location = locationPrefixes[rng.nextInt(locationPrefixes.length)];
+                String prefix = schoolPrefixes[rng.nextInt(schoolPrefixes.length)];
+                String suffix = schoolSuffixes[rng.nextInt(schoolSuffixes.length)];
+                schoolName = location + " " + prefix + " " + suffix;
+            } else {
+                // Pattern 6: Traditional format (30%)
+                schoolName = generateBasicSchoolName(rng, schoolPrefixes, schoolMiddles, schoolSuffixes);
+            }
+            
+        } while (usedSchoolNames.contains(schoolName));
+        
+        usedSchoolNames.add(schoolName);
+        return schoolName;
+    }
+    
+    // Helper method for basic school name generation
+    private static String generateBasicSchoolName(java.util.random.RandomGenerator rng, String[] prefixes, String[] middles, String[] suffixes) {
+        String prefix = prefixes[rng.nextInt(prefixes.length)];
+        String middle = middles[rng.nextInt(middles.length)];
+        String suffix = suffixes[rng.nextInt(suffixes.length)];
+        
+        // Sometimes skip the middle part for variation
+        if (rng.nextDouble() < 0.3) {
+            return prefix + " " + suffix;
+        } else {
+            return prefix + " " + middle + " " + suffix;
+        }
+    }
+    
+    // Method to generate date of birth based on class and current year
+    private static String generateDateOfBirth(java.util.random.RandomGenerator rng, int currentClass) {
+        int currentYear = sessionYear;
+        int baseAge = 5; // Age for Class 1 admission
+        int studentAge = baseAge + (currentClass - 1); // Calculate age based on class
+        int birthYear = currentYear - studentAge;
+        
+        // Generate random month (1-12) and day
+        int month = 1 + rng.nextInt(12);
+        int day;
+        
+        // Handle different days per month
+        if (month == 2) {
+            // February - check for leap year
+            boolean isLeapYear = (birthYear % 4 == 0 && birthYear % 100 != 0) || (birthYear % 400 == 0);
+            day = 1 + rng.nextInt(isLeapYear ? 29 : 28);
+        } else if (month == 4 || month == 6 || month == 9 || month == 11) {
+            // April, June, September, November have 30 days
+            day = 1 + rng.nextInt(30);
+        } else {
+            // January, March, May, July, August, October, December have 31 days
+            day = 1 + rng.nextInt(31);
+        }
+        
+        return String.format("%02d/%02d/%d", day, month, birthYear);
+    }
+    
+    // Method to generate blood group
+    private static String generateBloodGroup(java.util.random.RandomGenerator rng) {
+        String[] bloodGroups = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+        // O+ is most common, O- is rarest, adjust probabilities
+        double[] probabilities = {0.15, 0.05, 0.15, 0.05, 0.10, 0.02, 0.45, 0.03};
+        
+        double random = rng.nextDouble();
+        double cumulative = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            cumulative += probabilities[i];
+            if (random <= cumulative) {
+                return bloodGroups[i];
+            }
+        }
+        return "O+"; // Default
+    }
+    
+    // Method to generate religion
+    private static String generateReligion(java.util.random.RandomGenerator rng) {
+        String[] religions = {"Hindu", "Muslim", "Christian", "Sikh", "Buddhist", "Jain", "Other"};
+        // Approximate Indian religious demographics
+        double[] probabilities = {0.80, 0.14, 0.02, 0.02, 0.008, 0.004, 0.028};
+        
+        double random = rng.nextDouble();
+        double cumulative = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            cumulative += probabilities[i];
+            if (random <= cumulative) {
+                return religions[i];
+            }
+        }
+        return "Hindu"; // Default
+    }
+    
+    // Method to generate gender
+    private static String generateGender(java.util.random.RandomGenerator rng) {
+        return rng.nextDouble() < 0.5 ? "Male" : "Female";
+    }
+    
+    // Method to generate parent occupation
+    private static String generateParentOccupation(java.util.random.RandomGenerator rng) {
+        String[] occupations = {
+            "Software Engineer", "Doctor", "Teacher", "Businessman", "Government Employee", 
+            "Lawyer", "Engineer", "Accountant", "Banker", "Consultant", "Manager", 
+            "Sales Executive", "Marketing Manager", "Farmer", "Police Officer", 
+            "Army Officer", "Nurse", "Pharmacist", "Architect", "Civil Engineer",
+            "Mechanical Engineer", "Electrical Engineer", "CA", "Professor", "Principal",
+            "Shopkeeper", "Contractor", "Real Estate Agent", "Insurance Agent", "Chef",
+            "Driver", "Technician", "Artist", "Writer", "Journalist", "Photographer"
+        };
+        return occupations[rng.nextInt(occupations.length)];
+    }
+    
+    // Method to check if concession is needed and generate concession details
+    private static String[] generateConcessionDetails(java.util.random.RandomGenerator rng) {
+        boolean needsConcession = rng.nextDouble() < 0.25; // 25% students need concession
+        
+        if (!needsConcession) {
+            return new String[]{"No", "N/A"};
+        }
+        
+        String[] concessionTypes = {
+            "SC/ST Quota", "OBC Quota", "EWS Quota", "Physically Disabled", 
+            "Single Parent", "Below Poverty Line", "Merit Scholarship", 
+            "Sports Quota", "Defence Personnel", "Ex-Serviceman"
+        };
+        
+        String concessionType = concessionTypes[rng.nextInt(concessionTypes.length)];
+        return new String[]{"Yes", concessionType};
+    }
+    
+    // Method to generate medical condition
+    private static String generateMedicalCondition(java.util.random.RandomGenerator rng) {
+        double hasCondition = rng.nextDouble();
+        
+        if (hasCondition < 0.85) { // 85% have no medical conditions
+            return "None";
+        }
+        
+        String[] conditions = {
+            "Asthma", "Diabetes Type 1", "Epilepsy", "ADHD", "Dyslexia", 
+            "Heart Condition", "Allergies", "Vision Impairment", "Hearing Impairment",
+            "Autism Spectrum", "Learning Disability", "Speech Disorder"
+        };
+        
+        return conditions[rng.nextInt(conditions.length)];
+    }
+    
+    // Helper method to write a positive number as Roman numerals (used for repeated name suffixes)
+    private static String toRomanNumeral(long number) {
+        final long[] values = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+        final String[] numerals = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+        StringBuilder roman = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            while (number >= values[i]) {
+                roman.append(numerals[i]);
+                number -= values[i];
+            }
+        }
+        return roman.toString();
+    }
+    
+    // Method to generate the unique Aadhar card number at the given index of the shuffled number space
+    private static String generateAadharNumber(NumberPermutation aadharPermutation, long aadharIndex) {
+        String aadharNumber = String.format("%012d", aadharPermutation.permute(aadharIndex));
+        // Format as XXXX XXXX XXXX
+        return aadharNumber.substring(0, 4) + " " + aadharNumber.substring(4, 8) + " " + aadharNumber.substring(8, 12);
+    }
+    
+    // Shared inputs for student generation shards (everything is read-only, so shards never lock each other)
+    static class StudentGenerationContext {
+        final String[] firstNames;
+        final String[] lastNames;
+        final java.util.List<String> schoolNames;
+        final int numClasses;
+        final int numSections;
+        final int studentsPerSection;
+        final long totalStudents;
+        final NumberPermutation aadharPermutation;
+        final NumberPermutation phonePermutation;
+        final NumberPermutation namePermutation;
+        final java.util.concurrent.atomic.AtomicLong generatedStudents = new java.util.concurrent.atomic.AtomicLong();
+        DerivedPhasePipeline pipeline; // Pipelined mode only: receives every completed (school, class) roster
+        final java.util.concurrent.atomic.AtomicLong checkpointedStudents = new java.util.concurrent.atomic.AtomicLong();
+        
+        StudentGenerationContext(String[] firstNames, String[] lastNames, java.util.List<String> schoolNames,
+                                 int numClasses, int numSections, int studentsPerSection, long totalStudents) {
+            // The name lists contain repeats; only distinct names make distinct first x last combinations
+            this.firstNames = distinctNames(firstNames);
+            this.lastNames = distinctNames(lastNames);
+            this.schoolNames = schoolNames;
+            this.numClasses = numClasses;
+            this.numSections = numSections;
+            this.studentsPerSection = studentsPerSection;
+            this.totalStudents = totalStudents;
+            this.aadharPermutation = new NumberPermutation(AADHAR_NUMBER_SPACE, mixSeed(randomSeed ^ mixSeed(STREAM_AADHAR)));
+            this.phonePermutation = new NumberPermutation(PHONE_NUMBER_SPACE, mixSeed(randomSeed ^ mixSeed(STREAM_PHONE)));
+            this.namePermutation = new NumberPermutation((long) this.firstNames.length * this.lastNames.length,
+                mixSeed(randomSeed ^ mixSeed(STREAM_NAMES)));
+        }
+        
+        private static String[] distinctNames(String[] names) {
+            return new java.util.LinkedHashSet<>(java.util.Arrays.asList(names)).toArray(new String[0]);
+        }
+        
+        // Position of a student in the whole dataset, independent of the order in which shards run
+        long studentOrdinal(int schoolIndex, int classNum, int sectionIndex, int rollNo) {
+            return (((long) schoolIndex * numClasses + (classNum - 1)) * numSections + sectionIndex) * studentsPerSection + (rollNo - 1);
+        }
+    }
+    
+    // Method to generate all students by running one shard per (school, class) on the generator pool
+    private static void generateStudentsInParallel(StudentGenerationContext ctx, int numSchools, int numClasses) {
+        int threads = generatorThreads > 0 ? generatorThreads : systemCores;
+        ExecutorService generatorPool = Executors.newFixedThreadPool(threads);
+        System.out.println("Student generator threads: " + threads + " (" + (numSchools * numClasses) + " shards of " +
+            (ctx.numSections * ctx.studentsPerSection) + " students each)");
+        
+        java.util.List<Future<?>> shards = new java.util.ArrayList<>();
+        for (int schoolIndex = 0; schoolIndex < numSchools; schoolIndex++) {
+            for (int classNum = 1; classNum <= numClasses; classNum++) {
+                final int shardSchool = schoolIndex;
+                final int shardClass = classNum;
+                shards.add(generatorPool.submit(() -> generateStudentShard(ctx, shardSchool, shardClass)));
+            }
+        }
+        
+        try {
+            for (Future<?> shard : shards) {
+                try {
+                    shard.get();
+                } catch (ExecutionException e) {
+                    System.err.println("Student generation shard failed: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            generatorPool.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.out.println("Student generation interrupted");
+        } finally {
+            generatorPool.shutdown();
+        }
+    }
+    
+    // Method to generate every student of one class in one school, section by section
+    private static void generateStudentShard(StudentGenerationContext ctx, int schoolIndex, int classNum) {
+        // In pipelined mode the shard also keeps its class roster {student_uuid, full_name, roll_no, section, stream}
+        String schoolName = ctx.schoolNames.get(schoolIndex);
+        java.util.List<String[]> roster = ctx.pipeline != null && ctx.pipeline.needsRoster(schoolName, classNum)
+                ? new java.util.ArrayList<>(ctx.numSections * ctx.studentsPerSection) : null;
+        
+        for (int sectionIndex = 0; sectionIndex < ctx.numSections; sectionIndex++) {
+            char section = (char) ('A' + sectionIndex);
+            
+            // Sections an earlier run committed are not written again (but still regenerated if a roster needs them)
+            SectionProgress progress = null;
+            boolean writeSection = true;
+            if (checkpoint != null) {
+                String unit = "students " + getStudentTableName(schoolName) + " " + classNum + " " + section;
+                if (checkpoint.isComplete(unit)) {
+                    writeSection = false;
+                    ctx.checkpointedStudents.addAndGet(ctx.studentsPerSection);
+                    if (roster == null) {
+                        continue;
+                    }
+                } else {
+                    progress = new SectionProgress(unit, ctx.studentsPerSection);
+                }
+            }
+            
+            for (int rollNo = 1; rollNo <= ctx.studentsPerSection; rollNo++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                
+                // Memory monitoring for large datasets (every 10,000 students across all shards)
+                long generated = ctx.generatedStudents.incrementAndGet();
+                if (generated % 10000 == 0) {
+                    checkMemoryUsage(generated, ctx.totalStudents);
+                }
+                
+                // Each student draws from its own seeded stream, so shard scheduling never changes its data
+                java.util.random.RandomGenerator rng = newRandomGenerator(STREAM_STUDENTS, schoolIndex, classNum, sectionIndex, rollNo);
+                
+                StudentData student = generateStudent(ctx, rng, schoolIndex, classNum, section, rollNo);
+                if (roster != null) {
+                    roster.add(new String[]{student.studentUUID, student.fullName, String.valueOf(student.rollNo),
+                        student.section, student.stream});
+                }
+                
+                // Use batch processing for all dataset sizes (more efficient); blocks while the writers catch up
+                if (writeSection) {
+                    student.progress = progress;
+                    queueStudentForBatch(student);
+                }
+            }
+        }
+        
+        // Hand the finished class to the derived phases; blocks while too many shards are still being derived
+        if (roster != null) {
+            ctx.pipeline.submitShard(schoolName, classNum, roster);
+        }
+    }
+    
+    // Method to warn (and collect garbage) when heap usage gets high during generation
+    private static void checkMemoryUsage(long studentIndex, long totalStudents) {
+        Runtime runtime = Runtime.getRuntime();
+        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+        long maxMemory = runtime.maxMemory();
+        double memoryUsagePercent = (usedMemory * 100.0) / maxMemory;
+        
+        if (memoryUsagePercent > 85) {
+            System.out.printf("WARNING: Memory usage at %.1f%% (%s/%s). Running garbage collection...\n", 
+                memoryUsagePercent, formatBytes(usedMemory), formatBytes(maxMemory));
+            System.gc(); // Force garbage collection
+            
+            // Wait a bit for GC to complete
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            
+            // Check memory again after GC
+            usedMemory = runtime.totalMemory() - runtime.freeMemory();
+            memoryUsagePercent = (usedMemory * 100.0) / maxMemory;
+            
+            if (memoryUsagePercent > 90) {
+                System.err.printf("CRITICAL: Memory usage still at %.1f%% after GC. Consider increasing heap size with -Xmx flag.\n", memoryUsagePercent);
+                System.err.println("Current student index: " + studentIndex + "/" + totalStudents);
+                System.err.println("Recommendation: Use java -Xmx8g or higher for large datasets");
+            }
+        }
+    }
+    
+    // Method to generate one student at the given school, class, section and roll number
+    private static StudentData generateStudent(StudentGenerationContext ctx, java.util.random.RandomGenerator rng, int schoolIndex, int currentClass,
+                                               char currentSection, int currentRollNo) {
+        String[] firstNames = ctx.firstNames;
+        String[] lastNames = ctx.lastNames;
+        
+        // Unique name combination: the student's ordinal walks the shuffled first x last product space, and once
+        // every combination is taken the next pass repeats it with a Roman numeral suffix (II, III, ...)
+        long studentOrdinal = ctx.studentOrdinal(schoolIndex, currentClass, currentSection - 'A', currentRollNo);
+        long nameSpace = ctx.namePermutation.domainSize();
+        long nameIndex = ctx.namePermutation.permute(studentOrdinal % nameSpace);
+        int firstNameIndex = (int) (nameIndex / lastNames.length);
+        String firstName = firstNames[firstNameIndex];
+        String lastName = lastNames[(int) (nameIndex % lastNames.length)];
+        long namePass = studentOrdinal / nameSpace;
+        String fullName = firstName + " " + lastName + (namePass > 0 ? " " + toRomanNumeral(namePass + 1) : "");
+
+        // Guardian gets same last name but different first name (draw from the other n - 1 first names)
+        int guardianFirstNameIndex = rng.nextInt(firstNames.length - 1);
+        if (guardianFirstNameIndex >= firstNameIndex) {
+            guardianFirstNameIndex++;
+        }
+
+        String guardianName = firstNames[guardianFirstNameIndex] + " " + lastName;
+        
+        // Generate UUID v4 for the student
+        String studentUUID = generateUUID(rng);
+        
+        // Generate all student details
+        String gender = generateGender(rng);
+        String bloodGroup = generateBloodGroup(rng);
+        String dateOfBirth = generateDateOfBirth(rng, currentClass);
+        String aadharNumber = generateAadharNumber(ctx.aadharPermutation, studentOrdinal);
+        String religion = generateReligion(rng);
+        String parentOccupation = generateParentOccupation(rng);
+        String[] concessionDetails = generateConcessionDetails(rng);
+        String concessionNeeded = concessionDetails[0];
+        String concessionType = concessionDetails[1];
+        String medicalCondition = generateMedicalCondition(rng);
+        
+        // Generate unique phone numbers (student and guardian take two adjacent indices of the phone space)
+        String studentPhone = generateUniquePhoneNumber(ctx.phonePermutation, 2 * studentOrdinal);
+        String guardianPhone = generateUniquePhoneNumber(ctx.phonePermutation, 2 * studentOrdinal + 1);
+        
+        // Assign school, class, section, and roll number
+        String schoolName = ctx.schoolNames.get(schoolIndex);
+        String classStr = "Class " + currentClass;
+        
+        // Handle stream-based section assignment for classes 11 and 12
+        String sectionStr;
+        String studentStream;
+        
+        if (currentClass == 11 || currentClass == 12) {
+            // For classes 11 and 12, assign stream-based sections
+            StreamSectionAssignment assignment = getStreamBasedSection(currentSection, ctx.numSections, currentRollNo, ctx.studentsPerSection);
+            sectionStr = String.valueOf(assignment.section);
+            studentStream = assignment.stream;
+        } else {
+            // For other classes, use regular section assignment
+            sectionStr = String.valueOf(currentSection);
+            studentStream = null; // No stream for classes 1-10
+        }
+        
+        // Generate MinIO URL for student image
+        String schoolNameEncoded = schoolName.replace(" ", "%20").replace(".", "").replace("'", "");
+        String imageUrl = "minio.studentdata.tech/" + schoolNameEncoded + "/" + studentUUID + "/profile.png";
+        
+        // Create student data object
+        return new StudentData(
+            studentUUID, fullName, guardianName, gender, bloodGroup, dateOfBirth,
+            aadharNumber, classStr, sectionStr, currentRollNo, schoolName, religion,
+            parentOccupation, concessionNeeded, concessionType, medicalCondition,
+            studentPhone, guardianPhone, imageUrl, studentStream
+        );
+    }
+    
+    public static void main(String[] args) {
+        java.util.Scanner scanner = new java.util.Scanner(System.in);
+        
+        parseCommandLineOptions(args);
+        if (runRandomBenchmark) {
+            benchmarkRandomGenerators();
+            return;
+        }
+        // Replaying a spool or loading a snapshot generates nothing, so it needs no structure sizes
+        if (headless && replaySpoolDirectory == null && loadSnapshotDirectory == null
+                && (configuredClasses == 0 || configuredSections == 0 || configuredStudentsPerSection == 0 || configuredSchools == 0)) {
+            System.err.println("Headless runs need --classes, --sections, --students-per-section and --schools (or the same keys in --config)");
+            scanner.close();
+            return;
+        }
+        if (checkpointPath != null) {
+            try {
+                checkpoint = new CheckpointLog(java.nio.file.Path.of(checkpointPath));
+                if (checkpoint.isResume()) {
+                    System.out.println("Resuming from checkpoint " + checkpointPath + " (" + checkpoint.completedUnits() + " units already committed)");
+                    if (!seedConfigured) {
+                        randomSeed = Long.parseLong(checkpoint.setting("seed"));
+                        randomAlgorithm = checkpoint.setting("random");
+                    }
+                }
+            } catch (java.io.IOException | RuntimeException e) {
+                System.err.println("Could not open checkpoint " + checkpointPath + ": " + e.getMessage());
+                scanner.close();
+                return;
+            }
+        }
+        System.out.println("Random seed: " + randomSeed + " (pass --seed=" + randomSeed + " to regenerate this dataset)");
+        
+        // Initialize system detection and thread pool first
+        initializeSystemDetectionAndThreadPool();
+        runMetrics.register();
+        
+        if (metricsPort > 0) {
+            startMetricsEndpoint();
+        }
+        
+        if (usesDatabase()) {
+            // Initialize connection pool
+            System.out.println("=== INITIALIZING DATABASE CONNECTION POOL ===");
+            try {
+                initializeConnectionPool();
+            } catch (Exception e) {
+                System.err.println("Failed to initialize connection pool: " + e.getMessage());
+                closeConnectionPool();
+                scanner.close();
+                return;
+            }
+            
+            // Database connection test
+            System.out.println("=== TESTING DATABASE CONNECTION ===");
+            try (Connection conn = getConnection()) {
+                System.out.println("Successfully connected to PostgreSQL database!");
+            } catch (SQLException e) {
+                System.err.println("Database connection failed: " + e.getMessage());
+                System.err.println("Please make sure PostgreSQL is running and credentials are correct.");
+                closeConnectionPool();
+                scanner.close();
+                return;
+            }
+        } else {
+            // No pool: size the writer and derived-phase threads as if there were one
+            connectionPoolSize = getPoolSize();
+            System.out.println("=== " + recordSinkMode.toUpperCase() + " SINK ===");
+            System.out.println(SINK_FILE.equals(recordSinkMode)
+                ? "Records are written as " + exportFormat + (COMPRESS_GZIP.equals(exportCompression) ? ".gz" : "") + " files to " + java.nio.file.Path.of(sinkDirectory).toAbsolutePath() + " (no database)"
+                : "Records are generated and discarded (no database)");
+        }
+        
+        if (loadSnapshotDirectory != null) {
+            loadSnapshot(java.nio.file.Path.of(loadSnapshotDirectory));
+            closeCheckpointLog();
+            closeConnectionPool();
+            scanner.close();
+            return;
+        }
+        
+        if (replaySpoolDirectory != null) {
+            replayDeadLetterSpool(java.nio.file.Path.of(replaySpoolDirectory));
+            closeCheckpointLog();
+            closeConnectionPool();
+            scanner.close();
+            return;
+        }
+        
+        // Get user input for school structure
+        System.out.println("\n=== SCHOOL MANAGEMENT SYSTEM ===");
+        int numClasses = readStructureSize(scanner, "Enter number of classes in each school (e.g., 12 for classes 1-12): ",
+            configuredClasses, "--classes");
+        int numSections = readStructureSize(scanner, "Enter number of sections per class (e.g., 4 for sections A, B, C, D): ",
+            configuredSections, "--sections");
+        int studentsPerSection = readStructureSize(scanner, "Enter number of students per section: ",
+            configuredStudentsPerSection, "--students-per-section");
+        int numSchools = readStructureSize(scanner, "Enter number of schools to generate: ",
+            configuredSchools, "--schools");
+        
+        // Calculate total students (as long: the product of four int sizes can overflow an int)
+        long totalStudentsPerSchool = multiplySizes(numClasses, numSections, studentsPerSection);
+        long totalStudents = multiplySizes(numSchools, totalStudentsPerSchool);
+        
+        // Every student needs one Aadhar number and two phone numbers from a fixed-size number space
+        if (totalStudents > AADHAR_NUMBER_SPACE || totalStudents > PHONE_NUMBER_SPACE / 2) {
+            System.err.println("ERROR: " + String.format("%,d", totalStudents) + " students exceed the unique Aadhar/phone number space");
+            closeConnectionPool();
+            scanner.close();
+            return;
+        }
+        
+        // A checkpoint can only be resumed by a run that regenerates exactly the same data
+        if (checkpoint != null) {
+            java.util.Map<String, String> runSettings = new java.util.LinkedHashMap<>();
+            runSettings.put("seed", String.valueOf(randomSeed));
+            runSettings.put("random", randomAlgorithm);
+            runSettings.put("schools", String.valueOf(numSchools));
+            runSettings.put("classes", String.valueOf(numClasses));
+            runSettings.put("sections", String.valueOf(numSections));
+            runSettings.put("students-per-section", String.valueOf(studentsPerSection));
+            runSettings.put("session-year", String.valueOf(sessionYear));
+            runSettings.put("terms", String.valueOf(academicTerms));
+            runSettings.put("pipeline", String.valueOf(pipelinedPhases));
+            // Units are keyed by the per-school table names, which are the same under both layouts
+            runSettings.put("schema", schemaMode);
+            if (SCHEMA_PARTITIONED.equals(schemaMode)) {
+                runSettings.put("school-partitioning", schoolPartitioning);
+                if (SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning)) {
+                    runSettings.put("school-partitions", String.valueOf(schoolHashPartitions));
+                }
+            }
+            String mismatch;
+            try {
+                mismatch = checkpoint.startRun(runSettings);
+            } catch (java.io.IOException e) {
+                mismatch = "the checkpoint could not be written (" + e.getMessage() + ")";
+            }
+            if (mismatch != null) {
+                System.err.println("ERROR: cannot resume " + checkpointPath + ": " + mismatch);
+                System.err.println("Rerun with the original options, or use a new checkpoint file.");
+                closeCheckpointLog();
+                closeConnectionPool();
+                scanner.close();
+                return;
+            }
+        }
+        
+        System.out.println("\n=== SCHOOL STRUCTURE ===");
+        System.out.println("Number of Schools: " + numSchools);
+        System.out.println("Classes per School: " + numClasses + " (Class 1 to Class " + numClasses + ")");
+        System.out.println("Sections per Class: " + numSections);
+        System.out.println("Students per Section: " + studentsPerSection);
+        System.out.println("Total Students per School: " + totalStudentsPerSchool);
+        System.out.println("Total Students Across All Schools: " + totalStudents);
+        
+        // Dataset size warnings and recommendations
+        if (totalStudents > 10000000) {
+            System.out.println("\n*** LARGE DATASET WARNING ***");
+            System.out.println("You are about to generate " + String.format("%,d", totalStudents) + " students.");
+            System.out.println("This is a very large dataset that may require:");
+            System.out.println("  - Heap for the in-flight students only: the writer queue is bounded (see --queue-capacity)");
+            System.out.println("  - Significant processing time: 30+ minutes");
+            System.out.println("  - Large database storage: 10+ GB disk space");
+            System.out.println("  - PostgreSQL tuning for high connection load");
+            System.out.println("\nRecommendation: Start with a smaller dataset for testing.");
+        } else if (totalStudents > 1000000) {
+            System.out.println("\n*** MEDIUM DATASET NOTICE ***");
+            System.out.println("Generating " + String.format("%,d", totalStudents) + " students.");
+            System.out.println("Estimated time: 10-20 minutes");
+            System.out.println("Recommended memory: java -Xmx8g");
+        } else if (totalStudents > 100000) {
+            System.out.println("\n*** DATASET INFO ***");
+            System.out.println("Generating " + String.format("%,d", totalStudents) + " students.");
+            System.out.println("Estimated time: 2-5 minutes");
+        }
+        
+        System.out.println("=====================================\n");
+        
+        // Create database tables
+        if (usesDatabase() || capturesSchema()) {
+            System.out.println("=== CREATING DATABASE TABLES ===");
+            if (SCHEMA_PARTITIONED.equals(schemaMode)) {
+                System.out.println("Partitioned schema: one parent per record family, partitioned by year (range) and by school (" +
+                    (SCHOOL_PARTITIONING_HASH.equals(schoolPartitioning) ? "hash into " + schoolHashPartitions + " buckets" : "list") + ")");
+            }
+            createTables();
+        }
+        
+        // Generate unique school names and UUIDs
+        java.util.Set<String> usedSchoolNames = new java.util.HashSet<>();
+        java.util.List<String> schoolNames = new java.util.ArrayList<>();
+        java.util.Map<String, String> schoolUUIDs = new java.util.HashMap<>();
+        
+        System.out.println("\n=== GENERATING SCHOOLS ===");
+        java.util.random.RandomGenerator schoolRandom = newRandomGenerator(STREAM_SCHOOLS);
+        for (int i = 0; i < numSchools; i++) {
+            String schoolName = generateUniqueSchoolName(schoolRandom, usedSchoolNames);
+            String schoolUUID = generateUUID(schoolRandom);
+            schoolNames.add(schoolName);
+            schoolUUIDs.put(schoolName, schoolUUID);
+            
+            // Register the school's table identifier in generation order, then create its student table
+            identifiers.registerSchool(schoolName);
+            identifiers.registerSchoolUuid(schoolName, schoolUUID);
+            if (!usesDatabase()) {
+                if (capturesSchema()) {
+                    createStudentTable(schoolName);
+                }
+                writeSchoolToSink(schoolUUID, schoolName);
+                continue;
+            }
+            createStudentTable(schoolName);
+            
+            // Insert school data asynchronously
+            final String finalSchoolName = schoolName;
+            final String finalSchoolUUID = schoolUUID;
+            executorService.submit(() -> insertSchool(finalSchoolUUID, finalSchoolName));
+        }
+        
+        System.out.println("School generation completed!\n");
+        
+        // Generate student data
+        String[] firstNames = {
+                "Aadhav", "Aadhya", "Aahan", "Aaira", "Aarav", "Aaravi", "Aarya", "Aasha", "Aashna", "Aashvi",
+                "Abha", "Abhay", "Abhi", "Abhijit", "Abhijeet", "Abhilash", "Abhinav", "Abhishek", "Adah", "Adarsh",
                 "Adesh", "Adhira", "Aditi", "Aditya", "Advika", "Agam", "Ahaana", "Ahana", "Ahir", "Aiden",
                 "Aisha", "Ajay", "Ajeet", "Ajit", "Akash", "Akshara", "Akshay", "Alka", "Alok", "Aman",
                 "Amar", "Amara", "Amay", "Amber", "Amey", "Amit", "Amita", "Amitabh", "Amol", "Amrita",
@@ -1277,14 +4799,9 @@ public class Main {
                 "Vora", "Vyas", "Wagh", "Waghmare", "Wagle", "Warrier", "Wilson", "Yadav", "Yajnik", "Yash",
                 "Zaveri", "Zutshi"
         };
-        // Memory-efficient LRU caches to track used values (prevents memory exhaustion)
-        LRUCache<String> usedPhoneNumbers = new LRUCache<>(MAX_CACHE_SIZE);
-        LRUCache<String> usedAadhars = new LRUCache<>(MAX_CACHE_SIZE);
-        LRUCache<String> usedNameCombinations = new LRUCache<>(MAX_CACHE_SIZE);
-        
         System.out.println("=== GENERATING AND SAVING STUDENT DATA ===");
         System.out.println("Total students to generate: " + totalStudents);
-        System.out.println("Using memory-efficient LRU caches (max " + MAX_CACHE_SIZE + " entries each) to prevent memory exhaustion");
+        System.out.println("Aadhar and phone numbers are assigned through keyed permutations (unique, no lookup tables)");
         
         // Start batch processor for efficient database operations
         System.out.println("Starting batch processor for efficient database operations...");
@@ -1316,180 +4833,51 @@ public class Main {
                                 System.out.println("WARNING: Processing appears stuck at " + current + " students");
                                 System.out.println("This may be due to database connection issues with large datasets");
                                 break;
-                            }
-                        } else {
-                            stuckCounter = 0;
-                            lastReported = current;
-                        }
-                        
-                        double percentage = (current * 100.0) / totalStudents;
-                        System.out.printf("Progress: %d/%d students (%.1f%%) processed\n", 
-                            current, totalStudents, percentage);
-                            
-                    } catch (InterruptedException e) {
-                        break;
-                    }
-                }
-                System.out.println("Progress monitoring stopped.");
-            });
-        } else {
-            System.out.println("Synchronous processing mode - progress will be shown with student insertions.");
-        }
-
-        int currentSchoolIndex = 0;
-        int currentClass = 1;
-        char currentSection = 'A';
-        int currentRollNo = 1;
-        
-        for (int studentIndex = 0; studentIndex < totalStudents; studentIndex++) {
-            // Memory monitoring for large datasets
-            if (studentIndex % 10000 == 0) { // Check every 10,000 students
-                Runtime runtime = Runtime.getRuntime();
-                long usedMemory = runtime.totalMemory() - runtime.freeMemory();
-                long maxMemory = runtime.maxMemory();
-                double memoryUsagePercent = (usedMemory * 100.0) / maxMemory;
-                
-                if (memoryUsagePercent > 85) {
-                    System.out.printf("WARNING: Memory usage at %.1f%% (%s/%s). Running garbage collection...\n", 
-                        memoryUsagePercent, formatBytes(usedMemory), formatBytes(maxMemory));
-                    System.gc(); // Force garbage collection
-                    
-                    // Wait a bit for GC to complete
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                    
-                    // Check memory again after GC
-                    usedMemory = runtime.totalMemory() - runtime.freeMemory();
-                    memoryUsagePercent = (usedMemory * 100.0) / maxMemory;
-                    
-                    if (memoryUsagePercent > 90) {
-                        System.err.printf("CRITICAL: Memory usage still at %.1f%% after GC. Consider increasing heap size with -Xmx flag.\n", memoryUsagePercent);
-                        System.err.println("Current student index: " + studentIndex + "/" + totalStudents);
-                        System.err.println("Recommendation: Use java -Xmx8g or higher for large datasets");
-                    }
-                }
-            }
-            
-            // Generate unique name combination
-            String fullName, firstName, lastName;
-            int nameAttempts = 0;
-            do {
-                firstName = firstNames[(int) (Math.random() * firstNames.length)];
-                lastName = lastNames[(int) (Math.random() * lastNames.length)];
-                fullName = firstName + " " + lastName;
-                nameAttempts++;
-                
-                // Prevent infinite loops in case cache is full
-                if (nameAttempts > 1000) {
-                    break;
-                }
-            } while (usedNameCombinations.contains(fullName));
-            
-            usedNameCombinations.add(fullName);
-
-            // Guardian gets same last name but different first name
-            int guardianFirstNameIndex;
-            do {
-                guardianFirstNameIndex = (int) (Math.random() * firstNames.length);
-            } while (firstNames[guardianFirstNameIndex].equals(firstName));
-
-            String guardianName = firstNames[guardianFirstNameIndex] + " " + lastName;
-            
-            // Generate UUID v4 for the student
-            String studentUUID = java.util.UUID.randomUUID().toString();
-            
-            // Generate all student details
-            String gender = generateGender();
-            String bloodGroup = generateBloodGroup();
-            String dateOfBirth = generateDateOfBirth(currentClass);
-            String aadharNumber = generateAadharNumber(usedAadhars);
-            String religion = generateReligion();
-            String parentOccupation = generateParentOccupation();
-            String[] concessionDetails = generateConcessionDetails();
-            String concessionNeeded = concessionDetails[0];
-            String concessionType = concessionDetails[1];
-            String medicalCondition = generateMedicalCondition();
-            
-            // Generate unique phone numbers
-            String studentPhone = generateUniquePhoneNumber(usedPhoneNumbers);
-            String guardianPhone = generateUniquePhoneNumber(usedPhoneNumbers);
-            
-            // Assign school, class, section, and roll number
-            String schoolName = schoolNames.get(currentSchoolIndex);
-            String classStr = "Class " + currentClass;
-            
-            // Handle stream-based section assignment for classes 11 and 12
-            String sectionStr;
-            String studentStream;
-            
-            if (currentClass == 11 || currentClass == 12) {
-                // For classes 11 and 12, assign stream-based sections
-                StreamSectionAssignment assignment = getStreamBasedSection(currentSection, numSections, currentRollNo, studentsPerSection);
-                sectionStr = String.valueOf(assignment.section);
-                studentStream = assignment.stream;
-            } else {
-                // For other classes, use regular section assignment
-                sectionStr = String.valueOf(currentSection);
-                studentStream = null; // No stream for classes 1-10
-            }
-            
-            // Generate MinIO URL for student image
-            String schoolNameEncoded = schoolName.replace(" ", "%20").replace(".", "").replace("'", "");
-            String imageUrl = "minio.studentdata.tech/" + schoolNameEncoded + "/" + studentUUID + "/profile.png";
-            
-            // Create student data object
-            StudentData student = new StudentData(
-                studentUUID, fullName, guardianName, gender, bloodGroup, dateOfBirth,
-                aadharNumber, classStr, sectionStr, currentRollNo, schoolName, religion,
-                parentOccupation, concessionNeeded, concessionType, medicalCondition,
-                studentPhone, guardianPhone, imageUrl, studentStream
-            );
-            
-            // Use batch processing for all dataset sizes (more efficient)
-            queueStudentForBatch(student);
-            
-            // Reduced delays since batch processing is more efficient
-            if ((studentIndex + 1) % 1000 == 0) {
-                try {
-                    Thread.sleep(10); // Small pause every 1000 students to prevent overwhelming the queue
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            
-            // Update roll number, section, class, and school
-            currentRollNo++;
-            if (currentRollNo > studentsPerSection) {
-                currentRollNo = 1;
-                currentSection++;
-                if (currentSection > 'A' + numSections - 1) {
-                    currentSection = 'A';
-                    currentClass++;
-                    if (currentClass > numClasses) {
-                        currentClass = 1;
-                        currentSchoolIndex++;
-                        if (currentSchoolIndex >= numSchools) {
-                            currentSchoolIndex = 0; // Wrap around if we have more students than school capacity
+                            }
+                        } else {
+                            stuckCounter = 0;
+                            lastReported = current;
                         }
+                        
+                        double percentage = (current * 100.0) / totalStudents;
+                        System.out.printf("Progress: %d/%d students (%.1f%%) processed\n", 
+                            current, totalStudents, percentage);
+                            
+                    } catch (InterruptedException e) {
+                        break;
                     }
                 }
-            }
+                System.out.println("Progress monitoring stopped.");
+            });
+        } else {
+            System.out.println("Synchronous processing mode - progress will be shown with student insertions.");
         }
 
-        // Stop batch processor and wait for all batches to complete
+        // Split generation into independent (school, class) shards; each shard derives its own
+        // sections and roll numbers, so shards can run on any core in any order
+        StudentGenerationContext generationContext = new StudentGenerationContext(
+            firstNames, lastNames, schoolNames, numClasses, numSections, studentsPerSection, totalStudents);
+        long nameSpace = generationContext.namePermutation.domainSize();
+        System.out.println("Name combinations available: " + String.format("%,d", nameSpace));
+        if (totalStudents > nameSpace) {
+            System.out.println("NOTE: " + String.format("%,d", totalStudents) + " students exceed the name space; after the first " +
+                String.format("%,d", nameSpace) + " students, names repeat with suffixes II to " +
+                toRomanNumeral((totalStudents - 1) / nameSpace + 1));
+        }
+        DerivedPhasePipeline pipeline = null;
+        if (pipelinedPhases) {
+            pipeline = new DerivedPhasePipeline(schoolNames, numClasses, getPhaseThreads());
+            generationContext.pipeline = pipeline;
+        }
+        generateStudentsInParallel(generationContext, numSchools, numClasses);
+        if (generationContext.checkpointedStudents.get() > 0) {
+            System.out.println("Skipped " + String.format("%,d", generationContext.checkpointedStudents.get()) +
+                " students in sections already committed (checkpoint)");
+        }
+
+        // Stop batch processor; this returns once every queued student has been written
         System.out.println("\n=== STOPPING BATCH PROCESSOR ===");
         stopBatchProcessor();
-        
-        // Wait a bit for final batches to process
-        try {
-            Thread.sleep(5000); // Wait 5 seconds for final batch processing
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
 
         // Signal processing completion and wait for all tasks
         processingComplete = true;
@@ -1510,1576 +4898,2375 @@ public class Main {
                     System.out.println("Some database operations may not have completed");
                 }
             }
-        } catch (InterruptedException e) {
-            System.out.println("Interrupted. Forcing shutdown...");
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+        } catch (InterruptedException e) {
+            System.out.println("Interrupted. Forcing shutdown...");
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        // Batches the writers gave up on are reported rather than dropped silently; with a checkpoint their
+        // sections stay unlogged and the next run replays them
+        if (droppedStudents.get() > 0) {
+            System.err.println("WARNING: " + String.format("%,d", droppedStudents.get()) + " students could neither be written nor spooled" +
+                (checkpoint != null ? "; " + checkpoint.openSections.get() + " sections stay open in " + checkpointPath +
+                    " and are replayed by the next run with the same checkpoint" : "; use --checkpoint=FILE to make runs resumable"));
+        }
+        
+        System.out.println("\n=== GENERATION COMPLETE ===");
+        System.out.println("Total students generated: " + totalStudents);
+        System.out.println("Total schools generated: " + numSchools);
+        double writeSeconds = (System.nanoTime() - studentWriteStartNanos) / 1_000_000_000.0;
+        System.out.printf("Student write throughput (%s mode): %d rows in %.1f s (%.0f rows/sec)\n",
+            usesDatabase() ? studentWriterMode : recordSinkMode + " sink", processedStudents.get(), writeSeconds,
+            processedStudents.get() / Math.max(writeSeconds, 0.001));
+        System.out.println(usesDatabase() ? "All data saved to PostgreSQL database"
+            : SINK_FILE.equals(recordSinkMode) ? "All data written to " + sinkDirectory : "All data discarded (null sink)");
+        
+        // Print database summary
+        System.out.println("\n=== DATABASE SUMMARY ===");
+        System.out.println("School table: Contains " + numSchools + " schools with UUID and names");
+        if (SCHEMA_PARTITIONED.equals(schemaMode)) {
+            System.out.println("Student table: " + tableLayout("students_{school_name_sanitized}", "students", null));
+        } else {
+            System.out.println("Student tables: " + numSchools + " separate tables (one per school)");
+            System.out.println("Table naming pattern: students_{school_name_sanitized}");
+        }
+        System.out.println("Each student table contains comprehensive student information");
+        
+        System.out.println("\n=== SAMPLE SQL QUERIES ===");
+        System.out.println("-- View all schools:");
+        System.out.println("SELECT * FROM school_table;");
+        System.out.println("\n-- View students from a specific school (example):");
+        TableTarget sampleTarget = tableTarget(getStudentTableName(schoolNames.get(0)));
+        String sampleTableName = sampleTarget.table + sampleTarget.where(null);
+        System.out.println("SELECT * FROM " + sampleTableName + " LIMIT 10;");
+        System.out.println("\n-- Count students by gender in a school:");
+        System.out.println("SELECT gender, COUNT(*) FROM " + sampleTableName + " GROUP BY gender;");
+        
+        // In pipelined mode the derived records were generated alongside the students: wait for the last
+        // shards instead of running the academic, attendance, homework and project phases again
+        if (pipeline != null) {
+            pipeline.finish();
+            closeTableFiles();
+            printCommittedRowReport();
+            closeCheckpointLog();
+            closeConnectionPool();
+            scanner.close();
+            return;
+        }
+        
+        // Generate the derived phases after student data generation is complete
+        System.out.println("\n=== GENERATING ACADEMIC RESULTS ===");
+        runDerivedPhase(scanner, PHASE_ACADEMIC, "academic results",
+            () -> generateAutomaticAcademicResults(numClasses, schoolNames),
+            () -> generateAcademicResults(scanner, schoolNames));
+        
+        System.out.println("\n=== GENERATING ATTENDANCE RECORDS ===");
+        runDerivedPhase(scanner, PHASE_ATTENDANCE, "attendance records",
+            () -> generateAutomaticAttendanceRecords(numClasses, schoolNames),
+            () -> generateAttendanceRecords(scanner, schoolNames, numClasses));
+        
+        System.out.println("\n=== GENERATING HOMEWORK RECORDS ===");
+        runDerivedPhase(scanner, PHASE_HOMEWORK, "homework records",
+            () -> generateAutomaticHomeworkRecords(numClasses, schoolNames),
+            () -> generateHomeworkRecords(scanner, schoolNames, numClasses));
+        
+        System.out.println("\n=== GENERATING PROJECT RECORDS ===");
+        runDerivedPhase(scanner, PHASE_PROJECTS, "project records",
+            () -> generateAutomaticProjectRecords(numClasses, schoolNames),
+            () -> generateProjectRecords(scanner, schoolNames, numClasses));
+        
+        printCommittedRowReport();
+        
+        // Close connection pool before closing scanner
+        closeCheckpointLog();
+        closeConnectionPool();
+        scanner.close();
+    }
+    
+    // Method to run one derived phase. Configured and headless runs follow --phases without reading input;
+    // interactive runs ask with a 5 second timeout (y = custom configuration, n = skip, otherwise automatic).
+    private static void runDerivedPhase(java.util.Scanner scanner, String phase, String description,
+                                        Runnable automatic, Runnable custom) {
+        String title = Character.toUpperCase(description.charAt(0)) + description.substring(1);
+        if (configuredPhases != null || headless) {
+            if (isPhaseEnabled(phase)) {
+                System.out.println("Generating " + description + " automatically (--phases)...");
+                automatic.run();
+            } else {
+                System.out.println(title + " generation skipped (not in --phases).");
+            }
+            return;
+        }
+        
+        System.out.print("Do you want to generate " + description + "? (y/n) [Press Enter for automatic]: ");
+        String response = "";
+        boolean inputProvided = false;
+        try {
+            // Check if input is available within a reasonable timeout
+            long startTime = System.currentTimeMillis();
+            long timeoutMs = 5000; // 5 seconds timeout
+            
+            while ((System.currentTimeMillis() - startTime) < timeoutMs) {
+                if (System.in.available() > 0) {
+                    response = scanner.nextLine().trim().toLowerCase();
+                    inputProvided = true;
+                    break;
+                }
+                Thread.sleep(100);
+            }
+        } catch (Exception e) {
+            System.out.println("Error during input detection. Generating " + description + " automatically...");
+            automatic.run();
+            return;
+        }
+        
+        if (!inputProvided) {
+            System.out.println("\nNo input provided within 5 seconds. Generating " + description + " automatically...");
+            automatic.run();
+        } else if (response.equals("y") || response.equals("yes")) {
+            System.out.println("Generating " + description + " with custom configuration...");
+            custom.run();
+        } else if (response.equals("n") || response.equals("no")) {
+            System.out.println(title + " generation skipped by user.");
+        } else {
+            System.out.println("Invalid input. Generating " + description + " automatically...");
+            automatic.run();
+        }
+    }
+    
+    // Method to generate academic results for students
+    private static void generateAcademicResults(java.util.Scanner scanner, java.util.List<String> schoolNames) {
+        System.out.println("Now generating academic results for all students...\n");
+        
+        try {
+            // Get user input for academic structure
+            System.out.print("Enter the classes for which you want to generate results (e.g., '1-3' or '6-8'): ");
+            String classRange = scanner.next();
+            
+            // Parse class range
+            java.util.List<Integer> classes = parseClassRange(classRange);
+            System.out.println("Selected classes: " + classes);
+            
+            System.out.print("Enter number of terms per year: ");
+            int numTerms = scanner.nextInt();
+        
+        // Handle different subject combinations based on classes
+        java.util.Map<Integer, java.util.List<SubjectInfo>> classSubjects = new java.util.HashMap<>();
+        
+        for (int currentClass : classes) {
+            if (currentClass <= 9) {
+                // For classes 1-9, use automated subject configuration
+                if (!classSubjects.containsKey(currentClass)) {
+                    System.out.println("\n=== AUTO-CONFIGURING SUBJECTS FOR CLASS " + currentClass + " ===");
+                    java.util.List<SubjectInfo> subjects = getAutomatedSubjects(currentClass);
+                    classSubjects.put(currentClass, subjects);
+                    
+                    // Display configured subjects
+                    System.out.println("Subjects configured for Class " + currentClass + ":");
+                    for (SubjectInfo subject : subjects) {
+                        System.out.println("  - " + subject.name + " (Full Marks: " + subject.fullMarks + ")");
+                    }
+                }
+            } else if (currentClass == 10) {
+                // Class 10 - Fixed WBBSE subjects
+                if (!classSubjects.containsKey(10)) {
+                    System.out.println("\n=== CLASS 10 (WBBSE MADHYAMIK) - FIXED SUBJECTS ===");
+                    java.util.List<SubjectInfo> class10Subjects = getClass10Subjects(scanner);
+                    classSubjects.put(10, class10Subjects);
+                }
+            } else if (currentClass == 11 || currentClass == 12) {
+                // Classes 11-12 - Stream-based subjects
+                if (!classSubjects.containsKey(11)) {
+                    System.out.println("\n=== CLASSES 11-12 (WBCHSE HIGHER SECONDARY) - STREAM-BASED SUBJECTS ===");
+                    java.util.List<SubjectInfo> higherSecSubjects = getHigherSecondarySubjects(scanner);
+                    classSubjects.put(11, higherSecSubjects);
+                    classSubjects.put(12, higherSecSubjects); // Same subjects for both classes
+                }
+            }
+        }
+        
+        int currentYear = sessionYear;
+        
+        // Process each school
+        for (String schoolName : schoolNames) {
+            System.out.println("\nProcessing academic results for: " + schoolName);
+            
+            // For each class in the selected range
+            for (int currentClass : classes) {
+                java.util.List<SubjectInfo> subjects = classSubjects.get(currentClass);
+                
+                // Generate marksheets for current and previous years based on student's progression
+                for (int sessionYear = currentYear - currentClass + 1; sessionYear <= currentYear; sessionYear++) {
+                    int studentClassInSession = currentClass - (currentYear - sessionYear);
+                    if (studentClassInSession >= 1) {
+                        // First create regular academic table (for all classes)
+                        createAcademicTable(schoolName, studentClassInSession, sessionYear, subjects, numTerms, false);
+                        generateAcademicData(schoolName, studentClassInSession, sessionYear, subjects, numTerms, false);
+                        
+                        // For classes 10 and 12, also create board exam tables
+                        if (studentClassInSession == 10 || studentClassInSession == 12) {
+                            System.out.println("Creating board exam table for Class " + studentClassInSession);
+                            createBoardExamTable(schoolName, studentClassInSession, sessionYear, subjects, numTerms);
+                            generateBoardExamData(schoolName, studentClassInSession, sessionYear, subjects, numTerms);
+                        }
+                    }
+                }
+            }
+        }
+        
+        System.out.println("\n=== ACADEMIC RESULTS GENERATION COMPLETE ===");
+        System.out.println("Academic tables created with format: " + tableLayout("{school}_class_{class}_{year}_academic", "academic_class_{class}", "session_year"));
+        
+        } catch (java.util.NoSuchElementException e) {
+            System.out.println("\n=== INPUT ERROR ===");
+            System.out.println("No more input available for academic results generation.");
+            System.out.println("Academic results generation skipped.");
+        } catch (Exception e) {
+            System.out.println("\n=== ERROR IN ACADEMIC RESULTS GENERATION ===");
+            System.out.println("Error: " + e.getMessage());
+            System.out.println("Academic results generation skipped.");
+        }
+    }
+    
+    // Method to generate academic results automatically using school structure parameters
+    private static void generateAutomaticAcademicResults(int numClasses, java.util.List<String> schoolNames) {
+        System.out.println("Automatically generating academic results for all " + numClasses + " classes...");
+        
+        try {
+            // Use the run configuration (--class-range, --terms, --session-year) or its defaults
+            int numTerms = academicTerms;
+            
+            System.out.println("Configuration:");
+            System.out.println("  Class Range: " + (configuredClassRange != null ? configuredClassRange : "1-" + numClasses + " (all classes in school structure)"));
+            System.out.println("  Terms per Year: " + numTerms);
+            System.out.println("  Session Year: " + sessionYear);
+            
+            java.util.List<Integer> classes = getConfiguredClasses(numClasses);
+            System.out.println("Selected classes: " + classes);
+            
+            // Handle different subject combinations based on classes
+            java.util.Map<Integer, java.util.List<SubjectInfo>> classSubjects = new java.util.HashMap<>();
+            
+            for (int currentClass : classes) {
+                if (currentClass <= 9) {
+                    // For classes 1-9, use automated subject configuration
+                    if (!classSubjects.containsKey(currentClass)) {
+                        System.out.println("Auto-configuring subjects for Class " + currentClass);
+                        java.util.List<SubjectInfo> subjects = getAutomatedSubjects(currentClass);
+                        classSubjects.put(currentClass, subjects);
+                        System.out.println("Class " + currentClass + " subjects: " + subjects.size() + " subjects configured");
+                    }
+                } else if (currentClass == 10) {
+                    // For class 10, use fixed board exam subjects
+                    if (!classSubjects.containsKey(currentClass)) {
+                        System.out.println("Auto-configuring Class 10 board exam subjects");
+                        java.util.List<SubjectInfo> subjects = getAutomatedClass10Subjects();
+                        classSubjects.put(currentClass, subjects);
+                        System.out.println("Class 10 subjects: " + subjects.size() + " subjects configured (board exam)");
+                    }
+                } else if (currentClass >= 11 && currentClass <= 12) {
+                    // For classes 11-12, use automated higher secondary configuration
+                    if (!classSubjects.containsKey(currentClass)) {
+                        System.out.println("Auto-configuring Class " + currentClass + " higher secondary subjects");
+                        java.util.List<SubjectInfo> subjects = getAutomatedHigherSecondarySubjects();
+                        classSubjects.put(currentClass, subjects);
+                        System.out.println("Class " + currentClass + " subjects: " + subjects.size() + " subjects configured (higher secondary)");
+                    }
+                }
+            }
+            
+            // Generate academic data for each school and class
+            System.out.println("\n=== GENERATING ACADEMIC DATA ===");
+            int totalTables = schoolNames.size() * classes.size();
+            int processedTables = 0;
+            
+            for (String schoolName : schoolNames) {
+                System.out.println("Processing school: " + schoolName);
+                
+                for (int currentClass : classes) {
+                    processedTables++;
+                    System.out.println("  Generating academic data for Class " + currentClass + " (" + processedTables + "/" + totalTables + ")");
+                    
+                    java.util.List<SubjectInfo> subjects = classSubjects.get(currentClass);
+                    boolean isBoardExam = (currentClass == 10 || currentClass == 12);
+                    
+                    // Create academic table
+                    createAcademicTable(schoolName, currentClass, sessionYear, subjects, numTerms, isBoardExam);
+                    
+                    // Generate academic data
+                    generateAcademicData(schoolName, currentClass, sessionYear, subjects, numTerms, isBoardExam);
+                    
+                    // For board exam classes, also create board exam table
+                    if (isBoardExam) {
+                        System.out.println("  Creating board exam table for Class " + currentClass);
+                        createBoardExamTable(schoolName, currentClass, sessionYear, subjects, numTerms);
+                        generateBoardExamData(schoolName, currentClass, sessionYear, subjects, numTerms);
+                    }
+                }
+            }
+            
+            System.out.println("\n=== AUTOMATIC ACADEMIC RESULTS GENERATION COMPLETE ===");
+            System.out.println("Generated academic results for:");
+            System.out.println("  Schools: " + schoolNames.size());
+            System.out.println("  Classes: " + classes.size() + " (Classes " + classes.get(0) + " to " + classes.get(classes.size()-1) + ")");
+            System.out.println("  Terms per year: " + numTerms);
+            System.out.println("  Total academic tables: " + totalTables);
+            System.out.println("Academic tables created with format: " + tableLayout("{school}_class_{class}_{year}_academic", "academic_class_{class}", "session_year"));
+            
+        } catch (Exception e) {
+            System.out.println("\n=== ERROR IN AUTOMATIC ACADEMIC RESULTS GENERATION ===");
+            System.out.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.out.println("Automatic academic results generation failed, but student data is still available.");
         }
+    }
+    
+    // Method to get automated Class 10 subjects
+    private static java.util.List<SubjectInfo> getAutomatedClass10Subjects() {
+        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
         
-        System.out.println("\n=== GENERATION COMPLETE ===");
-        System.out.println("Total students generated: " + totalStudents);
-        System.out.println("Total schools generated: " + numSchools);
-        System.out.println("All data saved to PostgreSQL database");
+        // Standard Class 10 CBSE subjects
+        subjects.add(new SubjectInfo("Mathematics", 100));
+        subjects.add(new SubjectInfo("Science", 100));
+        subjects.add(new SubjectInfo("Social Science", 100));
+        subjects.add(new SubjectInfo("English", 100));
+        subjects.add(new SubjectInfo("Hindi", 100));
         
-        // Print database summary
-        System.out.println("\n=== DATABASE SUMMARY ===");
-        System.out.println("School table: Contains " + numSchools + " schools with UUID and names");
-        System.out.println("Student tables: " + numSchools + " separate tables (one per school)");
-        System.out.println("Table naming pattern: students_{school_name_sanitized}");
-        System.out.println("Each student table contains comprehensive student information");
+        return subjects;
+    }
+    
+    // Method to get automated higher secondary subjects  
+    private static java.util.List<SubjectInfo> getAutomatedHigherSecondarySubjects() {
+        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
         
-        System.out.println("\n=== SAMPLE SQL QUERIES ===");
-        System.out.println("-- View all schools:");
-        System.out.println("SELECT * FROM school_table;");
-        System.out.println("\n-- View students from a specific school (example):");
-        String sampleTableName = getStudentTableName(schoolNames.get(0));
-        System.out.println("SELECT * FROM " + sampleTableName + " LIMIT 10;");
-        System.out.println("\n-- Count students by gender in a school:");
-        System.out.println("SELECT gender, COUNT(*) FROM " + sampleTableName + " GROUP BY gender;");
+        // Common higher secondary subjects (will be customized by stream in generation)
+        subjects.add(new SubjectInfo("English Core", 100));
+        subjects.add(new SubjectInfo("Mathematics", 100));
+        subjects.add(new SubjectInfo("Physics", 100));
+        subjects.add(new SubjectInfo("Chemistry", 100));
+        subjects.add(new SubjectInfo("Biology", 100));
+        subjects.add(new SubjectInfo("Computer Science", 100));
         
-        // Generate Academic Results after student data generation is complete
-        System.out.println("\n=== GENERATING ACADEMIC RESULTS ===");
+        return subjects;
+    }
+    
+    // Method to get Class 10 fixed subjects
+    private static java.util.List<SubjectInfo> getClass10Subjects(java.util.Scanner scanner) {
+        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
         
-        // Always ask the user if they want to generate academic results
-        System.out.print("Do you want to generate academic results? (y/n) [Press Enter for automatic]: ");
+        System.out.println("Class 10 - WBBSE Madhyamik (Auto-configured):");
+        System.out.println("✓ First Language (Bengali)");
+        System.out.println("✓ Second Language (English)");
+        System.out.println("✓ Mathematics");
+        System.out.println("✓ Physical Science");
+        System.out.println("✓ Life Science");
+        System.out.println("✓ History");
+        System.out.println("✓ Geography");
+        System.out.println("✓ Optional Subject (Physical Education)");
         
-        try {
-            // Use a timeout to detect if user provides input
-            String response = "";
-            boolean inputProvided = false;
+        // Add compulsory subjects with default marks
+        subjects.add(new SubjectInfo("First_Language_Bengali", 100));
+        subjects.add(new SubjectInfo("Second_Language_English", 100));
+        subjects.add(new SubjectInfo("Mathematics", 100));
+        subjects.add(new SubjectInfo("Physical_Science", 100));
+        subjects.add(new SubjectInfo("Life_Science", 100));
+        subjects.add(new SubjectInfo("History", 100));
+        subjects.add(new SubjectInfo("Geography", 100));
+        
+        // Add automated optional subject
+        subjects.add(new SubjectInfo("Physical_Education", 100));
+        
+        return subjects;
+    }
+    
+    // Method to get Classes 11-12 stream-based subjects (auto-configured)
+    private static java.util.List<SubjectInfo> getHigherSecondarySubjects(java.util.Scanner scanner) {
+        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+        
+        System.out.println("Classes 11-12 - WBCHSE Higher Secondary (Auto-configured):");
+        System.out.println("✓ First Language");
+        System.out.println("✓ Second Language (English)");
+        System.out.println("✓ Environmental Education");
+        System.out.println("✓ Stream-based Major Subjects (automatically assigned to students)");
+        System.out.println("  - Science: Mathematics, Physics, Chemistry, Biology");
+        System.out.println("  - Commerce: Economics, Business Studies, Accountancy, Mathematics");
+        System.out.println("  - Arts: History, Geography, Political Science, Philosophy");
+        
+        // Add compulsory subjects for all streams
+        subjects.add(new SubjectInfo("First_Language", 100));
+        subjects.add(new SubjectInfo("Second_Language_English", 100));
+        subjects.add(new SubjectInfo("Environmental_Education", 100));
+        
+        // Add placeholder subjects (actual subjects will be determined by student's stream)
+        subjects.add(new SubjectInfo("Major_Subject_1", 100));
+        subjects.add(new SubjectInfo("Major_Subject_2", 100));
+        subjects.add(new SubjectInfo("Major_Subject_3", 100));
+        subjects.add(new SubjectInfo("Major_Subject_4", 100));
+        
+        return subjects;
+    }
+    
+    // Method to get automated subjects based on class level
+    private static java.util.List<SubjectInfo> getAutomatedSubjects(int classNum) {
+        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+        
+        if (classNum >= 1 && classNum <= 4) {
+            // Classes 1-4: Language (Bengali + English), Math, EVS, Arts, PE
+            subjects.add(new SubjectInfo("Bengali", 100));
+            subjects.add(new SubjectInfo("English", 100));
+            subjects.add(new SubjectInfo("Mathematics", 100));
+            subjects.add(new SubjectInfo("Environmental_Studies", 100));
+            subjects.add(new SubjectInfo("Arts_and_Crafts", 100));
+            subjects.add(new SubjectInfo("Physical_Education", 100));
             
-            // Check if input is available within a reasonable timeout
-            long startTime = System.currentTimeMillis();
-            long timeoutMs = 5000; // 5 seconds timeout
+        } else if (classNum >= 5 && classNum <= 8) {
+            // Classes 5-8: Languages, Math, Science, History, Geography, Work Ed, Arts, PE
+            subjects.add(new SubjectInfo("Bengali", 100));
+            subjects.add(new SubjectInfo("English", 100));
+            subjects.add(new SubjectInfo("Mathematics", 100));
+            subjects.add(new SubjectInfo("Science", 100));
+            subjects.add(new SubjectInfo("History", 100));
+            subjects.add(new SubjectInfo("Geography", 100));
+            subjects.add(new SubjectInfo("Work_Education", 100));
+            subjects.add(new SubjectInfo("Arts_and_Crafts", 100));
+            subjects.add(new SubjectInfo("Physical_Education", 100));
             
-            while ((System.currentTimeMillis() - startTime) < timeoutMs) {
-                if (System.in.available() > 0) {
-                    response = scanner.nextLine().trim().toLowerCase();
-                    inputProvided = true;
-                    break;
-                }
-                Thread.sleep(100);
+        } else if (classNum == 9) {
+            // Class 9: First Lang, Second Lang, Math, Physical Science, Life Science, History, Geography, Optional subject
+            subjects.add(new SubjectInfo("First_Language_Bengali", 100));
+            subjects.add(new SubjectInfo("Second_Language_English", 100));
+            subjects.add(new SubjectInfo("Mathematics", 100));
+            subjects.add(new SubjectInfo("Physical_Science", 100));
+            subjects.add(new SubjectInfo("Life_Science", 100));
+            subjects.add(new SubjectInfo("History", 100));
+            subjects.add(new SubjectInfo("Geography", 100));
+            subjects.add(new SubjectInfo("Computer_Applications", 100)); // Default optional subject
+        }
+        
+        return subjects;
+    }
+    
+    // Helper method to parse class range
+    private static java.util.List<Integer> parseClassRange(String classRange) {
+        java.util.List<Integer> classes = new java.util.ArrayList<>();
+        
+        if (classRange.contains("-")) {
+            String[] parts = classRange.split("-");
+            int start = Integer.parseInt(parts[0]);
+            int end = Integer.parseInt(parts[1]);
+            for (int i = start; i <= end; i++) {
+                classes.add(i);
             }
-            
-            if (inputProvided) {
-                if (response.equals("y") || response.equals("yes")) {
-                    System.out.println("Generating academic results with custom configuration...");
-                    generateAcademicResults(scanner, schoolNames);
-                } else if (response.equals("n") || response.equals("no")) {
-                    System.out.println("Academic results generation skipped by user.");
-                } else {
-                    System.out.println("Invalid input. Generating academic results automatically...");
-                    generateAutomaticAcademicResults(numClasses, schoolNames);
-                }
-            } else {
-                System.out.println("\nNo input provided within 5 seconds. Generating academic results automatically...");
-                generateAutomaticAcademicResults(numClasses, schoolNames);
+        } else {
+            // Single class or comma-separated classes
+            String[] parts = classRange.split(",");
+            for (String part : parts) {
+                classes.add(Integer.parseInt(part.trim()));
             }
-        } catch (Exception e) {
-            System.out.println("Error during input detection. Generating academic results automatically...");
-            generateAutomaticAcademicResults(numClasses, schoolNames);
         }
         
-        // Generate Attendance Records after academic results
-        System.out.println("\n=== GENERATING ATTENDANCE RECORDS ===");
+        return classes;
+    }
+    
+    // Subject information class
+    static class SubjectInfo {
+        String name;
+        int fullMarks;
         
-        // Always ask the user if they want to generate attendance records
-        System.out.print("Do you want to generate attendance records? (y/n) [Press Enter for automatic]: ");
+        SubjectInfo(String name, int fullMarks) {
+            this.name = name;
+            this.fullMarks = fullMarks;
+        }
+    }
+    
+    // Stream and section assignment class
+    static class StreamSectionAssignment {
+        char section;
+        String stream;
         
-        try {
-            // Use a timeout to detect if user provides input
-            String attendanceResponse = "";
-            boolean attendanceInputProvided = false;
-            
-            // Check if input is available within a reasonable timeout
-            long attendanceStartTime = System.currentTimeMillis();
-            long attendanceTimeoutMs = 5000; // 5 seconds timeout
-            
-            while ((System.currentTimeMillis() - attendanceStartTime) < attendanceTimeoutMs) {
-                if (System.in.available() > 0) {
-                    attendanceResponse = scanner.nextLine().trim().toLowerCase();
-                    attendanceInputProvided = true;
-                    break;
-                }
-                Thread.sleep(100);
+        StreamSectionAssignment(char section, String stream) {
+            this.section = section;
+            this.stream = stream;
+        }
+    }
+    
+    // Method to get stream-based section assignment for classes 11 and 12
+    private static StreamSectionAssignment getStreamBasedSection(char currentSection, int numSections, int currentRollNo, int studentsPerSection) {
+        String[] streams = {"Science", "Arts", "Commerce"};
+        
+        if (numSections == 1) {
+            // Only one section - distribute streams evenly within the section
+            int studentIndex = currentRollNo - 1;
+            int streamIndex = studentIndex % 3;
+            return new StreamSectionAssignment('A', streams[streamIndex]);
+        } else if (numSections == 2) {
+            // Two sections: Science in A, Arts and Commerce mixed in B
+            if (currentSection == 'A') {
+                return new StreamSectionAssignment('A', "Science");
+            } else {
+                // Alternate between Arts and Commerce in section B
+                int streamChoice = (currentRollNo % 2 == 1) ? 1 : 2; // Arts or Commerce
+                return new StreamSectionAssignment('B', streams[streamChoice]);
             }
-            
-            if (attendanceInputProvided) {
-                if (attendanceResponse.equals("y") || attendanceResponse.equals("yes")) {
-                    System.out.println("Generating attendance records with custom configuration...");
-                    generateAttendanceRecords(scanner, schoolNames, numClasses);
-                } else if (attendanceResponse.equals("n") || attendanceResponse.equals("no")) {
-                    System.out.println("Attendance records generation skipped by user.");
-                } else {
-                    System.out.println("Invalid input. Generating attendance records automatically...");
-                    generateAutomaticAttendanceRecords(numClasses, schoolNames);
-                }
+        } else if (numSections == 3) {
+            // Three sections: Science in A, Arts in B, Commerce in C
+            char[] sectionMap = {'A', 'B', 'C'};
+            return new StreamSectionAssignment(sectionMap[currentSection - 'A'], streams[currentSection - 'A']);
+        } else if (numSections >= 4) {
+            // Four or more sections: Science in A, Arts in B and C, Commerce in D (and beyond if more sections)
+            if (currentSection == 'A') {
+                return new StreamSectionAssignment('A', "Science");
+            } else if (currentSection == 'B' || currentSection == 'C') {
+                return new StreamSectionAssignment(currentSection, "Arts");
+            } else {
+                return new StreamSectionAssignment(currentSection, "Commerce");
+            }
+        }
+        
+        // Default fallback
+        return new StreamSectionAssignment(currentSection, "Science");
+    }
+    
+    // Method to create academic table for a specific school, class, and year
+    private static void createAcademicTable(String schoolName, int classNum, int sessionYear, 
+                                          java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) {
+        String tableName = identifiers.academicTable(schoolName, classNum, sessionYear);
+        
+        try (Connection conn = getConnection()) {
+            if (classNum == 11 || classNum == 12) {
+                // Special table structure for classes 11 and 12
+                createHigherSecondaryTable(conn, tableName, numTerms, isBoardExam);
             } else {
-                System.out.println("\nNo input provided within 5 seconds. Generating attendance records automatically...");
-                generateAutomaticAttendanceRecords(numClasses, schoolNames);
+                // Regular table structure for other classes
+                createRegularAcademicTable(conn, tableName, subjects, numTerms, isBoardExam);
             }
-        } catch (Exception e) {
-            System.out.println("Error during attendance input detection. Generating attendance records automatically...");
-            generateAutomaticAttendanceRecords(numClasses, schoolNames);
+            
+        } catch (SQLException e) {
+            System.err.println("Error creating academic table " + tableName + ": " + e.getMessage());
         }
+    }
+    
+    // Method to create regular academic table for classes 1-10
+    private static void createRegularAcademicTable(Connection conn, String tableName, 
+                                                 java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) throws SQLException {
+        StringBuilder createTableSQL = new StringBuilder();
+        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
+        createTableSQL.append("student_name VARCHAR(100), ");
+        createTableSQL.append("roll_no INTEGER, ");
+        createTableSQL.append("section VARCHAR(5), ");
         
-        // Generate homework records
-        try {
-            System.out.print("\nDo you want to generate homework records? (y/n) [5 second timeout]: ");
-            String homeworkResponse = "";
-            boolean homeworkInputProvided = false;
-            
-            for (int i = 0; i < 50; i++) { // 5 seconds timeout
-                if (System.in.available() > 0) {
-                    homeworkResponse = scanner.nextLine().trim().toLowerCase();
-                    homeworkInputProvided = true;
-                    break;
-                }
-                Thread.sleep(100);
-            }
+        // Add columns for each subject and term
+        for (SubjectInfo subject : subjects) {
+            String subjectNameSanitized = identifiers.columnIdentifier(subject.name);
             
-            if (homeworkInputProvided) {
-                if (homeworkResponse.equals("y") || homeworkResponse.equals("yes")) {
-                    System.out.println("Generating homework records with custom configuration...");
-                    generateHomeworkRecords(scanner, schoolNames, numClasses);
-                } else if (homeworkResponse.equals("n") || homeworkResponse.equals("no")) {
-                    System.out.println("Homework records generation skipped by user.");
-                } else {
-                    System.out.println("Invalid input. Generating homework records automatically...");
-                    generateAutomaticHomeworkRecords(numClasses, schoolNames);
-                }
-            } else {
-                System.out.println("\nNo input provided within 5 seconds. Generating homework records automatically...");
-                generateAutomaticHomeworkRecords(numClasses, schoolNames);
+            for (int term = 1; term <= numTerms; term++) {
+                createTableSQL.append(subjectNameSanitized).append("_full_marks_term_").append(term)
+                        .append(" INTEGER DEFAULT ").append(subject.fullMarks).append(", ");
+                createTableSQL.append(subjectNameSanitized).append("_obtained_marks_term_").append(term)
+                        .append(" INTEGER, ");
             }
-        } catch (Exception e) {
-            System.out.println("Error during homework input detection. Generating homework records automatically...");
-            generateAutomaticHomeworkRecords(numClasses, schoolNames);
         }
         
-        // Generate project records
-        try {
-            System.out.print("\nDo you want to generate project records? (y/n) [5 second timeout]: ");
-            String projectResponse = "";
-            boolean projectInputProvided = false;
-            
-            for (int i = 0; i < 50; i++) { // 5 seconds timeout
-                if (System.in.available() > 0) {
-                    projectResponse = scanner.nextLine().trim().toLowerCase();
-                    projectInputProvided = true;
-                    break;
-                }
-                Thread.sleep(100);
-            }
-            
-            if (projectInputProvided) {
-                if (projectResponse.equals("y") || projectResponse.equals("yes")) {
-                    System.out.println("Generating project records with custom configuration...");
-                    generateProjectRecords(scanner, schoolNames, numClasses);
-                } else if (projectResponse.equals("n") || projectResponse.equals("no")) {
-                    System.out.println("Project records generation skipped by user.");
-                } else {
-                    System.out.println("Invalid input. Generating project records automatically...");
-                    generateAutomaticProjectRecords(numClasses, schoolNames);
-                }
-            } else {
-                System.out.println("\nNo input provided within 5 seconds. Generating project records automatically...");
-                generateAutomaticProjectRecords(numClasses, schoolNames);
-            }
-        } catch (Exception e) {
-            System.out.println("Error during project input detection. Generating project records automatically...");
-            generateAutomaticProjectRecords(numClasses, schoolNames);
+        // Add total marks and percentage columns for each term
+        for (int term = 1; term <= numTerms; term++) {
+            createTableSQL.append("total_marks_term_").append(term).append(" INTEGER, ");
+            createTableSQL.append("percentage_term_").append(term).append(" DECIMAL(5,2), ");
         }
         
-        // Close connection pool before closing scanner
-        closeConnectionPool();
-        scanner.close();
+        // Add grand total and grand percentage
+        createTableSQL.append("grand_total INTEGER, ");
+        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
+        
+        // Add board exam indicator
+        if (isBoardExam) {
+            createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
+            createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'Grand total calculated from final term only', ");
+        }
+        
+        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+        createTableSQL.append(")");
+        
+        try (Statement stmt = conn.createStatement()) {
+            executeCreateTable(stmt, createTableSQL.toString());
+            String examType = isBoardExam ? " (Board Exam)" : "";
+            System.out.println("Created academic table: " + tableName + examType);
+        }
     }
     
-    // Method to generate academic results for students
-    private static void generateAcademicResults(java.util.Scanner scanner, java.util.List<String> schoolNames) {
-        System.out.println("Now generating academic results for all students...\n");
+    // Method to create higher secondary table for classes 11 and 12
+    private static void createHigherSecondaryTable(Connection conn, String tableName, int numTerms, boolean isBoardExam) throws SQLException {
+        StringBuilder createTableSQL = new StringBuilder();
+        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
+        createTableSQL.append("student_name VARCHAR(100), ");
+        createTableSQL.append("roll_no INTEGER, ");
+        createTableSQL.append("section VARCHAR(5), ");
         
-        try {
-            // Get user input for academic structure
-            System.out.print("Enter the classes for which you want to generate results (e.g., '1-3' or '6-8'): ");
-            String classRange = scanner.next();
-            
-            // Parse class range
-            java.util.List<Integer> classes = parseClassRange(classRange);
-            System.out.println("Selected classes: " + classes);
-            
-            System.out.print("Enter number of terms per year: ");
-            int numTerms = scanner.nextInt();
+        // Fixed structure for classes 11 and 12
+        // First Language
+        for (int term = 1; term <= numTerms; term++) {
+            createTableSQL.append("first_language_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
+            createTableSQL.append("first_language_obtained_marks_term_").append(term).append(" INTEGER, ");
+        }
         
-        // Handle different subject combinations based on classes
-        java.util.Map<Integer, java.util.List<SubjectInfo>> classSubjects = new java.util.HashMap<>();
+        // Second Language (English)
+        for (int term = 1; term <= numTerms; term++) {
+            createTableSQL.append("second_language_english_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
+            createTableSQL.append("second_language_english_obtained_marks_term_").append(term).append(" INTEGER, ");
+        }
         
-        for (int currentClass : classes) {
-            if (currentClass <= 9) {
-                // For classes 1-9, use automated subject configuration
-                if (!classSubjects.containsKey(currentClass)) {
-                    System.out.println("\n=== AUTO-CONFIGURING SUBJECTS FOR CLASS " + currentClass + " ===");
-                    java.util.List<SubjectInfo> subjects = getAutomatedSubjects(currentClass);
-                    classSubjects.put(currentClass, subjects);
-                    
-                    // Display configured subjects
-                    System.out.println("Subjects configured for Class " + currentClass + ":");
-                    for (SubjectInfo subject : subjects) {
-                        System.out.println("  - " + subject.name + " (Full Marks: " + subject.fullMarks + ")");
-                    }
-                }
-            } else if (currentClass == 10) {
-                // Class 10 - Fixed WBBSE subjects
-                if (!classSubjects.containsKey(10)) {
-                    System.out.println("\n=== CLASS 10 (WBBSE MADHYAMIK) - FIXED SUBJECTS ===");
-                    java.util.List<SubjectInfo> class10Subjects = getClass10Subjects(scanner);
-                    classSubjects.put(10, class10Subjects);
-                }
-            } else if (currentClass == 11 || currentClass == 12) {
-                // Classes 11-12 - Stream-based subjects
-                if (!classSubjects.containsKey(11)) {
-                    System.out.println("\n=== CLASSES 11-12 (WBCHSE HIGHER SECONDARY) - STREAM-BASED SUBJECTS ===");
-                    java.util.List<SubjectInfo> higherSecSubjects = getHigherSecondarySubjects(scanner);
-                    classSubjects.put(11, higherSecSubjects);
-                    classSubjects.put(12, higherSecSubjects); // Same subjects for both classes
-                }
+        // Major subject names (will be populated based on stream)
+        createTableSQL.append("major_1_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_2_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_3_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_4_subject_name VARCHAR(100), ");
+        
+        // Major subjects marks
+        for (int majorNum = 1; majorNum <= 4; majorNum++) {
+            for (int term = 1; term <= numTerms; term++) {
+                createTableSQL.append("major_").append(majorNum).append("_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
+                createTableSQL.append("major_").append(majorNum).append("_obtained_marks_term_").append(term).append(" INTEGER, ");
             }
         }
         
-        int currentYear = 2025;
+        // Total marks and percentages for each term
+        for (int term = 1; term <= numTerms; term++) {
+            createTableSQL.append("total_marks_term_").append(term).append(" INTEGER, ");
+            createTableSQL.append("percentage_term_").append(term).append(" DECIMAL(5,2), ");
+        }
+        
+        // Grand total and grand percentage
+        createTableSQL.append("grand_total INTEGER, ");
+        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
         
-        // Process each school
-        for (String schoolName : schoolNames) {
-            System.out.println("\nProcessing academic results for: " + schoolName);
-            
-            // For each class in the selected range
-            for (int currentClass : classes) {
-                java.util.List<SubjectInfo> subjects = classSubjects.get(currentClass);
-                
-                // Generate marksheets for current and previous years based on student's progression
-                for (int sessionYear = currentYear - currentClass + 1; sessionYear <= currentYear; sessionYear++) {
-                    int studentClassInSession = currentClass - (currentYear - sessionYear);
-                    if (studentClassInSession >= 1) {
-                        // First create regular academic table (for all classes)
-                        createAcademicTable(schoolName, studentClassInSession, sessionYear, subjects, numTerms, false);
-                        generateAcademicData(schoolName, studentClassInSession, sessionYear, subjects, numTerms, false);
-                        
-                        // For classes 10 and 12, also create board exam tables
-                        if (studentClassInSession == 10 || studentClassInSession == 12) {
-                            System.out.println("Creating board exam table for Class " + studentClassInSession);
-                            createBoardExamTable(schoolName, studentClassInSession, sessionYear, subjects, numTerms);
-                            generateBoardExamData(schoolName, studentClassInSession, sessionYear, subjects, numTerms);
-                        }
-                    }
-                }
-            }
+        // Board exam indicator
+        if (isBoardExam) {
+            createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
+            createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'Grand total calculated from final term only', ");
+        } else {
+            createTableSQL.append("is_board_exam BOOLEAN DEFAULT FALSE, ");
+            createTableSQL.append("board_exam_note VARCHAR(255), ");
         }
         
-        System.out.println("\n=== ACADEMIC RESULTS GENERATION COMPLETE ===");
-        System.out.println("Academic tables created with format: {school}_class_{class}_{year}_academic");
+        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+        createTableSQL.append(")");
         
-        } catch (java.util.NoSuchElementException e) {
-            System.out.println("\n=== INPUT ERROR ===");
-            System.out.println("No more input available for academic results generation.");
-            System.out.println("Academic results generation skipped.");
-        } catch (Exception e) {
-            System.out.println("\n=== ERROR IN ACADEMIC RESULTS GENERATION ===");
-            System.out.println("Error: " + e.getMessage());
-            System.out.println("Academic results generation skipped.");
+        try (Statement stmt = conn.createStatement()) {
+            executeCreateTable(stmt, createTableSQL.toString());
+            String examType = isBoardExam ? " (Board Exam)" : "";
+            System.out.println("Created higher secondary table: " + tableName + examType);
         }
     }
     
-    // Method to generate academic results automatically using school structure parameters
-    private static void generateAutomaticAcademicResults(int numClasses, java.util.List<String> schoolNames) {
-        System.out.println("Automatically generating academic results for all " + numClasses + " classes...");
-        
-        try {
-            // Use default configuration for automatic generation
-            String classRange = "1-" + numClasses; // Generate for all classes from 1 to numClasses
-            int numTerms = 3; // Default to 3 terms per year
-            int sessionYear = 2025; // Current session year
-            
-            System.out.println("Configuration:");
-            System.out.println("  Class Range: " + classRange + " (all classes in school structure)");
-            System.out.println("  Terms per Year: " + numTerms);
-            System.out.println("  Session Year: " + sessionYear);
-            
-            // Parse class range
-            java.util.List<Integer> classes = parseClassRange(classRange);
-            System.out.println("Selected classes: " + classes);
-            
-            // Handle different subject combinations based on classes
-            java.util.Map<Integer, java.util.List<SubjectInfo>> classSubjects = new java.util.HashMap<>();
-            
-            for (int currentClass : classes) {
-                if (currentClass <= 9) {
-                    // For classes 1-9, use automated subject configuration
-                    if (!classSubjects.containsKey(currentClass)) {
-                        System.out.println("Auto-configuring subjects for Class " + currentClass);
-                        java.util.List<SubjectInfo> subjects = getAutomatedSubjects(currentClass);
-                        classSubjects.put(currentClass, subjects);
-                        System.out.println("Class " + currentClass + " subjects: " + subjects.size() + " subjects configured");
-                    }
-                } else if (currentClass == 10) {
-                    // For class 10, use fixed board exam subjects
-                    if (!classSubjects.containsKey(currentClass)) {
-                        System.out.println("Auto-configuring Class 10 board exam subjects");
-                        java.util.List<SubjectInfo> subjects = getAutomatedClass10Subjects();
-                        classSubjects.put(currentClass, subjects);
-                        System.out.println("Class 10 subjects: " + subjects.size() + " subjects configured (board exam)");
-                    }
-                } else if (currentClass >= 11 && currentClass <= 12) {
-                    // For classes 11-12, use automated higher secondary configuration
-                    if (!classSubjects.containsKey(currentClass)) {
-                        System.out.println("Auto-configuring Class " + currentClass + " higher secondary subjects");
-                        java.util.List<SubjectInfo> subjects = getAutomatedHigherSecondarySubjects();
-                        classSubjects.put(currentClass, subjects);
-                        System.out.println("Class " + currentClass + " subjects: " + subjects.size() + " subjects configured (higher secondary)");
-                    }
-                }
+    // Method to generate academic data for students
+    private static void generateAcademicData(String schoolName, int classNum, int sessionYear, 
+                                           java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) {
+        String academicTableName = identifiers.academicTable(schoolName, classNum, sessionYear);
+        String studentTableName = getStudentTableName(schoolName);
+        if (isTableCheckpointed(academicTableName)) {
+            System.out.println("Skipping " + academicTableName + " (already committed, checkpoint)");
+            return;
+        }
+        
+        // Read the class roster once, then generate and write every student's marks through one prepared statement
+        try (Connection conn = getConnection()) {
+            java.util.List<String[]> students = loadClassRoster(conn, studentTableName, classNum);
+            if (students.isEmpty()) {
+                return;
             }
             
-            // Generate academic data for each school and class
-            System.out.println("\n=== GENERATING ACADEMIC DATA ===");
-            int totalTables = schoolNames.size() * classes.size();
-            int processedTables = 0;
+            long startNanos = System.nanoTime();
+            clearUnfinishedTable(conn, academicTableName);
+            int rowsWritten = writeAcademicRoster(conn, academicTableName, students, classNum, sessionYear, subjects, numTerms, isBoardExam);
+            reportMarksWritten("academic", academicTableName, rowsWritten, startNanos);
+            markTableCheckpointed(academicTableName);
             
-            for (String schoolName : schoolNames) {
-                System.out.println("Processing school: " + schoolName);
+        } catch (SQLException e) {
+            System.err.println("Error generating academic data for " + academicTableName + ": " + e.getMessage());
+        }
+    }
+    
+    // Method to generate and write the academic marks of one class roster to its academic table
+    private static int writeAcademicRoster(Connection conn, String academicTableName, java.util.List<String[]> students, int classNum,
+                                           int sessionYear, java.util.List<SubjectInfo> subjects, int numTerms,
+                                           boolean isBoardExam) throws SQLException {
+        if (classNum == 11 || classNum == 12) {
+            return writeMarksBatched(conn, academicTableName, statementTemplates.higherSecondaryInsert(academicTableName, numTerms), students,
+                (pstmt, student) -> bindHigherSecondaryRecord(
+                    newStudentRandomGenerator(STREAM_ACADEMIC, sessionYear, student[0]), pstmt, student[0], student[1],
+                    Integer.parseInt(student[2]), student[3], student[4], numTerms, isBoardExam));
+        }
+        return writeMarksBatched(conn, academicTableName, statementTemplates.academicInsert(academicTableName, subjects, numTerms), students,
+            (pstmt, student) -> bindAcademicRecord(
+                newStudentRandomGenerator(STREAM_ACADEMIC, sessionYear, student[0]), pstmt, student[0], student[1],
+                Integer.parseInt(student[2]), student[3], subjects, numTerms, isBoardExam));
+    }
+    
+    // Binds one roster entry's generated marks to a table's INSERT statement
+    interface MarksBinder {
+        void bind(PreparedStatement pstmt, String[] student) throws SQLException;
+    }
+    
+    // Method to read the roster of one class: {student_uuid, full_name, roll_no, section, stream} per student
+    private static java.util.List<String[]> loadClassRoster(Connection conn, String studentTableName, int classNum) throws SQLException {
+        java.util.List<String[]> students = new java.util.ArrayList<>();
+        TableTarget target = tableTarget(studentTableName);
+        String selectStudentsSQL = "SELECT student_uuid, full_name, roll_no, section, stream FROM " + 
+                target.table + target.where("class_name = ?");
+        
+        try (PreparedStatement selectStmt = conn.prepareStatement(selectStudentsSQL)) {
+            selectStmt.setString(1, "Class " + classNum);
+            
+            try (ResultSet rs = selectStmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(new String[]{rs.getString("student_uuid"), rs.getString("full_name"),
+                        String.valueOf(rs.getInt("roll_no")), rs.getString("section"), rs.getString("stream")});
+                }
+            }
+        }
+        return students;
+    }
+    
+    // Method to write every roster entry through one prepared statement, committing every ACADEMIC_BATCH_SIZE rows
+    private static int writeMarksBatched(Connection conn, String tableName, String insertSQL, java.util.List<String[]> students,
+                                         MarksBinder binder) throws SQLException {
+        if (!usesDatabase()) {
+            return writeMarksToSink(tableName, insertSQL, students, binder);
+        }
+        // The binders fill the table's own columns; the partition keys (if any) take the last placeholders
+        TableTarget target = tableTarget(tableName);
+        int firstKey = (int) insertSQL.chars().filter(c -> c == '?').count() - target.keyCount() + 1;
+        int rowsWritten = 0;
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+            int pending = 0;
+            for (String[] student : students) {
+                binder.bind(pstmt, student);
+                target.bindKeys(pstmt, firstKey);
+                pstmt.addBatch();
                 
-                for (int currentClass : classes) {
-                    processedTables++;
-                    System.out.println("  Generating academic data for Class " + currentClass + " (" + processedTables + "/" + totalTables + ")");
-                    
-                    java.util.List<SubjectInfo> subjects = classSubjects.get(currentClass);
-                    boolean isBoardExam = (currentClass == 10 || currentClass == 12);
-                    
-                    // Create academic table
-                    createAcademicTable(schoolName, currentClass, sessionYear, subjects, numTerms, isBoardExam);
-                    
-                    // Generate academic data
-                    generateAcademicData(schoolName, currentClass, sessionYear, subjects, numTerms, isBoardExam);
-                    
-                    // For board exam classes, also create board exam table
-                    if (isBoardExam) {
-                        System.out.println("  Creating board exam table for Class " + currentClass);
-                        createBoardExamTable(schoolName, currentClass, sessionYear, subjects, numTerms);
-                        generateBoardExamData(schoolName, currentClass, sessionYear, subjects, numTerms);
-                    }
+                if (++pending == ACADEMIC_BATCH_SIZE) {
+                    long startNanos = System.nanoTime();
+                    runMetrics.recordGenerated(tableName, pending);
+                    pstmt.executeBatch();
+                    conn.commit();
+                    runMetrics.recordBatch(tableName, startNanos);
+                    recordCommittedRows(tableName, pending);
+                    rowsWritten += pending;
+                    pending = 0;
                 }
             }
-            
-            System.out.println("\n=== AUTOMATIC ACADEMIC RESULTS GENERATION COMPLETE ===");
-            System.out.println("Generated academic results for:");
-            System.out.println("  Schools: " + schoolNames.size());
-            System.out.println("  Classes: " + classes.size() + " (Classes " + classes.get(0) + " to " + classes.get(classes.size()-1) + ")");
-            System.out.println("  Terms per year: " + numTerms);
-            System.out.println("  Total academic tables: " + totalTables);
-            System.out.println("Academic tables created with format: {school}_class_{class}_{year}_academic");
-            
-        } catch (Exception e) {
-            System.out.println("\n=== ERROR IN AUTOMATIC ACADEMIC RESULTS GENERATION ===");
-            System.out.println("Error: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("Automatic academic results generation failed, but student data is still available.");
+            if (pending > 0) {
+                long startNanos = System.nanoTime();
+                runMetrics.recordGenerated(tableName, pending);
+                pstmt.executeBatch();
+                conn.commit();
+                runMetrics.recordBatch(tableName, startNanos);
+                recordCommittedRows(tableName, pending);
+                rowsWritten += pending;
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
         }
+        return rowsWritten;
     }
     
-    // Method to get automated Class 10 subjects
-    private static java.util.List<SubjectInfo> getAutomatedClass10Subjects() {
-        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
-        
-        // Standard Class 10 CBSE subjects
-        subjects.add(new SubjectInfo("Mathematics", 100));
-        subjects.add(new SubjectInfo("Science", 100));
-        subjects.add(new SubjectInfo("Social Science", 100));
-        subjects.add(new SubjectInfo("English", 100));
-        subjects.add(new SubjectInfo("Hindi", 100));
-        
-        return subjects;
+    // Method to run a roster's marks binders into the file or null sink. The binders only know PreparedStatement,
+    // so they bind to a stand-in statement that records each set* call and hands the row to the sink on addBatch.
+    private static int writeMarksToSink(String tableName, String insertSQL, java.util.List<String[]> students,
+                                        MarksBinder binder) throws SQLException {
+        String[] columnNames = insertSQL.substring(insertSQL.indexOf('(') + 1, insertSQL.indexOf(')')).split(",");
+        columnNames = java.util.Arrays.copyOf(columnNames, columnNames.length - tableTarget(tableName).keyCount()); // The sink adds the keys
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columnNames[i].trim();
+        }
+        Object[] row = new Object[columnNames.length];
+        
+        try (OfflineRowSink sink = new OfflineRowSink(tableName, String.join(", ", columnNames))) {
+            PreparedStatement capture = (PreparedStatement) java.lang.reflect.Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        row[index - 1] = name.equals("setNull") ? null : args[1];
+                    } else if (name.equals("addBatch")) {
+                        sink.accept(row.clone());
+                        java.util.Arrays.fill(row, null);
+                    } else if (!name.equals("clearParameters")) {
+                        throw new SQLFeatureNotSupportedException(name + " is not supported by the " + recordSinkMode + " sink");
+                    }
+                    return null;
+                });
+            for (String[] student : students) {
+                binder.bind(capture, student);
+                capture.addBatch();
+                sink.endStudent();
+            }
+        }
+        return students.size();
     }
     
-    // Method to get automated higher secondary subjects  
-    private static java.util.List<SubjectInfo> getAutomatedHigherSecondarySubjects() {
-        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+    // Method to print the row count and throughput of one marks table
+    private static void reportMarksWritten(String kind, String tableName, int rowsWritten, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("Wrote %,d %s rows to %s in %.2f s (%,.0f rows/sec)%n",
+            rowsWritten, kind, tableName, seconds, seconds > 0 ? rowsWritten / seconds : 0.0);
+    }
+    
+    // INSERT statement templates for the academic and board exam tables. The column list depends only on the
+    // table's shape (record kind, board flag, subjects and number of terms), so each shape is built once and shared
+    // by every school and session that has it; only the table name is filled in per table.
+    static final class StatementTemplates {
+        private final java.util.concurrent.ConcurrentHashMap<String, String> templates = new java.util.concurrent.ConcurrentHashMap<>();
+        
+        String academicInsert(String tableName, java.util.List<SubjectInfo> subjects, int numTerms) {
+            return render(tableName, shapeKey("academic", subjects, numTerms), () -> buildAcademicInsertTemplate(subjects, numTerms));
+        }
         
-        // Common higher secondary subjects (will be customized by stream in generation)
-        subjects.add(new SubjectInfo("English Core", 100));
-        subjects.add(new SubjectInfo("Mathematics", 100));
-        subjects.add(new SubjectInfo("Physics", 100));
-        subjects.add(new SubjectInfo("Chemistry", 100));
-        subjects.add(new SubjectInfo("Biology", 100));
-        subjects.add(new SubjectInfo("Computer Science", 100));
+        String higherSecondaryInsert(String tableName, int numTerms) {
+            return render(tableName, shapeKey("higher_secondary", null, numTerms), () -> buildHigherSecondaryInsertTemplate(numTerms));
+        }
         
-        return subjects;
+        String class10BoardInsert(String tableName, java.util.List<SubjectInfo> subjects) {
+            return render(tableName, shapeKey("board_class_10", subjects, 1), () -> buildClass10BoardExamInsertTemplate(subjects));
+        }
+        
+        String class12BoardInsert(String tableName) {
+            return render(tableName, shapeKey("board_class_12", null, 1), Main::buildClass12BoardExamInsertTemplate);
+        }
+        
+        private String render(String tableName, String key, java.util.function.Supplier<String> builder) {
+            TableTarget target = tableTarget(tableName);
+            return "INSERT INTO " + target.table + target.insertTemplate(templates.computeIfAbsent(key, k -> builder.get()));
+        }
+        
+        private static String shapeKey(String kind, java.util.List<SubjectInfo> subjects, int numTerms) {
+            StringBuilder key = new StringBuilder(kind).append('|').append(numTerms);
+            if (subjects != null) {
+                for (SubjectInfo subject : subjects) {
+                    key.append('|').append(subject.name);
+                }
+            }
+            return key.toString();
+        }
     }
     
-    // Method to get Class 10 fixed subjects
-    private static java.util.List<SubjectInfo> getClass10Subjects(java.util.Scanner scanner) {
-        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+    // Method to create board exam table for classes 10 and 12
+    private static void createBoardExamTable(String schoolName, int classNum, int sessionYear, 
+                                           java.util.List<SubjectInfo> subjects, int numTerms) {
+        String boardTableName = identifiers.boardExamTable(schoolName, classNum, sessionYear);
         
-        System.out.println("Class 10 - WBBSE Madhyamik (Auto-configured):");
-        System.out.println("✓ First Language (Bengali)");
-        System.out.println("✓ Second Language (English)");
-        System.out.println("✓ Mathematics");
-        System.out.println("✓ Physical Science");
-        System.out.println("✓ Life Science");
-        System.out.println("✓ History");
-        System.out.println("✓ Geography");
-        System.out.println("✓ Optional Subject (Physical Education)");
+        try (Connection conn = getConnection()) {
+            if (classNum == 10) {
+                createClass10BoardExamTable(conn, boardTableName, subjects);
+            } else if (classNum == 12) {
+                createClass12BoardExamTable(conn, boardTableName);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error creating board exam table " + boardTableName + ": " + e.getMessage());
+        }
+    }
+    
+    // Method to create Class 10 board exam table structure
+    private static void createClass10BoardExamTable(Connection conn, String tableName, 
+                                                   java.util.List<SubjectInfo> subjects) throws SQLException {
+        StringBuilder createTableSQL = new StringBuilder();
+        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
+        createTableSQL.append("student_name VARCHAR(100), ");
+        createTableSQL.append("roll_no INTEGER, ");
+        createTableSQL.append("section VARCHAR(5), ");
         
-        // Add compulsory subjects with default marks
-        subjects.add(new SubjectInfo("First_Language_Bengali", 100));
-        subjects.add(new SubjectInfo("Second_Language_English", 100));
-        subjects.add(new SubjectInfo("Mathematics", 100));
-        subjects.add(new SubjectInfo("Physical_Science", 100));
-        subjects.add(new SubjectInfo("Life_Science", 100));
-        subjects.add(new SubjectInfo("History", 100));
-        subjects.add(new SubjectInfo("Geography", 100));
+        // Add columns for each subject (no term numbers for board exam)
+        for (SubjectInfo subject : subjects) {
+            String subjectNameSanitized = identifiers.columnIdentifier(subject.name);
+            
+            createTableSQL.append(subjectNameSanitized).append("_full_marks INTEGER DEFAULT ")
+                    .append(subject.fullMarks).append(", ");
+            createTableSQL.append(subjectNameSanitized).append("_obtained_marks INTEGER, ");
+        }
         
-        // Add automated optional subject
-        subjects.add(new SubjectInfo("Physical_Education", 100));
+        // Add total marks and percentage (no term numbers)
+        createTableSQL.append("total_marks INTEGER, ");
+        createTableSQL.append("percentage DECIMAL(5,2), ");
+        createTableSQL.append("grand_total INTEGER, ");
+        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
+        createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
+        createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'WBBSE Madhyamik Board Examination', ");
+        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+        createTableSQL.append(")");
         
-        return subjects;
+        try (Statement stmt = conn.createStatement()) {
+            executeCreateTable(stmt, createTableSQL.toString());
+            System.out.println("Created Class 10 board exam table: " + tableName);
+        }
     }
     
-    // Method to get Classes 11-12 stream-based subjects (auto-configured)
-    private static java.util.List<SubjectInfo> getHigherSecondarySubjects(java.util.Scanner scanner) {
-        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+    // Method to create Class 12 board exam table structure
+    private static void createClass12BoardExamTable(Connection conn, String tableName) throws SQLException {
+        StringBuilder createTableSQL = new StringBuilder();
+        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
+        createTableSQL.append("student_name VARCHAR(100), ");
+        createTableSQL.append("roll_no INTEGER, ");
+        createTableSQL.append("section VARCHAR(5), ");
         
-        System.out.println("Classes 11-12 - WBCHSE Higher Secondary (Auto-configured):");
-        System.out.println("✓ First Language");
-        System.out.println("✓ Second Language (English)");
-        System.out.println("✓ Environmental Education");
-        System.out.println("✓ Stream-based Major Subjects (automatically assigned to students)");
-        System.out.println("  - Science: Mathematics, Physics, Chemistry, Biology");
-        System.out.println("  - Commerce: Economics, Business Studies, Accountancy, Mathematics");
-        System.out.println("  - Arts: History, Geography, Political Science, Philosophy");
+        // Simplified structure for Class 12 board exam (no term numbers)
+        createTableSQL.append("first_language_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("first_language_obtained_marks INTEGER, ");
+        createTableSQL.append("second_language_english_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("second_language_english_obtained_marks INTEGER, ");
         
-        // Add compulsory subjects for all streams
-        subjects.add(new SubjectInfo("First_Language", 100));
-        subjects.add(new SubjectInfo("Second_Language_English", 100));
-        subjects.add(new SubjectInfo("Environmental_Education", 100));
+        // Major subject names
+        createTableSQL.append("major_1_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_2_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_3_subject_name VARCHAR(100), ");
+        createTableSQL.append("major_4_subject_name VARCHAR(100), ");
         
-        // Add placeholder subjects (actual subjects will be determined by student's stream)
-        subjects.add(new SubjectInfo("Major_Subject_1", 100));
-        subjects.add(new SubjectInfo("Major_Subject_2", 100));
-        subjects.add(new SubjectInfo("Major_Subject_3", 100));
-        subjects.add(new SubjectInfo("Major_Subject_4", 100));
+        // Major subjects marks (no term numbers)
+        createTableSQL.append("major_1_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("major_1_obtained_marks INTEGER, ");
+        createTableSQL.append("major_2_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("major_2_obtained_marks INTEGER, ");
+        createTableSQL.append("major_3_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("major_3_obtained_marks INTEGER, ");
+        createTableSQL.append("major_4_full_marks INTEGER DEFAULT 100, ");
+        createTableSQL.append("major_4_obtained_marks INTEGER, ");
         
-        return subjects;
+        // Total marks and percentages (no term numbers)
+        createTableSQL.append("total_marks INTEGER, ");
+        createTableSQL.append("percentage DECIMAL(5,2), ");
+        createTableSQL.append("grand_total INTEGER, ");
+        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
+        createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
+        createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'WBCHSE Higher Secondary Board Examination', ");
+        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+        createTableSQL.append(")");
+        
+        try (Statement stmt = conn.createStatement()) {
+            executeCreateTable(stmt, createTableSQL.toString());
+            System.out.println("Created Class 12 board exam table: " + tableName);
+        }
     }
     
-    // Method to get automated subjects based on class level
-    private static java.util.List<SubjectInfo> getAutomatedSubjects(int classNum) {
-        java.util.List<SubjectInfo> subjects = new java.util.ArrayList<>();
+    // Method to generate board exam data
+    private static void generateBoardExamData(String schoolName, int classNum, int sessionYear, 
+                                            java.util.List<SubjectInfo> subjects, int numTerms) {
+        String boardTableName = identifiers.boardExamTable(schoolName, classNum, sessionYear);
+        String studentTableName = getStudentTableName(schoolName);
+        if (isTableCheckpointed(boardTableName)) {
+            System.out.println("Skipping " + boardTableName + " (already committed, checkpoint)");
+            return;
+        }
         
-        if (classNum >= 1 && classNum <= 4) {
-            // Classes 1-4: Language (Bengali + English), Math, EVS, Arts, PE
-            subjects.add(new SubjectInfo("Bengali", 100));
-            subjects.add(new SubjectInfo("English", 100));
-            subjects.add(new SubjectInfo("Mathematics", 100));
-            subjects.add(new SubjectInfo("Environmental_Studies", 100));
-            subjects.add(new SubjectInfo("Arts_and_Crafts", 100));
-            subjects.add(new SubjectInfo("Physical_Education", 100));
+        try (Connection conn = getConnection()) {
+            java.util.List<String[]> students = loadClassRoster(conn, studentTableName, classNum);
+            if (students.isEmpty() || (classNum != 10 && classNum != 12)) {
+                return;
+            }
             
-        } else if (classNum >= 5 && classNum <= 8) {
-            // Classes 5-8: Languages, Math, Science, History, Geography, Work Ed, Arts, PE
-            subjects.add(new SubjectInfo("Bengali", 100));
-            subjects.add(new SubjectInfo("English", 100));
-            subjects.add(new SubjectInfo("Mathematics", 100));
-            subjects.add(new SubjectInfo("Science", 100));
-            subjects.add(new SubjectInfo("History", 100));
-            subjects.add(new SubjectInfo("Geography", 100));
-            subjects.add(new SubjectInfo("Work_Education", 100));
-            subjects.add(new SubjectInfo("Arts_and_Crafts", 100));
-            subjects.add(new SubjectInfo("Physical_Education", 100));
+            long startNanos = System.nanoTime();
+            clearUnfinishedTable(conn, boardTableName);
+            int rowsWritten = writeBoardExamRoster(conn, boardTableName, students, classNum, sessionYear, subjects);
+            reportMarksWritten("board exam", boardTableName, rowsWritten, startNanos);
+            markTableCheckpointed(boardTableName);
             
-        } else if (classNum == 9) {
-            // Class 9: First Lang, Second Lang, Math, Physical Science, Life Science, History, Geography, Optional subject
-            subjects.add(new SubjectInfo("First_Language_Bengali", 100));
-            subjects.add(new SubjectInfo("Second_Language_English", 100));
-            subjects.add(new SubjectInfo("Mathematics", 100));
-            subjects.add(new SubjectInfo("Physical_Science", 100));
-            subjects.add(new SubjectInfo("Life_Science", 100));
-            subjects.add(new SubjectInfo("History", 100));
-            subjects.add(new SubjectInfo("Geography", 100));
-            subjects.add(new SubjectInfo("Computer_Applications", 100)); // Default optional subject
+        } catch (SQLException e) {
+            System.err.println("Error generating board exam data for " + boardTableName + ": " + e.getMessage());
         }
-        
-        return subjects;
     }
     
-    // Helper method to parse class range
-    private static java.util.List<Integer> parseClassRange(String classRange) {
-        java.util.List<Integer> classes = new java.util.ArrayList<>();
+    // Method to generate and write the board exam marks of a Class 10 or 12 roster, each from the
+    // student's own (student, session) stream
+    private static int writeBoardExamRoster(Connection conn, String boardTableName, java.util.List<String[]> students, int classNum,
+                                            int sessionYear, java.util.List<SubjectInfo> subjects) throws SQLException {
+        if (classNum == 12) {
+            return writeMarksBatched(conn, boardTableName, statementTemplates.class12BoardInsert(boardTableName), students,
+                (pstmt, student) -> bindClass12BoardExamRecord(
+                    newStudentRandomGenerator(STREAM_BOARD_EXAM, sessionYear, student[0]), pstmt, student[0], student[1],
+                    Integer.parseInt(student[2]), student[3], student[4]));
+        }
+        return writeMarksBatched(conn, boardTableName, statementTemplates.class10BoardInsert(boardTableName, subjects), students,
+            (pstmt, student) -> bindClass10BoardExamRecord(
+                newStudentRandomGenerator(STREAM_BOARD_EXAM, sessionYear, student[0]), pstmt, student[0], student[1],
+                Integer.parseInt(student[2]), student[3], subjects));
+    }
+    
+    // Method to build the Class 10 board exam INSERT template (column list and placeholders, without the table name)
+    private static String buildClass10BoardExamInsertTemplate(java.util.List<SubjectInfo> subjects) {
+        StringBuilder insertSQL = new StringBuilder();
+        insertSQL.append(" (");
+        insertSQL.append("student_uuid, student_name, roll_no, section, ");
         
-        if (classRange.contains("-")) {
-            String[] parts = classRange.split("-");
-            int start = Integer.parseInt(parts[0]);
-            int end = Integer.parseInt(parts[1]);
-            for (int i = start; i <= end; i++) {
-                classes.add(i);
-            }
-        } else {
-            // Single class or comma-separated classes
-            String[] parts = classRange.split(",");
-            for (String part : parts) {
-                classes.add(Integer.parseInt(part.trim()));
-            }
+        // Add column names for subjects (no term numbers)
+        for (SubjectInfo subject : subjects) {
+            String subjectNameSanitized = identifiers.columnIdentifier(subject.name);
+            insertSQL.append(subjectNameSanitized).append("_obtained_marks, ");
         }
         
-        return classes;
+        insertSQL.append("total_marks, percentage, grand_total, percentage_grand_total) VALUES (");
+        
+        // Add placeholders (4 basic + subjects + 4 totals)
+        int totalColumns = 4 + subjects.size() + 4;
+        for (int i = 0; i < totalColumns; i++) {
+            insertSQL.append("?");
+            if (i < totalColumns - 1) insertSQL.append(", ");
+        }
+        insertSQL.append(")");
+        return insertSQL.toString();
     }
     
-    // Subject information class
-    static class SubjectInfo {
-        String name;
-        int fullMarks;
+    // Method to generate one student's Class 10 board exam marks and bind them to the table's INSERT statement
+    private static void bindClass10BoardExamRecord(java.util.random.RandomGenerator rng, PreparedStatement pstmt, String studentUuid, 
+                                                   String studentName, int rollNo, String section, 
+                                                   java.util.List<SubjectInfo> subjects) throws SQLException {
+        int paramIndex = 1;
         
-        SubjectInfo(String name, int fullMarks) {
-            this.name = name;
-            this.fullMarks = fullMarks;
+        // Set basic student info
+        pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
+        pstmt.setString(paramIndex++, studentName);
+        pstmt.setInt(paramIndex++, rollNo);
+        pstmt.setString(paramIndex++, section);
+        
+        // Generate and set marks for each subject
+        int totalMarks = 0;
+        int totalFullMarks = 0;
+        
+        for (SubjectInfo subject : subjects) {
+            // Generate random marks (40-100% of full marks for board exam)
+            int minMarks = (int) (subject.fullMarks * 0.4); // 40% minimum
+            int maxMarks = subject.fullMarks;
+            int obtainedMarks = minMarks + rng.nextInt(maxMarks - minMarks + 1);
+            
+            pstmt.setInt(paramIndex++, obtainedMarks);
+            totalMarks += obtainedMarks;
+            totalFullMarks += subject.fullMarks;
         }
+        
+        // Set totals and percentages
+        double percentage = (totalMarks * 100.0) / totalFullMarks;
+        pstmt.setInt(paramIndex++, totalMarks); // total_marks
+        pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage
+        pstmt.setInt(paramIndex++, totalMarks); // grand_total (same as total for board exam)
+        pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage_grand_total
     }
     
-    // Stream and section assignment class
-    static class StreamSectionAssignment {
-        char section;
-        String stream;
+    // Method to build the Class 12 board exam INSERT template (column list and placeholders, without the table name)
+    private static String buildClass12BoardExamInsertTemplate() {
+        StringBuilder insertSQL = new StringBuilder();
+        insertSQL.append(" (");
+        insertSQL.append("student_uuid, student_name, roll_no, section, ");
+        insertSQL.append("first_language_obtained_marks, ");
+        insertSQL.append("second_language_english_obtained_marks, ");
+        insertSQL.append("major_1_subject_name, major_2_subject_name, major_3_subject_name, major_4_subject_name, ");
+        insertSQL.append("major_1_obtained_marks, major_2_obtained_marks, major_3_obtained_marks, major_4_obtained_marks, ");
+        insertSQL.append("total_marks, percentage, grand_total, percentage_grand_total) VALUES (");
+        
+        // Add placeholders (4 basic + 2 languages + 4 names + 4 majors + 4 totals = 18)
+        for (int i = 0; i < 18; i++) {
+            insertSQL.append("?");
+            if (i < 17) insertSQL.append(", ");
+        }
+        insertSQL.append(")");
+        return insertSQL.toString();
+    }
+    
+    // Method to generate one student's Class 12 board exam marks and bind them to the table's INSERT statement
+    private static void bindClass12BoardExamRecord(java.util.random.RandomGenerator rng, PreparedStatement pstmt, String studentUuid, 
+                                                   String studentName, int rollNo, String section, String stream) throws SQLException {
+        // Get stream-based subjects
+        String[] subjectNames = getStreamSubjects(stream);
+        int paramIndex = 1;
+        
+        // Set basic student info
+        pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
+        pstmt.setString(paramIndex++, studentName);
+        pstmt.setInt(paramIndex++, rollNo);
+        pstmt.setString(paramIndex++, section);
+        
+        // Generate language marks
+        int firstLangMarks = 40 + rng.nextInt(61); // 40-100
+        int englishMarks = 40 + rng.nextInt(61); // 40-100
+        pstmt.setInt(paramIndex++, firstLangMarks);
+        pstmt.setInt(paramIndex++, englishMarks);
+        
+        // Set subject names
+        for (int i = 0; i < 4; i++) {
+            pstmt.setString(paramIndex++, subjectNames[i]);
+        }
         
-        StreamSectionAssignment(char section, String stream) {
-            this.section = section;
-            this.stream = stream;
+        // Generate major subjects marks
+        int totalMarks = firstLangMarks + englishMarks;
+        for (int majorNum = 1; majorNum <= 4; majorNum++) {
+            int majorMarks = 40 + rng.nextInt(61); // 40-100
+            pstmt.setInt(paramIndex++, majorMarks);
+            totalMarks += majorMarks;
         }
+        
+        // Set totals and percentages (600 total marks for 6 subjects)
+        double percentage = (totalMarks * 100.0) / 600;
+        pstmt.setInt(paramIndex++, totalMarks); // total_marks
+        pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage
+        pstmt.setInt(paramIndex++, totalMarks); // grand_total (same as total for board exam)
+        pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage_grand_total
     }
     
-    // Method to get stream-based section assignment for classes 11 and 12
-    private static StreamSectionAssignment getStreamBasedSection(char currentSection, int numSections, int currentRollNo, int studentsPerSection) {
-        String[] streams = {"Science", "Arts", "Commerce"};
+    // Method to build the academic INSERT template (column list and placeholders, without the table name)
+    private static String buildAcademicInsertTemplate(java.util.List<SubjectInfo> subjects, int numTerms) {
+        StringBuilder insertSQL = new StringBuilder();
+        insertSQL.append(" (");
+        insertSQL.append("student_uuid, student_name, roll_no, section, ");
         
-        if (numSections == 1) {
-            // Only one section - distribute streams evenly within the section
-            int studentIndex = currentRollNo - 1;
-            int streamIndex = studentIndex % 3;
-            return new StreamSectionAssignment('A', streams[streamIndex]);
-        } else if (numSections == 2) {
-            // Two sections: Science in A, Arts and Commerce mixed in B
-            if (currentSection == 'A') {
-                return new StreamSectionAssignment('A', "Science");
-            } else {
-                // Alternate between Arts and Commerce in section B
-                int streamChoice = (currentRollNo % 2 == 1) ? 1 : 2; // Arts or Commerce
-                return new StreamSectionAssignment('B', streams[streamChoice]);
-            }
-        } else if (numSections == 3) {
-            // Three sections: Science in A, Arts in B, Commerce in C
-            char[] sectionMap = {'A', 'B', 'C'};
-            return new StreamSectionAssignment(sectionMap[currentSection - 'A'], streams[currentSection - 'A']);
-        } else if (numSections >= 4) {
-            // Four or more sections: Science in A, Arts in B and C, Commerce in D (and beyond if more sections)
-            if (currentSection == 'A') {
-                return new StreamSectionAssignment('A', "Science");
-            } else if (currentSection == 'B' || currentSection == 'C') {
-                return new StreamSectionAssignment(currentSection, "Arts");
-            } else {
-                return new StreamSectionAssignment(currentSection, "Commerce");
+        // Add column names for subjects and terms
+        for (SubjectInfo subject : subjects) {
+            String subjectNameSanitized = identifiers.columnIdentifier(subject.name);
+            
+            for (int term = 1; term <= numTerms; term++) {
+                insertSQL.append(subjectNameSanitized).append("_obtained_marks_term_").append(term).append(", ");
             }
         }
         
-        // Default fallback
-        return new StreamSectionAssignment(currentSection, "Science");
+        // Add total marks and percentage columns
+        for (int term = 1; term <= numTerms; term++) {
+            insertSQL.append("total_marks_term_").append(term).append(", ");
+            insertSQL.append("percentage_term_").append(term).append(", ");
+        }
+        
+        insertSQL.append("grand_total, percentage_grand_total) VALUES (");
+        
+        // Add placeholders
+        int totalColumns = 4 + (subjects.size() * numTerms) + (2 * numTerms) + 2;
+        for (int i = 0; i < totalColumns; i++) {
+            insertSQL.append("?");
+            if (i < totalColumns - 1) insertSQL.append(", ");
+        }
+        insertSQL.append(")");
+        return insertSQL.toString();
     }
     
-    // Method to create academic table for a specific school, class, and year
-    private static void createAcademicTable(String schoolName, int classNum, int sessionYear, 
-                                          java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
+    // Method to generate one student's academic marks and bind them to the table's INSERT statement
+    private static void bindAcademicRecord(java.util.random.RandomGenerator rng, PreparedStatement pstmt, String studentUuid, 
+                                           String studentName, int rollNo, String section, 
+                                           java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) throws SQLException {
+        int paramIndex = 1;
         
-        String tableName = sanitizedSchoolName + "_class_" + classNum + "_" + sessionYear + "_academic";
+        // Set basic student info
+        pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
+        pstmt.setString(paramIndex++, studentName);
+        pstmt.setInt(paramIndex++, rollNo);
+        pstmt.setString(paramIndex++, section);
         
-        try (Connection conn = getConnection()) {
-            if (classNum == 11 || classNum == 12) {
-                // Special table structure for classes 11 and 12
-                createHigherSecondaryTable(conn, tableName, numTerms, isBoardExam);
-            } else {
-                // Regular table structure for other classes
-                createRegularAcademicTable(conn, tableName, subjects, numTerms, isBoardExam);
+        // Generate and set marks for each subject and term
+        int[] termTotals = new int[numTerms];
+        int[] termFullMarks = new int[numTerms];
+        
+        for (SubjectInfo subject : subjects) {
+            for (int term = 1; term <= numTerms; term++) {
+                // Generate random marks (40-100% of full marks for realistic distribution)
+                int minMarks = (int) (subject.fullMarks * 0.4); // 40% minimum
+                int maxMarks = subject.fullMarks;
+                int obtainedMarks = minMarks + rng.nextInt(maxMarks - minMarks + 1);
+                
+                pstmt.setInt(paramIndex++, obtainedMarks);
+                termTotals[term - 1] += obtainedMarks;
+                termFullMarks[term - 1] += subject.fullMarks;
             }
+        }
+        
+        // Set term totals and percentages
+        int grandTotal = 0;
+        int grandFullMarks = 0;
+        
+        for (int term = 0; term < numTerms; term++) {
+            pstmt.setInt(paramIndex++, termTotals[term]);
+            double percentage = (termTotals[term] * 100.0) / termFullMarks[term];
+            pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0);
             
-        } catch (SQLException e) {
-            System.err.println("Error creating academic table " + tableName + ": " + e.getMessage());
+            // For board exams, only the last term counts for grand total
+            if (isBoardExam) {
+                if (term == numTerms - 1) { // Last term only
+                    grandTotal = termTotals[term];
+                    grandFullMarks = termFullMarks[term];
+                }
+            } else {
+                // For regular classes, all terms count
+                grandTotal += termTotals[term];
+                grandFullMarks += termFullMarks[term];
+            }
         }
+        
+        // Set grand total and grand percentage
+        pstmt.setInt(paramIndex++, grandTotal);
+        double grandPercentage = (grandTotal * 100.0) / grandFullMarks;
+        pstmt.setDouble(paramIndex++, Math.round(grandPercentage * 100.0) / 100.0);
     }
     
-    // Method to create regular academic table for classes 1-10
-    private static void createRegularAcademicTable(Connection conn, String tableName, 
-                                                 java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) throws SQLException {
-        StringBuilder createTableSQL = new StringBuilder();
-        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
-        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
-        createTableSQL.append("student_name VARCHAR(100), ");
-        createTableSQL.append("roll_no INTEGER, ");
-        createTableSQL.append("section VARCHAR(5), ");
+    // Method to build the higher secondary INSERT template for classes 11 and 12 (without the table name)
+    private static String buildHigherSecondaryInsertTemplate(int numTerms) {
+        StringBuilder insertSQL = new StringBuilder();
+        insertSQL.append(" (");
+        insertSQL.append("student_uuid, student_name, roll_no, section, ");
         
-        // Add columns for each subject and term
-        for (SubjectInfo subject : subjects) {
-            String subjectNameSanitized = subject.name.toLowerCase()
-                    .replaceAll("[^a-zA-Z0-9]", "_")
-                    .replaceAll("_{2,}", "_")
-                    .replaceAll("^_|_$", "");
-            
+        // Add first language columns
+        for (int term = 1; term <= numTerms; term++) {
+            insertSQL.append("first_language_obtained_marks_term_").append(term).append(", ");
+        }
+        
+        // Add second language columns
+        for (int term = 1; term <= numTerms; term++) {
+            insertSQL.append("second_language_english_obtained_marks_term_").append(term).append(", ");
+        }
+        
+        // Add subject names
+        insertSQL.append("major_1_subject_name, major_2_subject_name, major_3_subject_name, major_4_subject_name, ");
+        
+        // Add major subjects columns
+        for (int majorNum = 1; majorNum <= 4; majorNum++) {
             for (int term = 1; term <= numTerms; term++) {
-                createTableSQL.append(subjectNameSanitized).append("_full_marks_term_").append(term)
-                        .append(" INTEGER DEFAULT ").append(subject.fullMarks).append(", ");
-                createTableSQL.append(subjectNameSanitized).append("_obtained_marks_term_").append(term)
-                        .append(" INTEGER, ");
+                insertSQL.append("major_").append(majorNum).append("_obtained_marks_term_").append(term).append(", ");
             }
         }
         
-        // Add total marks and percentage columns for each term
+        // Add total marks and percentage columns
         for (int term = 1; term <= numTerms; term++) {
-            createTableSQL.append("total_marks_term_").append(term).append(" INTEGER, ");
-            createTableSQL.append("percentage_term_").append(term).append(" DECIMAL(5,2), ");
+            insertSQL.append("total_marks_term_").append(term).append(", ");
+            insertSQL.append("percentage_term_").append(term).append(", ");
         }
         
-        // Add grand total and grand percentage
-        createTableSQL.append("grand_total INTEGER, ");
-        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
+        insertSQL.append("grand_total, percentage_grand_total) VALUES (");
         
-        // Add board exam indicator
-        if (isBoardExam) {
-            createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
-            createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'Grand total calculated from final term only', ");
+        // Add placeholders (4 basic + 2*numTerms lang + 4 names + 4*numTerms majors + 2*numTerms totals + 2 grand)
+        int totalColumns = 4 + (2 * numTerms) + 4 + (4 * numTerms) + (2 * numTerms) + 2;
+        for (int i = 0; i < totalColumns; i++) {
+            insertSQL.append("?");
+            if (i < totalColumns - 1) insertSQL.append(", ");
+        }
+        insertSQL.append(")");
+        return insertSQL.toString();
+    }
+    
+    // Method to generate one student's higher secondary marks and bind them to the table's INSERT statement
+    private static void bindHigherSecondaryRecord(java.util.random.RandomGenerator rng, PreparedStatement pstmt, String studentUuid, 
+                                                  String studentName, int rollNo, String section, 
+                                                  String stream, int numTerms, boolean isBoardExam) throws SQLException {
+        // Get stream-based subjects
+        String[] subjectNames = getStreamSubjects(stream);
+        int paramIndex = 1;
+        
+        // Set basic student info
+        pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
+        pstmt.setString(paramIndex++, studentName);
+        pstmt.setInt(paramIndex++, rollNo);
+        pstmt.setString(paramIndex++, section);
+        
+        // Initialize arrays for calculations
+        int[] termTotals = new int[numTerms];
+        int totalFullMarks = 600; // 6 subjects × 100 marks each
+        
+        // Generate first language marks
+        for (int term = 1; term <= numTerms; term++) {
+            int firstLangMarks = 40 + rng.nextInt(61); // 40-100
+            pstmt.setInt(paramIndex++, firstLangMarks);
+            termTotals[term - 1] += firstLangMarks;
         }
         
-        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
-        createTableSQL.append(")");
+        // Generate second language (English) marks
+        for (int term = 1; term <= numTerms; term++) {
+            int englishMarks = 40 + rng.nextInt(61); // 40-100
+            pstmt.setInt(paramIndex++, englishMarks);
+            termTotals[term - 1] += englishMarks;
+        }
         
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL.toString());
-            String examType = isBoardExam ? " (Board Exam)" : "";
-            System.out.println("Created academic table: " + tableName + examType);
+        // Set subject names
+        for (int i = 0; i < 4; i++) {
+            pstmt.setString(paramIndex++, subjectNames[i]);
+        }
+        
+        // Generate major subjects marks
+        for (int majorNum = 1; majorNum <= 4; majorNum++) {
+            for (int term = 1; term <= numTerms; term++) {
+                int majorMarks = 40 + rng.nextInt(61); // 40-100
+                pstmt.setInt(paramIndex++, majorMarks);
+                termTotals[term - 1] += majorMarks;
+            }
+        }
+        
+        // Set term totals and percentages
+        int grandTotal = 0;
+        for (int term = 0; term < numTerms; term++) {
+            pstmt.setInt(paramIndex++, termTotals[term]);
+            double percentage = (termTotals[term] * 100.0) / totalFullMarks;
+            pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0);
+            
+            // For board exams, only the last term counts for grand total
+            if (isBoardExam) {
+                if (term == numTerms - 1) { // Last term only
+                    grandTotal = termTotals[term];
+                }
+            } else {
+                // For regular classes, all terms count
+                grandTotal += termTotals[term];
+            }
         }
+        
+        // Set grand total and grand percentage
+        pstmt.setInt(paramIndex++, grandTotal);
+        int grandFullMarks = isBoardExam ? totalFullMarks : (totalFullMarks * numTerms);
+        double grandPercentage = (grandTotal * 100.0) / grandFullMarks;
+        pstmt.setDouble(paramIndex++, Math.round(grandPercentage * 100.0) / 100.0);
     }
     
-    // Method to create higher secondary table for classes 11 and 12
-    private static void createHigherSecondaryTable(Connection conn, String tableName, int numTerms, boolean isBoardExam) throws SQLException {
-        StringBuilder createTableSQL = new StringBuilder();
-        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
-        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
-        createTableSQL.append("student_name VARCHAR(100), ");
-        createTableSQL.append("roll_no INTEGER, ");
-        createTableSQL.append("section VARCHAR(5), ");
+    // Method to get subjects based on stream
+    private static String[] getStreamSubjects(String stream) {
+        if (stream == null) stream = "Science"; // Default fallback
         
-        // Fixed structure for classes 11 and 12
-        // First Language
-        for (int term = 1; term <= numTerms; term++) {
-            createTableSQL.append("first_language_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
-            createTableSQL.append("first_language_obtained_marks_term_").append(term).append(" INTEGER, ");
+        switch (stream) {
+            case "Science":
+                return new String[]{"Mathematics", "Physics", "Chemistry", "Biology"};
+            case "Commerce":
+                return new String[]{"Economics", "Business_Studies", "Accountancy", "Mathematics"};
+            case "Arts":
+                return new String[]{"History", "Geography", "Political_Science", "Philosophy"};
+            default:
+                return new String[]{"Mathematics", "Physics", "Chemistry", "Biology"}; // Default to Science
+        }
+    }
+    
+    // Method to generate attendance records for students (interactive)
+    private static void generateAttendanceRecords(java.util.Scanner scanner, java.util.List<String> schoolNames, int numClasses) {
+        System.out.println("Now generating attendance records for all students...\n");
+        
+        try {
+            System.out.print("Enter the classes for which you want to generate attendance (e.g., '1-12' or '6-8'): ");
+            String classRange = scanner.next();
+            
+            // Parse class range
+            java.util.List<Integer> classes = parseClassRange(classRange);
+            System.out.println("Selected classes: " + classes);
+            
+            generateAttendanceData(classes, schoolNames);
+            
+        } catch (java.util.NoSuchElementException e) {
+            System.out.println("\n=== INPUT ERROR ===");
+            System.out.println("No more input available for attendance generation.");
+            System.out.println("Attendance generation skipped.");
+        } catch (Exception e) {
+            System.out.println("\n=== ERROR IN ATTENDANCE GENERATION ===");
+            System.out.println("Error: " + e.getMessage());
+            System.out.println("Attendance generation skipped.");
+        }
+    }
+    
+    // Method to generate attendance records automatically
+    private static void generateAutomaticAttendanceRecords(int numClasses, java.util.List<String> schoolNames) {
+        System.out.println("Automatically generating attendance records for all " + numClasses + " classes...");
+        
+        try {
+            // Generate for --class-range, or all classes from 1 to numClasses
+            java.util.List<Integer> classes = getConfiguredClasses(numClasses);
+            
+            generateAttendanceData(classes, schoolNames);
+            
+        } catch (Exception e) {
+            System.out.println("\n=== ERROR IN AUTOMATIC ATTENDANCE GENERATION ===");
+            System.out.println("Error: " + e.getMessage());
+            System.out.println("Attendance generation skipped.");
         }
+    }
+    
+    // Method to generate attendance data for selected classes and schools
+    private static void generateAttendanceData(java.util.List<Integer> classes, java.util.List<String> schoolNames) {
+        int currentYear = sessionYear;
         
-        // Second Language (English)
-        for (int term = 1; term <= numTerms; term++) {
-            createTableSQL.append("second_language_english_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
-            createTableSQL.append("second_language_english_obtained_marks_term_").append(term).append(" INTEGER, ");
-        }
+        System.out.println("=== ATTENDANCE GENERATION CONFIGURATION ===");
+        System.out.println("Logic: ALL students will have attendance records for years they were in school");
+        System.out.println("       For example, students currently in Class 5 will have attendance for:");
+        System.out.println("       2021 (when in Class 1), 2022 (Class 2), 2023 (Class 3),");
+        System.out.println("       2024 (Class 4), 2025 (Class 5)");
+        System.out.println("Attendance percentage: 20% to 100% per student");
+        System.out.println("Working days: Excludes weekends, national holidays, school breaks");
+        System.out.println("===============================================\n");
         
-        // Major subject names (will be populated based on stream)
-        createTableSQL.append("major_1_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_2_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_3_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_4_subject_name VARCHAR(100), ");
+        // Determine all years that need attendance tables: from when the oldest current student was in Class 1
+        // up to the current year
+        int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
+        int earliestYear = currentYear - maxClass + 1;
+        System.out.println("Years to generate: " + earliestYear + " to " + currentYear);
         
-        // Major subjects marks
-        for (int majorNum = 1; majorNum <= 4; majorNum++) {
-            for (int term = 1; term <= numTerms; term++) {
-                createTableSQL.append("major_").append(majorNum).append("_full_marks_term_").append(term).append(" INTEGER DEFAULT 100, ");
-                createTableSQL.append("major_").append(majorNum).append("_obtained_marks_term_").append(term).append(" INTEGER, ");
+        // Create attendance tables for every school and year up front, then generate the (school, year) units in parallel
+        for (String schoolName : schoolNames) {
+            for (int year = earliestYear; year <= currentYear; year++) {
+                createAttendanceTable(schoolName, year);
             }
         }
+        runPhaseInParallel("attendance", schoolNames, earliestYear, currentYear, identifiers::attendanceTable,
+            Main::generateAttendanceRecordsForYear);
         
-        // Total marks and percentages for each term
-        for (int term = 1; term <= numTerms; term++) {
-            createTableSQL.append("total_marks_term_").append(term).append(" INTEGER, ");
-            createTableSQL.append("percentage_term_").append(term).append(" DECIMAL(5,2), ");
+        System.out.println("\n=== ATTENDANCE RECORDS GENERATION COMPLETE ===");
+        System.out.println("Attendance tables created with format: " + tableLayout("{sanitized_school_name}_attendance_{year}", "attendance", "academic_year"));
+        System.out.println("Columns: attendance_id, student_uuid, attendance_date, status, arrival_time, departure_time, remarks, created_at");
+        System.out.println("Logic implemented: ALL students have attendance records for years they would have been in school");
+        System.out.println("Attendance rates: Randomly distributed between 20% and 100% per student");
+        System.out.println("Data volume: Each student will have ~200-250 attendance records per school year");
+    }
+    
+    // One (school, year) unit of a derived-record phase; returns the number of rows it wrote, or -1 if it failed
+    interface PhaseUnit {
+        long run(String schoolName, int year);
+    }
+    
+    // Name of the table a (school, year) unit writes, which is also its checkpoint key
+    interface UnitTable {
+        String name(String schoolName, int year);
+    }
+    
+    // Method to run every (school, year) unit of a phase on a bounded pool sized to the connection pool; units
+    // already in the checkpoint are skipped, the rest are logged once their table is fully written
+    private static void runPhaseInParallel(String phaseName, java.util.List<String> schoolNames, int earliestYear, int latestYear,
+                                           UnitTable unitTable, PhaseUnit unit) {
+        int threads = getPhaseThreads();
+        int totalUnits = schoolNames.size() * (latestYear - earliestYear + 1);
+        System.out.println("Running " + totalUnits + " " + phaseName + " units (school x year) on " + threads + " threads");
+        
+        ExecutorService phasePool = Executors.newFixedThreadPool(threads);
+        java.util.concurrent.atomic.AtomicLong totalRows = new java.util.concurrent.atomic.AtomicLong();
+        AtomicInteger completedUnits = new AtomicInteger();
+        AtomicInteger skippedUnits = new AtomicInteger();
+        AtomicInteger failedUnits = new AtomicInteger();
+        long phaseStartNanos = System.nanoTime();
+        
+        java.util.List<Future<?>> units = new java.util.ArrayList<>();
+        for (String schoolName : schoolNames) {
+            for (int year = earliestYear; year <= latestYear; year++) {
+                final int unitYear = year;
+                units.add(phasePool.submit(() -> {
+                    String tableName = unitTable.name(schoolName, unitYear);
+                    if (isTableCheckpointed(tableName)) {
+                        skippedUnits.incrementAndGet();
+                        System.out.printf("  [%s %d/%d] %s %d: already committed (checkpoint)%n", phaseName,
+                            completedUnits.incrementAndGet(), totalUnits, schoolName, unitYear);
+                        return;
+                    }
+                    
+                    long unitStartNanos = System.nanoTime();
+                    long rows = -1;
+                    try {
+                        if (checkpoint != null && checkpoint.isResume()) {
+                            try (Connection conn = getConnection()) {
+                                clearUnfinishedTable(conn, tableName);
+                            }
+                        }
+                        rows = unit.run(schoolName, unitYear);
+                    } catch (SQLException e) {
+                        System.err.println("Error clearing " + tableName + " before regenerating it: " + e.getMessage());
+                    }
+                    
+                    if (rows < 0) {
+                        failedUnits.incrementAndGet();
+                        System.out.printf("  [%s %d/%d] %s %d: FAILED after %.2f s%n", phaseName, completedUnits.incrementAndGet(),
+                            totalUnits, schoolName, unitYear, (System.nanoTime() - unitStartNanos) / 1_000_000_000.0);
+                        return;
+                    }
+                    totalRows.addAndGet(rows);
+                    markTableCheckpointed(tableName);
+                    System.out.printf("  [%s %d/%d] %s %d: %,d rows in %.2f s%n", phaseName, completedUnits.incrementAndGet(),
+                        totalUnits, schoolName, unitYear, rows, (System.nanoTime() - unitStartNanos) / 1_000_000_000.0);
+                }));
+            }
         }
         
-        // Grand total and grand percentage
-        createTableSQL.append("grand_total INTEGER, ");
-        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
-        
-        // Board exam indicator
-        if (isBoardExam) {
-            createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
-            createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'Grand total calculated from final term only', ");
-        } else {
-            createTableSQL.append("is_board_exam BOOLEAN DEFAULT FALSE, ");
-            createTableSQL.append("board_exam_note VARCHAR(255), ");
+        try {
+            for (Future<?> future : units) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    System.err.println("A " + phaseName + " unit failed: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            phasePool.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.out.println(phaseName + " generation interrupted");
+        } finally {
+            phasePool.shutdown();
         }
         
-        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
-        createTableSQL.append(")");
-        
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL.toString());
-            String examType = isBoardExam ? " (Board Exam)" : "";
-            System.out.println("Created higher secondary table: " + tableName + examType);
+        double seconds = (System.nanoTime() - phaseStartNanos) / 1_000_000_000.0;
+        System.out.printf("Phase %s: %,d rows across %d units in %.2f s (%,.0f rows/sec)%n",
+            phaseName, totalRows.get(), totalUnits, seconds, seconds > 0 ? totalRows.get() / seconds : 0.0);
+        if (skippedUnits.get() > 0 || failedUnits.get() > 0) {
+            System.out.println("Phase " + phaseName + ": " + skippedUnits.get() + " units skipped (checkpoint), " +
+                failedUnits.get() + " failed" + (failedUnits.get() > 0 && checkpoint != null ? " (replayed by the next run)" : ""));
         }
     }
     
-    // Method to generate academic data for students
-    private static void generateAcademicData(String schoolName, int classNum, int sessionYear, 
-                                           java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        
-        String academicTableName = sanitizedSchoolName + "_class_" + classNum + "_" + sessionYear + "_academic";
-        String studentTableName = getStudentTableName(schoolName);
+    // Method to read the students of a school who were in school (Class 1 or higher) during the given year:
+    // {student_uuid, full_name, class during that year} per student
+    private static java.util.List<String[]> loadYearRoster(String studentTableName, int year) throws SQLException {
+        int currentYear = sessionYear;
+        java.util.List<String[]> students = new java.util.ArrayList<>();
+        TableTarget target = tableTarget(studentTableName);
         
-        try (Connection conn = getConnection()) {
-            // Get students from the specific class
-            String selectStudentsSQL = "SELECT student_uuid, full_name, roll_no, section, stream FROM " + 
-                    studentTableName + " WHERE class_name = ?";
-            
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectStudentsSQL)) {
-                selectStmt.setString(1, "Class " + classNum);
+        try (Connection conn = getConnection();
+             PreparedStatement selectStmt = conn.prepareStatement("SELECT student_uuid, full_name, class_name FROM " +
+                 target.table + target.where(null));
+             ResultSet rs = selectStmt.executeQuery()) {
+            
+            while (rs.next()) {
+                // Extract class number from "Class X" format and work out the class during that year
+                int currentClass = Integer.parseInt(rs.getString("class_name").replace("Class ", ""));
+                int studentClassDuringYear = currentClass - (currentYear - year);
                 
-                try (ResultSet rs = selectStmt.executeQuery()) {
-                    while (rs.next()) {
-                        String studentUuid = rs.getString("student_uuid");
-                        String studentName = rs.getString("full_name");
-                        int rollNo = rs.getInt("roll_no");
-                        String section = rs.getString("section");
-                        String stream = rs.getString("stream");
-                        
-                        // Generate marks for this student
-                        if (classNum == 11 || classNum == 12) {
-                            insertHigherSecondaryRecord(conn, academicTableName, studentUuid, studentName, 
-                                                       rollNo, section, stream, numTerms, isBoardExam);
-                        } else {
-                            insertAcademicRecord(conn, academicTableName, studentUuid, studentName, 
-                                               rollNo, section, subjects, numTerms, isBoardExam);
-                        }
-                    }
+                if (studentClassDuringYear >= 1) {
+                    students.add(new String[]{rs.getString("student_uuid"), rs.getString("full_name"), String.valueOf(studentClassDuringYear)});
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating academic data for " + academicTableName + ": " + e.getMessage());
         }
+        return students;
     }
     
-    // Method to create board exam table for classes 10 and 12
-    private static void createBoardExamTable(String schoolName, int classNum, int sessionYear, 
-                                           java.util.List<SubjectInfo> subjects, int numTerms) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        
-        String boardTableName = sanitizedSchoolName + "_class_" + classNum + "_" + sessionYear + "_board_exam_academic";
-        
-        try (Connection conn = getConnection()) {
-            if (classNum == 10) {
-                createClass10BoardExamTable(conn, boardTableName, subjects);
-            } else if (classNum == 12) {
-                createClass12BoardExamTable(conn, boardTableName);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error creating board exam table " + boardTableName + ": " + e.getMessage());
+    // Helper method to turn a class roster {student_uuid, full_name, roll_no, section, stream} into the year roster
+    // {student_uuid, full_name, class during year} that the attendance, homework and project writers take
+    private static java.util.List<String[]> toYearRoster(java.util.List<String[]> classRoster, int classDuringYear) {
+        String studentClass = String.valueOf(classDuringYear);
+        java.util.List<String[]> students = new java.util.ArrayList<>(classRoster.size());
+        for (String[] student : classRoster) {
+            students.add(new String[]{student[0], student[1], studentClass});
         }
+        return students;
     }
     
-    // Method to create Class 10 board exam table structure
-    private static void createClass10BoardExamTable(Connection conn, String tableName, 
-                                                   java.util.List<SubjectInfo> subjects) throws SQLException {
-        StringBuilder createTableSQL = new StringBuilder();
-        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
-        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
-        createTableSQL.append("student_name VARCHAR(100), ");
-        createTableSQL.append("roll_no INTEGER, ");
-        createTableSQL.append("section VARCHAR(5), ");
-        
-        // Add columns for each subject (no term numbers for board exam)
-        for (SubjectInfo subject : subjects) {
-            String subjectNameSanitized = subject.name.toLowerCase()
-                    .replaceAll("[^a-zA-Z0-9]", "_")
-                    .replaceAll("_{2,}", "_")
-                    .replaceAll("^_|_$", "");
+    // Helper method to get the automatic subject configuration of one class (as used by the automatic academic results)
+    private static java.util.List<SubjectInfo> getAutomaticSubjectsForClass(int classNum) {
+        if (classNum == 10) {
+            return getAutomatedClass10Subjects();
+        } else if (classNum == 11 || classNum == 12) {
+            return getAutomatedHigherSecondarySubjects();
+        }
+        return getAutomatedSubjects(classNum);
+    }
+    
+    // Pipelined derived phases: each completed (school, class) shard hands its in-memory roster straight to the
+    // academic, attendance, homework and project writers, so those phases overlap student generation and never
+    // read the student tables back. Every family of a shard runs as its own task on a shared pool, and only a
+    // bounded number of shards may be in flight, so generators wait for the derived writers instead of
+    // collecting rosters on the heap. Derived rows use the same per-student streams as the sequential phases,
+    // and --phases, --class-range, --terms and --session-year select what is derived just as they do there.
+    static class DerivedPhasePipeline {
+        private static final String[] FAMILIES = ALL_PHASES.toArray(new String[0]); // academic, attendance, homework, projects
+        
+        private final boolean[] enabledFamilies = new boolean[FAMILIES.length];
+        private final java.util.Set<Integer> academicClasses = new java.util.HashSet<>();
+        private final int earliestYear;
+        private final java.util.Map<Integer, java.util.List<SubjectInfo>> classSubjects = new java.util.HashMap<>();
+        private final java.util.List<String> attendanceTables = new java.util.ArrayList<>();
+        private final java.util.Set<String> reloadedAttendanceTables = new java.util.HashSet<>(); // COPY reruns over old rows
+        private final ExecutorService derivedPool;
+        private final java.util.concurrent.Semaphore shardsInFlight;
+        private final java.util.concurrent.ConcurrentLinkedQueue<Future<?>> tasks = new java.util.concurrent.ConcurrentLinkedQueue<>();
+        private final java.util.concurrent.atomic.AtomicLongArray familyRows = new java.util.concurrent.atomic.AtomicLongArray(FAMILIES.length);
+        private final AtomicInteger completedTasks = new AtomicInteger();
+        private int totalTasks;
+        private final long startNanos = System.nanoTime();
+        
+        DerivedPhasePipeline(java.util.List<String> schoolNames, int numClasses, int threads) {
+            // Without --phases every family is derived; the class range picks the academic classes and, through its
+            // highest class, the earliest year of the attendance, homework and project tables
+            for (int family = 0; family < FAMILIES.length; family++) {
+                enabledFamilies[family] = configuredPhases == null || configuredPhases.contains(FAMILIES[family]);
+            }
+            academicClasses.addAll(getConfiguredClasses(numClasses));
+            earliestYear = sessionYear - academicClasses.stream().mapToInt(Integer::intValue).max().orElse(numClasses) + 1;
+            
+            System.out.println("\n=== PIPELINED DERIVED PHASES ===");
+            System.out.println("Derived families: " + String.join(", ", java.util.stream.IntStream.range(0, FAMILIES.length)
+                .filter(family -> enabledFamilies[family]).mapToObj(family -> FAMILIES[family]).toList()));
+            System.out.println("Academic classes: " + new java.util.TreeSet<>(academicClasses) + " (" + academicTerms +
+                " terms, session " + sessionYear + "), yearly records from " + earliestYear + " to " + sessionYear);
+            System.out.println("Records are generated from each (school, class) shard as soon as its students exist");
+            System.out.println("Derived-phase threads: " + threads + ", shards in flight: " + (2 * threads));
+            
+            // Every table is created before the first shard arrives, so shards never race on DDL
+            for (int classNum : academicClasses) {
+                classSubjects.put(classNum, getAutomaticSubjectsForClass(classNum));
+            }
+            for (String schoolName : schoolNames) {
+                for (int classNum = 1; classNum <= numClasses; classNum++) {
+                    totalTasks += shardFamilies(schoolName, classNum).size();
+                }
+                if (!usesDatabase() && !capturesSchema()) {
+                    continue; // The file and null sinks have no tables to create (snapshots record their DDL)
+                }
+                if (enabledFamilies[0]) {
+                    for (int classNum : academicClasses) {
+                        boolean isBoardExam = (classNum == 10 || classNum == 12);
+                        createAcademicTable(schoolName, classNum, sessionYear, classSubjects.get(classNum), academicTerms, isBoardExam);
+                        if (isBoardExam) {
+                            createBoardExamTable(schoolName, classNum, sessionYear, classSubjects.get(classNum), academicTerms);
+                        }
+                    }
+                }
+                for (int year = earliestYear; year <= sessionYear; year++) {
+                    if (enabledFamilies[1]) {
+                        createAttendanceTable(schoolName, year);
+                        attendanceTables.add(identifiers.attendanceTable(schoolName, year));
+                        markReloadedAttendanceTable(identifiers.attendanceTable(schoolName, year));
+                    }
+                    if (enabledFamilies[2]) {
+                        createHomeworkTable(schoolName, year);
+                    }
+                    if (enabledFamilies[3]) {
+                        createProjectTable(schoolName, year);
+                    }
+                }
+            }
             
-            createTableSQL.append(subjectNameSanitized).append("_full_marks INTEGER DEFAULT ")
-                    .append(subject.fullMarks).append(", ");
-            createTableSQL.append(subjectNameSanitized).append("_obtained_marks INTEGER, ");
+            derivedPool = Executors.newFixedThreadPool(threads);
+            shardsInFlight = new java.util.concurrent.Semaphore(2 * threads);
         }
         
-        // Add total marks and percentage (no term numbers)
-        createTableSQL.append("total_marks INTEGER, ");
-        createTableSQL.append("percentage DECIMAL(5,2), ");
-        createTableSQL.append("grand_total INTEGER, ");
-        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
-        createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
-        createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'WBBSE Madhyamik Board Examination', ");
-        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
-        createTableSQL.append(")");
+        // Helper method to name the checkpoint unit of one family of a class shard
+        private static String checkpointUnit(int family, String schoolName, int classNum) {
+            return "pipeline " + FAMILIES[family] + " " + getStudentTableName(schoolName) + " " + classNum;
+        }
         
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL.toString());
-            System.out.println("Created Class 10 board exam table: " + tableName);
+        // Helper method to list the enabled families that still have records to write for a class
+        private java.util.List<Integer> shardFamilies(String schoolName, int classNum) {
+            java.util.List<Integer> families = new java.util.ArrayList<>();
+            for (int family = 0; family < FAMILIES.length; family++) {
+                if (enabledFamilies[family] && (family != 0 || academicClasses.contains(classNum))
+                        && (checkpoint == null || !checkpoint.isComplete(checkpointUnit(family, schoolName, classNum)))) {
+                    families.add(family);
+                }
+            }
+            return families;
         }
-    }
-    
-    // Method to create Class 12 board exam table structure
-    private static void createClass12BoardExamTable(Connection conn, String tableName) throws SQLException {
-        StringBuilder createTableSQL = new StringBuilder();
-        createTableSQL.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
-        createTableSQL.append("student_uuid UUID PRIMARY KEY, ");
-        createTableSQL.append("student_name VARCHAR(100), ");
-        createTableSQL.append("roll_no INTEGER, ");
-        createTableSQL.append("section VARCHAR(5), ");
         
-        // Simplified structure for Class 12 board exam (no term numbers)
-        createTableSQL.append("first_language_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("first_language_obtained_marks INTEGER, ");
-        createTableSQL.append("second_language_english_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("second_language_english_obtained_marks INTEGER, ");
+        // Method to check whether a class shard has any derived records left to write (and so needs its roster)
+        boolean needsRoster(String schoolName, int classNum) {
+            return !shardFamilies(schoolName, classNum).isEmpty();
+        }
         
-        // Major subject names
-        createTableSQL.append("major_1_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_2_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_3_subject_name VARCHAR(100), ");
-        createTableSQL.append("major_4_subject_name VARCHAR(100), ");
+        // Method to queue the derived records of one completed class shard, blocking while too many are in flight
+        void submitShard(String schoolName, int classNum, java.util.List<String[]> roster) {
+            java.util.List<Integer> families = shardFamilies(schoolName, classNum);
+            if (families.isEmpty()) {
+                return;
+            }
+            try {
+                shardsInFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            
+            AtomicInteger remainingFamilies = new AtomicInteger(families.size());
+            for (int shardFamily : families) {
+                tasks.add(derivedPool.submit(() -> {
+                    try {
+                        long unitStartNanos = System.nanoTime();
+                        long rows = writeFamily(shardFamily, schoolName, classNum, roster);
+                        if (rows < 0) {
+                            System.out.printf("  [pipeline %s %d/%d] %s Class %d: FAILED%n", FAMILIES[shardFamily],
+                                completedTasks.incrementAndGet(), totalTasks, schoolName, classNum);
+                            return;
+                        }
+                        familyRows.addAndGet(shardFamily, rows);
+                        if (checkpoint != null) {
+                            checkpoint.markComplete(checkpointUnit(shardFamily, schoolName, classNum));
+                        }
+                        System.out.printf("  [pipeline %s %d/%d] %s Class %d: %,d rows in %.2f s%n", FAMILIES[shardFamily],
+                            completedTasks.incrementAndGet(), totalTasks, schoolName, classNum, rows,
+                            (System.nanoTime() - unitStartNanos) / 1_000_000_000.0);
+                    } finally {
+                        if (remainingFamilies.decrementAndGet() == 0) {
+                            shardsInFlight.release();
+                        }
+                    }
+                }));
+            }
+        }
         
-        // Major subjects marks (no term numbers)
-        createTableSQL.append("major_1_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("major_1_obtained_marks INTEGER, ");
-        createTableSQL.append("major_2_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("major_2_obtained_marks INTEGER, ");
-        createTableSQL.append("major_3_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("major_3_obtained_marks INTEGER, ");
-        createTableSQL.append("major_4_full_marks INTEGER DEFAULT 100, ");
-        createTableSQL.append("major_4_obtained_marks INTEGER, ");
+        // Method to remember an attendance table that already holds rows before a COPY-mode run: COPY cannot skip
+        // rows that exist, so every shard deletes its roster's rows from such a table before loading it
+        private void markReloadedAttendanceTable(String tableName) {
+            if (!usesDatabase() || !WRITER_MODE_COPY.equals(attendanceWriterMode)) {
+                return;
+            }
+            try (Connection conn = getConnection()) {
+                if (tableHasRows(conn, tableName)) {
+                    reloadedAttendanceTables.add(tableName);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error checking attendance table " + tableName + ": " + e.getMessage());
+            }
+        }
         
-        // Total marks and percentages (no term numbers)
-        createTableSQL.append("total_marks INTEGER, ");
-        createTableSQL.append("percentage DECIMAL(5,2), ");
-        createTableSQL.append("grand_total INTEGER, ");
-        createTableSQL.append("percentage_grand_total DECIMAL(5,2), ");
-        createTableSQL.append("is_board_exam BOOLEAN DEFAULT TRUE, ");
-        createTableSQL.append("board_exam_note VARCHAR(255) DEFAULT 'WBCHSE Higher Secondary Board Examination', ");
-        createTableSQL.append("created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
-        createTableSQL.append(")");
+        // Method to write one family of derived records for a class: academic marks for the session year,
+        // or attendance/homework/projects for every covered year the class has been in school. Returns the rows
+        // written, or -1 if any table failed. On a resumed run the class's rows from the interrupted run are
+        // deleted first, since the family may have been cut off halfway (so are a COPY rerun's attendance rows).
+        private long writeFamily(int family, String schoolName, int classNum, java.util.List<String[]> roster) {
+            boolean replay = checkpoint != null && checkpoint.isResume();
+            long rows = 0;
+            if (family == 0) {
+                java.util.List<SubjectInfo> subjects = classSubjects.get(classNum);
+                boolean isBoardExam = (classNum == 10 || classNum == 12);
+                String academicTableName = identifiers.academicTable(schoolName, classNum, sessionYear);
+                String boardTableName = identifiers.boardExamTable(schoolName, classNum, sessionYear);
+                try (Connection conn = usesDatabase() ? getConnection() : null) {
+                    if (replay) {
+                        deleteRosterRows(conn, academicTableName, roster);
+                        if (isBoardExam) {
+                            deleteRosterRows(conn, boardTableName, roster);
+                        }
+                    }
+                    rows += writeAcademicRoster(conn, academicTableName, roster,
+                        classNum, sessionYear, subjects, academicTerms, isBoardExam);
+                    if (isBoardExam) {
+                        rows += writeBoardExamRoster(conn, boardTableName, roster,
+                            classNum, sessionYear, subjects);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error generating academic data for " + schoolName + " Class " + classNum + ": " + e.getMessage());
+                    return -1;
+                }
+                return rows;
+            }
+            
+            boolean failed = false;
+            for (int year = Math.max(earliestYear, sessionYear - classNum + 1); year <= sessionYear; year++) {
+                java.util.List<String[]> students = toYearRoster(roster, classNum - (sessionYear - year));
+                String tableName = family == 1 ? identifiers.attendanceTable(schoolName, year)
+                        : family == 2 ? identifiers.homeworkTable(schoolName, year) : identifiers.projectTable(schoolName, year);
+                try {
+                    if (replay || (family == 1 && reloadedAttendanceTables.contains(tableName))) {
+                        try (Connection conn = getConnection()) {
+                            deleteRosterRows(conn, tableName, students);
+                        }
+                    }
+                    if (family == 1) {
+                        rows += writeAttendanceRoster(tableName, students, year, false);
+                    } else if (family == 2) {
+                        rows += writeHomeworkRoster(tableName, students, year);
+                    } else {
+                        rows += writeProjectRoster(tableName, students, year);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error generating " + FAMILIES[family] + " records for " + schoolName + " Class " + classNum +
+                        " Year " + year + ": " + e.getMessage());
+                    failed = true;
+                }
+            }
+            return failed ? -1 : rows;
+        }
         
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createTableSQL.toString());
-            System.out.println("Created Class 12 board exam table: " + tableName);
+        // Method to wait for every queued shard, build deferred attendance indexes and print the phase totals
+        void finish() {
+            System.out.println("\n=== WAITING FOR PIPELINED DERIVED PHASES ===");
+            derivedPool.shutdown();
+            try {
+                for (Future<?> task : tasks) {
+                    try {
+                        task.get();
+                    } catch (ExecutionException e) {
+                        System.err.println("A pipelined derived task failed: " + e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                derivedPool.shutdownNow();
+                Thread.currentThread().interrupt();
+                System.out.println("Pipelined derived phases interrupted");
+                return;
+            }
+            
+            // Shards load the same attendance tables concurrently, so COPY mode indexes each table once at the end
+            if (usesDatabase() && WRITER_MODE_COPY.equals(attendanceWriterMode) && !attendanceTables.isEmpty()) {
+                try (Connection conn = getConnection()) {
+                    for (String tableName : attendanceTables) {
+                        if (!hasIndexes(conn, tableName)) {
+                            addAttendanceIndexes(conn, tableName);
+                        }
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error building attendance indexes: " + e.getMessage());
+                }
+            }
+            
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            long totalRows = 0;
+            for (int family = 0; family < FAMILIES.length; family++) {
+                if (enabledFamilies[family]) {
+                    long rows = familyRows.get(family);
+                    totalRows += rows;
+                    System.out.printf("Pipelined %s: %,d rows%n", FAMILIES[family], rows);
+                }
+            }
+            System.out.printf("Pipelined derived phases: %,d rows in %.2f s since student generation started (%,.0f rows/sec)%n",
+                totalRows, seconds, seconds > 0 ? totalRows / seconds : 0.0);
         }
     }
     
-    // Method to generate board exam data
-    private static void generateBoardExamData(String schoolName, int classNum, int sessionYear, 
-                                            java.util.List<SubjectInfo> subjects, int numTerms) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
+    // Method to create attendance table for a specific year
+    private static void createAttendanceTable(String schoolName, int year) {
+        String tableName = identifiers.attendanceTable(schoolName, year);
         
-        String boardTableName = sanitizedSchoolName + "_class_" + classNum + "_" + sessionYear + "_board_exam_academic";
-        String studentTableName = getStudentTableName(schoolName);
+        // In COPY mode the primary key and unique index are built after the load (see addAttendanceIndexes), except
+        // on a partitioned parent, which is shared by every school and created with its keys
+        boolean deferIndexes = WRITER_MODE_COPY.equals(attendanceWriterMode) && !SCHEMA_PARTITIONED.equals(schemaMode);
         
         try (Connection conn = getConnection()) {
-            // Get students from the specific class
-            String selectStudentsSQL = "SELECT student_uuid, full_name, roll_no, section, stream FROM " + 
-                    studentTableName + " WHERE class_name = ?";
+            String createTableSQL = String.format("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    attendance_id SERIAL%s,
+                    student_uuid UUID NOT NULL,
+                    attendance_date DATE NOT NULL,
+                    status VARCHAR(20) NOT NULL CHECK (status IN ('Present', 'Absent', 'Late', 'Excused')),
+                    arrival_time TIME,
+                    departure_time TIME,
+                    remarks TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP%s
+                )
+                """, tableName, deferIndexes ? "" : " PRIMARY KEY",
+                deferIndexes ? "" : ",\n    UNIQUE(student_uuid, attendance_date)");
             
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectStudentsSQL)) {
-                selectStmt.setString(1, "Class " + classNum);
-                
-                try (ResultSet rs = selectStmt.executeQuery()) {
-                    while (rs.next()) {
-                        String studentUuid = rs.getString("student_uuid");
-                        String studentName = rs.getString("full_name");
-                        int rollNo = rs.getInt("roll_no");
-                        String section = rs.getString("section");
-                        String stream = rs.getString("stream");
-                        
-                        // Generate board exam marks
-                        if (classNum == 12) {
-                            insertClass12BoardExamRecord(conn, boardTableName, studentUuid, studentName, 
-                                                        rollNo, section, stream);
-                        } else if (classNum == 10) {
-                            insertClass10BoardExamRecord(conn, boardTableName, studentUuid, studentName, 
-                                                        rollNo, section, subjects);
-                        }
-                    }
-                }
+            try (Statement stmt = conn.createStatement()) {
+                executeCreateTable(stmt, createTableSQL);
+                System.out.println("    Attendance table created: " + tableName);
             }
             
         } catch (SQLException e) {
-            System.err.println("Error generating board exam data for " + boardTableName + ": " + e.getMessage());
+            System.err.println("Error creating attendance table " + tableName + ": " + e.getMessage());
         }
     }
     
-    // Method to insert Class 10 board exam record
-    private static void insertClass10BoardExamRecord(Connection conn, String tableName, String studentUuid, 
-                                                    String studentName, int rollNo, String section, 
-                                                    java.util.List<SubjectInfo> subjects) {
+    // Method to generate attendance records for students in a specific year
+    private static long generateAttendanceRecordsForYear(String schoolName, int year) {
+        String attendanceTableName = identifiers.attendanceTable(schoolName, year);
+        String studentTableName = getStudentTableName(schoolName);
+        
         try {
-            // Build INSERT statement for Class 10 board exam
-            StringBuilder insertSQL = new StringBuilder();
-            insertSQL.append("INSERT INTO ").append(tableName).append(" (");
-            insertSQL.append("student_uuid, student_name, roll_no, section, ");
-            
-            // Add column names for subjects (no term numbers)
-            for (SubjectInfo subject : subjects) {
-                String subjectNameSanitized = subject.name.toLowerCase()
-                        .replaceAll("[^a-zA-Z0-9]", "_")
-                        .replaceAll("_{2,}", "_")
-                        .replaceAll("^_|_$", "");
-                
-                insertSQL.append(subjectNameSanitized).append("_obtained_marks, ");
+            java.util.List<String[]> studentsToProcess = loadYearRoster(studentTableName, year);
+            
+            if (studentsToProcess.isEmpty()) {
+                System.out.println("    No students were in school during " + year + " for " + schoolName);
+                return 0;
             }
             
-            insertSQL.append("total_marks, percentage, grand_total, percentage_grand_total) VALUES (");
+            System.out.println("    Generating attendance records for " + studentsToProcess.size() + " students in year " + year);
+            System.out.println("      (Students who were in Classes 1-" + 
+                studentsToProcess.stream()
+                    .mapToInt(s -> Integer.parseInt(s[2]))
+                    .max().orElse(1) + " during " + year + ")");
             
-            // Add placeholders (4 basic + subjects + 4 totals)
-            int totalColumns = 4 + subjects.size() + 4;
-            for (int i = 0; i < totalColumns; i++) {
-                insertSQL.append("?");
-                if (i < totalColumns - 1) insertSQL.append(", ");
-            }
-            insertSQL.append(")");
+            long startNanos = System.nanoTime();
+            long rowsWritten = writeAttendanceRoster(attendanceTableName, studentsToProcess, year, true);
             
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL.toString())) {
-                int paramIndex = 1;
-                
-                // Set basic student info
-                pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
-                pstmt.setString(paramIndex++, studentName);
-                pstmt.setInt(paramIndex++, rollNo);
-                pstmt.setString(paramIndex++, section);
-                
-                // Generate and set marks for each subject
-                int totalMarks = 0;
-                int totalFullMarks = 0;
-                
-                for (SubjectInfo subject : subjects) {
-                    // Generate random marks (40-100% of full marks for board exam)
-                    int minMarks = (int) (subject.fullMarks * 0.4); // 40% minimum
-                    int maxMarks = subject.fullMarks;
-                    int obtainedMarks = minMarks + (int) (Math.random() * (maxMarks - minMarks + 1));
-                    
-                    pstmt.setInt(paramIndex++, obtainedMarks);
-                    totalMarks += obtainedMarks;
-                    totalFullMarks += subject.fullMarks;
-                }
-                
-                // Set totals and percentages
-                double percentage = (totalMarks * 100.0) / totalFullMarks;
-                pstmt.setInt(paramIndex++, totalMarks); // total_marks
-                pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage
-                pstmt.setInt(paramIndex++, totalMarks); // grand_total (same as total for board exam)
-                pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage_grand_total
-                
-                pstmt.executeUpdate();
-            }
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            System.out.println("    Completed attendance generation for " + studentsToProcess.size() + " students in year " + year);
+            System.out.printf("    Wrote %,d attendance rows to %s in %.2f s (%,.0f rows/sec, %s writer)%n",
+                rowsWritten, attendanceTableName, seconds, seconds > 0 ? rowsWritten / seconds : 0.0, attendanceWriterMode);
+            return rowsWritten;
             
         } catch (SQLException e) {
-            System.err.println("Error inserting Class 10 board exam record for student " + studentName + ": " + e.getMessage());
+            System.err.println("Error generating attendance records for " + schoolName + " Year " + year + ": " + e.getMessage());
+            return -1;
         }
     }
     
-    // Method to insert Class 12 board exam record
-    private static void insertClass12BoardExamRecord(Connection conn, String tableName, String studentUuid, 
-                                                    String studentName, int rollNo, String section, String stream) {
-        try {
-            // Get stream-based subjects
-            String[] subjectNames = getStreamSubjects(stream);
-            
-            // Build INSERT statement for Class 12 board exam
-            StringBuilder insertSQL = new StringBuilder();
-            insertSQL.append("INSERT INTO ").append(tableName).append(" (");
-            insertSQL.append("student_uuid, student_name, roll_no, section, ");
-            insertSQL.append("first_language_obtained_marks, ");
-            insertSQL.append("second_language_english_obtained_marks, ");
-            insertSQL.append("major_1_subject_name, major_2_subject_name, major_3_subject_name, major_4_subject_name, ");
-            insertSQL.append("major_1_obtained_marks, major_2_obtained_marks, major_3_obtained_marks, major_4_obtained_marks, ");
-            insertSQL.append("total_marks, percentage, grand_total, percentage_grand_total) VALUES (");
-            
-            // Add placeholders (4 basic + 2 languages + 4 names + 4 majors + 4 totals = 18)
-            for (int i = 0; i < 18; i++) {
-                insertSQL.append("?");
-                if (i < 17) insertSQL.append(", ");
-            }
-            insertSQL.append(")");
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL.toString())) {
-                int paramIndex = 1;
-                
-                // Set basic student info
-                pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
-                pstmt.setString(paramIndex++, studentName);
-                pstmt.setInt(paramIndex++, rollNo);
-                pstmt.setString(paramIndex++, section);
-                
-                // Generate language marks
-                int firstLangMarks = 40 + (int) (Math.random() * 61); // 40-100
-                int englishMarks = 40 + (int) (Math.random() * 61); // 40-100
-                pstmt.setInt(paramIndex++, firstLangMarks);
-                pstmt.setInt(paramIndex++, englishMarks);
-                
-                // Set subject names
-                for (int i = 0; i < 4; i++) {
-                    pstmt.setString(paramIndex++, subjectNames[i]);
-                }
-                
-                // Generate major subjects marks
-                int totalMarks = firstLangMarks + englishMarks;
-                for (int majorNum = 1; majorNum <= 4; majorNum++) {
-                    int majorMarks = 40 + (int) (Math.random() * 61); // 40-100
-                    pstmt.setInt(paramIndex++, majorMarks);
-                    totalMarks += majorMarks;
+    // Method to generate and write the attendance of a year roster {student_uuid, full_name, class during year};
+    // ownsTable means the roster is the table's only writer, so COPY mode can clear what an earlier run left for
+    // these students and build the table's deferred indexes once the rows are in
+    private static long writeAttendanceRoster(String attendanceTableName, java.util.List<String[]> studentsToProcess, int year,
+                                              boolean ownsTable) throws SQLException {
+        if (!usesDatabase()) {
+            // The sink counts rows as it flushes them, so the total is read once try-with-resources has closed it
+            OfflineRowSink offlineSink = new OfflineRowSink(attendanceTableName, ATTENDANCE_COLUMNS);
+            try (OfflineRowSink sink = offlineSink) {
+                for (String[] studentData : studentsToProcess) {
+                    generateStudentAttendanceForYear(newStudentRandomGenerator(STREAM_ATTENDANCE, year, studentData[0]),
+                        sink, studentData[0], studentData[1], year);
                 }
-                
-                // Set totals and percentages (600 total marks for 6 subjects)
-                double percentage = (totalMarks * 100.0) / 600;
-                pstmt.setInt(paramIndex++, totalMarks); // total_marks
-                pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage
-                pstmt.setInt(paramIndex++, totalMarks); // grand_total (same as total for board exam)
-                pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0); // percentage_grand_total
-                
-                pstmt.executeUpdate();
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error inserting Class 12 board exam record for student " + studentName + ": " + e.getMessage());
+            return offlineSink.rowsWritten();
         }
-    }
-    
-    // Method to insert academic record for a student
-    private static void insertAcademicRecord(Connection conn, String tableName, String studentUuid, 
-                                           String studentName, int rollNo, String section, 
-                                           java.util.List<SubjectInfo> subjects, int numTerms, boolean isBoardExam) {
+        if (WRITER_MODE_COPY.equals(attendanceWriterMode)) {
+            return copyAttendanceRecordsForYear(attendanceTableName, studentsToProcess, year, ownsTable);
+        }
+        long rowsWritten = 0;
+        TableTarget spoolTarget = tableTarget(attendanceTableName);
+        SpooledRows failedRows = new SpooledRows(spoolTarget);
+        
+        // Process students in batches to avoid connection leaks
+        int batchSize = 25; // Process 25 students per connection (attendance has more records per student)
         try {
-            // Build INSERT statement dynamically
-            StringBuilder insertSQL = new StringBuilder();
-            insertSQL.append("INSERT INTO ").append(tableName).append(" (");
-            insertSQL.append("student_uuid, student_name, roll_no, section, ");
-            
-            // Add column names for subjects and terms
-            for (SubjectInfo subject : subjects) {
-                String subjectNameSanitized = subject.name.toLowerCase()
-                        .replaceAll("[^a-zA-Z0-9]", "_")
-                        .replaceAll("_{2,}", "_")
-                        .replaceAll("^_|_$", "");
-                
-                for (int term = 1; term <= numTerms; term++) {
-                    insertSQL.append(subjectNameSanitized).append("_obtained_marks_term_").append(term).append(", ");
-                }
-            }
-            
-            // Add total marks and percentage columns
-            for (int term = 1; term <= numTerms; term++) {
-                insertSQL.append("total_marks_term_").append(term).append(", ");
-                insertSQL.append("percentage_term_").append(term).append(", ");
-            }
-            
-            insertSQL.append("grand_total, percentage_grand_total) VALUES (");
-            
-            // Add placeholders
-            int totalColumns = 4 + (subjects.size() * numTerms) + (2 * numTerms) + 2;
-            for (int i = 0; i < totalColumns; i++) {
-                insertSQL.append("?");
-                if (i < totalColumns - 1) insertSQL.append(", ");
-            }
-            insertSQL.append(")");
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL.toString())) {
-                int paramIndex = 1;
-                
-                // Set basic student info
-                pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
-                pstmt.setString(paramIndex++, studentName);
-                pstmt.setInt(paramIndex++, rollNo);
-                pstmt.setString(paramIndex++, section);
-                
-                // Generate and set marks for each subject and term
-                int[] termTotals = new int[numTerms];
-                int[] termFullMarks = new int[numTerms];
+            for (int i = 0; i < studentsToProcess.size(); i += batchSize) {
+                int endIndex = Math.min(i + batchSize, studentsToProcess.size());
+                java.util.List<String[]> batch = studentsToProcess.subList(i, endIndex);
                 
-                for (SubjectInfo subject : subjects) {
-                    for (int term = 1; term <= numTerms; term++) {
-                        // Generate random marks (40-100% of full marks for realistic distribution)
-                        int minMarks = (int) (subject.fullMarks * 0.4); // 40% minimum
-                        int maxMarks = subject.fullMarks;
-                        int obtainedMarks = minMarks + (int) (Math.random() * (maxMarks - minMarks + 1));
+                // Use a new connection for each batch
+                try (Connection conn = getConnection();
+                     BatchAttendanceWriter writer = new BatchAttendanceWriter(conn, attendanceTableName)) {
+                    for (String[] studentData : batch) {
+                        String studentUuid = studentData[0];
+                        String studentName = studentData[1];
+                        // studentData[2] contains classDuringYear info (for reference only)
                         
-                        pstmt.setInt(paramIndex++, obtainedMarks);
-                        termTotals[term - 1] += obtainedMarks;
-                        termFullMarks[term - 1] += subject.fullMarks;
-                    }
-                }
-                
-                // Set term totals and percentages
-                int grandTotal = 0;
-                int grandFullMarks = 0;
-                
-                for (int term = 0; term < numTerms; term++) {
-                    pstmt.setInt(paramIndex++, termTotals[term]);
-                    double percentage = (termTotals[term] * 100.0) / termFullMarks[term];
-                    pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0);
-                    
-                    // For board exams, only the last term counts for grand total
-                    if (isBoardExam) {
-                        if (term == numTerms - 1) { // Last term only
-                            grandTotal = termTotals[term];
-                            grandFullMarks = termFullMarks[term];
+                        java.util.random.RandomGenerator rng = newStudentRandomGenerator(STREAM_ATTENDANCE, year, studentUuid);
+                        try {
+                            generateStudentAttendanceForYear(rng, writer, studentUuid, studentName, year);
+                        } catch (SQLException e) {
+                            System.err.println("Error generating attendance for student " + studentName + ": " + e.getMessage());
+                            // A student's rows go out in one batch, so none of them landed: spool them all
+                            generateStudentAttendanceForYear(newStudentRandomGenerator(STREAM_ATTENDANCE, year, studentUuid),
+                                failedRows.skip(0), studentUuid, studentName, year);
+                            if (failedRows.isFull()) {
+                                deadLetters.spool(spoolTarget, ATTENDANCE_COLUMNS, failedRows);
+                            }
                         }
-                    } else {
-                        // For regular classes, all terms count
-                        grandTotal += termTotals[term];
-                        grandFullMarks += termFullMarks[term];
                     }
+                    rowsWritten += writer.rowsWritten();
+                    
+                    // Report progress
+                    System.out.println("      " + attendanceTableName + ": processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students");
                 }
-                
-                // Set grand total and grand percentage
-                pstmt.setInt(paramIndex++, grandTotal);
-                double grandPercentage = (grandTotal * 100.0) / grandFullMarks;
-                pstmt.setDouble(paramIndex++, Math.round(grandPercentage * 100.0) / 100.0);
-                
-                pstmt.executeUpdate();
-                
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error inserting academic record for student " + studentName + ": " + e.getMessage());
+        } finally {
+            deadLetters.spool(spoolTarget, ATTENDANCE_COLUMNS, failedRows);
         }
+        return rowsWritten;
     }
     
-    // Method to insert higher secondary record for classes 11 and 12
-    private static void insertHigherSecondaryRecord(Connection conn, String tableName, String studentUuid, 
-                                                  String studentName, int rollNo, String section, 
-                                                  String stream, int numTerms, boolean isBoardExam) {
-        try {
-            // Get stream-based subjects
-            String[] subjectNames = getStreamSubjects(stream);
-            
-            // Build INSERT statement for higher secondary structure
-            StringBuilder insertSQL = new StringBuilder();
-            insertSQL.append("INSERT INTO ").append(tableName).append(" (");
-            insertSQL.append("student_uuid, student_name, roll_no, section, ");
-            
-            // Add first language columns
-            for (int term = 1; term <= numTerms; term++) {
-                insertSQL.append("first_language_obtained_marks_term_").append(term).append(", ");
-            }
-            
-            // Add second language columns
-            for (int term = 1; term <= numTerms; term++) {
-                insertSQL.append("second_language_english_obtained_marks_term_").append(term).append(", ");
-            }
-            
-            // Add subject names
-            insertSQL.append("major_1_subject_name, major_2_subject_name, major_3_subject_name, major_4_subject_name, ");
-            
-            // Add major subjects columns
-            for (int majorNum = 1; majorNum <= 4; majorNum++) {
-                for (int term = 1; term <= numTerms; term++) {
-                    insertSQL.append("major_").append(majorNum).append("_obtained_marks_term_").append(term).append(", ");
-                }
-            }
-            
-            // Add total marks and percentage columns
-            for (int term = 1; term <= numTerms; term++) {
-                insertSQL.append("total_marks_term_").append(term).append(", ");
-                insertSQL.append("percentage_term_").append(term).append(", ");
-            }
-            
-            insertSQL.append("grand_total, percentage_grand_total) VALUES (");
-            
-            // Add placeholders (4 basic + 2*numTerms lang + 4 names + 4*numTerms majors + 2*numTerms totals + 2 grand)
-            int totalColumns = 4 + (2 * numTerms) + 4 + (4 * numTerms) + (2 * numTerms) + 2;
-            for (int i = 0; i < totalColumns; i++) {
-                insertSQL.append("?");
-                if (i < totalColumns - 1) insertSQL.append(", ");
-            }
-            insertSQL.append(")");
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL.toString())) {
-                int paramIndex = 1;
-                
-                // Set basic student info
-                pstmt.setObject(paramIndex++, java.util.UUID.fromString(studentUuid));
-                pstmt.setString(paramIndex++, studentName);
-                pstmt.setInt(paramIndex++, rollNo);
-                pstmt.setString(paramIndex++, section);
-                
-                // Initialize arrays for calculations
-                int[] termTotals = new int[numTerms];
-                int totalFullMarks = 600; // 6 subjects × 100 marks each
-                
-                // Generate first language marks
-                for (int term = 1; term <= numTerms; term++) {
-                    int firstLangMarks = 40 + (int) (Math.random() * 61); // 40-100
-                    pstmt.setInt(paramIndex++, firstLangMarks);
-                    termTotals[term - 1] += firstLangMarks;
-                }
-                
-                // Generate second language (English) marks
-                for (int term = 1; term <= numTerms; term++) {
-                    int englishMarks = 40 + (int) (Math.random() * 61); // 40-100
-                    pstmt.setInt(paramIndex++, englishMarks);
-                    termTotals[term - 1] += englishMarks;
-                }
-                
-                // Set subject names
-                for (int i = 0; i < 4; i++) {
-                    pstmt.setString(paramIndex++, subjectNames[i]);
-                }
-                
-                // Generate major subjects marks
-                for (int majorNum = 1; majorNum <= 4; majorNum++) {
-                    for (int term = 1; term <= numTerms; term++) {
-                        int majorMarks = 40 + (int) (Math.random() * 61); // 40-100
-                        pstmt.setInt(paramIndex++, majorMarks);
-                        termTotals[term - 1] += majorMarks;
-                    }
+    // Method to stream one (school, year) attendance roster through COPY on a single connection, then index the table.
+    // COPY has no ON CONFLICT, so when the table already holds rows (a rerun) the roster's old rows are deleted in the
+    // same transaction; the generator is deterministic, so the reloaded rows are the same ones.
+    private static long copyAttendanceRecordsForYear(String tableName, java.util.List<String[]> students, int year,
+                                                     boolean ownsTable) throws SQLException {
+        try (Connection conn = getConnection()) {
+            boolean buildIndexes = ownsTable && !hasIndexes(conn, tableName);
+            long rowsWritten;
+            
+            conn.setAutoCommit(false);
+            try (CopyAttendanceWriter writer = new CopyAttendanceWriter(conn, tableName)) {
+                if (ownsTable && tableHasRows(conn, tableName)) {
+                    System.out.println("      " + tableName + " already holds rows; replacing this roster's rows");
+                    deleteRosterRows(conn, tableName, students);
                 }
-                
-                // Set term totals and percentages
-                int grandTotal = 0;
-                for (int term = 0; term < numTerms; term++) {
-                    pstmt.setInt(paramIndex++, termTotals[term]);
-                    double percentage = (termTotals[term] * 100.0) / totalFullMarks;
-                    pstmt.setDouble(paramIndex++, Math.round(percentage * 100.0) / 100.0);
+                int processed = 0;
+                for (String[] studentData : students) {
+                    String studentUuid = studentData[0];
+                    java.util.random.RandomGenerator rng = newStudentRandomGenerator(STREAM_ATTENDANCE, year, studentUuid);
+                    generateStudentAttendanceForYear(rng, writer, studentUuid, studentData[1], year);
                     
-                    // For board exams, only the last term counts for grand total
-                    if (isBoardExam) {
-                        if (term == numTerms - 1) { // Last term only
-                            grandTotal = termTotals[term];
-                        }
-                    } else {
-                        // For regular classes, all terms count
-                        grandTotal += termTotals[term];
+                    if (++processed % 1000 == 0) {
+                        System.out.println("      " + tableName + ": processed " + processed + "/" + students.size() + " students");
                     }
                 }
-                
-                // Set grand total and grand percentage
-                pstmt.setInt(paramIndex++, grandTotal);
-                int grandFullMarks = isBoardExam ? totalFullMarks : (totalFullMarks * numTerms);
-                double grandPercentage = (grandTotal * 100.0) / grandFullMarks;
-                pstmt.setDouble(paramIndex++, Math.round(grandPercentage * 100.0) / 100.0);
-                
-                pstmt.executeUpdate();
-                
+                writer.flush();
+                conn.commit();
+                rowsWritten = writer.rowsWritten();
+                recordCommittedRows(tableName, rowsWritten);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
             
-        } catch (SQLException e) {
-            System.err.println("Error inserting higher secondary record for student " + studentName + ": " + e.getMessage());
+            if (buildIndexes) {
+                addAttendanceIndexes(conn, tableName);
+            }
+            return rowsWritten;
         }
     }
     
-    // Method to get subjects based on stream
-    private static String[] getStreamSubjects(String stream) {
-        if (stream == null) stream = "Science"; // Default fallback
-        
-        switch (stream) {
-            case "Science":
-                return new String[]{"Mathematics", "Physics", "Chemistry", "Biology"};
-            case "Commerce":
-                return new String[]{"Economics", "Business_Studies", "Accountancy", "Mathematics"};
-            case "Arts":
-                return new String[]{"History", "Geography", "Political_Science", "Philosophy"};
-            default:
-                return new String[]{"Mathematics", "Physics", "Chemistry", "Biology"}; // Default to Science
+    // Helper method to check whether a table already has any index (i.e. was created or indexed by an earlier run);
+    // with --schema=partitioned the keys are on the family parent, which is created with them
+    private static boolean hasIndexes(Connection conn, String tableName) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ? LIMIT 1")) {
+            pstmt.setString(1, tableTarget(tableName).table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
         }
     }
     
-    // Method to generate attendance records for students (interactive)
-    private static void generateAttendanceRecords(java.util.Scanner scanner, java.util.List<String> schoolNames, int numClasses) {
-        System.out.println("Now generating attendance records for all students...\n");
-        
-        try {
-            System.out.print("Enter the classes for which you want to generate attendance (e.g., '1-12' or '6-8'): ");
-            String classRange = scanner.next();
-            
-            // Parse class range
-            java.util.List<Integer> classes = parseClassRange(classRange);
-            System.out.println("Selected classes: " + classes);
-            
-            generateAttendanceData(classes, schoolNames);
-            
-        } catch (java.util.NoSuchElementException e) {
-            System.out.println("\n=== INPUT ERROR ===");
-            System.out.println("No more input available for attendance generation.");
-            System.out.println("Attendance generation skipped.");
-        } catch (Exception e) {
-            System.out.println("\n=== ERROR IN ATTENDANCE GENERATION ===");
-            System.out.println("Error: " + e.getMessage());
-            System.out.println("Attendance generation skipped.");
+    // Helper method to check whether a table holds any row
+    private static boolean tableHasRows(Connection conn, String tableName) throws SQLException {
+        TableTarget target = tableTarget(tableName);
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM " + target.table + target.where(null) + " LIMIT 1")) {
+            return rs.next();
         }
     }
     
-    // Method to generate attendance records automatically
-    private static void generateAutomaticAttendanceRecords(int numClasses, java.util.List<String> schoolNames) {
-        System.out.println("Automatically generating attendance records for all " + numClasses + " classes...");
-        
-        try {
-            // Generate for all classes from 1 to numClasses
-            java.util.List<Integer> classes = new java.util.ArrayList<>();
-            for (int i = 1; i <= numClasses; i++) {
-                classes.add(i);
+    // Method to build the attendance primary key and (student, date) unique index once the table is loaded
+    private static void addAttendanceIndexes(Connection conn, String tableName) throws SQLException {
+        long startNanos = System.nanoTime();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + tableName + " ADD PRIMARY KEY (attendance_id)");
+            stmt.execute("ALTER TABLE " + tableName + " ADD UNIQUE (student_uuid, attendance_date)");
+        }
+        System.out.printf("    Built indexes on %s in %.2f s%n", tableName, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+    
+    // Method to give an attendance table its keys when a COPY-mode run stopped before building them, since batch
+    // inserts and spool replays rely on them for ON CONFLICT; each table is checked once per run
+    private static void ensureAttendanceIndexes(Connection conn, String tableName) throws SQLException {
+        if (keyedAttendanceTables.contains(tableName)) {
+            return;
+        }
+        synchronized (keyedAttendanceTables) {
+            if (!keyedAttendanceTables.contains(tableName)) {
+                if (!hasIndexes(conn, tableName)) {
+                    System.out.println("    " + tableName + " has no keys (an interrupted COPY load); adding them");
+                    addAttendanceIndexes(conn, tableName);
+                }
+                keyedAttendanceTables.add(tableName);
             }
-            
-            generateAttendanceData(classes, schoolNames);
-            
-        } catch (Exception e) {
-            System.out.println("\n=== ERROR IN AUTOMATIC ATTENDANCE GENERATION ===");
-            System.out.println("Error: " + e.getMessage());
-            System.out.println("Attendance generation skipped.");
         }
     }
     
-    // Method to generate attendance data for selected classes and schools
-    private static void generateAttendanceData(java.util.List<Integer> classes, java.util.List<String> schoolNames) {
-        int currentYear = 2025;
+    // Destination for generated attendance rows; the generator does not know whether rows are batched or copied.
+    // Dates are epoch days and times are minutes past midnight (NO_TIME for none), so rows need no date objects.
+    interface AttendanceRowConsumer extends AutoCloseable {
+        int NO_TIME = -1;
         
-        System.out.println("=== ATTENDANCE GENERATION CONFIGURATION ===");
-        System.out.println("Logic: ALL students will have attendance records for years they were in school");
-        System.out.println("       For example, students currently in Class 5 will have attendance for:");
-        System.out.println("       2021 (when in Class 1), 2022 (Class 2), 2023 (Class 3),");
-        System.out.println("       2024 (Class 4), 2025 (Class 5)");
-        System.out.println("Attendance percentage: 20% to 100% per student");
-        System.out.println("Working days: Excludes weekends, national holidays, school breaks");
-        System.out.println("===============================================\n");
+        void accept(String studentUuid, long epochDay, String status, int arrivalMinute,
+                    int departureMinute, String remarks) throws SQLException;
         
-        // Process each school
-        for (String schoolName : schoolNames) {
-            System.out.println("Processing attendance records for: " + schoolName);
-            
-            // Determine all years that need attendance tables
-            // We need to generate attendance for all years from when the oldest current student was in Class 1
-            // up to the current year
-            int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
-            int earliestYear = currentYear - maxClass + 1;
-            
-            System.out.println("  Years to generate: " + earliestYear + " to " + currentYear);
-            
-            // Create attendance tables for all needed years
-            for (int year = earliestYear; year <= currentYear; year++) {
-                createAttendanceTable(schoolName, year);
-            }
-            
-            // Generate attendance data for each year (this will process ALL students for each year)
-            for (int year = earliestYear; year <= currentYear; year++) {
-                System.out.println("  Generating attendance for year " + year + "...");
-                generateAttendanceRecordsForYear(schoolName, year);
+        // Called after each student's rows have been produced
+        void endStudent() throws SQLException;
+        
+        long rowsWritten();
+        
+        @Override
+        void close() throws SQLException;
+    }
+    
+    // Writes attendance rows as one JDBC batch per student (ON CONFLICT keeps reruns idempotent)
+    static class BatchAttendanceWriter implements AttendanceRowConsumer {
+        private final PreparedStatement pstmt;
+        private final String tableName;
+        private final TableTarget target;
+        private long rowsWritten;
+        private int pendingRows;
+        private String currentStudentUuid;
+        private java.util.UUID currentStudentUUID; // Parsed once per student rather than once per row
+        
+        BatchAttendanceWriter(Connection conn, String tableName) throws SQLException {
+            ensureAttendanceIndexes(conn, tableName);
+            this.target = tableTarget(tableName);
+            String insertSQL = String.format("""
+                INSERT INTO %s (%s)
+                VALUES (?, ?, ?, ?, ?, ?%s)
+                ON CONFLICT (%s) DO NOTHING
+                """, target.table, target.columns(ATTENDANCE_COLUMNS), target.keyPlaceholders(),
+                target.columns("student_uuid, attendance_date"));
+            this.pstmt = conn.prepareStatement(insertSQL);
+            this.tableName = tableName;
+        }
+        
+        @Override
+        public void accept(String studentUuid, long epochDay, String status, int arrivalMinute,
+                           int departureMinute, String remarks) throws SQLException {
+            if (!studentUuid.equals(currentStudentUuid)) {
+                currentStudentUuid = studentUuid;
+                currentStudentUUID = java.util.UUID.fromString(studentUuid);
             }
+            pstmt.setObject(1, currentStudentUUID);
+            pstmt.setObject(2, java.time.LocalDate.ofEpochDay(epochDay));
+            pstmt.setString(3, status);
+            pstmt.setObject(4, arrivalMinute != NO_TIME ? java.time.LocalTime.of(arrivalMinute / 60, arrivalMinute % 60) : null, Types.TIME);
+            pstmt.setObject(5, departureMinute != NO_TIME ? java.time.LocalTime.of(departureMinute / 60, departureMinute % 60) : null, Types.TIME);
+            pstmt.setString(6, remarks);
+            target.bindKeys(pstmt, 7);
+            pstmt.addBatch();
+            pendingRows++;
         }
         
-        System.out.println("\n=== ATTENDANCE RECORDS GENERATION COMPLETE ===");
-        System.out.println("Attendance tables created with format: {sanitized_school_name}_attendance_{year}");
-        System.out.println("Columns: attendance_id, student_uuid, attendance_date, status, arrival_time, departure_time, remarks, created_at");
-        System.out.println("Logic implemented: ALL students have attendance records for years they would have been in school");
-        System.out.println("Attendance rates: Randomly distributed between 20% and 100% per student");
-        System.out.println("Data volume: Each student will have ~200-250 attendance records per school year");
+        @Override
+        public void endStudent() throws SQLException {
+            runMetrics.recordGenerated(tableName, pendingRows);
+            pendingRows = 0;
+            long startNanos = System.nanoTime();
+            long rows = countBatchRows(pstmt.executeBatch());
+            runMetrics.recordBatch(tableName, startNanos);
+            rowsWritten += rows;
+            recordCommittedRows(tableName, rows); // Auto-commit: each executed batch is its own transaction
+        }
+        
+        @Override
+        public long rowsWritten() {
+            return rowsWritten;
+        }
+        
+        @Override
+        public void close() throws SQLException {
+            pstmt.close();
+        }
     }
     
-    // Method to create attendance table for a specific year
-    private static void createAttendanceTable(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String tableName = sanitizedSchoolName + "_attendance_" + year;
+    // Streams attendance rows through COPY FROM STDIN in large chunks; relies on the generator producing each
+    // (student, date) once, so no ON CONFLICT handling is needed
+    static class CopyAttendanceWriter implements AttendanceRowConsumer {
+        private final org.postgresql.copy.CopyManager copyManager;
+        private final String tableName;
+        private final TableTarget target;
+        private final String copySQL;
+        private final StringBuilder buffer = new StringBuilder(ATTENDANCE_COPY_FLUSH_BYTES + 4096);
+        private int bufferedRows;
+        private long rowsWritten;
+        
+        CopyAttendanceWriter(Connection conn, String tableName) throws SQLException {
+            this.copyManager = conn.unwrap(org.postgresql.PGConnection.class).getCopyAPI();
+            this.tableName = tableName;
+            this.target = tableTarget(tableName);
+            this.copySQL = "COPY " + target.table + " (" + target.columns(ATTENDANCE_COLUMNS) + ") FROM STDIN";
+        }
         
-        try (Connection conn = getConnection()) {
-            String createTableSQL = String.format("""
-                CREATE TABLE IF NOT EXISTS %s (
-                    attendance_id SERIAL PRIMARY KEY,
-                    student_uuid UUID NOT NULL,
-                    attendance_date DATE NOT NULL,
-                    status VARCHAR(20) NOT NULL CHECK (status IN ('Present', 'Absent', 'Late', 'Excused')),
-                    arrival_time TIME,
-                    departure_time TIME,
-                    remarks TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    UNIQUE(student_uuid, attendance_date)
-                )
-                """, tableName);
-            
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createTableSQL);
-                System.out.println("    Attendance table created: " + tableName);
+        @Override
+        public void accept(String studentUuid, long epochDay, String status, int arrivalMinute,
+                           int departureMinute, String remarks) {
+            target.endCopyRow(appendRow(buffer, studentUuid, epochDay, status, arrivalMinute, departureMinute, remarks));
+            bufferedRows++;
+        }
+        
+        // Method to encode the fields of one attendance row as COPY text; the caller ends the row
+        static StringBuilder appendRow(StringBuilder out, String studentUuid, long epochDay, String status, int arrivalMinute,
+                                       int departureMinute, String remarks) {
+            out.append(studentUuid).append('\t');
+            appendIsoDate(out, epochDay).append('\t').append(status).append('\t');
+            appendCopyTime(out, arrivalMinute).append('\t');
+            appendCopyTime(out, departureMinute).append('\t');
+            return appendCopyField(out, remarks);
+        }
+        
+        private static StringBuilder appendCopyTime(StringBuilder out, int minuteOfDay) {
+            if (minuteOfDay == NO_TIME) {
+                return out.append("\\N");
+            }
+            appendTwoDigits(out, minuteOfDay / 60).append(':');
+            return appendTwoDigits(out, minuteOfDay % 60).append(":00");
+        }
+        
+        @Override
+        public void endStudent() throws SQLException {
+            if (buffer.length() >= ATTENDANCE_COPY_FLUSH_BYTES) {
+                flush();
+            }
+        }
+        
+        void flush() throws SQLException {
+            if (buffer.length() == 0) {
+                return;
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error creating attendance table " + tableName + ": " + e.getMessage());
+            runMetrics.recordGenerated(tableName, bufferedRows);
+            try {
+                byte[] rows = buffer.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                long startNanos = System.nanoTime();
+                rowsWritten += copyManager.copyIn(copySQL, new java.io.ByteArrayInputStream(rows));
+                runMetrics.recordBatch(tableName, startNanos); // Committed later, with the whole table
+            } catch (java.io.IOException e) {
+                throw new SQLException("COPY into attendance table failed", e);
+            }
+            buffer.setLength(0);
+            bufferedRows = 0;
+        }
+        
+        @Override
+        public long rowsWritten() {
+            return rowsWritten;
+        }
+        
+        @Override
+        public void close() {
+            buffer.setLength(0); // Anything not flushed belongs to a failed load
+            bufferedRows = 0;
         }
     }
     
-    // Method to generate attendance records for students in a specific year
-    private static void generateAttendanceRecordsForYear(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String attendanceTableName = sanitizedSchoolName + "_attendance_" + year;
-        String studentTableName = getStudentTableName(schoolName);
+    // Destination of one student's academic, homework or project rows, given in table column order (null = SQL
+    // NULL): a JDBC batch against the live table, COPY text for the dead-letter spool when that batch fails, or
+    // the file or null sink
+    interface StudentRowSink extends AutoCloseable {
+        void accept(Object... values) throws SQLException;
         
-        try {
-            int currentYear = 2025;
-            java.util.List<String[]> studentsToProcess = new java.util.ArrayList<>();
-            
-            // First, get the list of students to process
-            try (Connection conn = getConnection();
-                 PreparedStatement selectStmt = conn.prepareStatement("SELECT student_uuid, full_name, class_name FROM " + studentTableName);
-                 ResultSet rs = selectStmt.executeQuery()) {
-                
-                while (rs.next()) {
-                    String studentUuid = rs.getString("student_uuid");
-                    String studentName = rs.getString("full_name");
-                    String className = rs.getString("class_name");
-                    
-                    // Extract class number from "Class X" format
-                    int currentClass = Integer.parseInt(className.replace("Class ", ""));
-                    
-                    // Calculate what class this student was in during the attendance year
-                    int studentClassDuringYear = currentClass - (currentYear - year);
-                    
-                    // Only include students who would have been in school (Class 1 or higher) during that year
-                    if (studentClassDuringYear >= 1) {
-                        studentsToProcess.add(new String[]{studentUuid, studentName, String.valueOf(studentClassDuringYear)});
-                    }
+        // Called after each student's rows have been produced
+        void endStudent() throws SQLException;
+        
+        @Override
+        default void close() throws SQLException {
+        }
+    }
+    
+    // Binds rows on one prepared statement per connection and sends them every flushRows rows and at the end of
+    // each student; the connection is in auto-commit mode, so every executed batch commits on its own
+    static class BatchRowSink implements StudentRowSink, AutoCloseable {
+        private final PreparedStatement pstmt;
+        private final String tableName;
+        private final TableTarget target;
+        private final int flushRows;
+        private int pendingRows;
+        private int studentRowsWritten; // Rows of the current student already committed
+        
+        BatchRowSink(Connection conn, String tableName, String columns, int columnCount, int flushRows) throws SQLException {
+            String placeholders = String.join(", ", java.util.Collections.nCopies(columnCount, "?"));
+            this.target = tableTarget(tableName);
+            this.pstmt = conn.prepareStatement("INSERT INTO " + target.table + " (" + target.columns(columns) + ") VALUES (" +
+                placeholders + target.keyPlaceholders() + ")");
+            this.tableName = tableName;
+            this.flushRows = flushRows;
+        }
+        
+        @Override
+        public void accept(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof java.time.LocalDate date) {
+                    pstmt.setDate(i + 1, java.sql.Date.valueOf(date));
+                } else {
+                    pstmt.setObject(i + 1, values[i]);
                 }
             }
-            
-            if (studentsToProcess.isEmpty()) {
-                System.out.println("    No students were in school during " + year + " for " + schoolName);
+            target.bindKeys(pstmt, values.length + 1);
+            pstmt.addBatch();
+            if (++pendingRows == flushRows) {
+                flush();
+            }
+        }
+        
+        @Override
+        public void endStudent() throws SQLException {
+            flush();
+            studentRowsWritten = 0;
+        }
+        
+        // Method to give up on the current student after a failed batch; returns how many of its rows were committed
+        int abandonStudent() {
+            int written = studentRowsWritten;
+            pendingRows = 0;
+            studentRowsWritten = 0;
+            return written;
+        }
+        
+        private void flush() throws SQLException {
+            if (pendingRows == 0) {
                 return;
             }
-            
-            System.out.println("    Generating attendance records for " + studentsToProcess.size() + " students in year " + year);
-            System.out.println("      (Students who were in Classes 1-" + 
-                studentsToProcess.stream()
-                    .mapToInt(s -> Integer.parseInt(s[2]))
-                    .max().orElse(1) + " during " + year + ")");
-            
-            // Process students in batches to avoid connection leaks
-            int batchSize = 25; // Process 25 students per connection (attendance has more records per student)
-            for (int i = 0; i < studentsToProcess.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, studentsToProcess.size());
-                java.util.List<String[]> batch = studentsToProcess.subList(i, endIndex);
-                
-                // Use a new connection for each batch
-                try (Connection conn = getConnection()) {
-                    for (String[] studentData : batch) {
-                        String studentUuid = studentData[0];
-                        String studentName = studentData[1];
-                        // studentData[2] contains classDuringYear info (for reference only)
-                        
-                        generateStudentAttendanceForYear(conn, attendanceTableName, studentUuid, studentName, year);
-                    }
-                    
-                    // Report progress
-                    System.out.println("      Processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students for year " + year);
-                }
+            int rows = pendingRows;
+            runMetrics.recordGenerated(tableName, rows);
+            long startNanos = System.nanoTime();
+            pstmt.executeBatch();
+            runMetrics.recordBatch(tableName, startNanos);
+            pendingRows = 0;
+            studentRowsWritten += rows;
+            recordCommittedRows(tableName, rows);
+        }
+        
+        @Override
+        public void close() throws SQLException {
+            pstmt.close();
+        }
+    }
+    
+    // Method to generate attendance records for a specific student for the entire year
+    private static void generateStudentAttendanceForYear(java.util.random.RandomGenerator rng, AttendanceRowConsumer writer, String studentUuid, String studentName, int year) throws SQLException {
+        // Shared school calendar (excluding national holidays and weekends)
+        SchoolCalendar calendar = SchoolCalendar.forYear(year);
+        
+        // Determine attendance percentage for this student (20% to 100%)
+        double attendancePercentage = 0.20 + (rng.nextDouble() * 0.80); // 20% to 100%
+        int totalDaysToAttend = (int) (calendar.size() * attendancePercentage);
+        
+        // Selection sampling (Knuth's Algorithm S): walk the days in date order and mark each one present with
+        // probability (present days still needed) / (days left), which picks exactly totalDaysToAttend days in a
+        // single pass and emits rows in date order for the (student_uuid, attendance_date) index
+        int presentDaysNeeded = totalDaysToAttend;
+        int daysLeft = calendar.size();
+        for (int d = 0; d < calendar.size(); d++, daysLeft--) {
+            long epochDay = calendar.epochDay(d);
+            
+            if (rng.nextInt(daysLeft) >= presentDaysNeeded) {
+                writer.accept(studentUuid, epochDay, "Absent", AttendanceRowConsumer.NO_TIME,
+                              AttendanceRowConsumer.NO_TIME, generateAbsentRemark(rng));
+                continue;
+            }
+            presentDaysNeeded--;
+            
+            // Determine status for present days
+            double statusRandom = rng.nextDouble();
+            String status;
+            int arrivalMinute;
+            int departureMinute;
+            String remarks = null;
+            
+            if (statusRandom < 0.85) { // 85% regular present
+                status = "Present";
+                arrivalMinute = generateArrivalTime(rng, false); // Regular arrival
+                departureMinute = generateDepartureTime(rng);
+            } else if (statusRandom < 0.95) { // 10% late
+                status = "Late";
+                arrivalMinute = generateArrivalTime(rng, true); // Late arrival
+                departureMinute = generateDepartureTime(rng);
+                remarks = "Late arrival";
+            } else { // 5% excused
+                status = "Excused";
+                arrivalMinute = generateArrivalTime(rng, false);
+                departureMinute = generateDepartureTime(rng);
+                remarks = generateExcusedRemark(rng);
             }
             
-            System.out.println("    Completed attendance generation for " + studentsToProcess.size() + " students in year " + year);
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating attendance records for " + schoolName + " Year " + year + ": " + e.getMessage());
+            writer.accept(studentUuid, epochDay, status, arrivalMinute, departureMinute, remarks);
+        }
+        
+        writer.endStudent();
+        
+        // Log progress for large datasets
+        if (rng.nextDouble() < 0.01) { // Log 1% of students for progress tracking
+            System.out.println("      Generated attendance for " + studentName + " (" + totalDaysToAttend + " present, " + (calendar.size() - totalDaysToAttend) + " absent)");
         }
     }
     
-    // Method to generate attendance records for a specific student for the entire year
-    private static void generateStudentAttendanceForYear(Connection conn, String tableName, String studentUuid, String studentName, int year) {
-        try {
-            // Generate school calendar (excluding national holidays and weekends)
+    // Immutable school calendar for one academic year (April to March), stored as sorted epoch days. Calendars are
+    // built once per year and shared by every student and record generator, so no per-student copies are made.
+    static final class SchoolCalendar {
+        private static final java.util.concurrent.ConcurrentHashMap<Integer, SchoolCalendar> CACHE = new java.util.concurrent.ConcurrentHashMap<>();
+        
+        private final int[] epochDays;
+        
+        private SchoolCalendar(int[] epochDays) {
+            this.epochDays = epochDays;
+        }
+        
+        static SchoolCalendar forYear(int year) {
+            return CACHE.computeIfAbsent(year, SchoolCalendar::build);
+        }
+        
+        int size() {
+            return epochDays.length;
+        }
+        
+        long epochDay(int index) {
+            return epochDays[index];
+        }
+        
+        java.time.LocalDate date(int index) {
+            return java.time.LocalDate.ofEpochDay(epochDays[index]);
+        }
+        
+        // School days exclude weekends, national holidays, summer break and winter break
+        private static SchoolCalendar build(int year) {
             java.util.List<java.time.LocalDate> schoolDays = generateSchoolCalendar(year);
-            
-            // Determine attendance percentage for this student (20% to 100%)
-            double attendancePercentage = 0.20 + (Math.random() * 0.80); // 20% to 100%
-            int totalDaysToAttend = (int) (schoolDays.size() * attendancePercentage);
-            
-            // Randomly select which days the student will be present
-            java.util.Collections.shuffle(schoolDays);
-            java.util.List<java.time.LocalDate> presentDays = schoolDays.subList(0, totalDaysToAttend);
-            java.util.List<java.time.LocalDate> absentDays = schoolDays.subList(totalDaysToAttend, schoolDays.size());
-            
-            String insertSQL = String.format("""
-                INSERT INTO %s (student_uuid, attendance_date, status, arrival_time, departure_time, remarks)
-                VALUES (?, ?, ?, ?, ?, ?)
-                ON CONFLICT (student_uuid, attendance_date) DO NOTHING
-                """, tableName);
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-                // Insert present days
-                for (java.time.LocalDate date : presentDays) {
-                    pstmt.setObject(1, java.util.UUID.fromString(studentUuid));
-                    pstmt.setDate(2, java.sql.Date.valueOf(date));
-                    
-                    // Determine status for present days
-                    double statusRandom = Math.random();
-                    String status;
-                    java.time.LocalTime arrivalTime = null;
-                    java.time.LocalTime departureTime = null;
-                    String remarks = null;
-                    
-                    if (statusRandom < 0.85) { // 85% regular present
-                        status = "Present";
-                        arrivalTime = generateArrivalTime(false); // Regular arrival
-                        departureTime = generateDepartureTime();
-                    } else if (statusRandom < 0.95) { // 10% late
-                        status = "Late";
-                        arrivalTime = generateArrivalTime(true); // Late arrival
-                        departureTime = generateDepartureTime();
-                        remarks = "Late arrival";
-                    } else { // 5% excused
-                        status = "Excused";
-                        arrivalTime = generateArrivalTime(false);
-                        departureTime = generateDepartureTime();
-                        remarks = generateExcusedRemark();
-                    }
-                    
-                    pstmt.setString(3, status);
-                    pstmt.setTime(4, arrivalTime != null ? java.sql.Time.valueOf(arrivalTime) : null);
-                    pstmt.setTime(5, departureTime != null ? java.sql.Time.valueOf(departureTime) : null);
-                    pstmt.setString(6, remarks);
-                    
-                    pstmt.addBatch();
-                }
-                
-                // Insert absent days
-                for (java.time.LocalDate date : absentDays) {
-                    pstmt.setObject(1, java.util.UUID.fromString(studentUuid));
-                    pstmt.setDate(2, java.sql.Date.valueOf(date));
-                    pstmt.setString(3, "Absent");
-                    pstmt.setTime(4, null);
-                    pstmt.setTime(5, null);
-                    pstmt.setString(6, generateAbsentRemark());
-                    
-                    pstmt.addBatch();
-                }
-                
-                // Execute batch insert
-                pstmt.executeBatch();
-                
-                // Log progress for large datasets
-                if (Math.random() < 0.01) { // Log 1% of students for progress tracking
-                    System.out.println("      Generated attendance for " + studentName + " (" + presentDays.size() + " present, " + absentDays.size() + " absent)");
-                }
+            int[] epochDays = new int[schoolDays.size()];
+            for (int i = 0; i < epochDays.length; i++) {
+                epochDays[i] = (int) schoolDays.get(i).toEpochDay();
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating attendance for student " + studentName + ": " + e.getMessage());
+            return new SchoolCalendar(epochDays);
         }
     }
     
@@ -3132,54 +7319,54 @@ public class Main {
         return schoolDays;
     }
     
-    // Method to generate arrival time
-    private static java.time.LocalTime generateArrivalTime(boolean isLate) {
+    // Method to generate arrival time (minutes past midnight)
+    private static int generateArrivalTime(java.util.random.RandomGenerator rng, boolean isLate) {
         if (isLate) {
             // Late arrival: 8:30 AM to 10:00 AM
-            int hour = 8 + (Math.random() < 0.7 ? 0 : 1); // 70% chance 8:xx, 30% chance 9:xx
-            int minute = 30 + (int) (Math.random() * 90); // 30-119 minutes past hour
+            int hour = 8 + (rng.nextDouble() < 0.7 ? 0 : 1); // 70% chance 8:xx, 30% chance 9:xx
+            int minute = 30 + rng.nextInt(90); // 30-119 minutes past hour
             if (minute >= 60) {
                 hour++;
                 minute -= 60;
             }
-            return java.time.LocalTime.of(Math.min(hour, 10), Math.min(minute, 59));
+            return Math.min(hour, 10) * 60 + Math.min(minute, 59);
         } else {
             // Regular arrival: 7:30 AM to 8:15 AM
-            int minute = 30 + (int) (Math.random() * 45); // 30-74 minutes past 7
+            int minute = 30 + rng.nextInt(45); // 30-74 minutes past 7
             if (minute >= 60) {
-                return java.time.LocalTime.of(8, minute - 60);
+                return 8 * 60 + (minute - 60);
             } else {
-                return java.time.LocalTime.of(7, minute);
+                return 7 * 60 + minute;
             }
         }
     }
     
-    // Method to generate departure time
-    private static java.time.LocalTime generateDepartureTime() {
+    // Method to generate departure time (minutes past midnight)
+    private static int generateDepartureTime(java.util.random.RandomGenerator rng) {
         // School ends around 3:00 PM to 4:00 PM
-        int hour = 15 + (int) (Math.random() * 2); // 3 PM or 4 PM
-        int minute = (int) (Math.random() * 60);   // 0-59 minutes
-        return java.time.LocalTime.of(hour, minute);
+        int hour = 15 + rng.nextInt(2); // 3 PM or 4 PM
+        int minute = rng.nextInt(60);   // 0-59 minutes
+        return hour * 60 + minute;
     }
     
     // Method to generate excused remarks
-    private static String generateExcusedRemark() {
+    private static String generateExcusedRemark(java.util.random.RandomGenerator rng) {
         String[] excusedRemarks = {
             "Medical appointment", "Family emergency", "School event participation",
             "Educational trip", "Sports competition", "Cultural program",
             "Parent-teacher meeting", "Health checkup", "Exam exemption"
         };
-        return excusedRemarks[(int) (Math.random() * excusedRemarks.length)];
+        return excusedRemarks[rng.nextInt(excusedRemarks.length)];
     }
     
     // Method to generate absent remarks
-    private static String generateAbsentRemark() {
+    private static String generateAbsentRemark(java.util.random.RandomGenerator rng) {
         String[] absentRemarks = {
             "Illness", "Fever", "Family function", "Personal reasons",
             "Medical treatment", "Out of station", "Weather conditions",
             "Transportation issues", "Unexcused absence", null
         };
-        String remark = absentRemarks[(int) (Math.random() * absentRemarks.length)];
+        String remark = absentRemarks[rng.nextInt(absentRemarks.length)];
         return remark; // null is acceptable for some absent days
     }
     
@@ -3213,11 +7400,8 @@ public class Main {
         System.out.println("Automatically generating homework records for all " + numClasses + " classes...");
         
         try {
-            // Generate for all classes from 1 to numClasses
-            java.util.List<Integer> classes = new java.util.ArrayList<>();
-            for (int i = 1; i <= numClasses; i++) {
-                classes.add(i);
-            }
+            // Generate for --class-range, or all classes from 1 to numClasses
+            java.util.List<Integer> classes = getConfiguredClasses(numClasses);
             
             generateHomeworkData(classes, schoolNames);
             
@@ -3230,7 +7414,7 @@ public class Main {
     
     // Method to generate homework data for selected classes and schools
     private static void generateHomeworkData(java.util.List<Integer> classes, java.util.List<String> schoolNames) {
-        int currentYear = 2025;
+        int currentYear = sessionYear;
         
         System.out.println("=== HOMEWORK GENERATION CONFIGURATION ===");
         System.out.println("Logic: ALL students will have homework records for years they were in school");
@@ -3242,30 +7426,22 @@ public class Main {
         System.out.println("Submission rates: 70-98% per student");
         System.out.println("===============================================\n");
         
-        // Process each school
+        // Determine all years that need homework tables
+        int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
+        int earliestYear = currentYear - maxClass + 1;
+        System.out.println("Years to generate: " + earliestYear + " to " + currentYear);
+        
+        // Create homework tables for every school and year up front, then generate the (school, year) units in parallel
         for (String schoolName : schoolNames) {
-            System.out.println("Processing homework records for: " + schoolName);
-            
-            // Determine all years that need homework tables
-            int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
-            int earliestYear = currentYear - maxClass + 1;
-            
-            System.out.println("  Years to generate: " + earliestYear + " to " + currentYear);
-            
-            // Create homework tables for all needed years
             for (int year = earliestYear; year <= currentYear; year++) {
                 createHomeworkTable(schoolName, year);
             }
-            
-            // Generate homework data for each year (this will process ALL students for each year)
-            for (int year = earliestYear; year <= currentYear; year++) {
-                System.out.println("  Generating homework for year " + year + "...");
-                generateHomeworkRecordsForYear(schoolName, year);
-            }
         }
+        runPhaseInParallel("homework", schoolNames, earliestYear, currentYear, identifiers::homeworkTable,
+            Main::generateHomeworkRecordsForYear);
         
         System.out.println("\n=== HOMEWORK RECORDS GENERATION COMPLETE ===");
-        System.out.println("Homework tables created with format: {sanitized_school_name}_homework_{year}");
+        System.out.println("Homework tables created with format: " + tableLayout("{sanitized_school_name}_homework_{year}", "homework", "academic_year"));
         System.out.println("Columns: hw_id, student_uuid, subject, assigned_date, due_date, submitted_date, quality_score, status, created_at");
         System.out.println("Logic implemented: ALL students have homework records for years they would have been in school");
         System.out.println("Assignment frequency: 2-4 assignments per week per subject during school days");
@@ -3274,11 +7450,7 @@ public class Main {
     
     // Method to create homework table for a specific year
     private static void createHomeworkTable(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String tableName = sanitizedSchoolName + "_homework_" + year;
+        String tableName = identifiers.homeworkTable(schoolName, year);
         
         try (Connection conn = getConnection()) {
             String createTableSQL = String.format("""
@@ -3297,7 +7469,7 @@ public class Main {
                 """, tableName);
             
             try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createTableSQL);
+                executeCreateTable(stmt, createTableSQL);
                 System.out.println("    Homework table created: " + tableName);
             }
             
@@ -3307,164 +7479,146 @@ public class Main {
     }
     
     // Method to generate homework records for students in a specific year
-    private static void generateHomeworkRecordsForYear(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String homeworkTableName = sanitizedSchoolName + "_homework_" + year;
+    private static long generateHomeworkRecordsForYear(String schoolName, int year) {
+        String homeworkTableName = identifiers.homeworkTable(schoolName, year);
         String studentTableName = getStudentTableName(schoolName);
         
         try {
-            int currentYear = 2025;
-            java.util.List<String[]> studentsToProcess = new java.util.ArrayList<>();
-            
-            // First, get the list of students to process
-            try (Connection conn = getConnection();
-                 PreparedStatement selectStmt = conn.prepareStatement("SELECT student_uuid, full_name, class_name FROM " + studentTableName);
-                 ResultSet rs = selectStmt.executeQuery()) {
-                
-                while (rs.next()) {
-                    String studentUuid = rs.getString("student_uuid");
-                    String studentName = rs.getString("full_name");
-                    String className = rs.getString("class_name");
-                    
-                    // Extract class number from "Class X" format
-                    int currentClass = Integer.parseInt(className.replace("Class ", ""));
-                    
-                    // Calculate what class this student was in during the homework year
-                    int studentClassDuringYear = currentClass - (currentYear - year);
-                    
-                    // Only include students who would have been in school (Class 1 or higher) during that year
-                    if (studentClassDuringYear >= 1) {
-                        studentsToProcess.add(new String[]{studentUuid, studentName, String.valueOf(studentClassDuringYear)});
-                    }
-                }
-            }
+            java.util.List<String[]> studentsToProcess = loadYearRoster(studentTableName, year);
             
             if (studentsToProcess.isEmpty()) {
                 System.out.println("    No students were in school during " + year + " for " + schoolName);
-                return;
+                return 0;
             }
             
             System.out.println("    Processing " + studentsToProcess.size() + " students for homework in " + year);
+            return writeHomeworkRoster(homeworkTableName, studentsToProcess, year);
             
-            // Process students in batches to avoid connection leaks
-            int batchSize = 50; // Process 50 students per connection
+        } catch (SQLException e) {
+            System.err.println("Error generating homework records for " + schoolName + " Year " + year + ": " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    // Method to generate and write the homework of a year roster {student_uuid, full_name, class during year}
+    private static long writeHomeworkRoster(String homeworkTableName, java.util.List<String[]> studentsToProcess, int year) throws SQLException {
+        if (!usesDatabase()) {
+            long rowsWritten = 0;
+            try (OfflineRowSink sink = new OfflineRowSink(homeworkTableName, HOMEWORK_COLUMNS)) {
+                for (String[] studentData : studentsToProcess) {
+                    rowsWritten += generateStudentHomeworkForYear(newStudentRandomGenerator(STREAM_HOMEWORK, year, studentData[0]), sink,
+                        java.util.UUID.fromString(studentData[0]), Integer.parseInt(studentData[2]), year);
+                }
+            }
+            return rowsWritten;
+        }
+        
+        // Process students in batches to avoid connection leaks
+        long rowsWritten = 0;
+        TableTarget spoolTarget = tableTarget(homeworkTableName);
+        SpooledRows failedRows = new SpooledRows(spoolTarget);
+        int batchSize = 50; // Process 50 students per connection
+        try {
             for (int i = 0; i < studentsToProcess.size(); i += batchSize) {
                 int endIndex = Math.min(i + batchSize, studentsToProcess.size());
                 java.util.List<String[]> batch = studentsToProcess.subList(i, endIndex);
                 
                 // Use a new connection for each batch
-                try (Connection conn = getConnection()) {
+                try (Connection conn = getConnection();
+                     BatchRowSink sink = new BatchRowSink(conn, homeworkTableName, HOMEWORK_COLUMNS, 7, 100)) {
                     for (String[] studentData : batch) {
                         String studentUuid = studentData[0];
                         String studentName = studentData[1];
                         int studentClass = Integer.parseInt(studentData[2]);
+                        java.util.UUID studentUUID = java.util.UUID.fromString(studentUuid);
                         
-                        generateStudentHomeworkForYear(conn, homeworkTableName, studentUuid, studentName, studentClass, year);
+                        java.util.random.RandomGenerator rng = newStudentRandomGenerator(STREAM_HOMEWORK, year, studentUuid);
+                        try {
+                            rowsWritten += generateStudentHomeworkForYear(rng, sink, studentUUID, studentClass, year);
+                        } catch (SQLException e) {
+                            System.err.println("Error generating homework for student " + studentName + ": " + e.getMessage());
+                            long spooledBefore = failedRows.rowsWritten();
+                            rowsWritten += generateStudentHomeworkForYear(newStudentRandomGenerator(STREAM_HOMEWORK, year, studentUuid),
+                                failedRows.skip(sink.abandonStudent()), studentUUID, studentClass, year) - (failedRows.rowsWritten() - spooledBefore);
+                            if (failedRows.isFull()) {
+                                deadLetters.spool(spoolTarget, HOMEWORK_COLUMNS, failedRows);
+                            }
+                        }
                     }
                     
                     // Report progress
-                    System.out.println("      Processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students");
+                    System.out.println("      " + homeworkTableName + ": processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students");
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating homework records for year " + year + ": " + e.getMessage());
+        } finally {
+            deadLetters.spool(spoolTarget, HOMEWORK_COLUMNS, failedRows);
         }
+        return rowsWritten;
     }
     
     // Method to generate homework records for a specific student for the entire year
-    private static void generateStudentHomeworkForYear(Connection conn, String tableName, String studentUuid, String studentName, int studentClass, int year) {
-        try {
-            // Get subjects based on class
-            String[] subjects = getSubjectsForClass(studentClass);
-            
-            // Generate school calendar for the year (excluding weekends and holidays)
-            java.util.List<java.time.LocalDate> schoolDays = generateSchoolCalendar(year);
-            
-            // Student's submission rate (70% to 98%)
-            double submissionRate = 0.70 + (Math.random() * 0.28);
-            
-            // Generate homework assignments
-            String insertSQL = "INSERT INTO " + tableName + 
-                " (student_uuid, subject, assigned_date, due_date, submitted_date, quality_score, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static int generateStudentHomeworkForYear(java.util.random.RandomGenerator rng, StudentRowSink sink, java.util.UUID studentUuid, int studentClass, int year) throws SQLException {
+        // Get subjects based on class
+        String[] subjects = getSubjectsForClass(studentClass);
+        
+        // Shared school calendar for the year (excluding weekends and holidays)
+        SchoolCalendar calendar = SchoolCalendar.forYear(year);
+        
+        // Student's submission rate (70% to 98%)
+        double submissionRate = 0.70 + (rng.nextDouble() * 0.28);
+        
+        int assignmentCount = 0;
+        
+        // For each subject, generate assignments throughout the year
+        for (String subject : subjects) {
+            // 2-4 assignments per week per subject
+            int assignmentsPerWeek = 2 + rng.nextInt(3);
+            int daysPerAssignment = 7 / assignmentsPerWeek;
             
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-                int assignmentCount = 0;
+            for (int i = 0; i < calendar.size(); i += daysPerAssignment) {
+                java.time.LocalDate assignedDate = calendar.date(i);
                 
-                // For each subject, generate assignments throughout the year
-                for (String subject : subjects) {
-                    // 2-4 assignments per week per subject
-                    int assignmentsPerWeek = 2 + (int) (Math.random() * 3);
-                    int daysPerAssignment = 7 / assignmentsPerWeek;
-                    
-                    for (int i = 0; i < schoolDays.size(); i += daysPerAssignment) {
-                        if (i >= schoolDays.size()) break;
-                        
-                        java.time.LocalDate assignedDate = schoolDays.get(i);
-                        
-                        // Due date is typically 2-7 days after assignment
-                        int daysToComplete = 2 + (int) (Math.random() * 6);
-                        java.time.LocalDate dueDate = assignedDate.plusDays(daysToComplete);
-                        
-                        // Determine if student submitted this assignment
-                        boolean submitted = Math.random() < submissionRate;
-                        
-                        java.time.LocalDate submittedDate = null;
-                        Integer qualityScore = null;
-                        String status = "Assigned";
-                        
-                        if (submitted) {
-                            // Student submitted - determine when and quality
-                            if (Math.random() < 0.85) {
-                                // On time submission (85% of submitted assignments)
-                                int daysEarly = (int) (Math.random() * (daysToComplete - 1));
-                                submittedDate = assignedDate.plusDays(daysToComplete - daysEarly);
-                                status = "Submitted";
-                            } else {
-                                // Late submission (15% of submitted assignments)
-                                int daysLate = 1 + (int) (Math.random() * 3);
-                                submittedDate = dueDate.plusDays(daysLate);
-                                status = "Late";
-                            }
-                            
-                            // Quality score for submitted assignments (60-100)
-                            qualityScore = 60 + (int) (Math.random() * 41);
-                            
-                        } else {
-                            // Not submitted
-                            status = "Missing";
-                        }
-                        
-                        // Insert the homework record
-                        pstmt.setObject(1, java.util.UUID.fromString(studentUuid));
-                        pstmt.setString(2, subject);
-                        pstmt.setDate(3, java.sql.Date.valueOf(assignedDate));
-                        pstmt.setDate(4, java.sql.Date.valueOf(dueDate));
-                        pstmt.setDate(5, submittedDate != null ? java.sql.Date.valueOf(submittedDate) : null);
-                        pstmt.setObject(6, qualityScore);
-                        pstmt.setString(7, status);
-                        
-                        pstmt.addBatch();
-                        assignmentCount++;
-                        
-                        // Execute batch every 100 records
-                        if (assignmentCount % 100 == 0) {
-                            pstmt.executeBatch();
-                        }
+                // Due date is typically 2-7 days after assignment
+                int daysToComplete = 2 + rng.nextInt(6);
+                java.time.LocalDate dueDate = assignedDate.plusDays(daysToComplete);
+                
+                // Determine if student submitted this assignment
+                boolean submitted = rng.nextDouble() < submissionRate;
+                
+                java.time.LocalDate submittedDate = null;
+                Integer qualityScore = null;
+                String status = "Assigned";
+                
+                if (submitted) {
+                    // Student submitted - determine when and quality
+                    if (rng.nextDouble() < 0.85) {
+                        // On time submission (85% of submitted assignments)
+                        int daysEarly = rng.nextInt(daysToComplete - 1);
+                        submittedDate = assignedDate.plusDays(daysToComplete - daysEarly);
+                        status = "Submitted";
+                    } else {
+                        // Late submission (15% of submitted assignments)
+                        int daysLate = 1 + rng.nextInt(3);
+                        submittedDate = dueDate.plusDays(daysLate);
+                        status = "Late";
                     }
+                    
+                    // Quality score for submitted assignments (60-100)
+                    qualityScore = 60 + rng.nextInt(41);
+                    
+                } else {
+                    // Not submitted
+                    status = "Missing";
                 }
                 
-                // Execute remaining batch
-                pstmt.executeBatch();
-                
+                // Hand the homework record to the sink (a JDBC batch or the dead-letter spool)
+                sink.accept(studentUuid, subject, assignedDate, dueDate, submittedDate, qualityScore, status);
+                assignmentCount++;
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating homework for student " + studentName + ": " + e.getMessage());
         }
+        
+        sink.endStudent();
+        return assignmentCount;
     }
     
     // Method to get subjects based on class level
@@ -3517,11 +7671,8 @@ public class Main {
         System.out.println("Automatically generating project records for all " + numClasses + " classes...");
         
         try {
-            // Generate for all classes from 1 to numClasses
-            java.util.List<Integer> classes = new java.util.ArrayList<>();
-            for (int i = 1; i <= numClasses; i++) {
-                classes.add(i);
-            }
+            // Generate for --class-range, or all classes from 1 to numClasses
+            java.util.List<Integer> classes = getConfiguredClasses(numClasses);
             
             generateProjectData(classes, schoolNames);
             
@@ -3534,7 +7685,7 @@ public class Main {
     
     // Method to generate project data for selected classes and schools
     private static void generateProjectData(java.util.List<Integer> classes, java.util.List<String> schoolNames) {
-        int currentYear = 2025;
+        int currentYear = sessionYear;
         
         System.out.println("=== PROJECT GENERATION CONFIGURATION ===");
         System.out.println("Logic: ALL students will have project records for years they were in school");
@@ -3546,30 +7697,22 @@ public class Main {
         System.out.println("Submission rates: 75-95% per student");
         System.out.println("===============================================\n");
         
-        // Process each school
+        // Determine all years that need project tables
+        int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
+        int earliestYear = currentYear - maxClass + 1;
+        System.out.println("Years to generate: " + earliestYear + " to " + currentYear);
+        
+        // Create project tables for every school and year up front, then generate the (school, year) units in parallel
         for (String schoolName : schoolNames) {
-            System.out.println("Processing project records for: " + schoolName);
-            
-            // Determine all years that need project tables
-            int maxClass = classes.stream().mapToInt(Integer::intValue).max().orElse(12);
-            int earliestYear = currentYear - maxClass + 1;
-            
-            System.out.println("  Years to generate: " + earliestYear + " to " + currentYear);
-            
-            // Create project tables for all needed years
             for (int year = earliestYear; year <= currentYear; year++) {
                 createProjectTable(schoolName, year);
             }
-            
-            // Generate project data for each year (this will process ALL students for each year)
-            for (int year = earliestYear; year <= currentYear; year++) {
-                System.out.println("  Generating projects for year " + year + "...");
-                generateProjectRecordsForYear(schoolName, year);
-            }
         }
+        runPhaseInParallel("project", schoolNames, earliestYear, currentYear, identifiers::projectTable,
+            Main::generateProjectRecordsForYear);
         
         System.out.println("\n=== PROJECT RECORDS GENERATION COMPLETE ===");
-        System.out.println("Project tables created with format: {sanitized_school_name}_projects_{year}");
+        System.out.println("Project tables created with format: " + tableLayout("{sanitized_school_name}_projects_{year}", "projects", "academic_year"));
         System.out.println("Columns: project_id, student_uuid, title, subject, assigned_date, due_date, submitted_date, grade, status, remarks, created_at");
         System.out.println("Logic implemented: ALL students have project records for years they would have been in school");
         System.out.println("Project frequency: 1-2 major projects per term per subject during school year");
@@ -3578,11 +7721,7 @@ public class Main {
     
     // Method to create project table for a specific year
     private static void createProjectTable(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String tableName = sanitizedSchoolName + "_projects_" + year;
+        String tableName = identifiers.projectTable(schoolName, year);
         
         try (Connection conn = getConnection()) {
             String createTableSQL = String.format("""
@@ -3603,7 +7742,7 @@ public class Main {
                 """, tableName);
             
             try (Statement stmt = conn.createStatement()) {
-                stmt.execute(createTableSQL);
+                executeCreateTable(stmt, createTableSQL);
                 System.out.println("    Project table created: " + tableName);
             }
             
@@ -3613,177 +7752,159 @@ public class Main {
     }
     
     // Method to generate project records for students in a specific year
-    private static void generateProjectRecordsForYear(String schoolName, int year) {
-        String sanitizedSchoolName = schoolName.toLowerCase()
-                .replaceAll("[^a-zA-Z0-9]", "_")
-                .replaceAll("_{2,}", "_")
-                .replaceAll("^_|_$", "");
-        String projectTableName = sanitizedSchoolName + "_projects_" + year;
+    private static long generateProjectRecordsForYear(String schoolName, int year) {
+        String projectTableName = identifiers.projectTable(schoolName, year);
         String studentTableName = getStudentTableName(schoolName);
         
         try {
-            int currentYear = 2025;
-            java.util.List<String[]> studentsToProcess = new java.util.ArrayList<>();
-            
-            // First, get the list of students to process
-            try (Connection conn = getConnection();
-                 PreparedStatement selectStmt = conn.prepareStatement("SELECT student_uuid, full_name, class_name FROM " + studentTableName);
-                 ResultSet rs = selectStmt.executeQuery()) {
-                
-                while (rs.next()) {
-                    String studentUuid = rs.getString("student_uuid");
-                    String studentName = rs.getString("full_name");
-                    String className = rs.getString("class_name");
-                    
-                    // Extract class number from "Class X" format
-                    int currentClass = Integer.parseInt(className.replace("Class ", ""));
-                    
-                    // Calculate what class this student was in during the project year
-                    int studentClassDuringYear = currentClass - (currentYear - year);
-                    
-                    // Only include students who would have been in school (Class 1 or higher) during that year
-                    if (studentClassDuringYear >= 1) {
-                        studentsToProcess.add(new String[]{studentUuid, studentName, String.valueOf(studentClassDuringYear)});
-                    }
-                }
-            }
+            java.util.List<String[]> studentsToProcess = loadYearRoster(studentTableName, year);
             
             if (studentsToProcess.isEmpty()) {
                 System.out.println("    No students were in school during " + year + " for " + schoolName);
-                return;
+                return 0;
             }
             
             System.out.println("    Processing " + studentsToProcess.size() + " students for projects in " + year);
+            return writeProjectRoster(projectTableName, studentsToProcess, year);
             
-            // Process students in batches to avoid connection leaks
-            int batchSize = 75; // Process 75 students per connection (projects have fewer records per student)
+        } catch (SQLException e) {
+            System.err.println("Error generating project records for " + schoolName + " Year " + year + ": " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    // Method to generate and write the projects of a year roster {student_uuid, full_name, class during year}
+    private static long writeProjectRoster(String projectTableName, java.util.List<String[]> studentsToProcess, int year) throws SQLException {
+        if (!usesDatabase()) {
+            long rowsWritten = 0;
+            try (OfflineRowSink sink = new OfflineRowSink(projectTableName, PROJECT_COLUMNS)) {
+                for (String[] studentData : studentsToProcess) {
+                    rowsWritten += generateStudentProjectsForYear(newStudentRandomGenerator(STREAM_PROJECTS, year, studentData[0]), sink,
+                        java.util.UUID.fromString(studentData[0]), Integer.parseInt(studentData[2]), year);
+                }
+            }
+            return rowsWritten;
+        }
+        
+        // Process students in batches to avoid connection leaks
+        long rowsWritten = 0;
+        TableTarget spoolTarget = tableTarget(projectTableName);
+        SpooledRows failedRows = new SpooledRows(spoolTarget);
+        int batchSize = 75; // Process 75 students per connection (projects have fewer records per student)
+        try {
             for (int i = 0; i < studentsToProcess.size(); i += batchSize) {
                 int endIndex = Math.min(i + batchSize, studentsToProcess.size());
                 java.util.List<String[]> batch = studentsToProcess.subList(i, endIndex);
                 
                 // Use a new connection for each batch
-                try (Connection conn = getConnection()) {
+                try (Connection conn = getConnection();
+                     BatchRowSink sink = new BatchRowSink(conn, projectTableName, PROJECT_COLUMNS, 9, 50)) {
                     for (String[] studentData : batch) {
                         String studentUuid = studentData[0];
                         String studentName = studentData[1];
                         int studentClass = Integer.parseInt(studentData[2]);
+                        java.util.UUID studentUUID = java.util.UUID.fromString(studentUuid);
                         
-                        generateStudentProjectsForYear(conn, projectTableName, studentUuid, studentName, studentClass, year);
+                        java.util.random.RandomGenerator rng = newStudentRandomGenerator(STREAM_PROJECTS, year, studentUuid);
+                        try {
+                            rowsWritten += generateStudentProjectsForYear(rng, sink, studentUUID, studentClass, year);
+                        } catch (SQLException e) {
+                            System.err.println("Error generating projects for student " + studentName + ": " + e.getMessage());
+                            long spooledBefore = failedRows.rowsWritten();
+                            rowsWritten += generateStudentProjectsForYear(newStudentRandomGenerator(STREAM_PROJECTS, year, studentUuid),
+                                failedRows.skip(sink.abandonStudent()), studentUUID, studentClass, year) - (failedRows.rowsWritten() - spooledBefore);
+                            if (failedRows.isFull()) {
+                                deadLetters.spool(spoolTarget, PROJECT_COLUMNS, failedRows);
+                            }
+                        }
                     }
                     
                     // Report progress
-                    System.out.println("      Processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students");
+                    System.out.println("      " + projectTableName + ": processed " + Math.min(endIndex, studentsToProcess.size()) + "/" + studentsToProcess.size() + " students");
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating project records for year " + year + ": " + e.getMessage());
+        } finally {
+            deadLetters.spool(spoolTarget, PROJECT_COLUMNS, failedRows);
         }
+        return rowsWritten;
     }
     
     // Method to generate project records for a specific student for the entire year
-    private static void generateStudentProjectsForYear(Connection conn, String tableName, String studentUuid, String studentName, int studentClass, int year) {
-        try {
-            // Get subjects based on class
-            String[] subjects = getSubjectsForClass(studentClass);
-            
-            // Student's submission rate (75% to 95%)
-            double submissionRate = 0.75 + (Math.random() * 0.20);
-            
-            // Generate project assignments
-            String insertSQL = "INSERT INTO " + tableName + 
-                " (student_uuid, title, subject, assigned_date, due_date, submitted_date, grade, status, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static int generateStudentProjectsForYear(java.util.random.RandomGenerator rng, StudentRowSink sink, java.util.UUID studentUuid, int studentClass, int year) throws SQLException {
+        // Get subjects based on class
+        String[] subjects = getSubjectsForClass(studentClass);
+        
+        // Student's submission rate (75% to 95%)
+        double submissionRate = 0.75 + (rng.nextDouble() * 0.20);
+        
+        int projectCount = 0;
+        
+        // For each subject, generate 1-2 projects per term (assuming 2-3 terms per year)
+        for (String subject : subjects) {
+            int projectsPerYear = 2 + rng.nextInt(4); // 2-5 projects per subject per year
             
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
-                int projectCount = 0;
+            for (int projNum = 1; projNum <= projectsPerYear; projNum++) {
+                // Generate project title
+                String projectTitle = generateProjectTitle(rng, subject, studentClass);
+                
+                // Assign projects throughout the year
+                int dayOfYear = rng.nextInt(300) + 1; // Random day in school year
+                java.time.LocalDate assignedDate = java.time.LocalDate.of(year, 1, 1).plusDays(dayOfYear);
+                
+                // Due date is typically 2-4 weeks after assignment
+                int weeksToComplete = 2 + rng.nextInt(3);
+                java.time.LocalDate dueDate = assignedDate.plusWeeks(weeksToComplete);
                 
-                // For each subject, generate 1-2 projects per term (assuming 2-3 terms per year)
-                for (String subject : subjects) {
-                    int projectsPerYear = 2 + (int) (Math.random() * 4); // 2-5 projects per subject per year
+                // Determine if student submitted this project
+                boolean submitted = rng.nextDouble() < submissionRate;
+                
+                java.time.LocalDate submittedDate = null;
+                String grade = null;
+                String status = "Assigned";
+                String remarks = null;
+                
+                if (submitted) {
+                    // Student submitted - determine when and quality
+                    if (rng.nextDouble() < 0.80) {
+                        // On time submission (80% of submitted projects)
+                        int daysEarly = rng.nextInt(7); // 0-7 days early
+                        submittedDate = dueDate.minusDays(daysEarly);
+                        status = "Graded";
+                    } else {
+                        // Late submission (20% of submitted projects)
+                        int daysLate = 1 + rng.nextInt(14); // 1-14 days late
+                        submittedDate = dueDate.plusDays(daysLate);
+                        status = "Graded";
+                        remarks = "Late submission";
+                    }
                     
-                    for (int projNum = 1; projNum <= projectsPerYear; projNum++) {
-                        // Generate project title
-                        String projectTitle = generateProjectTitle(subject, studentClass);
-                        
-                        // Assign projects throughout the year
-                        int dayOfYear = (int) (Math.random() * 300) + 1; // Random day in school year
-                        java.time.LocalDate assignedDate = java.time.LocalDate.of(year, 1, 1).plusDays(dayOfYear);
-                        
-                        // Due date is typically 2-4 weeks after assignment
-                        int weeksToComplete = 2 + (int) (Math.random() * 3);
-                        java.time.LocalDate dueDate = assignedDate.plusWeeks(weeksToComplete);
-                        
-                        // Determine if student submitted this project
-                        boolean submitted = Math.random() < submissionRate;
-                        
-                        java.time.LocalDate submittedDate = null;
-                        String grade = null;
-                        String status = "Assigned";
-                        String remarks = null;
-                        
-                        if (submitted) {
-                            // Student submitted - determine when and quality
-                            if (Math.random() < 0.80) {
-                                // On time submission (80% of submitted projects)
-                                int daysEarly = (int) (Math.random() * 7); // 0-7 days early
-                                submittedDate = dueDate.minusDays(daysEarly);
-                                status = "Graded";
-                            } else {
-                                // Late submission (20% of submitted projects)
-                                int daysLate = 1 + (int) (Math.random() * 14); // 1-14 days late
-                                submittedDate = dueDate.plusDays(daysLate);
-                                status = "Graded";
-                                remarks = "Late submission";
-                            }
-                            
-                            // Generate grade for submitted projects
-                            grade = generateProjectGrade();
-                            
-                            // Generate remarks based on grade
-                            if (remarks == null) {
-                                remarks = generateProjectRemarks(grade);
-                            }
-                            
-                        } else {
-                            // Not submitted
-                            status = "Missing";
-                            grade = "F";
-                            remarks = "Project not submitted";
-                        }
-                        
-                        // Insert the project record
-                        pstmt.setObject(1, java.util.UUID.fromString(studentUuid));
-                        pstmt.setString(2, projectTitle);
-                        pstmt.setString(3, subject);
-                        pstmt.setDate(4, java.sql.Date.valueOf(assignedDate));
-                        pstmt.setDate(5, java.sql.Date.valueOf(dueDate));
-                        pstmt.setDate(6, submittedDate != null ? java.sql.Date.valueOf(submittedDate) : null);
-                        pstmt.setString(7, grade);
-                        pstmt.setString(8, status);
-                        pstmt.setString(9, remarks);
-                        
-                        pstmt.addBatch();
-                        projectCount++;
-                        
-                        // Execute batch every 50 records
-                        if (projectCount % 50 == 0) {
-                            pstmt.executeBatch();
-                        }
+                    // Generate grade for submitted projects
+                    grade = generateProjectGrade(rng);
+                    
+                    // Generate remarks based on grade
+                    if (remarks == null) {
+                        remarks = generateProjectRemarks(rng, grade);
                     }
+                    
+                } else {
+                    // Not submitted
+                    status = "Missing";
+                    grade = "F";
+                    remarks = "Project not submitted";
                 }
                 
-                // Execute remaining batch
-                pstmt.executeBatch();
-                
+                // Hand the project record to the sink (a JDBC batch or the dead-letter spool)
+                sink.accept(studentUuid, projectTitle, subject, assignedDate, dueDate, submittedDate, grade, status, remarks);
+                projectCount++;
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Error generating projects for student " + studentName + ": " + e.getMessage());
         }
+        
+        sink.endStudent();
+        return projectCount;
     }
     
     // Method to generate project titles based on subject and class
-    private static String generateProjectTitle(String subject, int classLevel) {
+    private static String generateProjectTitle(java.util.random.RandomGenerator rng, String subject, int classLevel) {
         java.util.Map<String, String[]> projectTitles = new java.util.HashMap<>();
         
         // Mathematics projects
@@ -3861,15 +7982,15 @@ public class Main {
         });
         
         String[] titles = projectTitles.getOrDefault(subject, new String[]{"Research Project", "Investigation Study", "Analysis Report"});
-        return titles[(int) (Math.random() * titles.length)];
+        return titles[rng.nextInt(titles.length)];
     }
     
     // Method to generate project grades
-    private static String generateProjectGrade() {
+    private static String generateProjectGrade(java.util.random.RandomGenerator rng) {
         String[] grades = {"A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "F"};
         double[] probabilities = {0.10, 0.15, 0.15, 0.20, 0.15, 0.10, 0.08, 0.05, 0.02, 0.00, 0.00, 0.00}; // Very few F grades for projects
         
-        double random = Math.random();
+        double random = rng.nextDouble();
         double cumulative = 0;
         for (int i = 0; i < probabilities.length; i++) {
             cumulative += probabilities[i];
@@ -3881,7 +8002,7 @@ public class Main {
     }
     
     // Method to generate project remarks based on grade
-    private static String generateProjectRemarks(String grade) {
+    private static String generateProjectRemarks(java.util.random.RandomGenerator rng, String grade) {
         java.util.Map<String, String[]> gradeRemarks = new java.util.HashMap<>();
         
         gradeRemarks.put("A+", new String[]{
@@ -3930,6 +8051,6 @@ public class Main {
         });
         
         String[] remarks = gradeRemarks.getOrDefault(grade, new String[]{"Work reviewed"});
-        return remarks[(int) (Math.random() * remarks.length)];
+        return remarks[rng.nextInt(remarks.length)];
     }
 }